@@ -0,0 +1,89 @@
+package io.karon.logmonitor.listener;
+
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.infra.Blackhole;
+
+import io.karon.logmonitor.log.AccessLog;
+import io.karon.logmonitor.outputter.StatsOutputter;
+
+
+/*
+Gives everything the StatsLogListener outputs to a Blackhole, so we only measure the listener and the JIT can't skip the work
+ */
+class BlackholeStatsOutputter implements StatsOutputter {
+	private final Blackhole blackhole;
+
+	BlackholeStatsOutputter(Blackhole blackhole) {
+		this.blackhole = blackhole;
+	}
+
+	@Override
+	public void logOutsideDurationToMonitor(AccessLog accessLog) {
+		blackhole.consume(accessLog);
+	}
+
+	@Override
+	public void logsOutsideDurationToMonitor(long count, AccessLog lastAccessLog, long period, TimeUnit timeUnit) {
+		blackhole.consume(count);
+		blackhole.consume(lastAccessLog);
+	}
+
+	@Override
+	public void sectionHits(
+			List<Map.Entry<String, Integer>> sectionsWithTheMostHits,
+			long durationToMonitor,
+			TimeUnit timeUnit,
+			ZonedDateTime now) {
+		blackhole.consume(sectionsWithTheMostHits);
+		blackhole.consume(now);
+	}
+
+	@Override
+	public void sectionHeavyHitters(
+			List<HeavyHitter> sectionsWithTheMostHits,
+			long durationToMonitor,
+			TimeUnit timeUnit,
+			ZonedDateTime now) {
+		blackhole.consume(sectionsWithTheMostHits);
+		blackhole.consume(now);
+	}
+
+	@Override
+	public void uniques(
+			UniqueCounts uniqueCounts,
+			Map<String, UniqueCounts> sectionsUniqueCounts,
+			long durationToMonitor,
+			TimeUnit timeUnit,
+			ZonedDateTime now) {
+		blackhole.consume(uniqueCounts);
+		blackhole.consume(sectionsUniqueCounts);
+	}
+
+	@Override
+	public void contentSizes(
+			SizePercentiles sizePercentiles,
+			Map<String, SizePercentiles> statusClassesSizePercentiles,
+			Map<String, SizePercentiles> sectionsSizePercentiles,
+			long durationToMonitor,
+			TimeUnit timeUnit,
+			ZonedDateTime now) {
+		blackhole.consume(sizePercentiles);
+		blackhole.consume(statusClassesSizePercentiles);
+		blackhole.consume(sectionsSizePercentiles);
+	}
+
+	@Override
+	public void trends(
+			List<Trend> sectionsTrends,
+			List<Trend> statusClassesTrends,
+			long durationToMonitor,
+			TimeUnit timeUnit,
+			ZonedDateTime now) {
+		blackhole.consume(sectionsTrends);
+		blackhole.consume(statusClassesTrends);
+	}
+}
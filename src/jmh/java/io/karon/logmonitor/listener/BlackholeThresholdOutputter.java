@@ -0,0 +1,165 @@
+package io.karon.logmonitor.listener;
+
+import java.time.ZonedDateTime;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.infra.Blackhole;
+
+import io.karon.logmonitor.log.AccessLog;
+import io.karon.logmonitor.outputter.ThresholdOutputter;
+
+
+/*
+Same as the BlackholeStatsOutputter, for the ThresholdLogListener
+ */
+class BlackholeThresholdOutputter implements ThresholdOutputter {
+	private final Blackhole blackhole;
+
+	BlackholeThresholdOutputter(Blackhole blackhole) {
+		this.blackhole = blackhole;
+	}
+
+	@Override
+	public void logOutsideDurationToMonitor(AccessLog accessLog) {
+		blackhole.consume(accessLog);
+	}
+
+	@Override
+	public void logsOutsideDurationToMonitor(long count, AccessLog lastAccessLog, long period, TimeUnit timeUnit) {
+		blackhole.consume(count);
+		blackhole.consume(lastAccessLog);
+	}
+
+	@Override
+	public void previousThresholdsReached() {
+		// Nothing to consume
+	}
+
+	@Override
+	public void windowCount(
+			int currentCount,
+			long thresholdForDurationToMonitor,
+			long durationToMonitor,
+			TimeUnit timeUnit,
+			ZonedDateTime now) {
+		blackhole.consume(currentCount);
+		blackhole.consume(now);
+	}
+
+	@Override
+	public void thresholdReached(
+			int currentCount,
+			long thresholdForDurationToMonitor,
+			long durationToMonitor,
+			TimeUnit timeUnit,
+			ZonedDateTime now) {
+		blackhole.consume(currentCount);
+		blackhole.consume(now);
+	}
+
+	@Override
+	public void alertStillActive(
+			int currentCount,
+			long thresholdForDurationToMonitor,
+			long durationToMonitor,
+			TimeUnit timeUnit,
+			ZonedDateTime now) {
+		blackhole.consume(currentCount);
+		blackhole.consume(now);
+	}
+
+	@Override
+	public void trafficRecovered(
+			int currentCount,
+			long thresholdForDurationToMonitor,
+			long durationToMonitor,
+			TimeUnit timeUnit,
+			ZonedDateTime now) {
+		blackhole.consume(currentCount);
+		blackhole.consume(now);
+	}
+
+	@Override
+	public void lowTrafficReached(
+			int currentCount,
+			long lowThresholdForDurationToMonitor,
+			long durationToMonitor,
+			TimeUnit timeUnit,
+			ZonedDateTime now) {
+		blackhole.consume(currentCount);
+		blackhole.consume(now);
+	}
+
+	@Override
+	public void lowTrafficStillActive(
+			int currentCount,
+			long lowThresholdForDurationToMonitor,
+			long durationToMonitor,
+			TimeUnit timeUnit,
+			ZonedDateTime now) {
+		blackhole.consume(currentCount);
+		blackhole.consume(now);
+	}
+
+	@Override
+	public void lowTrafficRecovered(
+			int currentCount,
+			long recoveryThresholdForDurationToMonitor,
+			long durationToMonitor,
+			TimeUnit timeUnit,
+			ZonedDateTime now) {
+		blackhole.consume(currentCount);
+		blackhole.consume(now);
+	}
+
+	@Override
+	public void anomalyDetected(long timeSlotHits, double expectedHits, double zScore, ZonedDateTime now) {
+		blackhole.consume(zScore);
+		blackhole.consume(now);
+	}
+
+	@Override
+	public void anomalyStillActive(long timeSlotHits, double expectedHits, double zScore, ZonedDateTime now) {
+		blackhole.consume(zScore);
+		blackhole.consume(now);
+	}
+
+	@Override
+	public void anomalyRecovered(long timeSlotHits, double expectedHits, double zScore, ZonedDateTime now) {
+		blackhole.consume(zScore);
+		blackhole.consume(now);
+	}
+
+	@Override
+	public void ruleThresholdReached(
+			AlertRule alertRule,
+			long matchingHits,
+			long hits,
+			TimeUnit timeUnit,
+			ZonedDateTime now) {
+		blackhole.consume(matchingHits);
+		blackhole.consume(now);
+	}
+
+	@Override
+	public void ruleAlertStillActive(
+			AlertRule alertRule,
+			long matchingHits,
+			long hits,
+			TimeUnit timeUnit,
+			ZonedDateTime now) {
+		blackhole.consume(matchingHits);
+		blackhole.consume(now);
+	}
+
+	@Override
+	public void ruleRecovered(
+			AlertRule alertRule,
+			long matchingHits,
+			long hits,
+			TimeUnit timeUnit,
+			ZonedDateTime now) {
+		blackhole.consume(matchingHits);
+		blackhole.consume(now);
+	}
+}
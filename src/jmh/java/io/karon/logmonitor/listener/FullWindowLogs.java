@@ -0,0 +1,56 @@
+package io.karon.logmonitor.listener;
+
+import java.time.ZonedDateTime;
+import java.util.Random;
+import java.util.function.Consumer;
+
+import io.karon.logmonitor.LogGenerator;
+import io.karon.logmonitor.log.AccessLog;
+
+
+/*
+Fills a window the way a real traffic would, for the runScheduledProcess benchmarks:
+	The logs are spread evenly over all the time slots of the window (one per second), minus a margin,
+	so the oldest ones are still monitored at the end of the trial
+	The number of sections and of IP addresses grows with the number of logs (one section per 100 logs, one IP per 10 logs),
+	so the maps, heavy hitters and uniques of a bigger window really are bigger
+The logs are created one at a time and not kept, 10^7 of them wouldn't fit in the heap of the fork
+ */
+class FullWindowLogs {
+	private static final long TRIAL_MARGIN_IN_SECONDS = 60;
+	private static final int LOGS_PER_SECTION = 100;
+	private static final int LOGS_PER_IP_ADDRESS = 10;
+
+	private FullWindowLogs() {}
+
+	static void fill(long windowInSeconds, int eventsPerWindow, Consumer<AccessLog> listener) {
+		Random random = new Random(42);
+		int timeSlots = (int) Math.max(1, windowInSeconds - TRIAL_MARGIN_IN_SECONDS);
+		int sections = Math.max(1, eventsPerWindow / LOGS_PER_SECTION);
+		int ipAddresses = Math.max(1, eventsPerWindow / LOGS_PER_IP_ADDRESS);
+
+		ZonedDateTime now = ZonedDateTime.now().withNano(0);
+		ZonedDateTime[] timeSlotDates = new ZonedDateTime[timeSlots];
+		for (int i = 0; i < timeSlots; ++i) {
+			timeSlotDates[i] = now.minusSeconds(i);
+		}
+
+		for (int i = 0; i < eventsPerWindow; ++i) {
+			listener.accept(new AccessLog(
+					generateIpAddress(random.nextInt(ipAddresses)),
+					"-",
+					"-",
+					timeSlotDates[i % timeSlots],
+					LogGenerator.Method.randomValue(),
+					"/section" + random.nextInt(sections) + "/page",
+					"HTTP/1.0",
+					LogGenerator.ResponseCode.randomValue(),
+					random.nextInt(1_000)
+			));
+		}
+	}
+
+	private static String generateIpAddress(int index) {
+		return "10." + ((index >>> 16) & 0xFF) + "." + ((index >>> 8) & 0xFF) + "." + (index & 0xFF);
+	}
+}
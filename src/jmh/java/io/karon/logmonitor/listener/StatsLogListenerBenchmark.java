@@ -0,0 +1,108 @@
+package io.karon.logmonitor.listener;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import io.karon.logmonitor.log.AccessLog;
+import io.karon.logmonitor.LogGenerator;
+
+
+/*
+onNext, and runScheduledProcess with windows of 10^3 to 10^7 logs, in the exact and in the heavy hitters modes
+The uniques, content sizes and trends are enabled, with the default configuration values
+The window is filled at the start of the trial, its logs are spread over all its time slots (see FullWindowLogs)
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StatsLogListenerBenchmark {
+	private static final int NUMBER_OF_LOGS = 1 << 12;
+	private static final long PERIOD = 600;
+
+	@State(Scope.Thread)
+	public static class Ingestion {
+		@Param({"0", "1000"})
+		private int heavyHittersCapacity;
+
+		private StatsLogListener statsLogListener;
+		private AccessLog[] accessLogs;
+		private int index;
+
+		@Setup
+		public void setup(Blackhole blackhole) {
+			statsLogListener = createStatsLogListener(blackhole, heavyHittersCapacity);
+			accessLogs = generateLogs();
+		}
+
+		private AccessLog nextLog() {
+			index = (index + 1) & (NUMBER_OF_LOGS - 1);
+			return accessLogs[index];
+		}
+	}
+
+	@State(Scope.Thread)
+	public static class FullWindow {
+		@Param({"0", "1000"})
+		private int heavyHittersCapacity;
+
+		@Param({"1000", "10000", "100000", "1000000", "10000000"})
+		private int eventsPerWindow;
+
+		private StatsLogListener statsLogListener;
+
+		@Setup
+		public void setup(Blackhole blackhole) {
+			statsLogListener = createStatsLogListener(blackhole, heavyHittersCapacity);
+			FullWindowLogs.fill(PERIOD, eventsPerWindow, statsLogListener::onNext);
+		}
+	}
+
+	@Benchmark
+	public void onNext(Ingestion ingestion) {
+		ingestion.statsLogListener.onNext(ingestion.nextLog());
+	}
+
+	@Benchmark
+	public void runScheduledProcess(FullWindow fullWindow) {
+		fullWindow.statsLogListener.runScheduledProcess();
+	}
+
+	private static StatsLogListener createStatsLogListener(Blackhole blackhole, int heavyHittersCapacity) {
+		return new StatsLogListener(
+				new BlackholeStatsOutputter(blackhole),
+				0,
+				PERIOD,
+				TimeUnit.SECONDS,
+				10,
+				new StatsLogListenerOptions()
+						.withHeavyHittersCapacity(heavyHittersCapacity)
+						.withUniquesPrecision(12)
+						.withContentSizeHistograms(true)
+						.withTrendBaselinePeriods(6)
+		);
+	}
+
+	private static AccessLog[] generateLogs() {
+		AccessLog[] accessLogs = new AccessLog[NUMBER_OF_LOGS];
+
+		for (int i = 0; i < NUMBER_OF_LOGS; ++i) {
+			accessLogs[i] = LogGenerator.generateLog();
+		}
+
+		return accessLogs;
+	}
+}
@@ -0,0 +1,100 @@
+package io.karon.logmonitor.listener;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import io.karon.logmonitor.log.AccessLog;
+import io.karon.logmonitor.LogGenerator;
+
+
+/*
+onNext, and runScheduledProcess with windows of 10^3 to 10^7 logs, with alert rules and the anomaly detection enabled
+The window is filled at the start of the trial, its logs are spread over all its time slots (see FullWindowLogs)
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ThresholdLogListenerBenchmark {
+	private static final int NUMBER_OF_LOGS = 1 << 12;
+	private static final long DURATION_TO_MONITOR = 600;
+
+	@State(Scope.Thread)
+	public static class Ingestion {
+		private ThresholdLogListener thresholdLogListener;
+		private AccessLog[] accessLogs;
+		private int index;
+
+		@Setup
+		public void setup(Blackhole blackhole) {
+			thresholdLogListener = createThresholdLogListener(blackhole);
+			accessLogs = generateLogs();
+		}
+
+		private AccessLog nextLog() {
+			index = (index + 1) & (NUMBER_OF_LOGS - 1);
+			return accessLogs[index];
+		}
+	}
+
+	@State(Scope.Thread)
+	public static class FullWindow {
+		@Param({"1000", "10000", "100000", "1000000", "10000000"})
+		private int eventsPerWindow;
+
+		private ThresholdLogListener thresholdLogListener;
+
+		@Setup
+		public void setup(Blackhole blackhole) {
+			thresholdLogListener = createThresholdLogListener(blackhole);
+			FullWindowLogs.fill(DURATION_TO_MONITOR, eventsPerWindow, thresholdLogListener::onNext);
+		}
+	}
+
+	@Benchmark
+	public void onNext(Ingestion ingestion) {
+		ingestion.thresholdLogListener.onNext(ingestion.nextLog());
+	}
+
+	@Benchmark
+	public void runScheduledProcess(FullWindow fullWindow) {
+		fullWindow.thresholdLogListener.runScheduledProcess();
+	}
+
+	private static ThresholdLogListener createThresholdLogListener(Blackhole blackhole) {
+		return new ThresholdLogListener(
+				new BlackholeThresholdOutputter(blackhole),
+				0,
+				10,
+				DURATION_TO_MONITOR,
+				10,
+				TimeUnit.SECONDS,
+				new ThresholdLogListenerOptions()
+						.withAlertRules(AlertRule.parseAll("errors:*:5xx:rate:5:60;section0:/section0:*:count:1000:60"))
+						.withAnomalyDetection(new AnomalyDetection(0.05, 3, 60, 0))
+		);
+	}
+
+	private static AccessLog[] generateLogs() {
+		AccessLog[] accessLogs = new AccessLog[NUMBER_OF_LOGS];
+
+		for (int i = 0; i < NUMBER_OF_LOGS; ++i) {
+			accessLogs[i] = LogGenerator.generateLog();
+		}
+
+		return accessLogs;
+	}
+}
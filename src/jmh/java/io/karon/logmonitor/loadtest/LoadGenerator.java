@@ -0,0 +1,251 @@
+package io.karon.logmonitor.loadtest;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import io.karon.logmonitor.log.AccessLog;
+import io.karon.logmonitor.LogGenerator;
+
+
+/*
+Appends access log lines to a file at a target rate, with the values of the LogGenerator but with realistic distributions:
+	The sections follow a Zipf distribution (a few sections get most of the hits), the status codes are mostly 2xx and 3xx
+	Every burstEvery, the rate is multiplied by burstFactor during burstDuration
+	The client identd of each line (usually "-") is the System.nanoTime() at which it was written, so the latency can be measured
+	in the same JVM once the line is parsed (see LoadTest)
+
+The lines are written in batches: every loop we write the lines due since the previous one, then flush so the monitor sees them,
+and we only park when nothing is due. The pools of values are generated once, so a line is a few appends and no String building.
+
+It also counts the lines written in the last durationToMonitor the way the ThresholdLogListener of the LoadTest does,
+to know when the traffic crossed the threshold: the alert latency is measured from that moment.
+ */
+class LoadGenerator implements Runnable {
+	private static final double ZIPF_EXPONENT = 1.1;
+	private static final int NUMBER_OF_IP_ADDRESSES = 1 << 10;
+	// Mostly successes and redirections, a few client errors, and some server errors
+	private static final int[] RESPONSE_CODES_WEIGHTS = {
+			200, 700, 201, 40, 202, 10, 204, 30, 301, 30, 304, 80,
+			401, 10, 403, 10, 404, 50, 409, 5, 413, 1, 422, 4, 429, 5, 500, 25
+	};
+
+	private final File file;
+	private final double burstFactor;
+	private final long burstEveryInNanos;
+	private final long burstDurationInNanos;
+	private final long durationToMonitorInMillis;
+	private final long thresholdForDurationToMonitor;
+
+	private final Random random;
+	private final String[] sections;
+	private final double[] sectionsCumulativeWeights;
+	private final int[] responseCodes;
+	private final double[] responseCodesCumulativeWeights;
+	private final String[] ipAddresses;
+	private final StringBuilder stringBuilder;
+	private char[] line;
+
+	// The lines written in each of the last seconds, see countInWindow
+	private final long[] secondsHits;
+	private final long[] secondsEpochSeconds;
+
+	private volatile double rate;
+	private volatile boolean running;
+	private volatile long linesWritten;
+	// Last time the traffic went above the threshold, 0 until it did
+	private volatile long thresholdCrossedInNanos;
+	private boolean aboveThreshold;
+
+	private long cachedEpochSecond;
+	private String cachedZonedDateTime;
+
+	LoadGenerator(
+			File file,
+			double rate,
+			double burstFactor,
+			long burstEverySeconds,
+			long burstDurationSeconds,
+			long durationToMonitorSeconds,
+			long threshold) {
+		this.file = file;
+		this.rate = rate;
+		this.burstFactor = burstFactor;
+		this.burstEveryInNanos = TimeUnit.SECONDS.toNanos(burstEverySeconds);
+		this.burstDurationInNanos = TimeUnit.SECONDS.toNanos(burstDurationSeconds);
+		this.durationToMonitorInMillis = TimeUnit.SECONDS.toMillis(durationToMonitorSeconds);
+		this.thresholdForDurationToMonitor = threshold * durationToMonitorSeconds;
+
+		this.random = new Random();
+		this.sections = Arrays.stream(LogGenerator.Endpoint.values())
+				.map(LogGenerator.Endpoint::getValue)
+				.toArray(String[]::new);
+		this.sectionsCumulativeWeights = getZipfCumulativeWeights(sections.length);
+		this.responseCodes = new int[RESPONSE_CODES_WEIGHTS.length / 2];
+		this.responseCodesCumulativeWeights = new double[responseCodes.length];
+		double totalWeight = 0;
+		for (int i = 0; i < responseCodes.length; ++i) {
+			responseCodes[i] = RESPONSE_CODES_WEIGHTS[2 * i];
+			totalWeight += RESPONSE_CODES_WEIGHTS[2 * i + 1];
+			responseCodesCumulativeWeights[i] = totalWeight;
+		}
+		this.ipAddresses = new String[NUMBER_OF_IP_ADDRESSES];
+		for (int i = 0; i < NUMBER_OF_IP_ADDRESSES; ++i) {
+			ipAddresses[i] = LogGenerator.generateIpAddress();
+		}
+		this.stringBuilder = new StringBuilder();
+		this.line = new char[256];
+
+		this.secondsHits = new long[(int) durationToMonitorSeconds + 2];
+		this.secondsEpochSeconds = new long[secondsHits.length];
+
+		this.running = true;
+	}
+
+	@Override
+	public void run() {
+		try (Writer writer = new BufferedWriter(new FileWriter(file, true), 1 << 20)) {
+			long start = System.nanoTime();
+			long previous = start;
+			double linesDue = 0;
+
+			while (running) {
+				long now = System.nanoTime();
+				linesDue += (now - previous) * getRate(now - start) / TimeUnit.SECONDS.toNanos(1);
+				previous = now;
+
+				if (linesDue < 1) {
+					LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(100));
+					continue;
+				}
+
+				long lines = (long) linesDue;
+				linesDue -= lines;
+				for (long i = 0; i < lines; ++i) {
+					writeLine(writer);
+				}
+				writer.flush();
+
+				linesWritten += lines;
+				countInWindow(now, lines);
+			}
+		} catch (IOException e) {
+			throw new IllegalStateException("Cannot write to " + file, e);
+		}
+	}
+
+	void setRate(double rate) { this.rate = rate; }
+
+	void stop() { running = false; }
+
+	long getLinesWritten() { return linesWritten; }
+
+	long getThresholdCrossedInNanos() { return thresholdCrossedInNanos; }
+
+	// The rate of the bursts, when we are in one
+	private double getRate(long elapsedInNanos) {
+		if (burstEveryInNanos > 0 && elapsedInNanos % burstEveryInNanos >= burstEveryInNanos - burstDurationInNanos) {
+			return rate * burstFactor;
+		}
+
+		return rate;
+	}
+
+	private void writeLine(Writer writer) throws IOException {
+		long writtenInNanos = System.nanoTime();
+
+		stringBuilder.setLength(0);
+		stringBuilder.append(ipAddresses[random.nextInt(NUMBER_OF_IP_ADDRESSES)])
+				.append(' ')
+				.append(writtenInNanos)
+				.append(' ')
+				.append(LogGenerator.UserId.randomValue())
+				.append(" [")
+				.append(getZonedDateTime())
+				.append("] \"")
+				.append(LogGenerator.Method.randomValue())
+				.append(' ')
+				.append(sections[pick(sectionsCumulativeWeights)])
+				.append(" HTTP/1.0\" ")
+				.append(responseCodes[pick(responseCodesCumulativeWeights)])
+				.append(' ')
+				.append(random.nextInt(10_000))
+				.append('\n');
+
+		int length = stringBuilder.length();
+		if (length > line.length) {
+			line = new char[length];
+		}
+		stringBuilder.getChars(0, length, line, 0);
+		writer.write(line, 0, length);
+	}
+
+	// The date only changes once per second
+	private String getZonedDateTime() {
+		long epochSecond = System.currentTimeMillis() / 1_000;
+
+		if (epochSecond != cachedEpochSecond || cachedZonedDateTime == null) {
+			cachedEpochSecond = epochSecond;
+			cachedZonedDateTime = AccessLog.DATE_TIME_FORMATTER.format(ZonedDateTime.now());
+		}
+
+		return cachedZonedDateTime;
+	}
+
+	/*
+	Same count as the ThresholdLogListener at this moment: the logs are in the time slot of their date, which is to the second,
+	and it counts every time slot ending after now - durationToMonitor, so between durationToMonitor and one more second of logs
+	 */
+	private void countInWindow(long now, long lines) {
+		long nowInMillis = System.currentTimeMillis();
+		long epochSecond = nowInMillis / 1_000;
+		int index = (int) (epochSecond % secondsHits.length);
+
+		if (secondsEpochSeconds[index] != epochSecond) {
+			secondsEpochSeconds[index] = epochSecond;
+			secondsHits[index] = 0;
+		}
+		secondsHits[index] += lines;
+
+		long oldestEpochSecond = (nowInMillis - durationToMonitorInMillis) / 1_000;
+		long windowHits = 0;
+		for (int i = 0; i < secondsHits.length; ++i) {
+			if (secondsEpochSeconds[i] >= oldestEpochSecond && secondsEpochSeconds[i] <= epochSecond) {
+				windowHits += secondsHits[i];
+			}
+		}
+
+		// Kept when the traffic goes back below the threshold, the alert can come after the end of a short burst
+		boolean wasAboveThreshold = aboveThreshold;
+		aboveThreshold = windowHits > thresholdForDurationToMonitor;
+		if (aboveThreshold && !wasAboveThreshold) {
+			thresholdCrossedInNanos = now;
+		}
+	}
+
+	private int pick(double[] cumulativeWeights) {
+		double value = random.nextDouble() * cumulativeWeights[cumulativeWeights.length - 1];
+		int index = Arrays.binarySearch(cumulativeWeights, value);
+
+		return index >= 0 ? index : -index - 1;
+	}
+
+	private static double[] getZipfCumulativeWeights(int numberOfValues) {
+		double[] cumulativeWeights = new double[numberOfValues];
+		double totalWeight = 0;
+
+		for (int rank = 1; rank <= numberOfValues; ++rank) {
+			totalWeight += 1 / Math.pow(rank, ZIPF_EXPONENT);
+			cumulativeWeights[rank - 1] = totalWeight;
+		}
+
+		return cumulativeWeights;
+	}
+}
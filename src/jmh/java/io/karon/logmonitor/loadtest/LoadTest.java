@@ -0,0 +1,309 @@
+package io.karon.logmonitor.loadtest;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import io.karon.logmonitor.configuration.Configuration;
+import io.karon.logmonitor.inputter.FileLogMonitor;
+import io.karon.logmonitor.inputter.LogMonitor;
+import io.karon.logmonitor.listener.StatsLogListener;
+import io.karon.logmonitor.listener.ThresholdLogListener;
+import io.karon.logmonitor.log.AccessLog;
+import io.karon.logmonitor.metrics.Metrics;
+import io.karon.logmonitor.metrics.Timer;
+import io.karon.logmonitor.metrics.TimerSnapshot;
+import io.karon.logmonitor.parser.AccessLogParser;
+import io.reactivex.observers.DefaultObserver;
+
+
+/*
+End to end load test: a LoadGenerator writes to a file monitored by a FileLogMonitor (with the FileLogMonitor configuration),
+followed by a StatsLogListener (with the StatsLogListener configuration) and a ThresholdLogListener
+	The ingest latency is the time between the write of a line and the moment every listener received its AccessLog
+	The alert latency is the time between the traffic written crossing the threshold and the alert
+	(so it includes the period of the ThresholdLogListener and the precision of its time slots)
+The threshold is halfway between the normal rate and the rate of the bursts, so every burst should raise an alert.
+
+With --ramp, the rate is doubled every step until the monitor can't keep up (it ingested less than 97% of what was written,
+or it is more than a second behind), and the last rate it kept up with is the maximum sustained throughput.
+If the LoadGenerator itself can't write at the rate requested, we stop too, since we would be measuring the LoadGenerator.
+
+Options (defaults in brackets):
+	--file <path>            file written and monitored [a temporary file]
+	--rate <lines/s>         rate outside of the bursts, or first rate of the ramp [10000]
+	--duration <s>           duration of the test, or of each step of the ramp [60, 10 with --ramp]
+	--burst-factor <x>       rate multiplier during the bursts [4]
+	--burst-every <s>        time between the starts of two bursts, 0 for no bursts [20]
+	--burst-duration <s>     duration of a burst [5]
+	--window <s>             duration monitored by the ThresholdLogListener [2]
+	--ramp                   searches the maximum sustained throughput instead
+ */
+public class LoadTest {
+	private static final Logger logger = LogManager.getLogger(LoadTest.class);
+	private static final double[] PERCENTILES = {50, 75, 90, 95, 99, 99.9, 99.99, 100};
+	private static final double MIN_INGESTED_RATIO = 0.97;
+
+	public static void main(String[] args) throws IOException, InterruptedException {
+		Options options = Options.parse(args);
+		Configuration configuration = Configuration.getConfigValues();
+
+		File file = options.file != null ? options.file : File.createTempFile("logmonitor-load-test", ".log");
+		Files.write(file.toPath(), new byte[0]);
+		file.deleteOnExit();
+
+		long threshold = Math.round(options.rate * (1 + options.burstFactor) / 2);
+		LoadGenerator loadGenerator = new LoadGenerator(
+				file,
+				options.rate,
+				options.burstFactor,
+				options.ramp ? 0 : options.burstEvery,
+				options.burstDuration,
+				options.window,
+				threshold
+		);
+		LoadTestOutputter loadTestOutputter = new LoadTestOutputter(loadGenerator::getThresholdCrossedInNanos);
+		IngestObserver ingestObserver = new IngestObserver();
+
+		LogMonitor<AccessLog> logMonitor = new FileLogMonitor<>(
+				file,
+				new AccessLogParser(),
+				configuration.getFileLogMonitorConfiguration()
+		);
+		ThresholdLogListener thresholdLogListener = new ThresholdLogListener(
+				loadTestOutputter,
+				0,
+				1,
+				options.window,
+				(int) Math.min(threshold, Integer.MAX_VALUE),
+				TimeUnit.SECONDS
+		);
+		StatsLogListener statsLogListener = new StatsLogListener(
+				loadTestOutputter,
+				configuration.getStatsLogListenerConfiguration()
+		);
+
+		thresholdLogListener.startScheduler();
+		statsLogListener.startScheduler();
+		// Subscribed last, so the latency includes the onNext of the listeners
+		logMonitor.subscribe(thresholdLogListener);
+		logMonitor.subscribe(statsLogListener);
+		logMonitor.subscribe(ingestObserver);
+		logMonitor.startMonitoring();
+
+		Thread loadGeneratorThread = new Thread(loadGenerator, "load-generator");
+		loadGeneratorThread.start();
+
+		try {
+			if (options.ramp) {
+				ramp(options, loadGenerator, ingestObserver);
+			} else {
+				run(options, loadGenerator, ingestObserver, loadTestOutputter);
+			}
+		} finally {
+			loadGenerator.stop();
+			loadGeneratorThread.join();
+			thresholdLogListener.stopScheduler();
+			statsLogListener.stopScheduler();
+			logMonitor.stopMonitoring();
+		}
+
+		System.exit(0);
+	}
+
+	private static void run(
+			Options options,
+			LoadGenerator loadGenerator,
+			IngestObserver ingestObserver,
+			LoadTestOutputter loadTestOutputter) throws InterruptedException {
+		System.out.printf("Writing %.0f lines/s (x%.1f during %d s every %d s) for %d s%n",
+				options.rate, options.burstFactor, options.burstDuration, options.burstEvery, options.duration);
+
+		Step step = Step.measure(loadGenerator, ingestObserver, options.duration);
+
+		System.out.println();
+		step.print();
+		System.out.printf("Alerts raised: %d, periods reported: %d, late logs: %d%n",
+				loadTestOutputter.getAlerts(), loadTestOutputter.getStatsPeriods(), loadTestOutputter.getLateLogs());
+		printHistogram("Ingest latency (us)", step.ingestLatencies);
+		printHistogram("Alert latency (us)", loadTestOutputter.getAlertLatencies());
+	}
+
+	private static void ramp(Options options, LoadGenerator loadGenerator, IngestObserver ingestObserver)
+			throws InterruptedException {
+		double rate = options.rate;
+		Step lastSustained = null;
+
+		while (true) {
+			loadGenerator.setRate(rate);
+			Step step = Step.measure(loadGenerator, ingestObserver, options.duration);
+
+			System.out.printf("Target rate: %.0f lines/s%n", rate);
+			step.print();
+			printHistogram("Ingest latency (us)", step.ingestLatencies);
+
+			if (step.getWriteRate() < MIN_INGESTED_RATIO * rate) {
+				System.out.println("The load generator can't write faster, stopping");
+				break;
+			}
+			if (!step.isSustained()) {
+				break;
+			}
+
+			lastSustained = step;
+			rate *= 2;
+		}
+
+		if (lastSustained == null) {
+			System.out.println("Maximum sustained throughput: below the first rate");
+		} else {
+			System.out.printf("Maximum sustained throughput: %.0f lines/s%n", lastSustained.getIngestRate());
+		}
+	}
+
+	private static void printHistogram(String name, TimerSnapshot latencies) {
+		System.out.printf("%s, %d values:%n", name, latencies.getCount());
+
+		if (latencies.getCount() == 0) {
+			return;
+		}
+
+		long max = TimeUnit.NANOSECONDS.toMicros(latencies.getMax());
+		for (double percentile : PERCENTILES) {
+			long value = TimeUnit.NANOSECONDS.toMicros(latencies.getValueAtPercentile(percentile));
+			// The bars are on a log scale, the latencies go from microseconds to seconds
+			int bar = max <= 1 ? 0 : (int) Math.round(40 * Math.log1p(value) / Math.log1p(max));
+
+			System.out.printf("\tp%-6s %12d  %s%n", percentile, value, repeat('#', bar));
+		}
+	}
+
+	private static String repeat(char character, int times) {
+		StringBuilder stringBuilder = new StringBuilder(times);
+		for (int i = 0; i < times; ++i) {
+			stringBuilder.append(character);
+		}
+		return stringBuilder.toString();
+	}
+
+	/*
+	Records the ingest latency of every AccessLog in the "loadtest.ingest" Timer, on the dispatcher thread of the FileLogMonitor
+	Each Step only reports the latencies recorded since it started (see TimerSnapshot.since)
+	 */
+	private static class IngestObserver extends DefaultObserver<AccessLog> {
+		private final Timer ingestLatencies = Metrics.timer("loadtest.ingest");
+		private volatile long ingested;
+
+		@Override
+		public void onNext(AccessLog accessLog) {
+			ingestLatencies.recordSince(Long.parseLong(accessLog.getClientIdentd()));
+			++ingested;
+		}
+
+		@Override
+		public void onError(Throwable e) {
+			logger.error("The monitoring of the load test failed", e);
+		}
+
+		@Override
+		public void onComplete() {
+			// Nothing to do
+		}
+
+		TimerSnapshot getIngestLatencies() { return ingestLatencies.getSnapshot(); }
+	}
+
+	private static class Step {
+		private final long durationInNanos;
+		private final long written;
+		private final long ingested;
+		private final long backlog;
+		private final TimerSnapshot ingestLatencies;
+
+		private Step(long durationInNanos, long written, long ingested, long backlog, TimerSnapshot ingestLatencies) {
+			this.durationInNanos = durationInNanos;
+			this.written = written;
+			this.ingested = ingested;
+			this.backlog = backlog;
+			this.ingestLatencies = ingestLatencies;
+		}
+
+		static Step measure(LoadGenerator loadGenerator, IngestObserver ingestObserver, long durationInSeconds)
+				throws InterruptedException {
+			TimerSnapshot ingestLatenciesAtStart = ingestObserver.getIngestLatencies();
+			long start = System.nanoTime();
+			long writtenAtStart = loadGenerator.getLinesWritten();
+			long ingestedAtStart = ingestObserver.ingested;
+
+			TimeUnit.SECONDS.sleep(durationInSeconds);
+
+			// Ingested first, so the backlog can't be negative
+			long ingested = ingestObserver.ingested;
+			long written = loadGenerator.getLinesWritten();
+
+			return new Step(
+					System.nanoTime() - start,
+					written - writtenAtStart,
+					ingested - ingestedAtStart,
+					written - ingested,
+					ingestObserver.getIngestLatencies().since(ingestLatenciesAtStart)
+			);
+		}
+
+		double getWriteRate() { return written * 1e9 / durationInNanos; }
+
+		double getIngestRate() { return ingested * 1e9 / durationInNanos; }
+
+		// Less than a second of logs waiting to be ingested
+		boolean isSustained() {
+			return ingested >= MIN_INGESTED_RATIO * written && backlog < getWriteRate();
+		}
+
+		void print() {
+			System.out.printf("Written: %d lines (%.0f lines/s), ingested: %d logs (%.0f logs/s), backlog: %d%n",
+					written, getWriteRate(), ingested, getIngestRate(), backlog);
+		}
+	}
+
+	private static class Options {
+		private File file;
+		private double rate = 10_000;
+		private long duration = -1;
+		private double burstFactor = 4;
+		private long burstEvery = 20;
+		private long burstDuration = 5;
+		private long window = 2;
+		private boolean ramp;
+
+		static Options parse(String[] args) {
+			Options options = new Options();
+
+			for (int i = 0; i < args.length; ++i) {
+				switch (args[i]) {
+					case "--file": options.file = new File(args[++i]); break;
+					case "--rate": options.rate = Double.parseDouble(args[++i]); break;
+					case "--duration": options.duration = Long.parseLong(args[++i]); break;
+					case "--burst-factor": options.burstFactor = Double.parseDouble(args[++i]); break;
+					case "--burst-every": options.burstEvery = Long.parseLong(args[++i]); break;
+					case "--burst-duration": options.burstDuration = Long.parseLong(args[++i]); break;
+					case "--window": options.window = Long.parseLong(args[++i]); break;
+					case "--ramp": options.ramp = true; break;
+					default: throw new IllegalArgumentException("Unknown option " + args[i] + ", see the LoadTest class");
+				}
+			}
+
+			if (options.duration < 0) {
+				options.duration = options.ramp ? 10 : 60;
+			}
+			if (options.rate <= 0 || options.window <= 0 || options.burstDuration > options.burstEvery) {
+				throw new IllegalArgumentException("The rate and window should be positive, and a burst shorter than burstEvery");
+			}
+
+			return options;
+		}
+	}
+}
@@ -0,0 +1,239 @@
+package io.karon.logmonitor.loadtest;
+
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+import io.karon.logmonitor.listener.AlertRule;
+import io.karon.logmonitor.listener.HeavyHitter;
+import io.karon.logmonitor.listener.SizePercentiles;
+import io.karon.logmonitor.listener.Trend;
+import io.karon.logmonitor.listener.UniqueCounts;
+import io.karon.logmonitor.log.AccessLog;
+import io.karon.logmonitor.metrics.Metrics;
+import io.karon.logmonitor.metrics.Timer;
+import io.karon.logmonitor.metrics.TimerSnapshot;
+import io.karon.logmonitor.outputter.StatsOutputter;
+import io.karon.logmonitor.outputter.ThresholdOutputter;
+
+
+/*
+Outputter of the listeners of the LoadTest: nothing is printed, we only count what we need for the report
+	thresholdReached records the time since the traffic written crossed the threshold (see LoadGenerator) in the "loadtest.alert" Timer
+	The late logs and the periods of the StatsLogListener are counted
+
+The alert latencies are only written by the scheduler thread of the ThresholdLogListener.
+ */
+class LoadTestOutputter implements StatsOutputter, ThresholdOutputter {
+	private final LongSupplier thresholdCrossedInNanos;
+
+	private final Timer alertLatencies;
+	private final LongAdder lateLogs;
+	private final LongAdder statsPeriods;
+	private final LongAdder alerts;
+
+	LoadTestOutputter(LongSupplier thresholdCrossedInNanos) {
+		this.thresholdCrossedInNanos = thresholdCrossedInNanos;
+
+		this.alertLatencies = Metrics.timer("loadtest.alert");
+		this.lateLogs = new LongAdder();
+		this.statsPeriods = new LongAdder();
+		this.alerts = new LongAdder();
+	}
+
+	TimerSnapshot getAlertLatencies() { return alertLatencies.getSnapshot(); }
+
+	long getLateLogs() { return lateLogs.sum(); }
+
+	long getStatsPeriods() { return statsPeriods.sum(); }
+
+	long getAlerts() { return alerts.sum(); }
+
+	@Override
+	public void logOutsideDurationToMonitor(AccessLog accessLog) {
+		lateLogs.increment();
+	}
+
+	@Override
+	public void logsOutsideDurationToMonitor(long count, AccessLog lastAccessLog, long period, TimeUnit timeUnit) {
+		lateLogs.add(count);
+	}
+
+	@Override
+	public void sectionHits(
+			List<Map.Entry<String, Integer>> sectionsWithTheMostHits,
+			long durationToMonitor,
+			TimeUnit timeUnit,
+			ZonedDateTime now) {
+		statsPeriods.increment();
+	}
+
+	@Override
+	public void sectionHeavyHitters(
+			List<HeavyHitter> sectionsWithTheMostHits,
+			long durationToMonitor,
+			TimeUnit timeUnit,
+			ZonedDateTime now) {
+		statsPeriods.increment();
+	}
+
+	@Override
+	public void uniques(
+			UniqueCounts uniqueCounts,
+			Map<String, UniqueCounts> sectionsUniqueCounts,
+			long durationToMonitor,
+			TimeUnit timeUnit,
+			ZonedDateTime now) {
+		// Not measured
+	}
+
+	@Override
+	public void contentSizes(
+			SizePercentiles sizePercentiles,
+			Map<String, SizePercentiles> statusClassesSizePercentiles,
+			Map<String, SizePercentiles> sectionsSizePercentiles,
+			long durationToMonitor,
+			TimeUnit timeUnit,
+			ZonedDateTime now) {
+		// Not measured
+	}
+
+	@Override
+	public void trends(
+			List<Trend> sectionsTrends,
+			List<Trend> statusClassesTrends,
+			long durationToMonitor,
+			TimeUnit timeUnit,
+			ZonedDateTime now) {
+		// Not measured
+	}
+
+	@Override
+	public void previousThresholdsReached() {
+		// Not measured
+	}
+
+	@Override
+	public void windowCount(
+			int currentCount,
+			long thresholdForDurationToMonitor,
+			long durationToMonitor,
+			TimeUnit timeUnit,
+			ZonedDateTime now) {
+		// Not measured
+	}
+
+	// The alert may come from logs written before the LoadGenerator crossed the threshold (0), then there's nothing to measure
+	@Override
+	public void thresholdReached(
+			int currentCount,
+			long thresholdForDurationToMonitor,
+			long durationToMonitor,
+			TimeUnit timeUnit,
+			ZonedDateTime now) {
+		long crossedInNanos = thresholdCrossedInNanos.getAsLong();
+
+		alerts.increment();
+		if (crossedInNanos != 0) {
+			alertLatencies.recordSince(crossedInNanos);
+		}
+	}
+
+	@Override
+	public void alertStillActive(
+			int currentCount,
+			long thresholdForDurationToMonitor,
+			long durationToMonitor,
+			TimeUnit timeUnit,
+			ZonedDateTime now) {
+		// Not measured
+	}
+
+	@Override
+	public void trafficRecovered(
+			int currentCount,
+			long thresholdForDurationToMonitor,
+			long durationToMonitor,
+			TimeUnit timeUnit,
+			ZonedDateTime now) {
+		// Not measured
+	}
+
+	@Override
+	public void lowTrafficReached(
+			int currentCount,
+			long lowThresholdForDurationToMonitor,
+			long durationToMonitor,
+			TimeUnit timeUnit,
+			ZonedDateTime now) {
+		// Not measured
+	}
+
+	@Override
+	public void lowTrafficStillActive(
+			int currentCount,
+			long lowThresholdForDurationToMonitor,
+			long durationToMonitor,
+			TimeUnit timeUnit,
+			ZonedDateTime now) {
+		// Not measured
+	}
+
+	@Override
+	public void lowTrafficRecovered(
+			int currentCount,
+			long recoveryThresholdForDurationToMonitor,
+			long durationToMonitor,
+			TimeUnit timeUnit,
+			ZonedDateTime now) {
+		// Not measured
+	}
+
+	@Override
+	public void anomalyDetected(long timeSlotHits, double expectedHits, double zScore, ZonedDateTime now) {
+		// Not measured
+	}
+
+	@Override
+	public void anomalyStillActive(long timeSlotHits, double expectedHits, double zScore, ZonedDateTime now) {
+		// Not measured
+	}
+
+	@Override
+	public void anomalyRecovered(long timeSlotHits, double expectedHits, double zScore, ZonedDateTime now) {
+		// Not measured
+	}
+
+	@Override
+	public void ruleThresholdReached(
+			AlertRule alertRule,
+			long matchingHits,
+			long hits,
+			TimeUnit timeUnit,
+			ZonedDateTime now) {
+		// Not measured
+	}
+
+	@Override
+	public void ruleAlertStillActive(
+			AlertRule alertRule,
+			long matchingHits,
+			long hits,
+			TimeUnit timeUnit,
+			ZonedDateTime now) {
+		// Not measured
+	}
+
+	@Override
+	public void ruleRecovered(
+			AlertRule alertRule,
+			long matchingHits,
+			long hits,
+			TimeUnit timeUnit,
+			ZonedDateTime now) {
+		// Not measured
+	}
+}
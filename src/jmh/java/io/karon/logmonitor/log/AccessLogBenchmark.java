@@ -0,0 +1,75 @@
+package io.karon.logmonitor.log;
+
+import java.time.ZonedDateTime;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.karon.logmonitor.LogGenerator;
+
+
+/*
+Construction of an AccessLog from the Strings of a log line (the date goes through the DateTimeFormatter),
+and from already decoded values (what the parsers do)
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class AccessLogBenchmark {
+	private AccessLog accessLog;
+	private String zonedDateTime;
+	private String responseCode;
+	private String contentSize;
+
+	@Setup
+	public void setup() {
+		accessLog = LogGenerator.generateLog();
+		zonedDateTime = AccessLog.DATE_TIME_FORMATTER.format(accessLog.getZonedDateTime());
+		responseCode = String.valueOf(accessLog.getResponseCode());
+		contentSize = String.valueOf(accessLog.getContentSize());
+	}
+
+	@Benchmark
+	public AccessLog constructFromStrings() {
+		return new AccessLog(
+				accessLog.getIpAddress(),
+				accessLog.getClientIdentd(),
+				accessLog.getUserID(),
+				zonedDateTime,
+				accessLog.getMethod(),
+				accessLog.getEndpoint(),
+				accessLog.getProtocol(),
+				responseCode,
+				contentSize
+		);
+	}
+
+	@Benchmark
+	public AccessLog constructFromDecodedValues() {
+		ZonedDateTime decodedZonedDateTime = accessLog.getZonedDateTime();
+
+		return new AccessLog(
+				accessLog.getIpAddress(),
+				accessLog.getClientIdentd(),
+				accessLog.getUserID(),
+				decodedZonedDateTime,
+				accessLog.getMethod(),
+				accessLog.getEndpoint(),
+				accessLog.getProtocol(),
+				accessLog.getResponseCode(),
+				accessLog.getContentSize()
+		);
+	}
+}
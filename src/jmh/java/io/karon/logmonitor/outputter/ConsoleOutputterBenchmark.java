@@ -0,0 +1,89 @@
+package io.karon.logmonitor.outputter;
+
+import java.time.ZonedDateTime;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.core.config.Configurator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.karon.logmonitor.listener.SizePercentiles;
+
+
+/*
+Formatting of the messages of the console outputters, the logger is disabled so we don't measure the appender
+The stats messages are still built in the reused StringBuilder (and turned into a String) before the logger checks its level,
+while the threshold messages are parameterized messages the disabled logger never formats (only their arguments are boxed)
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class ConsoleOutputterBenchmark {
+	private static final String LOGGER_NAME = "benchmark";
+
+	private StatsToConsoleOutputter statsToConsoleOutputter;
+	private ThresholdToConsoleOutputter thresholdToConsoleOutputter;
+
+	private List<Map.Entry<String, Integer>> sectionsWithTheMostHits;
+	private Map<String, SizePercentiles> statusClassesSizePercentiles;
+	private ZonedDateTime now;
+
+	@Setup
+	public void setup() {
+		Configurator.setLevel(LOGGER_NAME, Level.OFF);
+		statsToConsoleOutputter = new StatsToConsoleOutputter(LogManager.getLogger(LOGGER_NAME));
+		thresholdToConsoleOutputter = new ThresholdToConsoleOutputter(LogManager.getLogger(LOGGER_NAME));
+
+		sectionsWithTheMostHits = new ArrayList<>();
+		for (int i = 0; i < 10; ++i) {
+			sectionsWithTheMostHits.add(new AbstractMap.SimpleEntry<>("/section" + i, 1_000 - i));
+		}
+
+		statusClassesSizePercentiles = new LinkedHashMap<>();
+		for (int statusClass = 1; statusClass <= 5; ++statusClass) {
+			statusClassesSizePercentiles.put(statusClass + "xx", new SizePercentiles(1_000, 512, 2_048, 8_192, 65_536));
+		}
+
+		now = ZonedDateTime.now();
+	}
+
+	@Benchmark
+	public void sectionHits() {
+		statsToConsoleOutputter.sectionHits(sectionsWithTheMostHits, 10, TimeUnit.SECONDS, now);
+	}
+
+	@Benchmark
+	public void contentSizes() {
+		statsToConsoleOutputter.contentSizes(
+				new SizePercentiles(5_000, 512, 2_048, 8_192, 65_536),
+				statusClassesSizePercentiles,
+				statusClassesSizePercentiles,
+				10,
+				TimeUnit.SECONDS,
+				now
+		);
+	}
+
+	@Benchmark
+	public void thresholdReached() {
+		thresholdToConsoleOutputter.thresholdReached(1_500, 1_200, 120, TimeUnit.SECONDS, now);
+	}
+}
@@ -0,0 +1,64 @@
+package io.karon.logmonitor.parser;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.karon.logmonitor.log.AccessLog;
+import io.karon.logmonitor.LogGenerator;
+
+
+/*
+Parses log lines generated by the LogGenerator, with the regex AccessLogParser and with the FastAccessLogParser
+The lines are generated at the same second, like the lines of a busy server, so the TimestampDecoder mostly hits its cache
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class AccessLogParserBenchmark {
+	private static final int NUMBER_OF_LOG_LINES = 1 << 12;
+
+	private String[] logLines;
+	private int index;
+
+	private AccessLogParser accessLogParser;
+	private FastAccessLogParser fastAccessLogParser;
+
+	@Setup
+	public void setup() {
+		logLines = new String[NUMBER_OF_LOG_LINES];
+		for (int i = 0; i < NUMBER_OF_LOG_LINES; ++i) {
+			logLines[i] = LogGenerator.generateLogLine(false);
+		}
+
+		accessLogParser = new AccessLogParser();
+		fastAccessLogParser = new FastAccessLogParser();
+	}
+
+	@Benchmark
+	public AccessLog parseFromLogLine() throws ParseException {
+		return accessLogParser.parseFromLogLine(nextLogLine());
+	}
+
+	@Benchmark
+	public AccessLog fastParseFromLogLine() throws ParseException {
+		return fastAccessLogParser.parseFromLogLine(nextLogLine());
+	}
+
+	private String nextLogLine() {
+		index = (index + 1) & (NUMBER_OF_LOG_LINES - 1);
+		return logLines[index];
+	}
+}
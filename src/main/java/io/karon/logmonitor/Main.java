@@ -2,17 +2,34 @@ package io.karon.logmonitor;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import io.karon.logmonitor.configuration.Configuration;
 import io.karon.logmonitor.inputter.FileLogMonitor;
+import io.karon.logmonitor.inputter.LogMonitor;
+import io.karon.logmonitor.inputter.MultiFileLogMonitor;
+import io.karon.logmonitor.inputter.ReplayLogMonitor;
+import io.karon.logmonitor.listener.EventTimeWindowing;
 import io.karon.logmonitor.listener.ScheduledLogListener;
 import io.karon.logmonitor.listener.StatsLogListener;
+import io.karon.logmonitor.listener.StatsLogListenerOptions;
 import io.karon.logmonitor.listener.ThresholdLogListener;
+import io.karon.logmonitor.listener.ThresholdLogListenerOptions;
 import io.karon.logmonitor.log.AccessLog;
+import io.karon.logmonitor.metrics.Metrics;
+import io.karon.logmonitor.metrics.MetricsReporter;
+import io.karon.logmonitor.outputter.AsyncStatsOutputter;
+import io.karon.logmonitor.outputter.AsyncThresholdOutputter;
+import io.karon.logmonitor.outputter.HttpEndpoint;
+import io.karon.logmonitor.outputter.HttpStatsOutputter;
+import io.karon.logmonitor.outputter.HttpThresholdOutputter;
+import io.karon.logmonitor.outputter.StatsOutputter;
 import io.karon.logmonitor.outputter.StatsToConsoleOutputter;
+import io.karon.logmonitor.outputter.ThresholdOutputter;
 import io.karon.logmonitor.outputter.ThresholdToConsoleOutputter;
 import io.karon.logmonitor.parser.AccessLogParser;
 
@@ -20,46 +37,163 @@ import io.karon.logmonitor.parser.AccessLogParser;
 /*
 Simple console program that monitors HTTP traffic on your machine.
 Consume an actively written-to w3c-formatted HTTP access log (https://www.w3.org/Daemon/User/Config/Logging.html).
+
+With "--replay <file>", an existing access log (or a gzip archive of one) is analyzed as fast as possible instead:
+the stats and alerts of every period are printed as if the file had been tailed live, using the time of the logs, then we exit.
+
+The metrics of LogMonitor itself are exposed through JMX, and logged periodically if the configuration says so (see Metrics).
+When tailing, the stats, alerts and metrics can also be scraped over HTTP if the configuration gives a port (see HttpEndpoint).
+When tailing, unless the configuration says otherwise, the outputs are written on their own threads (see AsyncStatsOutputter and AsyncThresholdOutputter).
  */
 
 public class Main {
 	private static final Logger logger = LogManager.getLogger(Main.class);
 
-	public static void main(String[] args) throws IOException {
+	private static final String REPLAY_OPTION = "--replay";
+
+	public static void main(String[] args) throws IOException, InterruptedException {
 		Configuration configuration = Configuration.getConfigValues();
+		MetricsReporter metricsReporter = startMetrics(configuration.getMetricsConfiguration());
 
-		File fileToMonitor = getFileToMonitor(
-				configuration.getFileToMonitorConfiguration(),
-				args
-		);
+		if (args.length >= 1 && REPLAY_OPTION.equals(args[0])) {
+			if (args.length != 2) {
+				throw new IllegalArgumentException("The replay mode takes the path of the file to replay: --replay <file>");
+			}
 
-		FileLogMonitor<AccessLog> fileLogMonitor = new FileLogMonitor<>(
-				fileToMonitor,
-				new AccessLogParser(),
-				configuration.getFileLogMonitorConfiguration()
-		);
+			replay(configuration, new File(args[1]));
+
+			// The metrics of the whole replay
+			metricsReporter.stop();
+			if (configuration.getMetricsConfiguration().getDumpIntervalInSeconds() > 0) {
+				metricsReporter.report();
+			}
+			return;
+		}
+
+		LogMonitor<AccessLog> logMonitor = getLogMonitor(configuration, args);
+
+		ThresholdOutputter thresholdOutputter = new ThresholdToConsoleOutputter(LogManager.getLogger(ThresholdToConsoleOutputter.class));
+		StatsOutputter statsOutputter = new StatsToConsoleOutputter(LogManager.getLogger(StatsToConsoleOutputter.class));
+
+		Configuration.HttpEndpointConfiguration httpEndpointConfiguration = configuration.getHttpEndpointConfiguration();
+		if (httpEndpointConfiguration.isEnabled()) {
+			HttpEndpoint httpEndpoint = new HttpEndpoint(httpEndpointConfiguration.getHost(), httpEndpointConfiguration.getPort());
+			thresholdOutputter = new HttpThresholdOutputter(thresholdOutputter, httpEndpoint);
+			statsOutputter = new HttpStatsOutputter(statsOutputter, httpEndpoint);
+
+			httpEndpoint.start();
+			logger.info("Serving /stats and /metrics on {}:{}", httpEndpointConfiguration.getHost(), httpEndpoint.getPort());
+		}
+
+		Configuration.AsyncOutputterConfiguration asyncOutputterConfiguration = configuration.getAsyncOutputterConfiguration();
+		if (asyncOutputterConfiguration.isEnabled()) {
+			thresholdOutputter = new AsyncThresholdOutputter(thresholdOutputter, asyncOutputterConfiguration);
+			statsOutputter = new AsyncStatsOutputter(statsOutputter, asyncOutputterConfiguration);
+		}
 
 		ScheduledLogListener thresholdLogListener = new ThresholdLogListener(
-				new ThresholdToConsoleOutputter(LogManager.getLogger(ThresholdToConsoleOutputter.class)),
+				thresholdOutputter,
 				configuration.getThresholdLogListenerConfiguration()
 		);
 		ScheduledLogListener statsLogListener = new StatsLogListener(
-				new StatsToConsoleOutputter(LogManager.getLogger(StatsToConsoleOutputter.class)),
+				statsOutputter,
 				configuration.getStatsLogListenerConfiguration()
 		);
 
 		thresholdLogListener.startScheduler();
 		statsLogListener.startScheduler();
 
-		fileLogMonitor.subscribe(thresholdLogListener);
-		fileLogMonitor.subscribe(statsLogListener);
+		logMonitor.subscribe(thresholdLogListener);
+		logMonitor.subscribe(statsLogListener);
 
-		fileLogMonitor.startMonitoring();
+		logMonitor.startMonitoring();
 
 		// Since I'm using Observables, there's nothing blocking the main thread, which is why I've added an infinite loop
 		while (true) {}
 	}
 
+	// No scheduler: the listeners run their periods as the logs go by (see ScheduledLogListener), so they need the event time
+	// The outputs stay synchronous, so that no period is dropped when they come faster than the console can print them
+	private static void replay(Configuration configuration, File fileToReplay) throws InterruptedException {
+		if (!fileToReplay.isFile()) {
+			throw new IllegalArgumentException("The file to replay doesn't exist or is not a file");
+		}
+
+		LogMonitor<AccessLog> logMonitor = new ReplayLogMonitor<>(
+				fileToReplay,
+				new AccessLogParser(),
+				configuration.getFileLogMonitorConfiguration()
+		);
+
+		Configuration.ThresholdLogListenerConfiguration thresholdConfiguration = configuration.getThresholdLogListenerConfiguration();
+		ScheduledLogListener thresholdLogListener = new ThresholdLogListener(
+				new ThresholdToConsoleOutputter(LogManager.getLogger(ThresholdToConsoleOutputter.class)),
+				thresholdConfiguration,
+				ThresholdLogListenerOptions.fromConfiguration(thresholdConfiguration)
+						.withEventTimeWindowing(new EventTimeWindowing(thresholdConfiguration.getAllowedLateness()))
+		);
+		Configuration.StatsLogListenerConfiguration statsConfiguration = configuration.getStatsLogListenerConfiguration();
+		ScheduledLogListener statsLogListener = new StatsLogListener(
+				new StatsToConsoleOutputter(LogManager.getLogger(StatsToConsoleOutputter.class)),
+				statsConfiguration,
+				StatsLogListenerOptions.fromConfiguration(statsConfiguration)
+						.withEventTimeWindowing(new EventTimeWindowing(statsConfiguration.getAllowedLateness()))
+		);
+
+		thresholdLogListener.startReplay();
+		statsLogListener.startReplay();
+
+		logMonitor.subscribe(thresholdLogListener);
+		logMonitor.subscribe(statsLogListener);
+
+		long start = System.currentTimeMillis();
+		logMonitor.startMonitoring();
+
+		thresholdLogListener.awaitCompletion();
+		statsLogListener.awaitCompletion();
+		logMonitor.stopMonitoring();
+
+		logger.info("Replayed {} in {} ms", fileToReplay.getPath(), System.currentTimeMillis() - start);
+	}
+
+	private static MetricsReporter startMetrics(Configuration.MetricsConfiguration configuration) {
+		if (configuration.isJmx()) {
+			Metrics.registerMBean();
+		}
+
+		MetricsReporter metricsReporter = new MetricsReporter(LogManager.getLogger(MetricsReporter.class));
+		if (configuration.getDumpIntervalInSeconds() > 0) {
+			metricsReporter.start(configuration.getDumpIntervalInSeconds());
+		}
+
+		return metricsReporter;
+	}
+
+	// Several paths (or glob patterns) given by argument or in the configuration are monitored by a MultiFileLogMonitor
+	private static LogMonitor<AccessLog> getLogMonitor(Configuration configuration, String[] args) throws IOException {
+		List<String> paths = args.length > 1 ? Arrays.asList(args) : configuration.getFileToMonitorConfiguration().getPaths();
+
+		if (!paths.isEmpty() && args.length != 1) {
+			return new MultiFileLogMonitor<>(
+					paths,
+					new AccessLogParser(),
+					configuration.getFileLogMonitorConfiguration(),
+					configuration.getMultiFileLogMonitorConfiguration()
+			);
+		}
+
+		File fileToMonitor = getFileToMonitor(
+				configuration.getFileToMonitorConfiguration(),
+				args
+		);
+
+		return new FileLogMonitor<>(
+				fileToMonitor,
+				new AccessLogParser(),
+				configuration.getFileLogMonitorConfiguration()
+		);
+	}
+
 	private static File getFileToMonitor(
 			Configuration.FileToMonitorConfiguration configuration,
 			String[] args) throws IOException {
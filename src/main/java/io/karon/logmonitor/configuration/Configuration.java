@@ -2,12 +2,23 @@ package io.karon.logmonitor.configuration;
 
 import java.io.File;
 import java.io.InputStream;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Properties;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import io.karon.logmonitor.inputter.OverflowStrategy;
+import io.karon.logmonitor.inputter.ReaderMode;
+import io.karon.logmonitor.inputter.TailingMode;
+import io.karon.logmonitor.listener.AlertRule;
+import io.karon.logmonitor.listener.AnomalyDetection;
+import io.karon.logmonitor.listener.EventTimeWindowing;
+import io.karon.logmonitor.listener.LowTrafficThreshold;
+
 
 public class Configuration {
 	private static final Logger logger = LogManager.getLogger(Configuration.class);
@@ -15,8 +26,12 @@ public class Configuration {
 
 	private FileToMonitorConfiguration fileToMonitorConfiguration;
 	private FileLogMonitorConfiguration fileLogMonitorConfiguration;
+	private MultiFileLogMonitorConfiguration multiFileLogMonitorConfiguration;
 	private StatsLogListenerConfiguration statsLogListenerConfiguration;
 	private ThresholdLogListenerConfiguration thresholdLogListenerConfiguration;
+	private MetricsConfiguration metricsConfiguration;
+	private HttpEndpointConfiguration httpEndpointConfiguration;
+	private AsyncOutputterConfiguration asyncOutputterConfiguration;
 
 	public static Configuration getConfigValues() {
 		Configuration configuration = new Configuration();
@@ -30,15 +45,23 @@ public class Configuration {
 
 				configuration.fileToMonitorConfiguration = FileToMonitorConfiguration.getConfiguration(properties);
 				configuration.fileLogMonitorConfiguration = FileLogMonitorConfiguration.getConfiguration(properties);
+				configuration.multiFileLogMonitorConfiguration = MultiFileLogMonitorConfiguration.getConfiguration(properties);
 				configuration.statsLogListenerConfiguration = StatsLogListenerConfiguration.getConfiguration(properties);
 				configuration.thresholdLogListenerConfiguration = ThresholdLogListenerConfiguration.getConfiguration(properties);
+				configuration.metricsConfiguration = MetricsConfiguration.getConfiguration(properties);
+				configuration.httpEndpointConfiguration = HttpEndpointConfiguration.getConfiguration(properties);
+				configuration.asyncOutputterConfiguration = AsyncOutputterConfiguration.getConfiguration(properties);
 			} else {
 				logger.info("Configuration file not found, revert to using default properties");
 
 				configuration.fileToMonitorConfiguration = FileToMonitorConfiguration.getDefaultConfiguration();
 				configuration.fileLogMonitorConfiguration = FileLogMonitorConfiguration.getDefaultConfiguration();
+				configuration.multiFileLogMonitorConfiguration = MultiFileLogMonitorConfiguration.getDefaultConfiguration();
 				configuration.statsLogListenerConfiguration = StatsLogListenerConfiguration.getDefaultConfiguration();
 				configuration.thresholdLogListenerConfiguration = ThresholdLogListenerConfiguration.getDefaultConfiguration();
+				configuration.metricsConfiguration = MetricsConfiguration.getDefaultConfiguration();
+				configuration.httpEndpointConfiguration = HttpEndpointConfiguration.getDefaultConfiguration();
+				configuration.asyncOutputterConfiguration = AsyncOutputterConfiguration.getDefaultConfiguration();
 			}
 
 		} catch (Exception e) {
@@ -54,36 +77,55 @@ public class Configuration {
 
 	public FileLogMonitorConfiguration getFileLogMonitorConfiguration() { return fileLogMonitorConfiguration; }
 
+	public MultiFileLogMonitorConfiguration getMultiFileLogMonitorConfiguration() { return multiFileLogMonitorConfiguration; }
+
 	public StatsLogListenerConfiguration getStatsLogListenerConfiguration() { return statsLogListenerConfiguration; }
 
 	public ThresholdLogListenerConfiguration getThresholdLogListenerConfiguration() { return thresholdLogListenerConfiguration; }
 
+	public MetricsConfiguration getMetricsConfiguration() { return metricsConfiguration; }
+
+	public HttpEndpointConfiguration getHttpEndpointConfiguration() { return httpEndpointConfiguration; }
+
+	public AsyncOutputterConfiguration getAsyncOutputterConfiguration() { return asyncOutputterConfiguration; }
+
 	public static class FileToMonitorConfiguration {
 		private static final String PATH_PROPERTY = "fileToMonitor.path";
 		private static final String CREATE_IF_ABSENT_PROPERTY = "fileToMonitor.createIfAbsent";
+		private static final String PATHS_PROPERTY = "fileToMonitor.paths";
 
 		private static final String PATH_DEFAULT_VALUE = "/tmp/access.log";
 		private static final String CREATE_IF_ABSENT_DEFAULT_VALUE = "true";
+		private static final String PATHS_DEFAULT_VALUE = "";
 
 		private final File fileToMonitor;
 		private final boolean createIfAbsent;
+		private final List<String> paths;
 
-		private FileToMonitorConfiguration(String fileToMonitor, String createIfAbsent) {
+		private FileToMonitorConfiguration(String fileToMonitor, String createIfAbsent, String paths) {
 			this.fileToMonitor = new File(fileToMonitor);
 			this.createIfAbsent = Boolean.parseBoolean(createIfAbsent);
+			// Comma separated paths or glob patterns, used instead of the path when there's at least one
+			this.paths = Arrays.stream(paths.split(","))
+					.map(String::trim)
+					.filter(path -> !path.isEmpty())
+					.collect(Collectors.toList());
 		}
 
 		static FileToMonitorConfiguration getConfiguration(Properties properties) {
 			return new FileToMonitorConfiguration(
 					properties.getProperty(PATH_PROPERTY, PATH_DEFAULT_VALUE),
-					properties.getProperty(CREATE_IF_ABSENT_PROPERTY, CREATE_IF_ABSENT_DEFAULT_VALUE)
+					properties.getProperty(CREATE_IF_ABSENT_PROPERTY, CREATE_IF_ABSENT_DEFAULT_VALUE),
+					properties.getProperty(PATHS_PROPERTY, PATHS_DEFAULT_VALUE)
 			);
 		}
 
 		static FileToMonitorConfiguration getDefaultConfiguration() {
-			return new FileToMonitorConfiguration(PATH_DEFAULT_VALUE, CREATE_IF_ABSENT_DEFAULT_VALUE);
+			return new FileToMonitorConfiguration(PATH_DEFAULT_VALUE, CREATE_IF_ABSENT_DEFAULT_VALUE, PATHS_DEFAULT_VALUE);
 		}
 
+		public List<String> getPaths() { return paths; }
+
 		public File getFileToMonitor() {
 			return fileToMonitor;
 		}
@@ -96,70 +138,256 @@ public class Configuration {
 	public static class FileLogMonitorConfiguration {
 		private static final String IGNORE_ON_PARSE_FAILURE_PROPERTY = "fileLogMonitor.ignoreOnParseFailure";
 		private static final String READ_FROM_END_OF_FILE_PROPERTY = "fileLogMonitor.readFromEndOfFile";
+		private static final String BUFFER_SIZE_PROPERTY = "fileLogMonitor.bufferSize";
+		private static final String OVERFLOW_STRATEGY_PROPERTY = "fileLogMonitor.overflowStrategy";
+		private static final String REPLAY_SIZE_PROPERTY = "fileLogMonitor.replaySize";
+		private static final String TAILING_MODE_PROPERTY = "fileLogMonitor.tailingMode";
+		private static final String MAX_WAIT_IN_MILLIS_PROPERTY = "fileLogMonitor.maxWaitInMillis";
+		private static final String PARSER_THREADS_PROPERTY = "fileLogMonitor.parserThreads";
+		private static final String PARSER_BATCH_SIZE_PROPERTY = "fileLogMonitor.parserBatchSize";
+		private static final String ORDERED_PARSING_PROPERTY = "fileLogMonitor.orderedParsing";
+		private static final String READER_MODE_PROPERTY = "fileLogMonitor.readerMode";
+		private static final String CHECKPOINT_PATH_PROPERTY = "fileLogMonitor.checkpointPath";
+		private static final String CHECKPOINT_INTERVAL_IN_MILLIS_PROPERTY = "fileLogMonitor.checkpointIntervalInMillis";
 
 		private static final String IGNORE_ON_PARSE_FAILURE_DEFAULT_VALUE = "true";
 		private static final String READ_FROM_END_OF_FILE_DEFAULT_VALUE = "true";
+		private static final String BUFFER_SIZE_DEFAULT_VALUE = "10000";
+		private static final String OVERFLOW_STRATEGY_DEFAULT_VALUE = "BLOCK";
+		private static final String REPLAY_SIZE_DEFAULT_VALUE = "0";
+		private static final String TAILING_MODE_DEFAULT_VALUE = "WATCH_SERVICE";
+		private static final String MAX_WAIT_IN_MILLIS_DEFAULT_VALUE = "500";
+		private static final String PARSER_THREADS_DEFAULT_VALUE = "0";
+		private static final String PARSER_BATCH_SIZE_DEFAULT_VALUE = "1000";
+		private static final String ORDERED_PARSING_DEFAULT_VALUE = "true";
+		private static final String READER_MODE_DEFAULT_VALUE = "BUFFERED";
+		private static final String CHECKPOINT_PATH_DEFAULT_VALUE = "";
+		private static final String CHECKPOINT_INTERVAL_IN_MILLIS_DEFAULT_VALUE = "5000";
 
 		private final boolean ignoreOnParseFailure;
 		private final boolean readFromEndOfFile;
-
-		private FileLogMonitorConfiguration(String ignoreOnParseFailure, String readFromEndOfFile) {
+		private final int bufferSize;
+		private final OverflowStrategy overflowStrategy;
+		private final int replaySize;
+		private final TailingMode tailingMode;
+		private final long maxWaitInMillis;
+		private final int parserThreads;
+		private final int parserBatchSize;
+		private final boolean orderedParsing;
+		private final ReaderMode readerMode;
+		private final File checkpointFile;
+		private final long checkpointIntervalInMillis;
+
+		private FileLogMonitorConfiguration(
+				String ignoreOnParseFailure,
+				String readFromEndOfFile,
+				String bufferSize,
+				String overflowStrategy,
+				String replaySize,
+				String tailingMode,
+				String maxWaitInMillis,
+				String parserThreads,
+				String parserBatchSize,
+				String orderedParsing,
+				String readerMode,
+				String checkpointPath,
+				String checkpointIntervalInMillis) {
 			this.ignoreOnParseFailure = Boolean.parseBoolean(ignoreOnParseFailure);
 			this.readFromEndOfFile = Boolean.parseBoolean(readFromEndOfFile);
+			this.bufferSize = Integer.parseInt(bufferSize);
+			this.overflowStrategy = OverflowStrategy.valueOf(overflowStrategy);
+			this.replaySize = Integer.parseInt(replaySize);
+			this.tailingMode = TailingMode.valueOf(tailingMode);
+			this.maxWaitInMillis = Long.parseLong(maxWaitInMillis);
+			this.parserThreads = Integer.parseInt(parserThreads);
+			this.parserBatchSize = Integer.parseInt(parserBatchSize);
+			this.orderedParsing = Boolean.parseBoolean(orderedParsing);
+			this.readerMode = ReaderMode.valueOf(readerMode);
+			// No checkpoint when the path is empty
+			this.checkpointFile = checkpointPath.isEmpty() ? null : new File(checkpointPath);
+			this.checkpointIntervalInMillis = Long.parseLong(checkpointIntervalInMillis);
 		}
 
 		static FileLogMonitorConfiguration getConfiguration(Properties properties) {
 			return new FileLogMonitorConfiguration(
 					properties.getProperty(IGNORE_ON_PARSE_FAILURE_PROPERTY, IGNORE_ON_PARSE_FAILURE_DEFAULT_VALUE),
-					properties.getProperty(READ_FROM_END_OF_FILE_PROPERTY, READ_FROM_END_OF_FILE_DEFAULT_VALUE)
+					properties.getProperty(READ_FROM_END_OF_FILE_PROPERTY, READ_FROM_END_OF_FILE_DEFAULT_VALUE),
+					properties.getProperty(BUFFER_SIZE_PROPERTY, BUFFER_SIZE_DEFAULT_VALUE),
+					properties.getProperty(OVERFLOW_STRATEGY_PROPERTY, OVERFLOW_STRATEGY_DEFAULT_VALUE),
+					properties.getProperty(REPLAY_SIZE_PROPERTY, REPLAY_SIZE_DEFAULT_VALUE),
+					properties.getProperty(TAILING_MODE_PROPERTY, TAILING_MODE_DEFAULT_VALUE),
+					properties.getProperty(MAX_WAIT_IN_MILLIS_PROPERTY, MAX_WAIT_IN_MILLIS_DEFAULT_VALUE),
+					properties.getProperty(PARSER_THREADS_PROPERTY, PARSER_THREADS_DEFAULT_VALUE),
+					properties.getProperty(PARSER_BATCH_SIZE_PROPERTY, PARSER_BATCH_SIZE_DEFAULT_VALUE),
+					properties.getProperty(ORDERED_PARSING_PROPERTY, ORDERED_PARSING_DEFAULT_VALUE),
+					properties.getProperty(READER_MODE_PROPERTY, READER_MODE_DEFAULT_VALUE),
+					properties.getProperty(CHECKPOINT_PATH_PROPERTY, CHECKPOINT_PATH_DEFAULT_VALUE),
+					properties.getProperty(CHECKPOINT_INTERVAL_IN_MILLIS_PROPERTY, CHECKPOINT_INTERVAL_IN_MILLIS_DEFAULT_VALUE)
 			);
 		}
 
 		static FileLogMonitorConfiguration getDefaultConfiguration() {
 			return new FileLogMonitorConfiguration(
 					IGNORE_ON_PARSE_FAILURE_DEFAULT_VALUE,
-					READ_FROM_END_OF_FILE_DEFAULT_VALUE
+					READ_FROM_END_OF_FILE_DEFAULT_VALUE,
+					BUFFER_SIZE_DEFAULT_VALUE,
+					OVERFLOW_STRATEGY_DEFAULT_VALUE,
+					REPLAY_SIZE_DEFAULT_VALUE,
+					TAILING_MODE_DEFAULT_VALUE,
+					MAX_WAIT_IN_MILLIS_DEFAULT_VALUE,
+					PARSER_THREADS_DEFAULT_VALUE,
+					PARSER_BATCH_SIZE_DEFAULT_VALUE,
+					ORDERED_PARSING_DEFAULT_VALUE,
+					READER_MODE_DEFAULT_VALUE,
+					CHECKPOINT_PATH_DEFAULT_VALUE,
+					CHECKPOINT_INTERVAL_IN_MILLIS_DEFAULT_VALUE
 			);
 		}
 
 		public boolean isIgnoreOnParseFailure() { return ignoreOnParseFailure; }
 
 		public boolean isReadFromEndOfFile() { return readFromEndOfFile; }
+
+		public int getBufferSize() { return bufferSize; }
+
+		public OverflowStrategy getOverflowStrategy() { return overflowStrategy; }
+
+		public int getReplaySize() { return replaySize; }
+
+		public TailingMode getTailingMode() { return tailingMode; }
+
+		public long getMaxWaitInMillis() { return maxWaitInMillis; }
+
+		public int getParserThreads() { return parserThreads; }
+
+		public int getParserBatchSize() { return parserBatchSize; }
+
+		public boolean isOrderedParsing() { return orderedParsing; }
+
+		public ReaderMode getReaderMode() { return readerMode; }
+
+		public File getCheckpointFile() { return checkpointFile; }
+
+		public long getCheckpointIntervalInMillis() { return checkpointIntervalInMillis; }
+	}
+
+	public static class MultiFileLogMonitorConfiguration {
+		private static final String READER_THREADS_PROPERTY = "multiFileLogMonitor.readerThreads";
+		private static final String LINES_PER_READ_PROPERTY = "multiFileLogMonitor.linesPerRead";
+		private static final String RESCAN_INTERVAL_IN_MILLIS_PROPERTY = "multiFileLogMonitor.rescanIntervalInMillis";
+
+		private static final String READER_THREADS_DEFAULT_VALUE = "2";
+		private static final String LINES_PER_READ_DEFAULT_VALUE = "1000";
+		private static final String RESCAN_INTERVAL_IN_MILLIS_DEFAULT_VALUE = "1000";
+
+		private final int readerThreads;
+		private final int linesPerRead;
+		private final long rescanIntervalInMillis;
+
+		private MultiFileLogMonitorConfiguration(String readerThreads, String linesPerRead, String rescanIntervalInMillis) {
+			this.readerThreads = Integer.parseInt(readerThreads);
+			this.linesPerRead = Integer.parseInt(linesPerRead);
+			this.rescanIntervalInMillis = Long.parseLong(rescanIntervalInMillis);
+		}
+
+		static MultiFileLogMonitorConfiguration getConfiguration(Properties properties) {
+			return new MultiFileLogMonitorConfiguration(
+					properties.getProperty(READER_THREADS_PROPERTY, READER_THREADS_DEFAULT_VALUE),
+					properties.getProperty(LINES_PER_READ_PROPERTY, LINES_PER_READ_DEFAULT_VALUE),
+					properties.getProperty(RESCAN_INTERVAL_IN_MILLIS_PROPERTY, RESCAN_INTERVAL_IN_MILLIS_DEFAULT_VALUE)
+			);
+		}
+
+		static MultiFileLogMonitorConfiguration getDefaultConfiguration() {
+			return new MultiFileLogMonitorConfiguration(
+					READER_THREADS_DEFAULT_VALUE,
+					LINES_PER_READ_DEFAULT_VALUE,
+					RESCAN_INTERVAL_IN_MILLIS_DEFAULT_VALUE
+			);
+		}
+
+		public int getReaderThreads() { return readerThreads; }
+
+		public int getLinesPerRead() { return linesPerRead; }
+
+		public long getRescanIntervalInMillis() { return rescanIntervalInMillis; }
 	}
 
 	public static class StatsLogListenerConfiguration {
 		private static final String INITIAL_DELAY_PROPERTY = "statsLogListener.initialDelay";
 		private static final String PERIOD_PROPERTY = "statsLogListener.period";
+		private static final String PRECISION_PROPERTY = "statsLogListener.precision";
 		private static final String TIME_UNIT_PROPERTY = "statsLogListener.timeUnit";
 		private static final String NUMBER_OF_SECTIONS_TO_SHOW_PROPERTY = "statsLogListener.numberOfSectionsToShow";
+		private static final String HEAVY_HITTERS_CAPACITY_PROPERTY = "statsLogListener.heavyHittersCapacity";
+		private static final String UNIQUES_PRECISION_PROPERTY = "statsLogListener.uniquesPrecision";
+		private static final String CONTENT_SIZE_HISTOGRAMS_PROPERTY = "statsLogListener.contentSizeHistograms";
+		private static final String TREND_BASELINE_PERIODS_PROPERTY = "statsLogListener.trendBaselinePeriods";
+		private static final String EVENT_TIME_PROPERTY = "statsLogListener.eventTime";
+		private static final String ALLOWED_LATENESS_PROPERTY = "statsLogListener.allowedLateness";
 
 		private static final String INITIAL_DELAY_DEFAULT_VALUE = "10";
 		private static final String PERIOD_DEFAULT_VALUE = "10";
+		private static final String PRECISION_DEFAULT_VALUE = "1";
 		private static final String TIME_UNIT_DEFAULT_VALUE = "SECONDS";
 		private static final String NUMBER_OF_SECTIONS_TO_SHOW_DEFAULT_VALUE = "5";
+		private static final String HEAVY_HITTERS_CAPACITY_DEFAULT_VALUE = "0";
+		private static final String UNIQUES_PRECISION_DEFAULT_VALUE = "12";
+		private static final String CONTENT_SIZE_HISTOGRAMS_DEFAULT_VALUE = "true";
+		private static final String TREND_BASELINE_PERIODS_DEFAULT_VALUE = "6";
+		private static final String EVENT_TIME_DEFAULT_VALUE = "false";
+		private static final String ALLOWED_LATENESS_DEFAULT_VALUE = "5";
 
 		private final int initialDelay;
 		private final int period;
+		private final int precision;
 		private final TimeUnit timeUnit;
 		private final int numberOfSectionsToShow;
+		private final int heavyHittersCapacity;
+		private final int uniquesPrecision;
+		private final boolean contentSizeHistograms;
+		private final int trendBaselinePeriods;
+		private final boolean eventTime;
+		private final long allowedLateness;
 
 		private StatsLogListenerConfiguration(
 				String initialDelay,
 				String period,
+				String precision,
 				String timeUnit,
-				String numberOfSectionsToShow) {
+				String numberOfSectionsToShow,
+				String heavyHittersCapacity,
+				String uniquesPrecision,
+				String contentSizeHistograms,
+				String trendBaselinePeriods,
+				String eventTime,
+				String allowedLateness) {
 			this.initialDelay = Integer.parseInt(initialDelay);
 			this.period = Integer.parseInt(period);
+			this.precision = Integer.parseInt(precision);
 			this.timeUnit = TimeUnit.valueOf(timeUnit);
 			this.numberOfSectionsToShow = Integer.parseInt(numberOfSectionsToShow);
+			this.heavyHittersCapacity = Integer.parseInt(heavyHittersCapacity);
+			this.uniquesPrecision = Integer.parseInt(uniquesPrecision);
+			this.contentSizeHistograms = Boolean.parseBoolean(contentSizeHistograms);
+			this.trendBaselinePeriods = Integer.parseInt(trendBaselinePeriods);
+			this.eventTime = Boolean.parseBoolean(eventTime);
+			this.allowedLateness = Long.parseLong(allowedLateness);
 		}
 
 		static StatsLogListenerConfiguration getConfiguration(Properties properties) {
 			return new StatsLogListenerConfiguration(
 					properties.getProperty(INITIAL_DELAY_PROPERTY, INITIAL_DELAY_DEFAULT_VALUE),
 					properties.getProperty(PERIOD_PROPERTY, PERIOD_DEFAULT_VALUE),
+					properties.getProperty(PRECISION_PROPERTY, PRECISION_DEFAULT_VALUE),
 					properties.getProperty(TIME_UNIT_PROPERTY, TIME_UNIT_DEFAULT_VALUE),
-					properties.getProperty(NUMBER_OF_SECTIONS_TO_SHOW_PROPERTY, NUMBER_OF_SECTIONS_TO_SHOW_DEFAULT_VALUE)
+					properties.getProperty(NUMBER_OF_SECTIONS_TO_SHOW_PROPERTY, NUMBER_OF_SECTIONS_TO_SHOW_DEFAULT_VALUE),
+					properties.getProperty(HEAVY_HITTERS_CAPACITY_PROPERTY, HEAVY_HITTERS_CAPACITY_DEFAULT_VALUE),
+					properties.getProperty(UNIQUES_PRECISION_PROPERTY, UNIQUES_PRECISION_DEFAULT_VALUE),
+					properties.getProperty(CONTENT_SIZE_HISTOGRAMS_PROPERTY, CONTENT_SIZE_HISTOGRAMS_DEFAULT_VALUE),
+					properties.getProperty(TREND_BASELINE_PERIODS_PROPERTY, TREND_BASELINE_PERIODS_DEFAULT_VALUE),
+					properties.getProperty(EVENT_TIME_PROPERTY, EVENT_TIME_DEFAULT_VALUE),
+					properties.getProperty(ALLOWED_LATENESS_PROPERTY, ALLOWED_LATENESS_DEFAULT_VALUE)
 			);
 		}
 
@@ -167,8 +395,15 @@ public class Configuration {
 			return new StatsLogListenerConfiguration(
 					INITIAL_DELAY_DEFAULT_VALUE,
 					PERIOD_DEFAULT_VALUE,
+					PRECISION_DEFAULT_VALUE,
 					TIME_UNIT_DEFAULT_VALUE,
-					NUMBER_OF_SECTIONS_TO_SHOW_DEFAULT_VALUE
+					NUMBER_OF_SECTIONS_TO_SHOW_DEFAULT_VALUE,
+					HEAVY_HITTERS_CAPACITY_DEFAULT_VALUE,
+					UNIQUES_PRECISION_DEFAULT_VALUE,
+					CONTENT_SIZE_HISTOGRAMS_DEFAULT_VALUE,
+					TREND_BASELINE_PERIODS_DEFAULT_VALUE,
+					EVENT_TIME_DEFAULT_VALUE,
+					ALLOWED_LATENESS_DEFAULT_VALUE
 			);
 		}
 
@@ -176,9 +411,28 @@ public class Configuration {
 
 		public int getPeriod() { return period; }
 
+		public int getPrecision() { return precision; }
+
 		public TimeUnit getTimeUnit() { return timeUnit; }
 
 		public int getNumberOfSectionsToShow() { return numberOfSectionsToShow; }
+
+		public int getHeavyHittersCapacity() { return heavyHittersCapacity; }
+
+		public int getUniquesPrecision() { return uniquesPrecision; }
+
+		public boolean isContentSizeHistograms() { return contentSizeHistograms; }
+
+		public int getTrendBaselinePeriods() { return trendBaselinePeriods; }
+
+		public boolean isEventTime() { return eventTime; }
+
+		public long getAllowedLateness() { return allowedLateness; }
+
+		// null if eventTime is false (wall clock)
+		public EventTimeWindowing getEventTimeWindowing() {
+			return eventTime ? new EventTimeWindowing(allowedLateness) : null;
+		}
 	}
 
 	public static class ThresholdLogListenerConfiguration {
@@ -186,31 +440,91 @@ public class Configuration {
 		private static final String PERIOD_PROPERTY = "thresholdLogListener.period";
 		private static final String DURATION_TO_MONITOR_PROPERTY = "thresholdLogListener.durationToMonitor";
 		private static final String THRESHOLD_PROPERTY = "thresholdLogListener.threshold";
+		private static final String PRECISION_PROPERTY = "thresholdLogListener.precision";
 		private static final String TIME_UNIT_PROPERTY = "thresholdLogListener.timeUnit";
+		private static final String ALERT_RULES_PROPERTY = "thresholdLogListener.alertRules";
+		private static final String LOW_THRESHOLD_PROPERTY = "thresholdLogListener.lowThreshold";
+		private static final String LOW_RECOVERY_THRESHOLD_PROPERTY = "thresholdLogListener.lowRecoveryThreshold";
+		private static final String LOW_ALERT_MIN_DURATION_PROPERTY = "thresholdLogListener.lowAlertMinDuration";
+		private static final String LOW_RECOVERY_MIN_DURATION_PROPERTY = "thresholdLogListener.lowRecoveryMinDuration";
+		private static final String ANOMALY_Z_SCORE_THRESHOLD_PROPERTY = "thresholdLogListener.anomalyZScoreThreshold";
+		private static final String ANOMALY_ALPHA_PROPERTY = "thresholdLogListener.anomalyAlpha";
+		private static final String ANOMALY_WARM_UP_TIME_SLOTS_PROPERTY = "thresholdLogListener.anomalyWarmUpTimeSlots";
+		private static final String ANOMALY_SEASONAL_BUCKETS_PROPERTY = "thresholdLogListener.anomalySeasonalBuckets";
+		private static final String EVENT_TIME_PROPERTY = "thresholdLogListener.eventTime";
+		private static final String ALLOWED_LATENESS_PROPERTY = "thresholdLogListener.allowedLateness";
 
 		private static final String INITIAL_DELAY_DEFAULT_VALUE = "10";
 		private static final String PERIOD_DEFAULT_VALUE = "10";
 		private static final String DURATION_TO_MONITOR_DEFAULT_VALUE = "120";
 		private static final String THRESHOLD_DEFAULT_VALUE = "10";
+		private static final String PRECISION_DEFAULT_VALUE = "1";
 		private static final String TIME_UNIT_DEFAULT_VALUE = "SECONDS";
+		private static final String ALERT_RULES_DEFAULT_VALUE = "";
+		private static final String LOW_THRESHOLD_DEFAULT_VALUE = "0";
+		private static final String LOW_RECOVERY_THRESHOLD_DEFAULT_VALUE = "0";
+		private static final String LOW_ALERT_MIN_DURATION_DEFAULT_VALUE = "0";
+		private static final String LOW_RECOVERY_MIN_DURATION_DEFAULT_VALUE = "0";
+		private static final String ANOMALY_Z_SCORE_THRESHOLD_DEFAULT_VALUE = "0";
+		private static final String ANOMALY_ALPHA_DEFAULT_VALUE = "0.05";
+		private static final String ANOMALY_WARM_UP_TIME_SLOTS_DEFAULT_VALUE = "60";
+		private static final String ANOMALY_SEASONAL_BUCKETS_DEFAULT_VALUE = "0";
+		private static final String EVENT_TIME_DEFAULT_VALUE = "false";
+		private static final String ALLOWED_LATENESS_DEFAULT_VALUE = "5";
 
 		private final int initialDelay;
 		private final int period;
 		private final int durationToMonitor;
 		private final int threshold;
+		private final int precision;
 		private final TimeUnit timeUnit;
+		private final List<AlertRule> alertRules;
+		private final int lowThreshold;
+		private final int lowRecoveryThreshold;
+		private final long lowAlertMinDuration;
+		private final long lowRecoveryMinDuration;
+		private final double anomalyZScoreThreshold;
+		private final double anomalyAlpha;
+		private final int anomalyWarmUpTimeSlots;
+		private final int anomalySeasonalBuckets;
+		private final boolean eventTime;
+		private final long allowedLateness;
 
 		private ThresholdLogListenerConfiguration(
 				String initialDelay,
 				String period,
 				String durationToMonitor,
 				String threshold,
-				String timeUnit) {
+				String precision,
+				String timeUnit,
+				String alertRules,
+				String lowThreshold,
+				String lowRecoveryThreshold,
+				String lowAlertMinDuration,
+				String lowRecoveryMinDuration,
+				String anomalyZScoreThreshold,
+				String anomalyAlpha,
+				String anomalyWarmUpTimeSlots,
+				String anomalySeasonalBuckets,
+				String eventTime,
+				String allowedLateness) {
 			this.initialDelay = Integer.parseInt(initialDelay);
 			this.period = Integer.parseInt(period);
 			this.durationToMonitor = Integer.parseInt(durationToMonitor);
 			this.threshold = Integer.parseInt(threshold);
+			this.precision = Integer.parseInt(precision);
 			this.timeUnit = TimeUnit.valueOf(timeUnit);
+			this.alertRules = AlertRule.parseAll(alertRules);
+			this.lowThreshold = Integer.parseInt(lowThreshold);
+			this.lowRecoveryThreshold = Integer.parseInt(lowRecoveryThreshold);
+			this.lowAlertMinDuration = Long.parseLong(lowAlertMinDuration);
+			this.lowRecoveryMinDuration = Long.parseLong(lowRecoveryMinDuration);
+			this.anomalyZScoreThreshold = Double.parseDouble(anomalyZScoreThreshold);
+			this.anomalyAlpha = Double.parseDouble(anomalyAlpha);
+			this.anomalyWarmUpTimeSlots = Integer.parseInt(anomalyWarmUpTimeSlots);
+			this.anomalySeasonalBuckets = Integer.parseInt(anomalySeasonalBuckets);
+			this.eventTime = Boolean.parseBoolean(eventTime);
+			this.allowedLateness = Long.parseLong(allowedLateness);
 		}
 
 		static ThresholdLogListenerConfiguration getConfiguration(Properties properties) {
@@ -219,7 +533,19 @@ public class Configuration {
 					properties.getProperty(PERIOD_PROPERTY, PERIOD_DEFAULT_VALUE),
 					properties.getProperty(DURATION_TO_MONITOR_PROPERTY, DURATION_TO_MONITOR_DEFAULT_VALUE),
 					properties.getProperty(THRESHOLD_PROPERTY, THRESHOLD_DEFAULT_VALUE),
-					properties.getProperty(TIME_UNIT_PROPERTY, TIME_UNIT_DEFAULT_VALUE)
+					properties.getProperty(PRECISION_PROPERTY, PRECISION_DEFAULT_VALUE),
+					properties.getProperty(TIME_UNIT_PROPERTY, TIME_UNIT_DEFAULT_VALUE),
+					properties.getProperty(ALERT_RULES_PROPERTY, ALERT_RULES_DEFAULT_VALUE),
+					properties.getProperty(LOW_THRESHOLD_PROPERTY, LOW_THRESHOLD_DEFAULT_VALUE),
+					properties.getProperty(LOW_RECOVERY_THRESHOLD_PROPERTY, LOW_RECOVERY_THRESHOLD_DEFAULT_VALUE),
+					properties.getProperty(LOW_ALERT_MIN_DURATION_PROPERTY, LOW_ALERT_MIN_DURATION_DEFAULT_VALUE),
+					properties.getProperty(LOW_RECOVERY_MIN_DURATION_PROPERTY, LOW_RECOVERY_MIN_DURATION_DEFAULT_VALUE),
+					properties.getProperty(ANOMALY_Z_SCORE_THRESHOLD_PROPERTY, ANOMALY_Z_SCORE_THRESHOLD_DEFAULT_VALUE),
+					properties.getProperty(ANOMALY_ALPHA_PROPERTY, ANOMALY_ALPHA_DEFAULT_VALUE),
+					properties.getProperty(ANOMALY_WARM_UP_TIME_SLOTS_PROPERTY, ANOMALY_WARM_UP_TIME_SLOTS_DEFAULT_VALUE),
+					properties.getProperty(ANOMALY_SEASONAL_BUCKETS_PROPERTY, ANOMALY_SEASONAL_BUCKETS_DEFAULT_VALUE),
+					properties.getProperty(EVENT_TIME_PROPERTY, EVENT_TIME_DEFAULT_VALUE),
+					properties.getProperty(ALLOWED_LATENESS_PROPERTY, ALLOWED_LATENESS_DEFAULT_VALUE)
 			);
 		}
 
@@ -229,7 +555,19 @@ public class Configuration {
 					PERIOD_DEFAULT_VALUE,
 					DURATION_TO_MONITOR_DEFAULT_VALUE,
 					THRESHOLD_DEFAULT_VALUE,
-					TIME_UNIT_DEFAULT_VALUE
+					PRECISION_DEFAULT_VALUE,
+					TIME_UNIT_DEFAULT_VALUE,
+					ALERT_RULES_DEFAULT_VALUE,
+					LOW_THRESHOLD_DEFAULT_VALUE,
+					LOW_RECOVERY_THRESHOLD_DEFAULT_VALUE,
+					LOW_ALERT_MIN_DURATION_DEFAULT_VALUE,
+					LOW_RECOVERY_MIN_DURATION_DEFAULT_VALUE,
+					ANOMALY_Z_SCORE_THRESHOLD_DEFAULT_VALUE,
+					ANOMALY_ALPHA_DEFAULT_VALUE,
+					ANOMALY_WARM_UP_TIME_SLOTS_DEFAULT_VALUE,
+					ANOMALY_SEASONAL_BUCKETS_DEFAULT_VALUE,
+					EVENT_TIME_DEFAULT_VALUE,
+					ALLOWED_LATENESS_DEFAULT_VALUE
 			);
 		}
 
@@ -241,6 +579,164 @@ public class Configuration {
 
 		public int getThreshold() { return threshold; }
 
+		public int getPrecision() { return precision; }
+
 		public TimeUnit getTimeUnit() { return timeUnit; }
+
+		public List<AlertRule> getAlertRules() { return alertRules; }
+
+		public int getLowThreshold() { return lowThreshold; }
+
+		public int getLowRecoveryThreshold() { return lowRecoveryThreshold; }
+
+		public long getLowAlertMinDuration() { return lowAlertMinDuration; }
+
+		public long getLowRecoveryMinDuration() { return lowRecoveryMinDuration; }
+
+		// null if lowThreshold is 0 (no low traffic alert)
+		public LowTrafficThreshold getLowTrafficThreshold() {
+			if (lowThreshold == 0) {
+				return null;
+			}
+
+			return new LowTrafficThreshold(lowThreshold, lowRecoveryThreshold, lowAlertMinDuration, lowRecoveryMinDuration);
+		}
+
+		public double getAnomalyZScoreThreshold() { return anomalyZScoreThreshold; }
+
+		public double getAnomalyAlpha() { return anomalyAlpha; }
+
+		public int getAnomalyWarmUpTimeSlots() { return anomalyWarmUpTimeSlots; }
+
+		public int getAnomalySeasonalBuckets() { return anomalySeasonalBuckets; }
+
+		// null if anomalyZScoreThreshold is 0 (no anomaly detection)
+		public AnomalyDetection getAnomalyDetection() {
+			if (anomalyZScoreThreshold == 0) {
+				return null;
+			}
+
+			return new AnomalyDetection(anomalyAlpha, anomalyZScoreThreshold, anomalyWarmUpTimeSlots, anomalySeasonalBuckets);
+		}
+
+		public boolean isEventTime() { return eventTime; }
+
+		public long getAllowedLateness() { return allowedLateness; }
+
+		// null if eventTime is false (wall clock)
+		public EventTimeWindowing getEventTimeWindowing() {
+			return eventTime ? new EventTimeWindowing(allowedLateness) : null;
+		}
+	}
+
+	public static class MetricsConfiguration {
+		private static final String JMX_PROPERTY = "metrics.jmx";
+		private static final String DUMP_INTERVAL_IN_SECONDS_PROPERTY = "metrics.dumpIntervalInSeconds";
+
+		private static final String JMX_DEFAULT_VALUE = "true";
+		private static final String DUMP_INTERVAL_IN_SECONDS_DEFAULT_VALUE = "0";
+
+		private final boolean jmx;
+		private final long dumpIntervalInSeconds;
+
+		private MetricsConfiguration(String jmx, String dumpIntervalInSeconds) {
+			this.jmx = Boolean.parseBoolean(jmx);
+			// 0 to never log the metrics
+			this.dumpIntervalInSeconds = Long.parseLong(dumpIntervalInSeconds);
+		}
+
+		static MetricsConfiguration getConfiguration(Properties properties) {
+			return new MetricsConfiguration(
+					properties.getProperty(JMX_PROPERTY, JMX_DEFAULT_VALUE),
+					properties.getProperty(DUMP_INTERVAL_IN_SECONDS_PROPERTY, DUMP_INTERVAL_IN_SECONDS_DEFAULT_VALUE)
+			);
+		}
+
+		static MetricsConfiguration getDefaultConfiguration() {
+			return new MetricsConfiguration(JMX_DEFAULT_VALUE, DUMP_INTERVAL_IN_SECONDS_DEFAULT_VALUE);
+		}
+
+		public boolean isJmx() { return jmx; }
+
+		public long getDumpIntervalInSeconds() { return dumpIntervalInSeconds; }
+	}
+
+	public static class HttpEndpointConfiguration {
+		private static final String HOST_PROPERTY = "httpEndpoint.host";
+		private static final String PORT_PROPERTY = "httpEndpoint.port";
+
+		private static final String HOST_DEFAULT_VALUE = "localhost";
+		private static final String PORT_DEFAULT_VALUE = "0";
+
+		private final String host;
+		private final int port;
+
+		private HttpEndpointConfiguration(String host, String port) {
+			this.host = host;
+			// 0 to not serve anything
+			this.port = Integer.parseInt(port);
+		}
+
+		static HttpEndpointConfiguration getConfiguration(Properties properties) {
+			return new HttpEndpointConfiguration(
+					properties.getProperty(HOST_PROPERTY, HOST_DEFAULT_VALUE),
+					properties.getProperty(PORT_PROPERTY, PORT_DEFAULT_VALUE)
+			);
+		}
+
+		static HttpEndpointConfiguration getDefaultConfiguration() {
+			return new HttpEndpointConfiguration(HOST_DEFAULT_VALUE, PORT_DEFAULT_VALUE);
+		}
+
+		public String getHost() { return host; }
+
+		public int getPort() { return port; }
+
+		public boolean isEnabled() { return port > 0; }
+	}
+
+	public static class AsyncOutputterConfiguration {
+		private static final String ENABLED_PROPERTY = "asyncOutputter.enabled";
+		private static final String QUEUE_SIZE_PROPERTY = "asyncOutputter.queueSize";
+		private static final String LATE_LOGS_SUMMARY_INTERVAL_IN_SECONDS_PROPERTY = "asyncOutputter.lateLogsSummaryIntervalInSeconds";
+
+		private static final String ENABLED_DEFAULT_VALUE = "true";
+		private static final String QUEUE_SIZE_DEFAULT_VALUE = "1024";
+		private static final String LATE_LOGS_SUMMARY_INTERVAL_IN_SECONDS_DEFAULT_VALUE = "10";
+
+		private final boolean enabled;
+		private final int queueSize;
+		private final long lateLogsSummaryIntervalInSeconds;
+
+		private AsyncOutputterConfiguration(String enabled, String queueSize, String lateLogsSummaryIntervalInSeconds) {
+			this.enabled = Boolean.parseBoolean(enabled);
+			this.queueSize = Integer.parseInt(queueSize);
+			this.lateLogsSummaryIntervalInSeconds = Long.parseLong(lateLogsSummaryIntervalInSeconds);
+		}
+
+		static AsyncOutputterConfiguration getConfiguration(Properties properties) {
+			return new AsyncOutputterConfiguration(
+					properties.getProperty(ENABLED_PROPERTY, ENABLED_DEFAULT_VALUE),
+					properties.getProperty(QUEUE_SIZE_PROPERTY, QUEUE_SIZE_DEFAULT_VALUE),
+					properties.getProperty(
+							LATE_LOGS_SUMMARY_INTERVAL_IN_SECONDS_PROPERTY,
+							LATE_LOGS_SUMMARY_INTERVAL_IN_SECONDS_DEFAULT_VALUE
+					)
+			);
+		}
+
+		static AsyncOutputterConfiguration getDefaultConfiguration() {
+			return new AsyncOutputterConfiguration(
+					ENABLED_DEFAULT_VALUE,
+					QUEUE_SIZE_DEFAULT_VALUE,
+					LATE_LOGS_SUMMARY_INTERVAL_IN_SECONDS_DEFAULT_VALUE
+			);
+		}
+
+		public boolean isEnabled() { return enabled; }
+
+		public int getQueueSize() { return queueSize; }
+
+		public long getLateLogsSummaryIntervalInSeconds() { return lateLogsSummaryIntervalInSeconds; }
 	}
 }
@@ -0,0 +1,44 @@
+package io.karon.logmonitor.inputter;
+
+import java.util.concurrent.TimeUnit;
+
+
+/*
+Each time we wait without anything new being read in between, the delay doubles (up to maxWaitInMillis)
+So a busy file is read almost immediately, and a quiet one only wakes us up a few times per second
+With minWaitInMillis == maxWaitInMillis, it simply sleeps for a fixed delay
+ */
+class BackoffWaiter implements NewLinesWaiter {
+	static final long MIN_WAIT_IN_MILLIS = 1;
+
+	private final long minWaitInMillis;
+	private final long maxWaitInMillis;
+
+	private long currentWaitInMillis;
+
+	BackoffWaiter(long minWaitInMillis, long maxWaitInMillis) {
+		if (minWaitInMillis <= 0 || maxWaitInMillis < minWaitInMillis) {
+			throw new IllegalArgumentException("The waits should be greater than zero, and the max wait greater than the min wait");
+		}
+
+		this.minWaitInMillis = minWaitInMillis;
+		this.maxWaitInMillis = maxWaitInMillis;
+		this.currentWaitInMillis = minWaitInMillis;
+	}
+
+	@Override
+	public void awaitNewLines() throws InterruptedException {
+		TimeUnit.MILLISECONDS.sleep(nextWaitInMillis());
+	}
+
+	@Override
+	public void newLinesRead() {
+		currentWaitInMillis = minWaitInMillis;
+	}
+
+	long nextWaitInMillis() {
+		long waitInMillis = currentWaitInMillis;
+		currentWaitInMillis = Math.min(currentWaitInMillis * 2, maxWaitInMillis);
+		return waitInMillis;
+	}
+}
@@ -0,0 +1,276 @@
+package io.karon.logmonitor.inputter;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import io.karon.logmonitor.log.Log;
+import io.karon.logmonitor.metrics.Counter;
+import io.karon.logmonitor.metrics.Metrics;
+import io.karon.logmonitor.metrics.TimedObserver;
+import io.karon.logmonitor.metrics.Timer;
+import io.reactivex.BackpressureOverflowStrategy;
+import io.reactivex.Flowable;
+import io.reactivex.Observer;
+import io.reactivex.processors.FlowableProcessor;
+import io.reactivex.processors.PublishProcessor;
+import io.reactivex.processors.ReplayProcessor;
+
+
+/*
+Bounded buffer between the thread reading the logs and the subscribers
+	The reader offers the logs to a bounded queue, applying the OverflowStrategy when it is full
+	A dispatcher thread (started by start()) takes the logs from the queue and sends them to the subscribers
+	The Observers are called synchronously by the dispatcher thread: a slow Observer slows down the dispatcher, which fills the queue,
+	and the OverflowStrategy decides if the reader should wait or if logs should be dropped
+	Subscribers of the Flowable get their own buffer of the same size, dropping the oldest logs if they request less than what we read
+
+Late subscribers get at most the last replaySize logs instead of the whole history (nothing if replaySize is 0).
+complete(), error() and stop() are called after the last offer: they queue a poison pill, so the dispatcher sends every log queued
+before it, then calls onComplete (complete) or onError (error) of the subscribers, or just ends (stop). A log offered once stopped is dropped, so nothing waits on
+a queue nobody takes from anymore.
+complete() gives up waiting for a place in the queue once the buffer is stopped (a stalled subscriber can't make stop() wait forever),
+the dispatcher then calls onComplete itself when it stops, so the subscribers still get it, from the dispatcher thread.
+afterDispatch(action) queues an action between two logs: the dispatcher runs it once every log offered before it was sent,
+this is how the FileLogMonitor only saves the position of the logs delivered as its checkpoint.
+
+The dispatch of each log is timed ("dispatch"), and so is the onNext of each Observer subscribed ("onNext.<its class>").
+The depth of the queue and the logs dropped are gauges, from start() until the buffer is stopped.
+ */
+class BoundedLogBuffer<T extends Log> {
+	private static final Logger logger = LogManager.getLogger(BoundedLogBuffer.class);
+	private static final String QUEUE_DEPTH_GAUGE = "dispatch.queueDepth";
+	private static final String DROPPED_LOGS_GAUGE = "dispatch.dropped";
+	private static final Timer dispatchTimer = Metrics.timer("dispatch");
+	private static final Counter dispatchFailures = Metrics.counter("dispatch.failures");
+	private static final Object COMPLETE_PILL = new Object();
+	private static final Object STOP_PILL = new Object();
+	private static final long OFFER_TIMEOUT_IN_MILLIS = 100;
+	private static final long STOP_TIMEOUT_IN_SECONDS = 5;
+
+	private final int bufferSize;
+	private final OverflowStrategy overflowStrategy;
+
+	// The logs, and the poison pills
+	private final BlockingQueue<Object> queue;
+	private final FlowableProcessor<T> processor;
+	private final LongAdder droppedLogs;
+	private final LongSupplier queueDepthGauge;
+	private final LongSupplier droppedLogsGauge;
+
+	private volatile boolean started;
+	private volatile boolean stopped;
+	// complete() was called, the dispatcher calls onComplete even if it stops before reaching the COMPLETE_PILL
+	private volatile boolean completing;
+	private final ExecutorService dispatcherService = Executors.newSingleThreadExecutor(runnable -> {
+		Thread thread = new Thread(runnable, "log-dispatcher");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	BoundedLogBuffer(int bufferSize, OverflowStrategy overflowStrategy, int replaySize) {
+		if (bufferSize <= 0) {
+			throw new IllegalArgumentException("The buffer size should be greater than zero");
+		}
+
+		this.bufferSize = bufferSize;
+		this.overflowStrategy = overflowStrategy;
+
+		this.queue = new ArrayBlockingQueue<>(bufferSize);
+		this.processor = replaySize > 0 ? ReplayProcessor.createWithSize(replaySize) : PublishProcessor.create();
+		this.droppedLogs = new LongAdder();
+		this.queueDepthGauge = queue::size;
+		this.droppedLogsGauge = droppedLogs::sum;
+
+		this.started = false;
+		this.stopped = false;
+		this.completing = false;
+	}
+
+	void start() {
+		started = true;
+		Metrics.gauge(QUEUE_DEPTH_GAUGE, queueDepthGauge);
+		Metrics.gauge(DROPPED_LOGS_GAUGE, droppedLogsGauge);
+		dispatcherService.submit(this::dispatch);
+	}
+
+	void subscribe(Observer<T> observer) {
+		processor.toObservable().subscribe(new TimedObserver<>(observer));
+	}
+
+	Flowable<T> asFlowable() {
+		return processor.onBackpressureBuffer(bufferSize, droppedLogs::increment, BackpressureOverflowStrategy.DROP_OLDEST);
+	}
+
+	void offer(T log) throws InterruptedException {
+		if (stopped) {
+			droppedLogs.increment();
+			return;
+		}
+
+		switch (overflowStrategy) {
+			case BLOCK:
+				// Gives up if the buffer is stopped while we wait
+				while (!queue.offer(log, OFFER_TIMEOUT_IN_MILLIS, TimeUnit.MILLISECONDS)) {
+					if (stopped) {
+						droppedLogs.increment();
+						return;
+					}
+				}
+				break;
+			case DROP_OLDEST:
+				// The dispatcher only takes logs from the queue, so we loop at most a couple of times
+				// (no poison pill can be dropped, they are queued after the last offer)
+				// An action dropped isn't a log, and only delays what it was waiting for to the next one
+				while (!queue.offer(log)) {
+					Object dropped = queue.poll();
+					if (dropped != null && !(dropped instanceof DispatchAction)) {
+						droppedLogs.increment();
+					}
+				}
+				break;
+			case DROP_LATEST:
+				if (!queue.offer(log)) {
+					droppedLogs.increment();
+				}
+				break;
+		}
+	}
+
+	// Called by the reader between two offers, waits for a place in the queue whatever the OverflowStrategy
+	// The action isn't run if the buffer is stopped before the dispatcher reaches it
+	void afterDispatch(Runnable action) throws InterruptedException {
+		DispatchAction dispatchAction = new DispatchAction(action);
+
+		// Gives up if the buffer is stopped while we wait
+		while (!stopped && !queue.offer(dispatchAction, OFFER_TIMEOUT_IN_MILLIS, TimeUnit.MILLISECONDS)) {
+			logger.debug("Waiting for a place in the buffer to queue an action");
+		}
+	}
+
+	long getDroppedLogs() { return droppedLogs.sum(); }
+
+	int getQueueDepth() { return queue.size(); }
+
+	// Called by the reader after its last offer, the subscribers get onComplete once every log queued is dispatched
+	void complete() throws InterruptedException {
+		completing = true;
+
+		// Gives up if the buffer is stopped while we wait
+		while (!stopped && !queue.offer(COMPLETE_PILL, OFFER_TIMEOUT_IN_MILLIS, TimeUnit.MILLISECONDS)) {
+			logger.debug("Waiting for a place in the buffer to queue the end of the logs");
+		}
+	}
+
+	// Called by the reader instead of complete() when it fails, the subscribers get onError once every log queued is dispatched
+	void error(Throwable throwable) {
+		try {
+			if (!stopped && queue.offer(new ErrorPill(throwable), STOP_TIMEOUT_IN_SECONDS, TimeUnit.SECONDS)) {
+				return;
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+
+		// Stopped or stuck, the dispatcher won't reach the pill: the subscribers waiting for the end should still get it
+		logger.warn("The dispatcher is stopped or stuck, the error is sent right away");
+		processor.onError(throwable);
+	}
+
+	// Called after the last offer, waits (up to STOP_TIMEOUT_IN_SECONDS) for the logs queued to be dispatched
+	void stop() {
+		stopped = true;
+
+		try {
+			if (started && !queue.offer(STOP_PILL, STOP_TIMEOUT_IN_SECONDS, TimeUnit.SECONDS)) {
+				logger.warn("The dispatcher is stuck, the logs still in the buffer are dropped");
+			}
+			dispatcherService.shutdown();
+			dispatcherService.awaitTermination(STOP_TIMEOUT_IN_SECONDS, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			logger.error("Interrupted while waiting for the dispatcher", e);
+			Thread.currentThread().interrupt();
+		} finally {
+			dispatcherService.shutdownNow();
+			Metrics.removeGauge(QUEUE_DEPTH_GAUGE, queueDepthGauge);
+			Metrics.removeGauge(DROPPED_LOGS_GAUGE, droppedLogsGauge);
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private void dispatch() {
+		try {
+			while (true) {
+				Object element = queue.take();
+
+				if (element == COMPLETE_PILL) {
+					processor.onComplete();
+					return;
+				} else if (element == STOP_PILL) {
+					break;
+				} else if (element instanceof ErrorPill) {
+					processor.onError(((ErrorPill) element).throwable);
+					return;
+				} else if (element instanceof DispatchAction) {
+					((DispatchAction) element).run();
+					continue;
+				}
+				sendToSubscribers((T) element);
+			}
+		} catch (InterruptedException e) {
+			// Interrupted by stop() if the dispatcher didn't reach the poison pill in time, the logs still in the queue are dropped
+			logger.debug("Dispatcher interrupted", e);
+		}
+
+		// Stopped before the COMPLETE_PILL, or before complete() could queue it
+		if (completing) {
+			processor.onComplete();
+		}
+	}
+
+	private void sendToSubscribers(T log) {
+		long startInNanos = System.nanoTime();
+
+		try {
+			processor.onNext(log);
+		} catch (RuntimeException e) {
+			// A subscriber failing shouldn't stop the others from receiving the next logs
+			dispatchFailures.increment();
+			logger.error("Exception thrown by a subscriber while dispatching log |> {} <|", log, e);
+		} finally {
+			dispatchTimer.recordSince(startInNanos);
+		}
+	}
+
+	private static class ErrorPill {
+		private final Throwable throwable;
+
+		ErrorPill(Throwable throwable) {
+			this.throwable = throwable;
+		}
+	}
+
+	// Wraps the actions queued, so they can't be mistaken for a log
+	private static class DispatchAction {
+		private final Runnable action;
+
+		DispatchAction(Runnable action) {
+			this.action = action;
+		}
+
+		void run() {
+			try {
+				action.run();
+			} catch (RuntimeException e) {
+				logger.error("Exception thrown by an action run by the dispatcher", e);
+			}
+		}
+	}
+}
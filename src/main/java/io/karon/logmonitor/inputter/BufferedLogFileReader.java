@@ -0,0 +1,98 @@
+package io.karon.logmonitor.inputter;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+
+/*
+Reads the log lines of a file through a Reader (the default charset, like a FileReader), each line is decoded into a String
+	The position counts the characters of the lines read and their line separators, so it's the byte offset for an ASCII file,
+	which access logs are: it's what the checkpoints save, and what tells us the file was truncated
+	A line that doesn't end with '\n' yet is kept until it's complete, the writer may still be writing it
+ */
+class BufferedLogFileReader implements LogFileReader {
+	private static final int BUFFER_SIZE = 8192;
+
+	private final FileChannel fileChannel;
+	private final char[] buffer;
+	private final StringBuilder pendingLine;
+
+	private Reader reader;
+	private int bufferStart;
+	private int bufferEnd;
+	private long position;
+
+	BufferedLogFileReader(Path path, boolean readFromEndOfFile) throws IOException {
+		this.fileChannel = FileChannel.open(path, StandardOpenOption.READ);
+		this.buffer = new char[BUFFER_SIZE];
+		this.pendingLine = new StringBuilder();
+
+		seek(readFromEndOfFile ? fileChannel.size() : 0);
+	}
+
+	@Override
+	public CharSequence readLine() throws IOException {
+		while (true) {
+			for (int i = bufferStart; i < bufferEnd; ++i) {
+				if (buffer[i] == '\n') {
+					pendingLine.append(buffer, bufferStart, i - bufferStart);
+					bufferStart = i + 1;
+					position += pendingLine.length() + 1;
+
+					int lineEnd = pendingLine.length();
+					if (lineEnd > 0 && pendingLine.charAt(lineEnd - 1) == '\r') {
+						--lineEnd;
+					}
+					String line = pendingLine.substring(0, lineEnd);
+					pendingLine.setLength(0);
+					return line;
+				}
+			}
+
+			pendingLine.append(buffer, bufferStart, bufferEnd - bufferStart);
+			bufferStart = 0;
+			bufferEnd = 0;
+
+			// The Reader doesn't remember the end of the file, it reads what was written since the next time
+			int read = reader.read(buffer);
+			if (read <= 0) {
+				return null;
+			}
+			bufferEnd = read;
+		}
+	}
+
+	@Override
+	public long getPosition() { return position; }
+
+	@Override
+	public void seek(long newPosition) throws IOException {
+		fileChannel.position(newPosition);
+		// Not closed, that would close the FileChannel
+		reader = Channels.newReader(fileChannel, Charset.defaultCharset().newDecoder(), -1);
+		bufferStart = 0;
+		bufferEnd = 0;
+		pendingLine.setLength(0);
+		position = newPosition;
+	}
+
+	@Override
+	public boolean isTruncated() throws IOException {
+		return fileChannel.size() < position;
+	}
+
+	@Override
+	public long size() throws IOException {
+		return fileChannel.size();
+	}
+
+	@Override
+	public void close() throws IOException {
+		fileChannel.close();
+	}
+}
@@ -0,0 +1,87 @@
+package io.karon.logmonitor.inputter;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Objects;
+import java.util.Properties;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+
+/*
+Where we stopped reading a file: the identity of the file (its inode when the file system gives one) and the byte offset of the next line
+It is saved as a properties file, written to a temporary file first and then moved, so a crash while saving doesn't corrupt it
+ */
+class FileCheckpoint {
+	private static final Logger logger = LogManager.getLogger(FileCheckpoint.class);
+
+	private static final String FILE_IDENTITY_PROPERTY = "fileIdentity";
+	private static final String POSITION_PROPERTY = "position";
+
+	private final String fileIdentity;
+	private final long position;
+
+	FileCheckpoint(String fileIdentity, long position) {
+		this.fileIdentity = fileIdentity;
+		this.position = position;
+	}
+
+	// Returns null if the file doesn't exist
+	// The fileKey is the inode (and device) on Unix, there's none on Windows so we use the creation time instead
+	static String getFileIdentity(Path path) throws IOException {
+		try {
+			BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+			Object fileKey = attributes.fileKey();
+
+			return fileKey != null ? fileKey.toString() : "created:" + attributes.creationTime().toMillis();
+		} catch (NoSuchFileException e) {
+			return null;
+		}
+	}
+
+	// Returns null if there is no checkpoint, or if it can't be read
+	static FileCheckpoint load(Path checkpointPath) {
+		if (!Files.exists(checkpointPath)) {
+			return null;
+		}
+
+		Properties properties = new Properties();
+
+		try (InputStream inputStream = Files.newInputStream(checkpointPath)) {
+			properties.load(inputStream);
+
+			return new FileCheckpoint(
+					Objects.requireNonNull(properties.getProperty(FILE_IDENTITY_PROPERTY)),
+					Long.parseLong(properties.getProperty(POSITION_PROPERTY))
+			);
+		} catch (IOException | RuntimeException e) {
+			logger.warn("Cannot read the checkpoint {}, it is ignored", checkpointPath, e);
+			return null;
+		}
+	}
+
+	void save(Path checkpointPath) throws IOException {
+		Properties properties = new Properties();
+		properties.setProperty(FILE_IDENTITY_PROPERTY, fileIdentity);
+		properties.setProperty(POSITION_PROPERTY, Long.toString(position));
+
+		Path temporaryPath = checkpointPath.resolveSibling(checkpointPath.getFileName() + ".tmp");
+
+		try (OutputStream outputStream = Files.newOutputStream(temporaryPath)) {
+			properties.store(outputStream, null);
+		}
+
+		Files.move(temporaryPath, checkpointPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	String getFileIdentity() { return fileIdentity; }
+
+	long getPosition() { return position; }
+}
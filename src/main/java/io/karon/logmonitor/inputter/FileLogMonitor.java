@@ -1,37 +1,57 @@
 package io.karon.logmonitor.inputter;
 
-import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileReader;
 import java.io.IOException;
+import java.nio.file.Path;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import io.karon.logmonitor.configuration.Configuration;
 import io.karon.logmonitor.log.Log;
+import io.karon.logmonitor.metrics.Metrics;
+import io.karon.logmonitor.metrics.Timer;
 import io.karon.logmonitor.parser.LogParser;
-import io.karon.logmonitor.parser.ParseException;
+import io.reactivex.Flowable;
 import io.reactivex.Observer;
-import io.reactivex.subjects.ReplaySubject;
 
 
 /*
 Monitors a log file and calls the `onNext(log)` of all the Observables subscribed when it reads a new log
+The file is read either through a Reader (the default) or by mapping it in memory (see ReaderMode)
+	Both follow the file when it is rotated or truncated (see RotatingLogFileReader),
+	and can save a checkpoint periodically so a restart resumes after the last log delivered
+The lines read are parsed by a ParsingStage, either on the reader thread or by a pool of workers
+The logs go through a BoundedLogBuffer, so a slow subscriber can't make us keep every log we read in memory
+
+Each line read is timed ("read"), and while we monitor, the bytes between our position and the end of the file are a gauge
+("read.lagInBytes.<path>", the BUFFERED mode counts characters, so it is only exact for ASCII files).
  */
 public class FileLogMonitor<T extends Log> implements LogMonitor<T> {
 	private static final Logger logger = LogManager.getLogger(FileLogMonitor.class);
+	private static final String LAG_GAUGE = "read.lagInBytes.";
+	private static final Timer readTimer = Metrics.timer("read");
 
 	private final File fileToMonitor;
-	private final LogParser<T> logParser;
-	private final boolean ignoreOnParseFailure;
 	private final boolean readFromEndOfFile;
+	private final ReaderMode readerMode;
+	private final Path checkpointPath;
+	private final long checkpointIntervalInMillis;
+	private long lastCheckpointInMillis;
 
-	private boolean monitor;
-	private final ReplaySubject<T> replaySubject;
+	private volatile boolean monitor;
+	private final BoundedLogBuffer<T> boundedLogBuffer;
+	private final ParsingStage<T> parsingStage;
+	private final NewLinesWaiter newLinesWaiter;
+
+	// Only written by the reader thread
+	private final AtomicLong readPosition;
+	private final LongSupplier lagGauge;
 
 	private final ExecutorService executorService = Executors.newSingleThreadExecutor();
 
@@ -39,7 +59,13 @@ public class FileLogMonitor<T extends Log> implements LogMonitor<T> {
 			File fileToMonitor,
 			LogParser<T> logParser,
 			Configuration.FileLogMonitorConfiguration configuration) {
-		this(fileToMonitor, logParser, configuration.isIgnoreOnParseFailure(), configuration.isReadFromEndOfFile());
+		this(
+				fileToMonitor,
+				logParser,
+				configuration.isIgnoreOnParseFailure(),
+				configuration.isReadFromEndOfFile(),
+				FileLogMonitorOptions.fromConfiguration(configuration)
+		);
 	}
 
 	public FileLogMonitor(
@@ -47,69 +73,152 @@ public class FileLogMonitor<T extends Log> implements LogMonitor<T> {
 			LogParser<T> logParser,
 			boolean ignoreOnParseFailure,
 			boolean readFromEndOfFile) {
+		this(fileToMonitor, logParser, ignoreOnParseFailure, readFromEndOfFile, new FileLogMonitorOptions());
+	}
+
+	public FileLogMonitor(
+			File fileToMonitor,
+			LogParser<T> logParser,
+			boolean ignoreOnParseFailure,
+			boolean readFromEndOfFile,
+			FileLogMonitorOptions options) {
 		this.fileToMonitor = fileToMonitor;
-		this.logParser = logParser;
-		this.ignoreOnParseFailure = ignoreOnParseFailure;
 		this.readFromEndOfFile = readFromEndOfFile;
+		this.readerMode = options.getReaderMode();
+		this.checkpointPath = options.getCheckpointFile() == null ? null : options.getCheckpointFile().toPath();
+		this.checkpointIntervalInMillis = options.getCheckpointIntervalInMillis();
 
 		this.monitor = false;
-		this.replaySubject = ReplaySubject.create();
+		this.boundedLogBuffer = new BoundedLogBuffer<>(
+				options.getBufferSize(),
+				options.getOverflowStrategy(),
+				options.getReplaySize()
+		);
+		this.parsingStage = ParsingStage.create(
+				logParser,
+				ignoreOnParseFailure,
+				fileToMonitor.getPath(),
+				boundedLogBuffer,
+				options.getParserThreads(),
+				options.getParserBatchSize(),
+				options.isOrderedParsing()
+		);
+		this.newLinesWaiter = NewLinesWaiter.create(
+				options.getTailingMode(),
+				fileToMonitor,
+				options.getMaxWaitInMillis()
+		);
+
+		this.readPosition = new AtomicLong();
+		this.lagGauge = () -> Math.max(fileToMonitor.length() - readPosition.get(), 0);
 	}
 
 	@Override
 	public void subscribe(Observer<T> observer) {
-		replaySubject.subscribe(observer);
+		boundedLogBuffer.subscribe(observer);
+	}
+
+	@Override
+	public Flowable<T> asFlowable() {
+		return boundedLogBuffer.asFlowable();
 	}
 
 	@Override
 	public void startMonitoring() {
 		monitor = true;
+		Metrics.gauge(LAG_GAUGE + fileToMonitor.getPath(), lagGauge);
+		boundedLogBuffer.start();
 
-		// TODO: replace with flowable
 		executorService.submit(() -> {
-			try (BufferedReader bufferedReader = new BufferedReader(new FileReader(fileToMonitor))) {
-				logger.info("Monitoring log file: {}", fileToMonitor.getAbsolutePath());
-				readFile(bufferedReader);
+			logger.info("Monitoring log file: {}", fileToMonitor.getAbsolutePath());
+			try (RotatingLogFileReader rotatingLogFileReader = openLogFile()) {
+				readFile(rotatingLogFileReader);
 			} catch (InterruptedException | IOException e) {
 				logger.error("Tasks interrupted", e);
-				stopMonitoring();
+				monitor = false;
+			} finally {
+				newLinesWaiter.close();
 			}
 		});
 	}
 
-	void readFile(BufferedReader bufferedReader) throws IOException, InterruptedException {
-		if (readFromEndOfFile) {
-			long fileLength = fileToMonitor.length();
-			bufferedReader.skip(fileLength);
+	RotatingLogFileReader openLogFile() throws IOException {
+		FileCheckpoint fileCheckpoint = checkpointPath == null ? null : FileCheckpoint.load(checkpointPath);
+		RotatingLogFileReader rotatingLogFileReader =
+				new RotatingLogFileReader(fileToMonitor.toPath(), readFromEndOfFile, fileCheckpoint, readerMode);
+		readPosition.lazySet(rotatingLogFileReader.getPosition());
+		return rotatingLogFileReader;
+	}
+
+	void readFile(RotatingLogFileReader rotatingLogFileReader) throws IOException, InterruptedException {
+		lastCheckpointInMillis = System.currentTimeMillis();
+
+		try {
+			while (monitor) {
+				readLine(rotatingLogFileReader);
+
+				if (System.currentTimeMillis() - lastCheckpointInMillis >= checkpointIntervalInMillis) {
+					saveCheckpoint(rotatingLogFileReader);
+				}
+			}
+			// Once we stop reading, every line read is parsed and offered to the BoundedLogBuffer before the buffer is stopped
+			parsingStage.drain();
+		} finally {
+			saveCheckpoint(rotatingLogFileReader);
 		}
+	}
+
+	void readLine(RotatingLogFileReader rotatingLogFileReader) throws IOException, InterruptedException {
+		long startInNanos = System.nanoTime();
+		CharSequence line = rotatingLogFileReader.readLine();
 
-		while (monitor) {
-			readLine(bufferedReader);
+		if (line != null) {
+			readTimer.recordSince(startInNanos);
 		}
+		// Also at the end of the file, the position changes when the file is rotated or truncated
+		readPosition.lazySet(rotatingLogFileReader.getPosition());
+		handleLine(line);
 	}
 
-	void readLine(BufferedReader bufferedReader) throws IOException, InterruptedException {
-		String line = bufferedReader.readLine();
-		if (line == null || line.isEmpty()) {
-			TimeUnit.MILLISECONDS.sleep(500);
-		} else {
-			try {
-				replaySubject.onNext(logParser.parseFromLogLine(line));
-			} catch (ParseException e) {
-				if (ignoreOnParseFailure) {
-					logger.debug(e);
-				} else {
-					// TODO: handle parse errors
-					//  (not handled because in the context of this exercise I decided to ignore them, as it should not occur)
-					logger.error(e);
-				}
-			}
+	// The position saved is the one of the last log delivered: the lines given to the ParsingStage are offered to the BoundedLogBuffer,
+	// and the checkpoint is saved by the dispatcher once it sent them, so the logs still in the buffers when we stop are read again
+	private void saveCheckpoint(RotatingLogFileReader rotatingLogFileReader) throws InterruptedException {
+		lastCheckpointInMillis = System.currentTimeMillis();
+		FileCheckpoint fileCheckpoint = rotatingLogFileReader.getCheckpoint();
+
+		if (checkpointPath == null || fileCheckpoint == null) {
+			return;
+		}
+
+		parsingStage.drain();
+		boundedLogBuffer.afterDispatch(() -> save(fileCheckpoint));
+	}
+
+	private void save(FileCheckpoint fileCheckpoint) {
+		try {
+			fileCheckpoint.save(checkpointPath);
+		} catch (IOException e) {
+			logger.warn("Cannot save the checkpoint {}", checkpointPath, e);
+		}
+	}
+
+	private void handleLine(CharSequence line) throws InterruptedException {
+		if (line == null) {
+			parsingStage.flush();
+			newLinesWaiter.awaitNewLines();
+		} else if (line.length() > 0) {
+			newLinesWaiter.newLinesRead();
+			parsingStage.parse(line);
 		}
 	}
 
+	// The reader stops first and drains the ParsingStage, then the BoundedLogBuffer dispatches the logs it still has
 	@Override
 	public void stopMonitoring() {
 		monitor = false;
+		// The reader may be blocked until the file is modified, closing the waiter wakes it up
+		newLinesWaiter.close();
+		Metrics.removeGauge(LAG_GAUGE + fileToMonitor.getPath(), lagGauge);
 
 		try {
 			logger.info("Attempt to shutdown executor");
@@ -125,7 +234,16 @@ public class FileLogMonitor<T extends Log> implements LogMonitor<T> {
 				logger.error("Cancel non-finished tasks");
 			}
 			executorService.shutdownNow();
+			parsingStage.stop();
+			boundedLogBuffer.stop();
 			logger.info("Shutdown finished");
+			if (boundedLogBuffer.getDroppedLogs() > 0) {
+				logger.warn("{} logs were dropped because the buffer was full", boundedLogBuffer.getDroppedLogs());
+			}
 		}
 	}
+
+	long getDroppedLogs() { return boundedLogBuffer.getDroppedLogs(); }
+
+	BoundedLogBuffer<T> getBoundedLogBuffer() { return boundedLogBuffer; }
 }
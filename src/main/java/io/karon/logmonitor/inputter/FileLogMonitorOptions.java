@@ -0,0 +1,132 @@
+package io.karon.logmonitor.inputter;
+
+import java.io.File;
+
+import io.karon.logmonitor.configuration.Configuration;
+
+
+/*
+How a FileLogMonitor buffers, waits for, parses and reads the lines, with the same defaults as the configuration
+Either read from the configuration, or set one by one: new FileLogMonitorOptions().withParserThreads(2)
+ */
+public class FileLogMonitorOptions {
+	private int bufferSize;
+	private OverflowStrategy overflowStrategy;
+	private int replaySize;
+	private TailingMode tailingMode;
+	private long maxWaitInMillis;
+	// 0 to parse on the reader thread
+	private int parserThreads;
+	private int parserBatchSize;
+	private boolean orderedParsing;
+	private ReaderMode readerMode;
+	// null to not save checkpoints
+	private File checkpointFile;
+	private long checkpointIntervalInMillis;
+
+	public FileLogMonitorOptions() {
+		this.bufferSize = 10_000;
+		this.overflowStrategy = OverflowStrategy.BLOCK;
+		this.replaySize = 0;
+		this.tailingMode = TailingMode.WATCH_SERVICE;
+		this.maxWaitInMillis = 500;
+		this.parserThreads = 0;
+		this.parserBatchSize = 1_000;
+		this.orderedParsing = true;
+		this.readerMode = ReaderMode.BUFFERED;
+		this.checkpointFile = null;
+		this.checkpointIntervalInMillis = 5_000;
+	}
+
+	public static FileLogMonitorOptions fromConfiguration(Configuration.FileLogMonitorConfiguration configuration) {
+		return new FileLogMonitorOptions()
+				.withBufferSize(configuration.getBufferSize())
+				.withOverflowStrategy(configuration.getOverflowStrategy())
+				.withReplaySize(configuration.getReplaySize())
+				.withTailingMode(configuration.getTailingMode())
+				.withMaxWaitInMillis(configuration.getMaxWaitInMillis())
+				.withParserThreads(configuration.getParserThreads())
+				.withParserBatchSize(configuration.getParserBatchSize())
+				.withOrderedParsing(configuration.isOrderedParsing())
+				.withReaderMode(configuration.getReaderMode())
+				.withCheckpointFile(configuration.getCheckpointFile())
+				.withCheckpointIntervalInMillis(configuration.getCheckpointIntervalInMillis());
+	}
+
+	public FileLogMonitorOptions withBufferSize(int bufferSize) {
+		this.bufferSize = bufferSize;
+		return this;
+	}
+
+	public FileLogMonitorOptions withOverflowStrategy(OverflowStrategy overflowStrategy) {
+		this.overflowStrategy = overflowStrategy;
+		return this;
+	}
+
+	public FileLogMonitorOptions withReplaySize(int replaySize) {
+		this.replaySize = replaySize;
+		return this;
+	}
+
+	public FileLogMonitorOptions withTailingMode(TailingMode tailingMode) {
+		this.tailingMode = tailingMode;
+		return this;
+	}
+
+	public FileLogMonitorOptions withMaxWaitInMillis(long maxWaitInMillis) {
+		this.maxWaitInMillis = maxWaitInMillis;
+		return this;
+	}
+
+	public FileLogMonitorOptions withParserThreads(int parserThreads) {
+		this.parserThreads = parserThreads;
+		return this;
+	}
+
+	public FileLogMonitorOptions withParserBatchSize(int parserBatchSize) {
+		this.parserBatchSize = parserBatchSize;
+		return this;
+	}
+
+	public FileLogMonitorOptions withOrderedParsing(boolean orderedParsing) {
+		this.orderedParsing = orderedParsing;
+		return this;
+	}
+
+	public FileLogMonitorOptions withReaderMode(ReaderMode readerMode) {
+		this.readerMode = readerMode;
+		return this;
+	}
+
+	public FileLogMonitorOptions withCheckpointFile(File checkpointFile) {
+		this.checkpointFile = checkpointFile;
+		return this;
+	}
+
+	public FileLogMonitorOptions withCheckpointIntervalInMillis(long checkpointIntervalInMillis) {
+		this.checkpointIntervalInMillis = checkpointIntervalInMillis;
+		return this;
+	}
+
+	int getBufferSize() { return bufferSize; }
+
+	OverflowStrategy getOverflowStrategy() { return overflowStrategy; }
+
+	int getReplaySize() { return replaySize; }
+
+	TailingMode getTailingMode() { return tailingMode; }
+
+	long getMaxWaitInMillis() { return maxWaitInMillis; }
+
+	int getParserThreads() { return parserThreads; }
+
+	int getParserBatchSize() { return parserBatchSize; }
+
+	boolean isOrderedParsing() { return orderedParsing; }
+
+	ReaderMode getReaderMode() { return readerMode; }
+
+	File getCheckpointFile() { return checkpointFile; }
+
+	long getCheckpointIntervalInMillis() { return checkpointIntervalInMillis; }
+}
@@ -0,0 +1,96 @@
+package io.karon.logmonitor.inputter;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+
+/*
+A path or a glob pattern (see FileSystem.getPathMatcher) of the log files to monitor, like /var/log/nginx/*.access.log
+We only walk the directory before the first glob character, and only as deep as the pattern goes (unless it contains "**")
+ */
+class LogFilePattern {
+	private static final String GLOB_CHARACTERS = "*?[{";
+
+	private final String pattern;
+	private final Path baseDirectory;
+	private final int maxDepth;
+	private final PathMatcher pathMatcher;
+
+	LogFilePattern(String pattern) {
+		this.pattern = pattern;
+
+		int firstGlobCharacter = indexOfFirstGlobCharacter(pattern);
+		int lastSeparator = lastIndexOfSeparator(pattern, firstGlobCharacter);
+		String baseDirectory = lastSeparator < 0 ? "" : pattern.substring(0, lastSeparator + 1);
+		String rest = pattern.substring(baseDirectory.length());
+
+		this.baseDirectory = Paths.get(baseDirectory);
+		this.maxDepth = rest.contains("**") ? Integer.MAX_VALUE : countSeparators(rest) + 1;
+		this.pathMatcher = FileSystems.getDefault().getPathMatcher("glob:" + pattern);
+	}
+
+	List<Path> findMatchingFiles() throws IOException {
+		// An empty base directory is the working directory, the paths we get are then relative like the pattern
+		if (!Files.isDirectory(baseDirectory.toString().isEmpty() ? Paths.get(".") : baseDirectory)) {
+			return Collections.emptyList();
+		}
+
+		try (Stream<Path> paths = Files.walk(baseDirectory, maxDepth)) {
+			return paths
+					.filter(pathMatcher::matches)
+					.filter(Files::isRegularFile)
+					.collect(Collectors.toList());
+		}
+	}
+
+	@Override
+	public String toString() {
+		return pattern;
+	}
+
+	// Returns the length of the pattern if there's none
+	private static int indexOfFirstGlobCharacter(String pattern) {
+		for (int i = 0; i < pattern.length(); ++i) {
+			if (GLOB_CHARACTERS.indexOf(pattern.charAt(i)) >= 0) {
+				return i;
+			}
+		}
+
+		return pattern.length();
+	}
+
+	private static int lastIndexOfSeparator(String pattern, int end) {
+		for (int i = end - 1; i >= 0; --i) {
+			if (isSeparator(pattern.charAt(i))) {
+				return i;
+			}
+		}
+
+		return -1;
+	}
+
+	private static int countSeparators(String pattern) {
+		int separators = 0;
+
+		for (int i = 0; i < pattern.length(); ++i) {
+			if (isSeparator(pattern.charAt(i))) {
+				++separators;
+			}
+		}
+
+		return separators;
+	}
+
+	private static boolean isSeparator(char character) {
+		return character == '/' || character == File.separatorChar;
+	}
+}
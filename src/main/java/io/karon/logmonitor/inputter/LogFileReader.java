@@ -0,0 +1,26 @@
+package io.karon.logmonitor.inputter;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+
+/*
+Reads the complete lines of a log file, from a position that can be saved and sought again (see RotatingLogFileReader)
+	MappedLogFileReader: byte offsets, the lines are views over the bytes (ReaderMode.MAPPED)
+	BufferedLogFileReader: the lines are decoded into Strings, the offsets count characters (ReaderMode.BUFFERED)
+ */
+interface LogFileReader extends Closeable {
+	// Returns null if there is no complete line to read yet
+	CharSequence readLine() throws IOException;
+
+	// Offset of the next line to read
+	long getPosition();
+
+	// The next line is read from this offset, which should be the beginning of a line
+	void seek(long newPosition) throws IOException;
+
+	// The file is smaller than what we already read: it was truncated (copytruncate for instance)
+	boolean isTruncated() throws IOException;
+
+	long size() throws IOException;
+}
@@ -1,11 +1,13 @@
 package io.karon.logmonitor.inputter;
 
 import io.karon.logmonitor.log.Log;
+import io.reactivex.Flowable;
 import io.reactivex.Observer;
 
 
 public interface LogMonitor<T extends Log> {
 	void subscribe(Observer<T> observer);
+	Flowable<T> asFlowable();
 	void startMonitoring();
 	void stopMonitoring();
 }
@@ -0,0 +1,172 @@
+package io.karon.logmonitor.inputter;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import io.karon.logmonitor.parser.AsciiByteSlice;
+
+
+/*
+Reads the log lines of a file through a FileChannel, a window of the file at a time
+	The line boundaries are found by looking for '\n' in the bytes, no charset decoding is done: access logs are ASCII
+	Each line is given as an AsciiByteSlice over the window (without the "\n" or "\r\n"), nothing is copied
+	The position is the exact byte offset of the next line to read, so it can be used to start again from there
+
+A line that doesn't end with '\n' yet is not returned: the writer may still be writing it, we'll get it once it's complete.
+When the end of the window is reached, the next window starts at the beginning of the next line,
+so a line is never split between two windows (a line longer than the window gets a bigger window).
+
+The window is only mapped in memory when at least mappingThreshold bytes are left to read (catching up on a big file),
+the few bytes written between two wakeups while tailing are read into a heap buffer instead:
+	a mapping is only unmapped by the garbage collector once no line references it anymore,
+	mapping on every wakeup would pile them up until "Map failed" (and on Windows, a file still mapped can't be rotated)
+ */
+class MappedLogFileReader implements LogFileReader {
+	static final long DEFAULT_WINDOW_SIZE = 64L * 1024 * 1024;
+	static final long DEFAULT_MAPPING_THRESHOLD = 1024 * 1024;
+
+	private final FileChannel fileChannel;
+	private final long windowSize;
+	private final long mappingThreshold;
+
+	private long position;
+	private ByteBuffer window;
+	private long windowStart;
+	private int scanPosition;
+	private long pendingBytes;
+	private int mappedWindows;
+
+	MappedLogFileReader(Path path, boolean readFromEndOfFile) throws IOException {
+		this(path, readFromEndOfFile, DEFAULT_WINDOW_SIZE);
+	}
+
+	MappedLogFileReader(Path path, boolean readFromEndOfFile, long windowSize) throws IOException {
+		this(path, readFromEndOfFile, windowSize, Math.min(windowSize, DEFAULT_MAPPING_THRESHOLD));
+	}
+
+	MappedLogFileReader(Path path, boolean readFromEndOfFile, long windowSize, long mappingThreshold) throws IOException {
+		if (windowSize <= 0) {
+			throw new IllegalArgumentException("The window size should be greater than zero");
+		}
+		if (mappingThreshold <= 0) {
+			throw new IllegalArgumentException("The mapping threshold should be greater than zero");
+		}
+
+		this.fileChannel = FileChannel.open(path, StandardOpenOption.READ);
+		this.windowSize = windowSize;
+		this.mappingThreshold = mappingThreshold;
+		this.position = readFromEndOfFile ? fileChannel.size() : 0;
+	}
+
+	@Override
+	public CharSequence readLine() throws IOException {
+		while (true) {
+			if (window == null && !mapWindow()) {
+				return null;
+			}
+
+			int lineStart = (int) (position - windowStart);
+			int limit = window.limit();
+
+			for (; scanPosition < limit; ++scanPosition) {
+				if (window.get(scanPosition) == '\n') {
+					int lineEnd = scanPosition;
+					if (lineEnd > lineStart && window.get(lineEnd - 1) == '\r') {
+						--lineEnd;
+					}
+
+					++scanPosition;
+					position = windowStart + scanPosition;
+					pendingBytes = 0;
+
+					return new AsciiByteSlice(window, lineStart, lineEnd - lineStart);
+				}
+			}
+
+			// No '\n' until the end of the window, the next window starts at the beginning of the line
+			pendingBytes = windowStart + limit - position;
+			boolean endOfFileReached = windowStart + limit >= fileChannel.size();
+			window = null;
+
+			if (endOfFileReached) {
+				return null;
+			}
+		}
+	}
+
+	// Byte offset of the next line to read
+	@Override
+	public long getPosition() { return position; }
+
+	@Override
+	public void seek(long newPosition) {
+		position = newPosition;
+		window = null;
+		pendingBytes = 0;
+	}
+
+	@Override
+	public boolean isTruncated() throws IOException {
+		return fileChannel.size() < position;
+	}
+
+	@Override
+	public long size() throws IOException {
+		return fileChannel.size();
+	}
+
+	// Count of the windows mapped in memory since this reader was opened
+	int getMappedWindows() { return mappedWindows; }
+
+	@Override
+	public void close() throws IOException {
+		window = null;
+		fileChannel.close();
+	}
+
+	// Returns false if nothing was written after what we already scanned
+	private boolean mapWindow() throws IOException {
+		long remaining = fileChannel.size() - position;
+
+		if (remaining <= pendingBytes) {
+			return false;
+		}
+
+		if (pendingBytes >= Integer.MAX_VALUE) {
+			throw new IOException("The line starting at byte " + position + " is longer than " + Integer.MAX_VALUE + " bytes");
+		}
+
+		// A line longer than the window gets a window twice as big as what we scanned of it
+		long length = Math.min(Math.min(remaining, Math.max(windowSize, pendingBytes * 2)), Integer.MAX_VALUE);
+
+		if (length >= mappingThreshold) {
+			window = fileChannel.map(FileChannel.MapMode.READ_ONLY, position, length);
+			++mappedWindows;
+		} else {
+			window = read(position, (int) length);
+		}
+		windowStart = position;
+		// The bytes already scanned don't contain any '\n', no need to scan them again
+		scanPosition = (int) pendingBytes;
+
+		return true;
+	}
+
+	// A new buffer each time, the lines already given may still reference the previous one
+	private ByteBuffer read(long from, int length) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(length);
+
+		while (buffer.hasRemaining()) {
+			// -1 if the file was truncated since we got its size, the window is then only what we could read
+			if (fileChannel.read(buffer, from + buffer.position()) < 0) {
+				break;
+			}
+		}
+
+		buffer.flip();
+		return buffer;
+	}
+}
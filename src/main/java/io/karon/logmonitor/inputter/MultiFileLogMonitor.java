@@ -0,0 +1,356 @@
+package io.karon.logmonitor.inputter;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.stream.Collectors;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import io.karon.logmonitor.configuration.Configuration;
+import io.karon.logmonitor.log.Log;
+import io.karon.logmonitor.metrics.Metrics;
+import io.karon.logmonitor.metrics.Timer;
+import io.karon.logmonitor.parser.LogParser;
+import io.reactivex.Flowable;
+import io.reactivex.Observer;
+
+
+/*
+Monitors all the log files matching a list of paths or glob patterns (one access log per vhost for instance) with a small pool of threads
+	Each file is a task scheduled on the pool: it reads up to linesPerRead lines, parses them and offers the logs to the BoundedLogBuffer,
+	then schedules itself again, right away if it read something, or after a backoff delay (up to maxWaitInMillis) if it didn't
+	So hundreds of quiet files only cost a few checks per second each, and we don't need one thread per file
+	The logs of all the files go through the same BoundedLogBuffer, each log knows the file it was read from (Log.getSource())
+	The patterns are matched again every rescanIntervalInMillis: new files are read from their beginning, the files gone are dropped
+	A path has to be missing from two rescans in a row to be dropped: logrotate renames the file before it creates the new one,
+	and if the new one appears in between, the same reader follows the rotation. A file dropped is read to its end before it's closed
+	The files are followed when they are rotated or truncated (see RotatingLogFileReader)
+	A file we already read under another path isn't tailed again: with "*.log*", the rotated "access.log.1" is the file we read as
+	"access.log", its logs were already read (files are told apart by their identity, the inode, see FileCheckpoint.getFileIdentity)
+
+The logs of a file stay in the order of the file, but there is no order between the logs of different files.
+There are no checkpoints here, readFromEndOfFile only applies to the files found when we start.
+The metrics are the ones of the FileLogMonitor: the "read" Timer, and a "read.lagInBytes.<path>" gauge per file tailed.
+ */
+public class MultiFileLogMonitor<T extends Log> implements LogMonitor<T> {
+	private static final Logger logger = LogManager.getLogger(MultiFileLogMonitor.class);
+	private static final String LAG_GAUGE = "read.lagInBytes.";
+	private static final Timer readTimer = Metrics.timer("read");
+
+	private final List<LogFilePattern> logFilePatterns;
+	private final LogParser<T> logParser;
+	private final boolean ignoreOnParseFailure;
+	private final boolean readFromEndOfFile;
+	private final long maxWaitInMillis;
+	private final int linesPerRead;
+	private final long rescanIntervalInMillis;
+
+	private volatile boolean monitor;
+	private final BoundedLogBuffer<T> boundedLogBuffer;
+	private final Map<Path, TailedFile> tailedFiles = new ConcurrentHashMap<>();
+	// Identities of the files read by the TailedFiles, kept while a path matching the patterns points to them
+	private final Set<String> readFileIdentities = ConcurrentHashMap.newKeySet();
+	private volatile Set<String> previousMatchingFileIdentities = new HashSet<>();
+
+	private final ScheduledExecutorService readers;
+
+	public MultiFileLogMonitor(
+			List<String> pathPatterns,
+			LogParser<T> logParser,
+			Configuration.FileLogMonitorConfiguration fileLogMonitorConfiguration,
+			Configuration.MultiFileLogMonitorConfiguration multiFileLogMonitorConfiguration) {
+		this(
+				pathPatterns,
+				logParser,
+				fileLogMonitorConfiguration.isIgnoreOnParseFailure(),
+				fileLogMonitorConfiguration.isReadFromEndOfFile(),
+				fileLogMonitorConfiguration.getBufferSize(),
+				fileLogMonitorConfiguration.getOverflowStrategy(),
+				fileLogMonitorConfiguration.getReplaySize(),
+				fileLogMonitorConfiguration.getMaxWaitInMillis(),
+				multiFileLogMonitorConfiguration.getReaderThreads(),
+				multiFileLogMonitorConfiguration.getLinesPerRead(),
+				multiFileLogMonitorConfiguration.getRescanIntervalInMillis()
+		);
+	}
+
+	public MultiFileLogMonitor(
+			List<String> pathPatterns,
+			LogParser<T> logParser,
+			boolean ignoreOnParseFailure,
+			boolean readFromEndOfFile,
+			int bufferSize,
+			OverflowStrategy overflowStrategy,
+			int replaySize,
+			long maxWaitInMillis,
+			int readerThreads,
+			int linesPerRead,
+			long rescanIntervalInMillis) {
+		if (readerThreads <= 0 || linesPerRead <= 0) {
+			throw new IllegalArgumentException("The number of reader threads and of lines per read should be greater than zero");
+		}
+
+		this.logFilePatterns = pathPatterns.stream().map(LogFilePattern::new).collect(Collectors.toList());
+		this.logParser = logParser;
+		this.ignoreOnParseFailure = ignoreOnParseFailure;
+		this.readFromEndOfFile = readFromEndOfFile;
+		this.maxWaitInMillis = maxWaitInMillis;
+		this.linesPerRead = linesPerRead;
+		this.rescanIntervalInMillis = rescanIntervalInMillis;
+
+		this.monitor = false;
+		this.boundedLogBuffer = new BoundedLogBuffer<>(bufferSize, overflowStrategy, replaySize);
+		this.readers = Executors.newScheduledThreadPool(readerThreads);
+	}
+
+	@Override
+	public void subscribe(Observer<T> observer) {
+		boundedLogBuffer.subscribe(observer);
+	}
+
+	@Override
+	public Flowable<T> asFlowable() {
+		return boundedLogBuffer.asFlowable();
+	}
+
+	@Override
+	public void startMonitoring() {
+		monitor = true;
+		boundedLogBuffer.start();
+		logger.info("Monitoring log files: {}", logFilePatterns);
+
+		// readFromEndOfFile only applies to the files there when we start, the ones created later are read from their beginning
+		readers.submit(() -> rescan(readFromEndOfFile));
+		readers.scheduleWithFixedDelay(() -> rescan(false), rescanIntervalInMillis, rescanIntervalInMillis, TimeUnit.MILLISECONDS);
+	}
+
+	// The readers stop first, then the BoundedLogBuffer dispatches the logs they offered
+	@Override
+	public void stopMonitoring() {
+		monitor = false;
+
+		try {
+			logger.info("Attempt to shutdown readers");
+			readers.shutdown();
+			readers.awaitTermination(5, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			// ignoring the exception because we are trying to interrupt the threads anyway
+			logger.error("Tasks interrupted", e);
+		} finally {
+			readers.shutdownNow();
+			tailedFiles.values().forEach(TailedFile::close);
+			tailedFiles.clear();
+			boundedLogBuffer.stop();
+			logger.info("Shutdown finished");
+			if (boundedLogBuffer.getDroppedLogs() > 0) {
+				logger.warn("{} logs were dropped because the buffer was full", boundedLogBuffer.getDroppedLogs());
+			}
+		}
+	}
+
+	Set<Path> getTailedFiles() { return tailedFiles.keySet(); }
+
+	// Returns null if the file doesn't exist anymore, or if its identity can't be read
+	private static String getFileIdentity(Path path) {
+		try {
+			return FileCheckpoint.getFileIdentity(path);
+		} catch (IOException e) {
+			logger.warn("Cannot read the identity of log file {}", path, e);
+			return null;
+		}
+	}
+
+	long getDroppedLogs() { return boundedLogBuffer.getDroppedLogs(); }
+
+	// Synchronized since the first rescan may still run when the scheduled ones start
+	private synchronized void rescan(boolean readFromEndOfFile) {
+		Set<Path> matchingFiles = new HashSet<>();
+
+		for (LogFilePattern logFilePattern : logFilePatterns) {
+			try {
+				matchingFiles.addAll(logFilePattern.findMatchingFiles());
+			} catch (IOException | RuntimeException e) {
+				logger.warn("Cannot look for the files matching {}", logFilePattern, e);
+			}
+		}
+
+		Set<String> matchingFileIdentities = new HashSet<>();
+		for (Path path : matchingFiles) {
+			String fileIdentity = getFileIdentity(path);
+			if (fileIdentity != null) {
+				matchingFileIdentities.add(fileIdentity);
+			}
+
+			if (monitor && !tailedFiles.containsKey(path)) {
+				if (fileIdentity != null && readFileIdentities.contains(fileIdentity)) {
+					logger.debug("Log file {} was already read under another path, it isn't tailed again", path);
+				} else {
+					startTailing(path, readFromEndOfFile);
+				}
+			}
+		}
+		// The identity of a file is forgotten once no path matching the patterns points to it (the inode can be reused),
+		// in two rescans in a row: a file renamed between the listing and the reading of the identities is only in the next one
+		Set<String> recentMatchingFileIdentities = new HashSet<>(matchingFileIdentities);
+		recentMatchingFileIdentities.addAll(previousMatchingFileIdentities);
+		readFileIdentities.retainAll(recentMatchingFileIdentities);
+		previousMatchingFileIdentities = matchingFileIdentities;
+
+		// The tasks of the files gone read them to their end and close their reader the next time they run
+		tailedFiles.entrySet().removeIf(tailedFile -> {
+			if (matchingFiles.contains(tailedFile.getKey())) {
+				tailedFile.getValue().missedRescans = 0;
+				return false;
+			}
+			if (++tailedFile.getValue().missedRescans < 2) {
+				// Renamed by logrotate, the new file may not be created yet
+				return false;
+			}
+
+			logger.info("Log file {} doesn't exist anymore", tailedFile.getKey());
+			tailedFile.getValue().stop();
+			return true;
+		});
+	}
+
+	private void startTailing(Path path, boolean readFromEndOfFile) {
+		try {
+			TailedFile tailedFile = new TailedFile(path, new RotatingLogFileReader(path, readFromEndOfFile, null));
+			tailedFile.rememberFileIdentity();
+			tailedFiles.put(path, tailedFile);
+			readers.submit(tailedFile::readLines);
+			logger.info("Monitoring log file: {}", path.toAbsolutePath());
+		} catch (IOException e) {
+			logger.warn("Cannot open log file {}", path, e);
+		}
+	}
+
+	/*
+	Only one task of a file is scheduled at a time, so its reader is never used by two threads
+	 */
+	private class TailedFile {
+		private final Path path;
+		private final RotatingLogFileReader rotatingLogFileReader;
+		private final ParsingStage<T> parsingStage;
+		private final BackoffWaiter backoffWaiter;
+		private final AtomicLong readPosition;
+		private final LongSupplier lagGauge;
+
+		private volatile boolean stopped;
+		// Only used by rescan: the rescans in a row in which the path didn't match
+		private int missedRescans;
+
+		private TailedFile(Path path, RotatingLogFileReader rotatingLogFileReader) {
+			this.path = path;
+			this.rotatingLogFileReader = rotatingLogFileReader;
+			this.parsingStage = new SequentialParsingStage<>(logParser, ignoreOnParseFailure, path.toString(), boundedLogBuffer);
+			this.backoffWaiter = new BackoffWaiter(BackoffWaiter.MIN_WAIT_IN_MILLIS, maxWaitInMillis);
+			this.readPosition = new AtomicLong(rotatingLogFileReader.getPosition());
+			this.lagGauge = () -> Math.max(path.toFile().length() - readPosition.get(), 0);
+			Metrics.gauge(LAG_GAUGE + path, lagGauge);
+		}
+
+		private void readLines() {
+			if (!monitor) {
+				close();
+				return;
+			}
+			if (stopped) {
+				readToTheEnd();
+				close();
+				return;
+			}
+
+			try {
+				int linesRead = 0;
+				long startInNanos = System.nanoTime();
+				CharSequence line;
+
+				while (linesRead < linesPerRead && (line = rotatingLogFileReader.readLine()) != null) {
+					readTimer.recordSince(startInNanos);
+					if (line.length() > 0) {
+						parsingStage.parse(line);
+					}
+					++linesRead;
+					startInNanos = System.nanoTime();
+				}
+				readPosition.lazySet(rotatingLogFileReader.getPosition());
+				// The file read changes when it's rotated
+				rememberFileIdentity();
+
+				if (linesRead > 0) {
+					backoffWaiter.newLinesRead();
+					scheduleReadLines(0);
+				} else {
+					scheduleReadLines(backoffWaiter.nextWaitInMillis());
+				}
+			} catch (IOException e) {
+				logger.error("Cannot read log file {}, trying again in {}ms", path, maxWaitInMillis, e);
+				scheduleReadLines(maxWaitInMillis);
+			} catch (InterruptedException e) {
+				logger.debug("Reader of {} interrupted", path, e);
+				Thread.currentThread().interrupt();
+			}
+		}
+
+		// The lines written to the file between our last read and the moment it was renamed or deleted
+		private void readToTheEnd() {
+			try {
+				CharSequence line;
+
+				while ((line = rotatingLogFileReader.readLineOfCurrentFile()) != null) {
+					if (line.length() > 0) {
+						parsingStage.parse(line);
+					}
+				}
+			} catch (IOException e) {
+				logger.error("Cannot read the end of log file {}", path, e);
+			} catch (InterruptedException e) {
+				logger.debug("Reader of {} interrupted", path, e);
+				Thread.currentThread().interrupt();
+			}
+		}
+
+		private void scheduleReadLines(long delayInMillis) {
+			try {
+				readers.schedule(this::readLines, delayInMillis, TimeUnit.MILLISECONDS);
+			} catch (RejectedExecutionException e) {
+				// The monitoring was stopped
+				close();
+			}
+		}
+
+		private void rememberFileIdentity() {
+			String fileIdentity = rotatingLogFileReader.getFileIdentity();
+
+			if (fileIdentity != null) {
+				readFileIdentities.add(fileIdentity);
+			}
+		}
+
+		private void stop() {
+			stopped = true;
+		}
+
+		private void close() {
+			Metrics.removeGauge(LAG_GAUGE + path, lagGauge);
+			try {
+				rotatingLogFileReader.close();
+			} catch (IOException e) {
+				logger.warn("Cannot close log file {}", path, e);
+			}
+		}
+	}
+}
@@ -0,0 +1,35 @@
+package io.karon.logmonitor.inputter;
+
+import java.io.Closeable;
+import java.io.File;
+
+
+/*
+Called by the FileLogMonitor to wait when it reached the end of the file, and to tell that new lines were read
+Closed by the thread stopping the monitoring, which wakes up the reader if it's waiting, and again by the reader once it stopped
+ */
+interface NewLinesWaiter extends Closeable {
+	void awaitNewLines() throws InterruptedException;
+	void newLinesRead();
+
+	@Override
+	default void close() {
+		// Nothing to release by default
+	}
+
+	static NewLinesWaiter create(TailingMode tailingMode, File fileToMonitor, long maxWaitInMillis) {
+		switch (tailingMode) {
+			case POLLING:
+				return new BackoffWaiter(maxWaitInMillis, maxWaitInMillis);
+			case BACKOFF:
+				return new BackoffWaiter(BackoffWaiter.MIN_WAIT_IN_MILLIS, maxWaitInMillis);
+			case WATCH_SERVICE:
+				return new WatchServiceWaiter(
+						fileToMonitor,
+						new BackoffWaiter(BackoffWaiter.MIN_WAIT_IN_MILLIS, maxWaitInMillis)
+				);
+			default:
+				throw new IllegalArgumentException("Unknown tailing mode " + tailingMode);
+		}
+	}
+}
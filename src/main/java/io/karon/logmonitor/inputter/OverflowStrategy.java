@@ -0,0 +1,13 @@
+package io.karon.logmonitor.inputter;
+
+/*
+What to do when the buffer between the file reader and the subscribers is full
+ */
+public enum OverflowStrategy {
+	// The reader waits until there's room in the buffer, so no log is lost but we fall behind the file
+	BLOCK,
+	// The oldest log in the buffer is dropped (and counted) to make room for the new one
+	DROP_OLDEST,
+	// The new log is dropped (and counted)
+	DROP_LATEST
+}
@@ -0,0 +1,168 @@
+package io.karon.logmonitor.inputter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import io.karon.logmonitor.log.Log;
+import io.karon.logmonitor.parser.LogParser;
+
+
+/*
+The thread reading the file only groups the log lines in batches, and a pool of workers parses the batches
+	Ordered: the batches are parsed in parallel, but a sequencer thread offers their logs to the BoundedLogBuffer in the order of the file
+	Unordered: each worker offers the logs of its batch as soon as it parsed them, so a slow batch doesn't hold back the others
+In both cases at most 2 batches per worker can be waiting, after that the reader waits, so we don't read the whole file in memory.
+A batch holds its permit until its logs are offered, so taking every permit (drain) means that every log has been offered.
+
+The LogParser is shared by the workers, so it has to be thread-safe (the AccessLogParser and FastAccessLogParser are).
+The log lines given by the MappedLogFileReader are views over the mapped file, they stay valid while the batch references them.
+ */
+class ParallelParsingStage<T extends Log> extends ParsingStage<T> {
+	private static final Logger logger = LogManager.getLogger(ParallelParsingStage.class);
+	private static final int BATCHES_PER_WORKER = 2;
+
+	private final int batchSize;
+	private final boolean ordered;
+	private final int maxBatchesInProgress;
+
+	private final ExecutorService workers;
+	private final ExecutorService sequencer;
+	private final BlockingQueue<Future<List<T>>> parsedBatches;
+	private final Semaphore batchesInProgress;
+
+	private List<CharSequence> batch;
+
+	ParallelParsingStage(
+			LogParser<T> logParser,
+			boolean ignoreOnParseFailure,
+			String source,
+			BoundedLogBuffer<T> boundedLogBuffer,
+			int numberOfWorkers,
+			int batchSize,
+			boolean ordered) {
+		super(logParser, ignoreOnParseFailure, source, boundedLogBuffer);
+
+		if (batchSize <= 0) {
+			throw new IllegalArgumentException("The batch size should be greater than zero");
+		}
+
+		this.batchSize = batchSize;
+		this.ordered = ordered;
+
+		this.maxBatchesInProgress = numberOfWorkers * BATCHES_PER_WORKER;
+
+		this.workers = Executors.newFixedThreadPool(numberOfWorkers);
+		this.batchesInProgress = new Semaphore(maxBatchesInProgress);
+		this.parsedBatches = new ArrayBlockingQueue<>(maxBatchesInProgress);
+		this.batch = new ArrayList<>(batchSize);
+
+		if (ordered) {
+			this.sequencer = Executors.newSingleThreadExecutor();
+			sequencer.submit(this::offerParsedBatchesInOrder);
+		} else {
+			this.sequencer = null;
+		}
+	}
+
+	@Override
+	void parse(CharSequence logLine) throws InterruptedException {
+		batch.add(logLine);
+
+		if (batch.size() >= batchSize) {
+			flush();
+		}
+	}
+
+	@Override
+	void flush() throws InterruptedException {
+		if (batch.isEmpty()) {
+			return;
+		}
+
+		List<CharSequence> logLines = batch;
+		batch = new ArrayList<>(batchSize);
+
+		batchesInProgress.acquire();
+		if (ordered) {
+			parsedBatches.put(workers.submit(() -> parseBatch(logLines)));
+		} else {
+			workers.submit(() -> parseAndOfferBatch(logLines));
+		}
+	}
+
+	@Override
+	void drain() throws InterruptedException {
+		flush();
+
+		batchesInProgress.acquire(maxBatchesInProgress);
+		batchesInProgress.release(maxBatchesInProgress);
+	}
+
+	@Override
+	void stop() {
+		workers.shutdownNow();
+		if (sequencer != null) {
+			sequencer.shutdownNow();
+		}
+	}
+
+	private List<T> parseBatch(List<CharSequence> logLines) {
+		List<T> logs = new ArrayList<>(logLines.size());
+
+		for (CharSequence logLine : logLines) {
+			T log = parseOrNull(logLine);
+
+			if (log != null) {
+				logs.add(log);
+			}
+		}
+
+		return logs;
+	}
+
+	private void parseAndOfferBatch(List<CharSequence> logLines) {
+		try {
+			for (T log : parseBatch(logLines)) {
+				boundedLogBuffer.offer(log);
+			}
+		} catch (InterruptedException e) {
+			logger.debug("Worker interrupted", e);
+		} finally {
+			batchesInProgress.release();
+		}
+	}
+
+	private Void offerParsedBatchesInOrder() {
+		try {
+			while (!Thread.currentThread().isInterrupted()) {
+				for (T log : getParsedBatch(parsedBatches.take())) {
+					boundedLogBuffer.offer(log);
+				}
+				batchesInProgress.release();
+			}
+		} catch (InterruptedException e) {
+			logger.debug("Sequencer interrupted", e);
+		}
+
+		return null;
+	}
+
+	private List<T> getParsedBatch(Future<List<T>> parsedBatch) throws InterruptedException {
+		try {
+			return parsedBatch.get();
+		} catch (ExecutionException e) {
+			logger.error("Exception thrown while parsing a batch of log lines, the batch is dropped", e);
+			return new ArrayList<>();
+		}
+	}
+}
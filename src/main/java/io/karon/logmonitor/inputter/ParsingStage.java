@@ -0,0 +1,102 @@
+package io.karon.logmonitor.inputter;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import io.karon.logmonitor.log.Log;
+import io.karon.logmonitor.metrics.Counter;
+import io.karon.logmonitor.metrics.Metrics;
+import io.karon.logmonitor.metrics.Timer;
+import io.karon.logmonitor.parser.LogParser;
+import io.karon.logmonitor.parser.ParseException;
+
+
+/*
+Receives the log lines read by the FileLogMonitor, parses them, and offers the logs to the BoundedLogBuffer
+The logs are tagged with their source (the path of the file) when there is one
+Each line parsed is timed (the "parse" Timer, whatever the thread parsing it), the lines that can't be parsed are counted
+ */
+abstract class ParsingStage<T extends Log> {
+	private static final Logger logger = LogManager.getLogger(ParsingStage.class);
+	private static final Timer parseTimer = Metrics.timer("parse");
+	private static final Counter parseFailures = Metrics.counter("parse.failures");
+
+	private final LogParser<T> logParser;
+	private final boolean ignoreOnParseFailure;
+	private final String source;
+	final BoundedLogBuffer<T> boundedLogBuffer;
+
+	ParsingStage(LogParser<T> logParser, boolean ignoreOnParseFailure, String source, BoundedLogBuffer<T> boundedLogBuffer) {
+		this.logParser = logParser;
+		this.ignoreOnParseFailure = ignoreOnParseFailure;
+		this.source = source;
+		this.boundedLogBuffer = boundedLogBuffer;
+	}
+
+	static <T extends Log> ParsingStage<T> create(
+			LogParser<T> logParser,
+			boolean ignoreOnParseFailure,
+			String source,
+			BoundedLogBuffer<T> boundedLogBuffer,
+			int parserThreads,
+			int parserBatchSize,
+			boolean orderedParsing) {
+		if (parserThreads <= 0) {
+			return new SequentialParsingStage<>(logParser, ignoreOnParseFailure, source, boundedLogBuffer);
+		} else {
+			return new ParallelParsingStage<>(
+					logParser,
+					ignoreOnParseFailure,
+					source,
+					boundedLogBuffer,
+					parserThreads,
+					parserBatchSize,
+					orderedParsing
+			);
+		}
+	}
+
+	abstract void parse(CharSequence logLine) throws InterruptedException;
+
+	// Called when the reader reached the end of the file, so the lines waiting to be parsed don't wait for the next ones
+	void flush() throws InterruptedException {
+		// Nothing waiting by default
+	}
+
+	// Called when there are no more log lines (replay), returns once every log parsed has been offered to the BoundedLogBuffer
+	void drain() throws InterruptedException {
+		// The logs are offered as they are parsed by default
+	}
+
+	void stop() {
+		// Nothing to stop by default
+	}
+
+	// Returns null if the log line couldn't be parsed
+	T parseOrNull(CharSequence logLine) {
+		long startInNanos = System.nanoTime();
+
+		try {
+			if (source != null) {
+				return logParser.parseFromLogLine(logLine, source);
+			}
+			// Lines read by the BufferedReader are already Strings, the others (MappedLogFileReader) are views over bytes
+			if (logLine instanceof String) {
+				return logParser.parseFromLogLine((String) logLine);
+			}
+			return logParser.parseFromLogLine(logLine);
+		} catch (ParseException e) {
+			parseFailures.increment();
+			if (ignoreOnParseFailure) {
+				logger.debug(e);
+			} else {
+				// TODO: handle parse errors
+				//  (not handled because in the context of this exercise I decided to ignore them, as it should not occur)
+				logger.error(e);
+			}
+			return null;
+		} finally {
+			parseTimer.recordSince(startInNanos);
+		}
+	}
+}
@@ -0,0 +1,11 @@
+package io.karon.logmonitor.inputter;
+
+/*
+How the FileLogMonitor reads the file, both modes follow rotations and truncations and save checkpoints (see RotatingLogFileReader)
+ */
+public enum ReaderMode {
+	// Reader over the file (the default charset, like a FileReader), each line is decoded into a String before being parsed
+	BUFFERED,
+	// The file is mapped in memory and the line boundaries are found directly in the bytes, the parser gets a view over the bytes
+	MAPPED
+}
@@ -0,0 +1,162 @@
+package io.karon.logmonitor.inputter;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import io.karon.logmonitor.configuration.Configuration;
+import io.karon.logmonitor.log.Log;
+import io.karon.logmonitor.parser.LogParser;
+import io.reactivex.Flowable;
+import io.reactivex.Observer;
+
+
+/*
+Reads an existing log file (or a gzip archive of one, if its name ends with ".gz") once, as fast as possible, instead of tailing it
+	The lines are parsed by a ParallelParsingStage using every core (unless parserThreads says otherwise), in the order of the file
+	The BoundedLogBuffer uses the BLOCK strategy whatever the configuration, we don't want to drop logs when we can wait
+	Once the whole file is read and every log dispatched, the subscribers get onComplete
+	If the reader fails (or is interrupted), they get onError instead, so a caller waiting for the end of the replay isn't stuck
+The listeners should be in the replay mode (see ScheduledLogListener), so their periods follow the logs and not the wall clock.
+ */
+public class ReplayLogMonitor<T extends Log> implements LogMonitor<T> {
+	private static final Logger logger = LogManager.getLogger(ReplayLogMonitor.class);
+	private static final int INPUT_BUFFER_SIZE = 1 << 16;
+
+	private final File fileToReplay;
+
+	private volatile boolean monitor;
+	private final BoundedLogBuffer<T> boundedLogBuffer;
+	private final ParsingStage<T> parsingStage;
+
+	private final ExecutorService executorService = Executors.newSingleThreadExecutor();
+
+	public ReplayLogMonitor(
+			File fileToReplay,
+			LogParser<T> logParser,
+			Configuration.FileLogMonitorConfiguration configuration) {
+		this(
+				fileToReplay,
+				logParser,
+				configuration.isIgnoreOnParseFailure(),
+				configuration.getBufferSize(),
+				configuration.getParserThreads() > 0
+						? configuration.getParserThreads()
+						: Runtime.getRuntime().availableProcessors(),
+				configuration.getParserBatchSize()
+		);
+	}
+
+	// parserThreads: 0 to parse on the reader thread
+	public ReplayLogMonitor(
+			File fileToReplay,
+			LogParser<T> logParser,
+			boolean ignoreOnParseFailure,
+			int bufferSize,
+			int parserThreads,
+			int parserBatchSize) {
+		this.fileToReplay = fileToReplay;
+
+		this.monitor = false;
+		this.boundedLogBuffer = new BoundedLogBuffer<>(bufferSize, OverflowStrategy.BLOCK, 0);
+		this.parsingStage = ParsingStage.create(
+				logParser,
+				ignoreOnParseFailure,
+				null,
+				boundedLogBuffer,
+				parserThreads,
+				parserBatchSize,
+				true
+		);
+	}
+
+	@Override
+	public void subscribe(Observer<T> observer) {
+		boundedLogBuffer.subscribe(observer);
+	}
+
+	@Override
+	public Flowable<T> asFlowable() {
+		return boundedLogBuffer.asFlowable();
+	}
+
+	@Override
+	public void startMonitoring() {
+		monitor = true;
+		boundedLogBuffer.start();
+
+		executorService.submit(() -> {
+			logger.info("Replaying log file: {}", fileToReplay.getAbsolutePath());
+			try {
+				try (BufferedReader bufferedReader = openFile()) {
+					readFile(bufferedReader);
+				} catch (IOException e) {
+					// The logs read before the error are still reported
+					logger.error("Cannot read the whole log file", e);
+				}
+
+				parsingStage.drain();
+				boundedLogBuffer.complete();
+			} catch (InterruptedException e) {
+				logger.error("Tasks interrupted", e);
+				boundedLogBuffer.error(e);
+			} catch (RuntimeException | Error e) {
+				logger.error("Cannot replay the log file", e);
+				boundedLogBuffer.error(e);
+			}
+		});
+	}
+
+	private BufferedReader openFile() throws IOException {
+		InputStream inputStream = new FileInputStream(fileToReplay);
+
+		try {
+			if (fileToReplay.getName().endsWith(".gz")) {
+				inputStream = new GZIPInputStream(inputStream, INPUT_BUFFER_SIZE);
+			}
+		} catch (IOException e) {
+			inputStream.close();
+			throw e;
+		}
+
+		return new BufferedReader(new InputStreamReader(inputStream), INPUT_BUFFER_SIZE);
+	}
+
+	void readFile(BufferedReader bufferedReader) throws IOException, InterruptedException {
+		String line;
+
+		while (monitor && (line = bufferedReader.readLine()) != null) {
+			if (!line.isEmpty()) {
+				parsingStage.parse(line);
+			}
+		}
+	}
+
+	// The reader stops first and drains the ParsingStage, then the BoundedLogBuffer dispatches the logs it still has
+	@Override
+	public void stopMonitoring() {
+		monitor = false;
+
+		try {
+			executorService.shutdown();
+			executorService.awaitTermination(5, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			// ignoring the exception because we are trying to interrupt the thread anyway
+			logger.error("Tasks interrupted", e);
+		} finally {
+			executorService.shutdownNow();
+			parsingStage.stop();
+			boundedLogBuffer.stop();
+		}
+	}
+}
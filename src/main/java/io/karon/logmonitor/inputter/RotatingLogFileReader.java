@@ -0,0 +1,129 @@
+package io.karon.logmonitor.inputter;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+
+/*
+Reads a log file with a MappedLogFileReader or a BufferedLogFileReader (see ReaderMode), and follows it when logrotate rotates or truncates it
+	Rotation (the file is renamed and a new one is created): the path doesn't point to the file we're reading anymore,
+	we read the old file until its end (again once the rotation is seen), then we start reading the new file from its beginning
+	Truncation (copytruncate): the file is smaller than the position we reached, we start again from its beginning
+Both are only checked when there is nothing more to read, so we never skip the end of the old file.
+
+A truncation followed by more writes than what we had read can't be seen by looking at the size, the end of these writes is what we read.
+
+It can start from a FileCheckpoint: if the file is still the same we start at the saved position,
+if it was rotated or truncated while we were stopped we start at the beginning of the new file.
+ */
+class RotatingLogFileReader implements Closeable {
+	private static final Logger logger = LogManager.getLogger(RotatingLogFileReader.class);
+
+	private final Path path;
+	private final ReaderMode readerMode;
+	private final long windowSize;
+
+	private LogFileReader logFileReader;
+	// Read by the threads looking for new files to tail
+	private volatile String fileIdentity;
+
+	RotatingLogFileReader(Path path, boolean readFromEndOfFile, FileCheckpoint fileCheckpoint) throws IOException {
+		this(path, readFromEndOfFile, fileCheckpoint, ReaderMode.MAPPED);
+	}
+
+	RotatingLogFileReader(Path path, boolean readFromEndOfFile, FileCheckpoint fileCheckpoint, ReaderMode readerMode) throws IOException {
+		this(path, readFromEndOfFile, fileCheckpoint, readerMode, MappedLogFileReader.DEFAULT_WINDOW_SIZE);
+	}
+
+	RotatingLogFileReader(Path path, boolean readFromEndOfFile, FileCheckpoint fileCheckpoint, ReaderMode readerMode, long windowSize) throws IOException {
+		this.path = path;
+		this.readerMode = readerMode;
+		this.windowSize = windowSize;
+
+		this.fileIdentity = FileCheckpoint.getFileIdentity(path);
+		this.logFileReader = openLogFileReader(readFromEndOfFile);
+
+		if (fileCheckpoint != null) {
+			resumeFrom(fileCheckpoint);
+		}
+	}
+
+	// Returns null if there is no complete line to read yet
+	CharSequence readLine() throws IOException {
+		CharSequence line = logFileReader.readLine();
+
+		if (line != null) {
+			return line;
+		}
+
+		if (logFileReader.isTruncated()) {
+			logger.info("Log file {} was truncated, reading it from the beginning", path);
+			logFileReader.seek(0);
+			return logFileReader.readLine();
+		}
+
+		String currentFileIdentity = FileCheckpoint.getFileIdentity(path);
+
+		// No file: it was renamed and the new one isn't created yet, we keep the old one in case it's still written
+		if (currentFileIdentity != null && !currentFileIdentity.equals(fileIdentity)) {
+			// The old file may have been written between our last read and the rotation, we switch once we read it to its end
+			line = logFileReader.readLine();
+			if (line != null) {
+				return line;
+			}
+
+			logger.info("Log file {} was rotated, reading the new file from the beginning", path);
+			logFileReader.close();
+			logFileReader = openLogFileReader(false);
+			fileIdentity = currentFileIdentity;
+			return logFileReader.readLine();
+		}
+
+		return null;
+	}
+
+	// Same as readLine, without following a rotation: used to read the file to its end before we stop tailing it
+	CharSequence readLineOfCurrentFile() throws IOException {
+		return logFileReader.readLine();
+	}
+
+	// Offset of the next line to read, in the file we are reading now
+	long getPosition() { return logFileReader.getPosition(); }
+
+	// Identity of the file we are reading now, null if the file didn't exist when we opened it
+	String getFileIdentity() { return fileIdentity; }
+
+	// Returns null if the file didn't exist when we opened it
+	FileCheckpoint getCheckpoint() {
+		return fileIdentity == null ? null : new FileCheckpoint(fileIdentity, logFileReader.getPosition());
+	}
+
+	@Override
+	public void close() throws IOException {
+		logFileReader.close();
+	}
+
+	private LogFileReader openLogFileReader(boolean readFromEndOfFile) throws IOException {
+		if (readerMode == ReaderMode.MAPPED) {
+			return new MappedLogFileReader(path, readFromEndOfFile, windowSize);
+		}
+		return new BufferedLogFileReader(path, readFromEndOfFile);
+	}
+
+	private void resumeFrom(FileCheckpoint fileCheckpoint) throws IOException {
+		if (!fileCheckpoint.getFileIdentity().equals(fileIdentity)) {
+			logger.info("Log file {} was rotated since the checkpoint, reading it from the beginning", path);
+			logFileReader.seek(0);
+		} else if (fileCheckpoint.getPosition() > logFileReader.size()) {
+			logger.info("Log file {} was truncated since the checkpoint, reading it from the beginning", path);
+			logFileReader.seek(0);
+		} else {
+			logger.info("Resuming log file {} at offset {}", path, fileCheckpoint.getPosition());
+			logFileReader.seek(fileCheckpoint.getPosition());
+		}
+	}
+}
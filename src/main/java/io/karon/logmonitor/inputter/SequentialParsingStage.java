@@ -0,0 +1,27 @@
+package io.karon.logmonitor.inputter;
+
+import io.karon.logmonitor.log.Log;
+import io.karon.logmonitor.parser.LogParser;
+
+
+/*
+Parses each log line on the thread reading the file
+ */
+class SequentialParsingStage<T extends Log> extends ParsingStage<T> {
+	SequentialParsingStage(
+			LogParser<T> logParser,
+			boolean ignoreOnParseFailure,
+			String source,
+			BoundedLogBuffer<T> boundedLogBuffer) {
+		super(logParser, ignoreOnParseFailure, source, boundedLogBuffer);
+	}
+
+	@Override
+	void parse(CharSequence logLine) throws InterruptedException {
+		T log = parseOrNull(logLine);
+
+		if (log != null) {
+			boundedLogBuffer.offer(log);
+		}
+	}
+}
@@ -0,0 +1,13 @@
+package io.karon.logmonitor.inputter;
+
+/*
+How the FileLogMonitor waits for new lines once it reached the end of the file
+ */
+public enum TailingMode {
+	// Sleeps for a fixed delay
+	POLLING,
+	// Sleeps for a delay doubling each time nothing new was read, starting again from 1ms as soon as something is read
+	BACKOFF,
+	// Waits for the file system to tell us the file was modified, with BACKOFF as a fallback if no event comes
+	WATCH_SERVICE
+}
@@ -0,0 +1,147 @@
+package io.karon.logmonitor.inputter;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+
+/*
+Blocks until the file system tells us the monitored file was modified (inotify on Linux), so new lines are read within a few milliseconds
+	The WatchService can only watch folders, so we watch the parent folder and ignore the events about the other files
+	Once an event told us the file was modified, we know the file system sends them: we block until the next one, without a timeout
+	Some file systems never send events (network file systems for instance) and some implementations only poll every few seconds
+	(the PollingWatchService of the JDKs without native events), so until then, or with a polling implementation,
+	we never wait longer than what the BackoffWaiter would, and if the WatchService can't be created we simply use the BackoffWaiter
+The WatchService is created on the first wait, so nothing is registered if the file is never fully read.
+Closing the waiter wakes up the reader waiting for an event, it's how the FileLogMonitor stops.
+ */
+class WatchServiceWaiter implements NewLinesWaiter {
+	private static final Logger logger = LogManager.getLogger(WatchServiceWaiter.class);
+
+	private final File fileToMonitor;
+	private final BackoffWaiter backoffWaiter;
+
+	// Closed by the thread stopping the monitoring
+	private volatile WatchService watchService;
+	private boolean watchServiceUnavailable;
+	private volatile boolean closed;
+	// Only used by the reader thread
+	private boolean eventsReceived;
+
+	WatchServiceWaiter(File fileToMonitor, BackoffWaiter backoffWaiter) {
+		this.fileToMonitor = fileToMonitor;
+		this.backoffWaiter = backoffWaiter;
+	}
+
+	@Override
+	public void awaitNewLines() throws InterruptedException {
+		if (watchService == null && !watchServiceUnavailable) {
+			registerWatchService();
+		}
+
+		if (watchService == null || closed) {
+			backoffWaiter.awaitNewLines();
+		} else {
+			awaitFileModified(backoffWaiter.nextWaitInMillis());
+		}
+	}
+
+	@Override
+	public void newLinesRead() {
+		backoffWaiter.newLinesRead();
+	}
+
+	@Override
+	public synchronized void close() {
+		closed = true;
+
+		if (watchService != null) {
+			try {
+				watchService.close();
+			} catch (IOException e) {
+				logger.warn("Couldn't close the WatchService", e);
+			}
+		}
+	}
+
+	private void awaitFileModified(long maxWaitInMillis) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxWaitInMillis);
+
+		try {
+			while (true) {
+				WatchKey watchKey;
+
+				if (eventsReceived) {
+					watchKey = watchService.take();
+				} else {
+					long remainingNanos = deadline - System.nanoTime();
+					watchKey = remainingNanos > 0 ? watchService.poll(remainingNanos, TimeUnit.NANOSECONDS) : null;
+
+					if (watchKey == null) {
+						return;
+					}
+				}
+
+				boolean fileModified = isFileModified(watchKey);
+				watchKey.reset();
+
+				if (fileModified) {
+					eventsReceived = !isPollingImplementation();
+					return;
+				}
+			}
+		} catch (ClosedWatchServiceException e) {
+			// Closed to stop the monitoring
+		}
+	}
+
+	boolean isPollingImplementation() {
+		return watchService.getClass().getSimpleName().equals("PollingWatchService");
+	}
+
+	private boolean isFileModified(WatchKey watchKey) {
+		Path fileName = fileToMonitor.toPath().getFileName();
+		boolean fileModified = false;
+
+		for (WatchEvent<?> watchEvent : watchKey.pollEvents()) {
+			// OVERFLOW means some events were lost, one of them may have been for our file
+			if (watchEvent.kind() == OVERFLOW || fileName.equals(watchEvent.context())) {
+				fileModified = true;
+			}
+		}
+
+		return fileModified;
+	}
+
+	private synchronized void registerWatchService() {
+		if (closed) {
+			watchServiceUnavailable = true;
+			return;
+		}
+
+		try {
+			Path folder = fileToMonitor.getAbsoluteFile().toPath().getParent();
+			watchService = FileSystems.getDefault().newWatchService();
+			folder.register(watchService, ENTRY_MODIFY, ENTRY_CREATE);
+			logger.debug("Watching folder {} for modifications of {}", folder, fileToMonitor.getName());
+		} catch (IOException | RuntimeException e) {
+			logger.warn("Couldn't watch the modifications of the log file, falling back to polling", e);
+			close();
+			watchService = null;
+			watchServiceUnavailable = true;
+		}
+	}
+}
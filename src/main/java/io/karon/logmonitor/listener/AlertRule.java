@@ -0,0 +1,138 @@
+package io.karon.logmonitor.listener;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+
+/*
+Threshold on the hits of a section (or all of them) with a status class (or any), evaluated by ThresholdLogListener
+	COUNT: alerts when more than threshold hits matched in the last durationToMonitor
+	RATE: alerts when more than threshold percent of the hits of the section matched in the last durationToMonitor
+
+Written as "name:section:statusClass:metric:threshold:durationToMonitor", "*" meaning all the sections or any status class:
+	login-errors:/login:5xx:rate:2:60 -> more than 2% of the hits on /login were 5xx errors in the last 60 time units
+	client-errors:*:4xx:count:1000:120 -> more than 1000 4xx errors in the last 120 time units
+Several rules are separated by ";".
+ */
+public class AlertRule {
+	public enum Metric {
+		COUNT,
+		RATE
+	}
+
+	static final String ANY = "*";
+
+	private final String name;
+	// null for all the sections
+	private final String section;
+	// 0 for any status class
+	private final int statusClass;
+	private final Metric metric;
+	private final double threshold;
+	private final long durationToMonitor;
+
+	public AlertRule(String name, String section, int statusClass, Metric metric, double threshold, long durationToMonitor) {
+		if (statusClass < 0 || statusClass > 5) {
+			throw new IllegalArgumentException("The status class should be between 1 and 5, or 0 for any");
+		}
+		if (durationToMonitor <= 0) {
+			throw new IllegalArgumentException("The duration to monitor should be greater than zero");
+		}
+
+		this.name = name;
+		this.section = section;
+		this.statusClass = statusClass;
+		this.metric = metric;
+		this.threshold = threshold;
+		this.durationToMonitor = durationToMonitor;
+	}
+
+	public static List<AlertRule> parseAll(String alertRules) {
+		if (alertRules == null || alertRules.trim().isEmpty()) {
+			return Collections.emptyList();
+		}
+
+		List<AlertRule> parsedAlertRules = new ArrayList<>();
+		for (String alertRule : alertRules.split(";")) {
+			if (!alertRule.trim().isEmpty()) {
+				parsedAlertRules.add(parse(alertRule));
+			}
+		}
+
+		return parsedAlertRules;
+	}
+
+	public static AlertRule parse(String alertRule) {
+		String[] fields = alertRule.trim().split(":");
+
+		if (fields.length != 6) {
+			throw new IllegalArgumentException(
+					"The alert rule |> " + alertRule + " <| should be name:section:statusClass:metric:threshold:durationToMonitor"
+			);
+		}
+
+		try {
+			return new AlertRule(
+					fields[0].trim(),
+					ANY.equals(fields[1].trim()) ? null : fields[1].trim(),
+					parseStatusClass(fields[2].trim()),
+					Metric.valueOf(fields[3].trim().toUpperCase()),
+					Double.parseDouble(fields[4].trim()),
+					Long.parseLong(fields[5].trim())
+			);
+		} catch (IllegalArgumentException e) {
+			throw new IllegalArgumentException("The alert rule |> " + alertRule + " <| is not valid: " + e.getMessage(), e);
+		}
+	}
+
+	// "5xx" -> 5, "*" -> 0
+	private static int parseStatusClass(String statusClass) {
+		if (ANY.equals(statusClass)) {
+			return 0;
+		}
+		if (statusClass.length() != 3 || !statusClass.substring(1).equalsIgnoreCase("xx")) {
+			throw new IllegalArgumentException("The status class |> " + statusClass + " <| should look like 5xx");
+		}
+
+		return Integer.parseInt(statusClass.substring(0, 1));
+	}
+
+	/*
+	matchingHits: hits of the section with the status class, hits: all the hits of the section
+	The RATE of a section without hits is 0
+	 */
+	boolean isThresholdReached(long matchingHits, long hits) {
+		return getValue(matchingHits, hits) > threshold;
+	}
+
+	public double getValue(long matchingHits, long hits) {
+		if (metric == Metric.COUNT) {
+			return matchingHits;
+		}
+
+		return hits == 0 ? 0 : matchingHits * 100.0 / hits;
+	}
+
+	public String getName() { return name; }
+
+	public String getSection() { return section; }
+
+	public int getStatusClass() { return statusClass; }
+
+	public Metric getMetric() { return metric; }
+
+	public double getThreshold() { return threshold; }
+
+	public long getDurationToMonitor() { return durationToMonitor; }
+
+	@Override
+	public String toString() {
+		return name + ":"
+				+ (section == null ? ANY : section) + ":"
+				+ (statusClass == 0 ? ANY : statusClass + "xx") + ":"
+				+ metric.name().toLowerCase() + ":"
+				+ threshold + ":"
+				+ durationToMonitor;
+	}
+}
@@ -0,0 +1,74 @@
+package io.karon.logmonitor.listener;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+
+/*
+Hits of a time slot per section referenced by the AlertRules and per status class, for ThresholdLogListener
+	Row 0 is all the sections, row i the i-th section referenced by the rules, and each row has a column per status class
+	(column 0 for the response codes outside of 1xx-5xx)
+	Each log increments at most two counters (all the sections, and its own section if a rule references it),
+	so the cost of a log doesn't depend on the number of rules, they are all evaluated from the same counters at each period
+
+It is written by a single thread (lazySet is enough) and copied by the scheduler thread (see TimeSlotRingBuffer).
+ */
+class AlertRuleCounters {
+	static final int NUMBER_OF_STATUS_CLASSES = 6;
+
+	private final AtomicLongArray counters;
+
+	AlertRuleCounters(int numberOfSections) {
+		this.counters = new AtomicLongArray((numberOfSections + 1) * NUMBER_OF_STATUS_CLASSES);
+	}
+
+	// sectionIndex: 0 if no rule references the section of the log
+	void offer(int sectionIndex, int responseCode) {
+		int statusClass = getStatusClass(responseCode);
+
+		increment(statusClass);
+		if (sectionIndex != 0) {
+			increment(sectionIndex * NUMBER_OF_STATUS_CLASSES + statusClass);
+		}
+	}
+
+	void reset() {
+		for (int i = 0; i < counters.length(); ++i) {
+			counters.lazySet(i, 0);
+		}
+	}
+
+	long[] snapshot() {
+		long[] snapshot = new long[counters.length()];
+
+		for (int i = 0; i < snapshot.length; ++i) {
+			snapshot[i] = counters.get(i);
+		}
+
+		return snapshot;
+	}
+
+	// Hits of the section (0 for all of them) with the status class (0 for any) in a snapshot
+	static long getHits(long[] snapshot, int sectionIndex, int statusClass) {
+		int row = sectionIndex * NUMBER_OF_STATUS_CLASSES;
+
+		if (statusClass != 0) {
+			return snapshot[row + statusClass];
+		}
+
+		long hits = 0;
+		for (int i = row; i < row + NUMBER_OF_STATUS_CLASSES; ++i) {
+			hits += snapshot[i];
+		}
+		return hits;
+	}
+
+	private void increment(int index) {
+		counters.lazySet(index, counters.get(index) + 1);
+	}
+
+	private static int getStatusClass(int responseCode) {
+		int statusClass = responseCode / 100;
+
+		return statusClass >= 1 && statusClass < NUMBER_OF_STATUS_CLASSES ? statusClass : 0;
+	}
+}
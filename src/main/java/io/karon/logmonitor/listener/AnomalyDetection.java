@@ -0,0 +1,42 @@
+package io.karon.logmonitor.listener;
+
+/*
+Settings of the anomaly detection of ThresholdLogListener (see TrafficBaseline)
+	alpha: weight of each new time slot in the exponentially weighted mean and variance (0.05 ~ the last 20 time slots),
+	with seasonal buckets, weight of each new day of the bucket (0.05 ~ the last 20 days)
+	zScoreThreshold: the hits of a time slot are anomalous when they are more than zScoreThreshold standard deviations from the mean
+	warmUpTimeSlots: number of time slots learned before raising alerts (per seasonal bucket)
+	seasonalBuckets: 0 for a single baseline, otherwise the day is split in seasonalBuckets buckets with their own baseline
+	(24 gives a baseline per hour, so the traffic at 3AM is compared to the traffic of the previous days at 3AM, from the second day)
+ */
+public class AnomalyDetection {
+	private final double alpha;
+	private final double zScoreThreshold;
+	private final int warmUpTimeSlots;
+	private final int seasonalBuckets;
+
+	public AnomalyDetection(double alpha, double zScoreThreshold, int warmUpTimeSlots, int seasonalBuckets) {
+		if (alpha <= 0 || alpha > 1) {
+			throw new IllegalArgumentException("Alpha should be greater than 0 and at most 1");
+		}
+		if (zScoreThreshold <= 0) {
+			throw new IllegalArgumentException("The z-score threshold should be greater than zero");
+		}
+		if (warmUpTimeSlots < 0 || seasonalBuckets < 0) {
+			throw new IllegalArgumentException("The warm up and the number of seasonal buckets can't be negative");
+		}
+
+		this.alpha = alpha;
+		this.zScoreThreshold = zScoreThreshold;
+		this.warmUpTimeSlots = warmUpTimeSlots;
+		this.seasonalBuckets = seasonalBuckets;
+	}
+
+	public double getAlpha() { return alpha; }
+
+	public double getZScoreThreshold() { return zScoreThreshold; }
+
+	public int getWarmUpTimeSlots() { return warmUpTimeSlots; }
+
+	public int getSeasonalBuckets() { return seasonalBuckets; }
+}
@@ -0,0 +1,144 @@
+package io.karon.logmonitor.listener;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import io.karon.logmonitor.log.AccessLog;
+
+
+/*
+Content sizes of a time slot in LogHistograms, overall, per status class (1xx to 5xx) and per section
+	Only the overall histogram has the precise buckets, the status classes and the sections have coarse ones (about 2KB each, see LogHistogram)
+	Only the first MAX_SECTIONS of a time slot get a LogHistogram, the others are only in the overall one
+	The histograms are reused when the time slot is recycled: the ones of the overall and status classes stay where they are,
+	the ones of the sections go back to a pool (at most MAX_SECTIONS), where the next sections seen in the time slot take them from
+	Only the writer offers and resets, so the pool isn't shared
+
+The scheduler thread has two of them (see empty), reused every period: one where a time slot is copied, only with the sections shown,
+and one where these copies are merged, so nothing is allocated once the sections shown have their histograms.
+ */
+class ContentSizesAccumulator {
+	static final int MAX_SECTIONS = 100;
+
+	private static final int NUMBER_OF_STATUS_CLASSES = 5;
+
+	private final LogHistogram contentSizes;
+	private final LogHistogram[] statusClassesContentSizes;
+	private final Map<String, LogHistogram> sectionsContentSizes;
+	private final Deque<LogHistogram> sectionsContentSizesPool;
+
+	ContentSizesAccumulator() {
+		this(new ConcurrentHashMap<>());
+	}
+
+	private ContentSizesAccumulator(Map<String, LogHistogram> sectionsContentSizes) {
+		this.contentSizes = new LogHistogram();
+		this.statusClassesContentSizes = new LogHistogram[NUMBER_OF_STATUS_CLASSES];
+		for (int i = 0; i < NUMBER_OF_STATUS_CLASSES; ++i) {
+			statusClassesContentSizes[i] = LogHistogram.coarse();
+		}
+		this.sectionsContentSizes = sectionsContentSizes;
+		this.sectionsContentSizesPool = new ArrayDeque<>();
+	}
+
+	void offer(AccessLog accessLog) {
+		long contentSize = accessLog.getContentSize();
+		int statusClass = accessLog.getResponseCode() / 100;
+
+		contentSizes.record(contentSize);
+		if (statusClass >= 1 && statusClass <= NUMBER_OF_STATUS_CLASSES) {
+			statusClassesContentSizes[statusClass - 1].record(contentSize);
+		}
+
+		LogHistogram sectionContentSizes = sectionsContentSizes.get(accessLog.getSection());
+		if (sectionContentSizes == null) {
+			if (sectionsContentSizes.size() >= MAX_SECTIONS) {
+				return;
+			}
+			sectionContentSizes = getSectionContentSizes(accessLog.getSection());
+		}
+		sectionContentSizes.record(contentSize);
+	}
+
+	void reset() {
+		contentSizes.reset();
+		for (LogHistogram statusClassContentSizes : statusClassesContentSizes) {
+			statusClassContentSizes.reset();
+		}
+		for (LogHistogram sectionContentSizes : sectionsContentSizes.values()) {
+			sectionContentSizes.reset();
+			sectionsContentSizesPool.push(sectionContentSizes);
+		}
+		sectionsContentSizes.clear();
+	}
+
+	// Only used on the ones of the scheduler thread: replaces the content with the one of a time slot, only with the sections given
+	void copyOf(ContentSizesAccumulator timeSlot, Collection<String> sections) {
+		reset();
+		merge(timeSlot, sections);
+	}
+
+	// Only used on the ones of the scheduler thread
+	void merge(ContentSizesAccumulator other) {
+		merge(other, other.sectionsContentSizes.keySet());
+	}
+
+	private void merge(ContentSizesAccumulator other, Collection<String> sections) {
+		contentSizes.merge(other.contentSizes);
+		for (int i = 0; i < NUMBER_OF_STATUS_CLASSES; ++i) {
+			statusClassesContentSizes[i].merge(other.statusClassesContentSizes[i]);
+		}
+
+		for (String section : sections) {
+			LogHistogram otherSectionContentSizes = other.sectionsContentSizes.get(section);
+
+			if (otherSectionContentSizes != null) {
+				LogHistogram sectionContentSizes = sectionsContentSizes.get(section);
+				if (sectionContentSizes == null) {
+					sectionContentSizes = getSectionContentSizes(section);
+				}
+				sectionContentSizes.merge(otherSectionContentSizes);
+			}
+		}
+	}
+
+	SizePercentiles getSizePercentiles() {
+		return contentSizes.getSizePercentiles();
+	}
+
+	// "2xx" -> percentiles, only the status classes that received logs
+	Map<String, SizePercentiles> getStatusClassesSizePercentiles() {
+		Map<String, SizePercentiles> statusClassesSizePercentiles = new LinkedHashMap<>();
+
+		for (int i = 0; i < NUMBER_OF_STATUS_CLASSES; ++i) {
+			if (statusClassesContentSizes[i].getCount() > 0) {
+				statusClassesSizePercentiles.put((i + 1) + "xx", statusClassesContentSizes[i].getSizePercentiles());
+			}
+		}
+
+		return statusClassesSizePercentiles;
+	}
+
+	// Returns null if the section had no LogHistogram
+	SizePercentiles getSectionSizePercentiles(String section) {
+		LogHistogram sectionContentSizes = sectionsContentSizes.get(section);
+
+		return sectionContentSizes == null ? null : sectionContentSizes.getSizePercentiles();
+	}
+
+	// Only used by the scheduler thread, which is the only one resetting them
+	static ContentSizesAccumulator empty() {
+		return new ContentSizesAccumulator(new HashMap<>());
+	}
+
+	private LogHistogram getSectionContentSizes(String section) {
+		LogHistogram sectionContentSizes = sectionsContentSizesPool.isEmpty() ? LogHistogram.coarse() : sectionsContentSizesPool.pop();
+		sectionsContentSizes.put(section, sectionContentSizes);
+		return sectionContentSizes;
+	}
+}
@@ -0,0 +1,20 @@
+package io.karon.logmonitor.listener;
+
+/*
+Settings of the event time mode of the listeners (see ScheduledTimeSlotMonitoringLogListener)
+	allowedLateness (in the time unit of the listener): how long after the most recent log we wait for the logs that are late
+	before reporting a time slot, and how late a log can be and still be counted
+ */
+public class EventTimeWindowing {
+	private final long allowedLateness;
+
+	public EventTimeWindowing(long allowedLateness) {
+		if (allowedLateness < 0) {
+			throw new IllegalArgumentException("The allowed lateness can't be negative");
+		}
+
+		this.allowedLateness = allowedLateness;
+	}
+
+	public long getAllowedLateness() { return allowedLateness; }
+}
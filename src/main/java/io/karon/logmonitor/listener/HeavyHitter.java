@@ -0,0 +1,45 @@
+package io.karon.logmonitor.listener;
+
+/*
+An item (a section for instance) counted approximately: its real count is between count - error and count
+ */
+public class HeavyHitter {
+	private final String item;
+	private final long count;
+	private final long error;
+
+	public HeavyHitter(String item, long count, long error) {
+		this.item = item;
+		this.count = count;
+		this.error = error;
+	}
+
+	public String getItem() { return item; }
+
+	public long getCount() { return count; }
+
+	public long getError() { return error; }
+
+	@Override
+	public boolean equals(Object other) {
+		if (this == other) {
+			return true;
+		}
+		if (!(other instanceof HeavyHitter)) {
+			return false;
+		}
+
+		HeavyHitter heavyHitter = (HeavyHitter) other;
+		return count == heavyHitter.count && error == heavyHitter.error && item.equals(heavyHitter.item);
+	}
+
+	@Override
+	public int hashCode() {
+		return 31 * (31 * item.hashCode() + Long.hashCode(count)) + Long.hashCode(error);
+	}
+
+	@Override
+	public String toString() {
+		return item + "=" + count + "(+-" + error + ")";
+	}
+}
@@ -0,0 +1,113 @@
+package io.karon.logmonitor.listener;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import io.karon.logmonitor.metrics.HistogramBuckets;
+
+
+/*
+Histogram of positive values with log-sized buckets, like HdrHistogram (see HistogramBuckets)
+	Recording is a shift and an increment in a preallocated array, it never allocates
+	Two histograms are merged by adding their buckets, so the time slots can each have their own and be merged every period
+
+It is written by a single thread (lazySet is enough) and merged by the scheduler thread (see TimeSlotRingBuffer).
+The percentiles are the highest value of their bucket, capped by the real max.
+The coarse ones (COARSE_SUB_BUCKET_BITS) are for the histograms kept by the hundred, a fourth of the memory for 4 times wider buckets,
+only histograms with the same layout can be merged.
+ */
+class LogHistogram {
+	static final int COARSE_SUB_BUCKET_BITS = 3;
+
+	private final int subBucketBits;
+	private final AtomicLongArray buckets;
+	private volatile long count;
+	private volatile long max;
+
+	LogHistogram() {
+		this(HistogramBuckets.SUB_BUCKET_BITS);
+	}
+
+	private LogHistogram(int subBucketBits) {
+		this.subBucketBits = subBucketBits;
+		this.buckets = new AtomicLongArray(HistogramBuckets.getNumberOfBuckets(subBucketBits));
+	}
+
+	void record(long value) {
+		long positiveValue = Math.max(value, 0);
+		int index = HistogramBuckets.getIndex(positiveValue, subBucketBits);
+
+		buckets.lazySet(index, buckets.get(index) + 1);
+		if (positiveValue > max) {
+			max = positiveValue;
+		}
+		++count;
+	}
+
+	void reset() {
+		for (int i = 0; i < buckets.length(); ++i) {
+			buckets.lazySet(i, 0);
+		}
+		count = 0;
+		max = 0;
+	}
+
+	LogHistogram copy() {
+		LogHistogram copy = new LogHistogram(subBucketBits);
+		copy.merge(this);
+		return copy;
+	}
+
+	// Only used on copies, which belong to the scheduler thread
+	void merge(LogHistogram other) {
+		if (other.subBucketBits != subBucketBits) {
+			throw new IllegalArgumentException("Cannot merge histograms with different bucket layouts");
+		}
+
+		long otherCount = 0;
+
+		for (int i = 0; i < buckets.length(); ++i) {
+			long bucket = other.buckets.get(i);
+			if (bucket != 0) {
+				buckets.lazySet(i, buckets.get(i) + bucket);
+				otherCount += bucket;
+			}
+		}
+
+		// Counted from the buckets, since the count of a histogram being written may not match the buckets we just read
+		count += otherCount;
+		max = Math.max(max, other.max);
+	}
+
+	// percentile between 0 and 100, returns 0 if the histogram is empty
+	long getValueAtPercentile(double percentile) {
+		long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+		long seen = 0;
+
+		for (int i = 0; i < buckets.length(); ++i) {
+			seen += buckets.get(i);
+			if (seen >= rank) {
+				return Math.min(HistogramBuckets.getHighestValue(i, subBucketBits), max);
+			}
+		}
+
+		return max;
+	}
+
+	long getCount() { return count; }
+
+	long getMax() { return max; }
+
+	SizePercentiles getSizePercentiles() {
+		return new SizePercentiles(
+				count,
+				getValueAtPercentile(50),
+				getValueAtPercentile(90),
+				getValueAtPercentile(99),
+				max
+		);
+	}
+
+	static LogHistogram coarse() {
+		return new LogHistogram(COARSE_SUB_BUCKET_BITS);
+	}
+}
@@ -0,0 +1,37 @@
+package io.karon.logmonitor.listener;
+
+/*
+Settings of the low traffic alert of ThresholdLogListener, the thresholds are in hits per time unit like the high threshold
+	The alert is raised when the traffic stayed below threshold for at least alertMinDuration
+	It recovers when the traffic stayed at or above recoveryThreshold (at least threshold) for at least recoveryMinDuration
+	The gap between the two thresholds and the minimum durations keep the alert from flapping around a single threshold
+The alert is only armed once the traffic reached recoveryThreshold, so starting the monitor on a quiet log doesn't raise it.
+ */
+public class LowTrafficThreshold {
+	private final int threshold;
+	private final int recoveryThreshold;
+	private final long alertMinDuration;
+	private final long recoveryMinDuration;
+
+	public LowTrafficThreshold(int threshold, int recoveryThreshold, long alertMinDuration, long recoveryMinDuration) {
+		if (threshold <= 0) {
+			throw new IllegalArgumentException("The low threshold should be greater than zero");
+		}
+		if (alertMinDuration < 0 || recoveryMinDuration < 0) {
+			throw new IllegalArgumentException("The minimum durations can't be negative");
+		}
+
+		this.threshold = threshold;
+		this.recoveryThreshold = Math.max(threshold, recoveryThreshold);
+		this.alertMinDuration = alertMinDuration;
+		this.recoveryMinDuration = recoveryMinDuration;
+	}
+
+	public int getThreshold() { return threshold; }
+
+	public int getRecoveryThreshold() { return recoveryThreshold; }
+
+	public long getAlertMinDuration() { return alertMinDuration; }
+
+	public long getRecoveryMinDuration() { return recoveryMinDuration; }
+}
@@ -1,8 +1,11 @@
 package io.karon.logmonitor.listener;
 
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 
 import io.karon.logmonitor.log.AccessLog;
+import io.karon.logmonitor.metrics.Metrics;
+import io.karon.logmonitor.metrics.Timer;
 import io.reactivex.Observable;
 import io.reactivex.Observer;
 import io.reactivex.Scheduler;
@@ -10,21 +13,45 @@ import io.reactivex.disposables.Disposable;
 import io.reactivex.schedulers.Schedulers;
 
 
+/*
+runScheduledProcess is called every period, either by a scheduler or, when replaying a file, by onNext itself:
+	In the replay mode there is no timer, the time is the one of the logs (see ScheduledTimeSlotMonitoringLogListener)
+	Each time the logs go through the end of a period, runScheduledProcess is called synchronously for that period,
+	so a file is replayed as fast as we can read it, and gives the same output as if it had been tailed live
+	onComplete runs it a last time for the period in progress, awaitCompletion lets the caller wait for that
+Each run is timed in the Timer "tick.<class of the listener>" (the onNext are timed by the BoundedLogBuffer).
+ */
 public abstract class ScheduledLogListener implements Observer<AccessLog> {
 	private Disposable disposable;
 
 	private final long initialDelay;
 	private final long period;
 	private final TimeUnit timeUnit;
+	private final Timer tickTimer;
+
+	// Only used by the thread calling onNext, in the replay mode
+	private boolean replay;
+	private long nextReplayedProcessInMillis;
+	private long replayWatermarkInMillis;
+	private final CountDownLatch completed;
 
 	ScheduledLogListener(long initialDelay, long period, TimeUnit timeUnit) {
 		this.initialDelay = initialDelay;
 		this.period = period;
 		this.timeUnit = timeUnit;
+		this.tickTimer = Metrics.timer("tick." + getClass().getSimpleName());
+
+		this.replay = false;
+		this.nextReplayedProcessInMillis = Long.MIN_VALUE;
+		this.replayWatermarkInMillis = Long.MIN_VALUE;
+		this.completed = new CountDownLatch(1);
 	}
 
 	abstract void runScheduledProcess();
 
+	// Same as runScheduledProcess, for a period ending at this time instead of now (only called in the replay mode)
+	abstract void runScheduledProcessAt(long timeInMillis);
+
 	public void startScheduler() {
 		startScheduler(Schedulers.computation());
 	}
@@ -32,13 +59,67 @@ public abstract class ScheduledLogListener implements Observer<AccessLog> {
 	public void startScheduler(Scheduler scheduler) {
 		disposable = Observable.interval(initialDelay, period, timeUnit)
 				.subscribeOn(scheduler)
-				.subscribe(ignored -> runScheduledProcess());
+				.subscribe(ignored -> {
+					long startInNanos = System.nanoTime();
+					try {
+						runScheduledProcess();
+					} finally {
+						// A failing tick is timed too, it's often the slowest one
+						tickTimer.recordSince(startInNanos);
+					}
+				});
 	}
 
 	public void stopScheduler() {
 		disposable.dispose();
 	}
 
+	// Instead of startScheduler
+	public void startReplay() {
+		replay = true;
+	}
+
+	// Waits for onComplete (or onError) to be called
+	public void awaitCompletion() throws InterruptedException {
+		completed.await();
+	}
+
+	/*
+	Called by onNext in the replay mode, with the time the logs reached (the watermark)
+	The first period starts at the first log, then runScheduledProcessAt is called for each period the watermark went through
+	 */
+	void replayScheduledProcesses(long watermarkInMillis) {
+		if (!replay) {
+			return;
+		}
+
+		if (nextReplayedProcessInMillis == Long.MIN_VALUE) {
+			nextReplayedProcessInMillis = watermarkInMillis + timeUnit.toMillis(initialDelay);
+		}
+		replayWatermarkInMillis = Math.max(replayWatermarkInMillis, watermarkInMillis);
+
+		while (watermarkInMillis >= nextReplayedProcessInMillis) {
+			runTimedScheduledProcessAt(nextReplayedProcessInMillis);
+			nextReplayedProcessInMillis += timeUnit.toMillis(period);
+		}
+	}
+
+	// The period in progress, unless nothing happened since the last one
+	private void finishReplay() {
+		if (replayWatermarkInMillis > nextReplayedProcessInMillis - timeUnit.toMillis(period)) {
+			runTimedScheduledProcessAt(replayWatermarkInMillis);
+		}
+	}
+
+	private void runTimedScheduledProcessAt(long timeInMillis) {
+		long startInNanos = System.nanoTime();
+		try {
+			runScheduledProcessAt(timeInMillis);
+		} finally {
+			tickTimer.recordSince(startInNanos);
+		}
+	}
+
 	@Override
 	public void onSubscribe(Disposable d) {
 		// Do nothing
@@ -47,13 +128,23 @@ public abstract class ScheduledLogListener implements Observer<AccessLog> {
 	@Override
 	public void onError(Throwable e) {
 		// TODO: handle error -> we should probably try to restart everything when it crashes because of I/O errors
-		stopScheduler();
+		if (!replay) {
+			stopScheduler();
+		}
+		completed.countDown();
 	}
 
 	@Override
 	public void onComplete() {
-		stopScheduler();
+		if (replay) {
+			finishReplay();
+		} else {
+			stopScheduler();
+		}
+		completed.countDown();
 	}
 
+	boolean isReplaying() { return replay; }
+
 	TimeUnit getTimeUnit() { return timeUnit; }
 }
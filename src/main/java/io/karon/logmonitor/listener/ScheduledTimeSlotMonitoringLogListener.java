@@ -5,19 +5,78 @@ import java.time.Duration;
 import java.time.Instant;
 import java.time.ZonedDateTime;
 import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 
+/*
+onNext (the writer) and runScheduledProcess (the reader) are called by different threads, and never wait for each other:
+	The writer only touches the TimeSlotRingBuffers, through getTimeSlotAccumulator
+	The reader calls updateTimeSlot, then goes through snapshots of the time slots with forEachTimeSlotToMonitor
+
+By default the window ends at Instant.now() (wall clock). In the event time mode (see EventTimeWindowing), it ends at a watermark:
+	The watermark is the Instant of the most recent log received minus the allowed lateness, only the writer moves it forward
+	A log is only dropped if it is older than the window of the watermark, so a replayed backlog or a skewed clock isn't dropped
+	The TimeSlotRingBuffers also cover the allowed lateness, since the logs more recent than the watermark aren't reported yet
+	A log from the future is dropped, otherwise it would move the watermark so far that every log after it would be too old:
+		live, a log more than the allowed lateness (plus a time slot) ahead of the wall clock
+		replayed, a log more than a window (durationToMonitor + allowedLateness) ahead of the most recent log, unless the next log
+		is too (there was no traffic for a while), so only the first log after such a gap is dropped
+	Apart from that, the same logs always give the same results, whether they are tailed live or replayed
+The replay mode (see ScheduledLogListener) needs the event time mode: the periods end at the watermark reached by the logs,
+and onNext calls advanceWatermark before counting a log, so a period never includes the logs that ended it.
+ */
 abstract class ScheduledTimeSlotMonitoringLogListener extends ScheduledLogListener {
 	private final long durationToMonitorAsLong;
 	private final Duration durationToMonitor;
-	private Instant earliestInstant;
-	private Instant latestInstant;
+	private final Duration precision;
+	// null in the wall clock mode
+	private final Duration allowedLateness;
+	// Only written by the writer, in the event time mode
+	private volatile long mostRecentLogInMillis;
+	// Only used by the writer, in the event time mode: the log being counted is from the future
+	private boolean logFromTheFuture;
+	// Only used by the writer, in the replay mode: the previous log was more than a window ahead of the most recent log
+	private boolean unconfirmedJump;
+	// Only written by the writer, in the replay mode: the end of the period being replayed
+	private volatile Instant replayedWatermark;
+	/*
+	The wall clock used by onNext, so it isn't read for every log: published by the scheduler thread every tick,
+	and only read again by the writer when a log is more recent than it. A cached now older than the real one
+	only keeps a log slightly older than the window, in a time slot the reader skips
+	 */
+	private volatile long cachedNowInMillis;
+	// Only written by the scheduler thread
+	private volatile Instant earliestInstant;
+	private volatile Instant latestInstant;
 
 	ScheduledTimeSlotMonitoringLogListener(long initialDelay, long period, TimeUnit timeUnit) {
 		this(initialDelay, period, period, timeUnit);
 	}
 
 	ScheduledTimeSlotMonitoringLogListener(long initialDelay, long period, long durationToMonitor, TimeUnit timeUnit) {
+		this(initialDelay, period, durationToMonitor, 1, timeUnit);
+	}
+
+	ScheduledTimeSlotMonitoringLogListener(
+			long initialDelay,
+			long period,
+			long durationToMonitor,
+			long precision,
+			TimeUnit timeUnit) {
+		this(initialDelay, period, durationToMonitor, precision, timeUnit, null);
+	}
+
+	// eventTimeWindowing: null to use the wall clock
+	ScheduledTimeSlotMonitoringLogListener(
+			long initialDelay,
+			long period,
+			long durationToMonitor,
+			long precision,
+			TimeUnit timeUnit,
+			EventTimeWindowing eventTimeWindowing) {
 		super(initialDelay, period, timeUnit);
 
 		if (durationToMonitor == 0) {
@@ -26,13 +85,91 @@ abstract class ScheduledTimeSlotMonitoringLogListener extends ScheduledLogListen
 
 		this.durationToMonitorAsLong = durationToMonitor;
 		this.durationToMonitor = Duration.ofMillis(timeUnit.toMillis(this.durationToMonitorAsLong));
+		this.precision = Duration.ofMillis(timeUnit.toMillis(precision));
+		this.allowedLateness = eventTimeWindowing == null
+				? null
+				: Duration.ofMillis(timeUnit.toMillis(eventTimeWindowing.getAllowedLateness()));
+		this.mostRecentLogInMillis = Long.MIN_VALUE;
+		this.cachedNowInMillis = System.currentTimeMillis();
 	}
 
 	void updateTimeSlot() {
-		this.earliestInstant = Instant.now();
+		this.cachedNowInMillis = System.currentTimeMillis();
+		this.earliestInstant = getWatermark();
 		this.latestInstant = earliestInstant.minus(durationToMonitor);
 	}
 
+	@Override
+	public void startReplay() {
+		if (allowedLateness == null) {
+			throw new IllegalStateException("The replay mode needs the event time mode");
+		}
+
+		super.startReplay();
+	}
+
+	@Override
+	void runScheduledProcessAt(long timeInMillis) {
+		replayedWatermark = Instant.ofEpochMilli(timeInMillis);
+		runScheduledProcess();
+	}
+
+	/*
+	Called by the writer at the beginning of onNext, does nothing in the wall clock mode
+	Moves the watermark forward unless the log is from the future, and if we are replaying, runs the periods it went through
+	 */
+	void advanceWatermark(Instant accessLogInstant) {
+		if (allowedLateness == null) {
+			return;
+		}
+
+		long accessLogInMillis = accessLogInstant.toEpochMilli();
+		long mostRecentLog = mostRecentLogInMillis;
+		logFromTheFuture = isFromTheFuture(accessLogInMillis, mostRecentLog);
+
+		if (!logFromTheFuture && accessLogInMillis > mostRecentLog) {
+			mostRecentLog = accessLogInMillis;
+			mostRecentLogInMillis = accessLogInMillis;
+		}
+
+		if (mostRecentLog != Long.MIN_VALUE) {
+			replayScheduledProcesses(mostRecentLog - allowedLateness.toMillis());
+		}
+	}
+
+	private boolean isFromTheFuture(long accessLogInMillis, long mostRecentLog) {
+		if (!isReplaying()) {
+			long maxNotFromTheFutureInMillis = accessLogInMillis - allowedLateness.toMillis() - precision.toMillis();
+			return maxNotFromTheFutureInMillis > getNowInMillis(maxNotFromTheFutureInMillis);
+		}
+
+		if (mostRecentLog == Long.MIN_VALUE
+				|| accessLogInMillis <= mostRecentLog + allowedLateness.toMillis() + durationToMonitor.toMillis()) {
+			unconfirmedJump = false;
+			return false;
+		}
+
+		// The first log of the jump is dropped, the next one confirms it
+		unconfirmedJump = !unconfirmedJump;
+		return unconfirmedJump;
+	}
+
+	// Instant.now() in the wall clock mode, until the first log in the event time mode, the end of the period in the replay mode
+	Instant getWatermark() {
+		Instant replayed = replayedWatermark;
+		if (replayed != null) {
+			return replayed;
+		}
+
+		long mostRecentLog = mostRecentLogInMillis;
+
+		if (allowedLateness == null || mostRecentLog == Long.MIN_VALUE) {
+			return Instant.now();
+		}
+
+		return Instant.ofEpochMilli(mostRecentLog).minus(allowedLateness);
+	}
+
 	boolean isTooOldForTimeSlot(Instant accessLogInstant) {
 		return latestInstant.compareTo(accessLogInstant) > 0;
 	}
@@ -41,9 +178,107 @@ abstract class ScheduledTimeSlotMonitoringLogListener extends ScheduledLogListen
 		return accessLogInstant.compareTo(earliestInstant) <= 0;
 	}
 
+	<A> TimeSlotRingBuffer<A> createTimeSlotRingBuffer(Supplier<A> accumulatorFactory, Consumer<A> accumulatorReset) {
+		Duration durationCovered = allowedLateness == null ? durationToMonitor : durationToMonitor.plus(allowedLateness);
+
+		return new TimeSlotRingBuffer<>(durationCovered, precision, accumulatorFactory, accumulatorReset);
+	}
+
+	/*
+	Called by the writer
+	Returns the accumulator in which an AccessLog received with this Instant should be counted, or null if it is too old
+	An AccessLog coming from the future (clock skew between the machines for instance) is counted in the current time slot,
+	otherwise it would take the place of a time slot still being monitored
+	 */
+	<A> A getTimeSlotAccumulator(TimeSlotRingBuffer<A> timeSlotRingBuffer, Instant accessLogInstant) {
+		if (allowedLateness != null) {
+			return getEventTimeSlotAccumulator(timeSlotRingBuffer, accessLogInstant);
+		}
+
+		long accessLogInMillis = accessLogInstant.toEpochMilli();
+		long nowInMillis = getNowInMillis(accessLogInMillis);
+
+		if (nowInMillis - durationToMonitor.toMillis() > accessLogInMillis) {
+			return null;
+		}
+
+		return timeSlotRingBuffer.getAccumulator(
+				accessLogInMillis <= nowInMillis ? accessLogInstant : Instant.ofEpochMilli(nowInMillis)
+		);
+	}
+
+	// Called by the writer: the cached now, unless the time given is more recent, then the clock is read again
+	private long getNowInMillis(long timeInMillis) {
+		long nowInMillis = cachedNowInMillis;
+
+		if (timeInMillis > nowInMillis) {
+			nowInMillis = System.currentTimeMillis();
+			cachedNowInMillis = nowInMillis;
+		}
+
+		return nowInMillis;
+	}
+
+	/*
+	Called by the writer, in the event time mode, after advanceWatermark
+	Returns null if the log is older than the window of the watermark, meaning its time slot may have been reported already,
+	or if it is from the future
+	 */
+	private <A> A getEventTimeSlotAccumulator(TimeSlotRingBuffer<A> timeSlotRingBuffer, Instant accessLogInstant) {
+		if (logFromTheFuture) {
+			return null;
+		}
+
+		long accessLogInMillis = accessLogInstant.toEpochMilli();
+		long mostRecentLog = mostRecentLogInMillis;
+
+		if (accessLogInMillis < mostRecentLog - allowedLateness.toMillis() - durationToMonitor.toMillis()) {
+			return null;
+		}
+
+		return timeSlotRingBuffer.getAccumulator(accessLogInstant);
+	}
+
+	// Called by the reader, after updateTimeSlot
+	<A, S> void forEachTimeSlotToMonitor(
+			TimeSlotRingBuffer<A> timeSlotRingBuffer,
+			Function<A, S> snapshot,
+			Consumer<S> consumer) {
+		timeSlotRingBuffer.forEachTimeSlot(this::isTooOldForTimeSlot, snapshot, (timeSlotInstant, timeSlotSnapshot) -> {
+			if (isNotTooRecentForTimeSlot(timeSlotInstant)) {
+				consumer.accept(timeSlotSnapshot);
+			}
+		});
+	}
+
+	// Same, with the oldest Instant of each time slot
+	<A, S> void forEachTimeSlotToMonitorWithInstant(
+			TimeSlotRingBuffer<A> timeSlotRingBuffer,
+			Function<A, S> snapshot,
+			BiConsumer<Instant, S> consumer) {
+		timeSlotRingBuffer.forEachTimeSlot(this::isTooOldForTimeSlot, snapshot, (timeSlotInstant, timeSlotSnapshot) -> {
+			if (isNotTooRecentForTimeSlot(timeSlotInstant)) {
+				consumer.accept(timeSlotInstant, timeSlotSnapshot);
+			}
+		});
+	}
+
+	/*
+	Called by the reader, after updateTimeSlot
+	Same as isTooOldForTimeSlot for a shorter duration, with the oldest Instant of a time slot:
+	the time slot is only too old if its most recent Instant is
+	 */
+	boolean isTooOldForDuration(Instant timeSlotInstant, Duration duration) {
+		return earliestInstant.minus(duration).compareTo(timeSlotInstant.plus(precision).minusMillis(1)) > 0;
+	}
+
+	Instant getEarliestInstant() { return earliestInstant; }
+
 	ZonedDateTime getEarliestInstantAtSystemDefaultClockZoneId() {
 		return earliestInstant.atZone(Clock.systemDefaultZone().getZone());
 	}
 
 	Long getDurationToMonitor() { return durationToMonitorAsLong; }
+
+	Duration getPrecision() { return precision; }
 }
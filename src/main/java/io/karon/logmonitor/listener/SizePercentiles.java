@@ -0,0 +1,61 @@
+package io.karon.logmonitor.listener;
+
+/*
+Percentiles of the content sizes (in bytes) of a period, approximate except for the count and the max (see LogHistogram)
+ */
+public class SizePercentiles {
+	private final long count;
+	private final long p50;
+	private final long p90;
+	private final long p99;
+	private final long max;
+
+	public SizePercentiles(long count, long p50, long p90, long p99, long max) {
+		this.count = count;
+		this.p50 = p50;
+		this.p90 = p90;
+		this.p99 = p99;
+		this.max = max;
+	}
+
+	public long getCount() { return count; }
+
+	public long getP50() { return p50; }
+
+	public long getP90() { return p90; }
+
+	public long getP99() { return p99; }
+
+	public long getMax() { return max; }
+
+	@Override
+	public boolean equals(Object other) {
+		if (this == other) {
+			return true;
+		}
+		if (!(other instanceof SizePercentiles)) {
+			return false;
+		}
+
+		SizePercentiles sizePercentiles = (SizePercentiles) other;
+		return count == sizePercentiles.count
+				&& p50 == sizePercentiles.p50
+				&& p90 == sizePercentiles.p90
+				&& p99 == sizePercentiles.p99
+				&& max == sizePercentiles.max;
+	}
+
+	@Override
+	public int hashCode() {
+		int hashCode = Long.hashCode(count);
+		hashCode = 31 * hashCode + Long.hashCode(p50);
+		hashCode = 31 * hashCode + Long.hashCode(p90);
+		hashCode = 31 * hashCode + Long.hashCode(p99);
+		return 31 * hashCode + Long.hashCode(max);
+	}
+
+	@Override
+	public String toString() {
+		return "count=" + count + ", p50=" + p50 + ", p90=" + p90 + ", p99=" + p99 + ", max=" + max;
+	}
+}
@@ -0,0 +1,181 @@
+package io.karon.logmonitor.listener;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+
+/*
+Space-Saving algorithm (Metwally, Agrawal and El Abbadi) counting the most frequent items with a fixed number of counters
+	When an item without a counter arrives and all the counters are used, it takes over the counter with the smallest count,
+	so its count is overestimated by at most the count it took over, which we keep as its error
+	The counters are in a min-heap: the smallest one is always at the top, and updating a counter costs O(log capacity)
+	Any item seen more than (number of items / capacity) times is guaranteed to have a counter
+
+It is written by a single thread and read by the scheduler thread (see TimeSlotRingBuffer):
+the counters are in a ConcurrentHashMap and their values are volatile, so a snapshot can be taken while items are counted.
+ */
+class SpaceSaving {
+	private final int capacity;
+	private final Map<String, Counter> counters;
+	private final Counter[] heap;
+	private int size;
+
+	// Smallest count when all the counters are used: an item without a counter was seen at most that many times
+	private volatile long minCount;
+
+	SpaceSaving(int capacity) {
+		if (capacity <= 0) {
+			throw new IllegalArgumentException("The capacity should be greater than zero");
+		}
+
+		this.capacity = capacity;
+		this.counters = new ConcurrentHashMap<>(capacity * 2);
+		this.heap = new Counter[capacity];
+	}
+
+	void offer(String item) {
+		Counter counter = counters.get(item);
+
+		if (counter != null) {
+			// Only one thread writes, so the increment of the volatile doesn't need to be atomic
+			++counter.count;
+			siftDown(counter.heapIndex);
+		} else if (size < capacity) {
+			counter = new Counter(item, 1, 0);
+			counters.put(item, counter);
+			heap[size] = counter;
+			counter.heapIndex = size;
+			siftUp(size++);
+		} else {
+			Counter smallestCounter = heap[0];
+			counters.remove(smallestCounter.item);
+
+			counter = new Counter(item, smallestCounter.count + 1, smallestCounter.count);
+			counters.put(item, counter);
+			heap[0] = counter;
+			siftDown(0);
+		}
+
+		if (size == capacity) {
+			minCount = heap[0].count;
+		}
+	}
+
+	void reset() {
+		counters.clear();
+		for (int i = 0; i < size; ++i) {
+			heap[i] = null;
+		}
+		size = 0;
+		minCount = 0;
+	}
+
+	Snapshot snapshot() {
+		Map<String, HeavyHitter> heavyHitters = new HashMap<>(counters.size() * 2);
+
+		counters.forEach((item, counter) -> heavyHitters.put(item, new HeavyHitter(item, counter.count, counter.error)));
+
+		return new Snapshot(heavyHitters, minCount);
+	}
+
+	private void siftUp(int index) {
+		Counter counter = heap[index];
+
+		while (index > 0) {
+			int parentIndex = (index - 1) / 2;
+			Counter parent = heap[parentIndex];
+
+			if (parent.count <= counter.count) {
+				break;
+			}
+
+			place(parent, index);
+			index = parentIndex;
+		}
+
+		place(counter, index);
+	}
+
+	private void siftDown(int index) {
+		Counter counter = heap[index];
+
+		while (true) {
+			int childIndex = 2 * index + 1;
+			if (childIndex >= size) {
+				break;
+			}
+			if (childIndex + 1 < size && heap[childIndex + 1].count < heap[childIndex].count) {
+				++childIndex;
+			}
+			if (counter.count <= heap[childIndex].count) {
+				break;
+			}
+
+			place(heap[childIndex], index);
+			index = childIndex;
+		}
+
+		place(counter, index);
+	}
+
+	private void place(Counter counter, int index) {
+		heap[index] = counter;
+		counter.heapIndex = index;
+	}
+
+	private static class Counter {
+		private final String item;
+		private volatile long count;
+		private final long error;
+		private int heapIndex;
+
+		private Counter(String item, long count, long error) {
+			this.item = item;
+			this.count = count;
+			this.error = error;
+		}
+	}
+
+	/*
+	What a SpaceSaving held at some point, the heavy hitters of several snapshots (one per time slot) can be merged:
+		An item counted in a snapshot adds its count, and count - error to its lower bound
+		An item not counted in a snapshot was seen at most minCount times there, so minCount is added to its count only
+	The count of a merged item is still an upper bound of its real count, and the error the distance to its lower bound.
+	 */
+	static class Snapshot {
+		private final Map<String, HeavyHitter> heavyHitters;
+		private final long minCount;
+
+		Snapshot(Map<String, HeavyHitter> heavyHitters, long minCount) {
+			this.heavyHitters = heavyHitters;
+			this.minCount = minCount;
+		}
+
+		static Map<String, HeavyHitter> merge(Iterable<Snapshot> snapshots) {
+			long totalMinCount = 0;
+			Map<String, long[]> countsAndLowerBounds = new HashMap<>();
+
+			for (Snapshot snapshot : snapshots) {
+				totalMinCount += snapshot.minCount;
+
+				for (HeavyHitter heavyHitter : snapshot.heavyHitters.values()) {
+					long[] countAndLowerBound = countsAndLowerBounds.computeIfAbsent(heavyHitter.getItem(), ignored -> new long[2]);
+					// The minCount of this snapshot is added to everyone below, so we only add what goes above it
+					countAndLowerBound[0] += heavyHitter.getCount() - snapshot.minCount;
+					countAndLowerBound[1] += heavyHitter.getCount() - heavyHitter.getError();
+				}
+			}
+
+			Map<String, HeavyHitter> merged = new HashMap<>(countsAndLowerBounds.size() * 2);
+
+			for (Map.Entry<String, long[]> entry : countsAndLowerBounds.entrySet()) {
+				long count = entry.getValue()[0] + totalMinCount;
+				long lowerBound = entry.getValue()[1];
+				merged.put(entry.getKey(), new HeavyHitter(entry.getKey(), count, count - lowerBound));
+			}
+
+			return merged;
+		}
+	}
+}
@@ -1,12 +1,16 @@
 package io.karon.logmonitor.listener;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.HashMap;
-import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
-import java.util.stream.Collectors;
+import java.util.concurrent.atomic.LongAdder;
 
 import io.karon.logmonitor.configuration.Configuration;
 import io.karon.logmonitor.log.AccessLog;
@@ -14,31 +18,75 @@ import io.karon.logmonitor.outputter.StatsOutputter;
 
 
 /*
-We could simply store the information we care about (the section in this case) and the number of hits, reducing the memory cost of storing everything.
-But it would increase the memory cost by creating new objects and we would risk giving wrong information if the scheduler is lagging behind.
-And it would also make the code harder to read.
+We only store the information we care about (the section in this case) and the number of hits, instead of every AccessLog.
+	The hits of each section are counted as the AccessLogs arrive, in a TimeSlotRingBuffer holding one small Map per time slot
+	The AccessLogs can be dropped as soon as they are counted, and every period we only merge the Maps of the time slots to monitor
+	The Maps are ConcurrentHashMaps of LongAdders, so the scheduler can copy them while onNext keeps counting
+Since the time slots are identified by their Instant, a scheduler lagging behind still reports the right hits.
+
+With bots hitting millions of distinct paths, even one Map per time slot grows without bound, so there is a heavy hitters mode:
+	Each time slot holds a SpaceSaving with heavyHittersCapacity counters instead of a Map, so the memory stays fixed
+	Every period the snapshots of the time slots are merged, and the sections are reported with their error bound
+	The cost of a period only depends on the number of time slots and on heavyHittersCapacity, not on the number of sections
+In both modes we only keep the numberOfSectionsToShow biggest sections in a min-heap instead of sorting all of them.
+
+The distinct IP addresses and users are counted with HyperLogLogs (see UniquesAccumulator), also one per time slot
+	The HyperLogLogs of the time slots are merged every period, so the memory of a window is fixed whatever the number of visitors
+	They are reported overall and for the sections shown, uniquesPrecision 0 disables them
+The content sizes go the same way into LogHistograms (see ContentSizesAccumulator), to report their percentiles
+overall, per status class and for the sections shown.
+
+At the end of each period, the hits of the sections and status classes are kept in an immutable StatsPeriod (see TrendTracker),
+so the next periods report how they went up or down compared to the previous period and to the average of the last ones.
+	The hits of the status classes are counted per time slot, the ones of the sections are the ones we already computed
  */
 
 /*
 What I wanted to add:
 	- stats by response code or packet size instead of section (among other stats we may care about)
 	- filter by response code / section (if we only care about /login or 5XX errors for example)
-	- maybe something that remembers the last time the scheduler was called, so we can inform if some stats are going up or down (more 5XX errors that earlier for example)
 	-
  */
 public class StatsLogListener extends ScheduledTimeSlotMonitoringLogListener {
+	// Same count: the one with the smallest error comes first
+	private static final Comparator<HeavyHitter> HEAVY_HITTERS_COMPARATOR = Comparator
+			.comparingLong(HeavyHitter::getCount)
+			.thenComparingLong(heavyHitter -> heavyHitter.getCount() - heavyHitter.getError());
+
 	private final StatsOutputter statsOutputter;
 	private final int numberOfSectionsToShow;
 
-	private final List<AccessLog> accessLogs;
+	// Only one of them is used, depending on heavyHittersCapacity
+	private final TimeSlotRingBuffer<Map<String, LongAdder>> sectionsHitsPerTimeSlot;
+	private final TimeSlotRingBuffer<SpaceSaving> sectionsHeavyHittersPerTimeSlot;
+	private final int uniquesPrecision;
+	// null if uniquesPrecision is 0
+	private final TimeSlotRingBuffer<UniquesAccumulator> uniquesPerTimeSlot;
+	// null if contentSizeHistograms is false
+	private final TimeSlotRingBuffer<ContentSizesAccumulator> contentSizesPerTimeSlot;
+	// Only used by the scheduler thread, reused every period
+	private final ContentSizesAccumulator timeSlotContentSizesCopy;
+	private final ContentSizesAccumulator periodContentSizes;
+	// null if trendBaselinePeriods is 0
+	private final TimeSlotRingBuffer<StatusClassCounters> statusClassesHitsPerTimeSlot;
+	private final TrendTracker trendTracker;
 
 	public StatsLogListener(StatsOutputter statsOutputter, Configuration.StatsLogListenerConfiguration configuration) {
+		this(statsOutputter, configuration, StatsLogListenerOptions.fromConfiguration(configuration));
+	}
+
+	// options: replace the ones of the configuration (the replay mode always uses the event time)
+	public StatsLogListener(
+			StatsOutputter statsOutputter,
+			Configuration.StatsLogListenerConfiguration configuration,
+			StatsLogListenerOptions options) {
 		this(
 				statsOutputter,
 				configuration.getInitialDelay(),
 				configuration.getPeriod(),
 				configuration.getTimeUnit(),
-				configuration.getNumberOfSectionsToShow()
+				configuration.getNumberOfSectionsToShow(),
+				options
 		);
 	}
 
@@ -48,75 +96,281 @@ public class StatsLogListener extends ScheduledTimeSlotMonitoringLogListener {
 			long period,
 			TimeUnit timeUnit,
 			int numberOfSectionsToShow) {
-		super(initialDelay, period, timeUnit);
+		this(statsOutputter, initialDelay, period, timeUnit, numberOfSectionsToShow, new StatsLogListenerOptions());
+	}
+
+	public StatsLogListener(
+			StatsOutputter statsOutputter,
+			long initialDelay,
+			long period,
+			TimeUnit timeUnit,
+			int numberOfSectionsToShow,
+			StatsLogListenerOptions options) {
+		super(initialDelay, period, period, options.getPrecision(), timeUnit, options.getEventTimeWindowing());
+		int heavyHittersCapacity = options.getHeavyHittersCapacity();
+		int uniquesPrecision = options.getUniquesPrecision();
+		boolean contentSizeHistograms = options.isContentSizeHistograms();
+		int trendBaselinePeriods = options.getTrendBaselinePeriods();
+
+		if (heavyHittersCapacity != 0 && heavyHittersCapacity < numberOfSectionsToShow) {
+			throw new IllegalArgumentException("The heavy hitters capacity should be at least the number of sections to show");
+		}
+
 		this.statsOutputter = statsOutputter;
 		this.numberOfSectionsToShow = numberOfSectionsToShow;
 
-		this.accessLogs = new ArrayList<>();
+		if (heavyHittersCapacity > 0) {
+			this.sectionsHitsPerTimeSlot = null;
+			this.sectionsHeavyHittersPerTimeSlot = createTimeSlotRingBuffer(
+					() -> new SpaceSaving(heavyHittersCapacity),
+					SpaceSaving::reset
+			);
+		} else {
+			this.sectionsHitsPerTimeSlot = createTimeSlotRingBuffer(ConcurrentHashMap::new, Map::clear);
+			this.sectionsHeavyHittersPerTimeSlot = null;
+		}
+
+		this.uniquesPrecision = uniquesPrecision;
+		this.uniquesPerTimeSlot = uniquesPrecision > 0
+				? createTimeSlotRingBuffer(() -> new UniquesAccumulator(uniquesPrecision), UniquesAccumulator::reset)
+				: null;
+		this.contentSizesPerTimeSlot = contentSizeHistograms
+				? createTimeSlotRingBuffer(ContentSizesAccumulator::new, ContentSizesAccumulator::reset)
+				: null;
+		this.timeSlotContentSizesCopy = contentSizeHistograms ? ContentSizesAccumulator.empty() : null;
+		this.periodContentSizes = contentSizeHistograms ? ContentSizesAccumulator.empty() : null;
+		if (trendBaselinePeriods > 0) {
+			this.statusClassesHitsPerTimeSlot = createTimeSlotRingBuffer(StatusClassCounters::new, StatusClassCounters::reset);
+			this.trendTracker = new TrendTracker(trendBaselinePeriods);
+		} else {
+			this.statusClassesHitsPerTimeSlot = null;
+			this.trendTracker = null;
+		}
 	}
 
 	@Override
 	void runScheduledProcess() { // TODO: replace by Observable.interval(...)
-		Map<String, Integer> sectionsHits = computeSectionsHits();
+		List<String> sectionsShown = new ArrayList<>();
+		Map<String, Long> trackedSectionsHits = new HashMap<>();
 
-		statsOutputter.sectionHits(
-				computeSectionsWithTheMostHits(sectionsHits),
-				getDurationToMonitor(),
-				getTimeUnit(),
-				getEarliestInstantAtSystemDefaultClockZoneId()
-		);
+		if (sectionsHeavyHittersPerTimeSlot != null) {
+			Collection<HeavyHitter> sectionsHeavyHitters = computeSectionsHeavyHitters();
+			List<HeavyHitter> sectionsWithTheMostHits = selectTheBiggest(sectionsHeavyHitters, HEAVY_HITTERS_COMPARATOR);
+			sectionsWithTheMostHits.forEach(heavyHitter -> sectionsShown.add(heavyHitter.getItem()));
+			if (trendTracker != null) {
+				selectTheBiggest(sectionsHeavyHitters, HEAVY_HITTERS_COMPARATOR, StatsPeriod.TRACKED_SECTIONS)
+						.forEach(heavyHitter -> trackedSectionsHits.put(heavyHitter.getItem(), heavyHitter.getCount()));
+			}
+
+			statsOutputter.sectionHeavyHitters(
+					sectionsWithTheMostHits,
+					getDurationToMonitor(),
+					getTimeUnit(),
+					getEarliestInstantAtSystemDefaultClockZoneId()
+			);
+		} else {
+			Map<String, Integer> sectionsHits = computeSectionsHits();
+			List<Map.Entry<String, Integer>> sectionsWithTheMostHits = computeSectionsWithTheMostHits(sectionsHits);
+			sectionsWithTheMostHits.forEach(sectionHits -> sectionsShown.add(sectionHits.getKey()));
+			if (trendTracker != null) {
+				selectTheBiggest(sectionsHits.entrySet(), Map.Entry.comparingByValue(), StatsPeriod.TRACKED_SECTIONS)
+						.forEach(sectionHits -> trackedSectionsHits.put(sectionHits.getKey(), (long) sectionHits.getValue()));
+			}
+
+			statsOutputter.sectionHits(
+					sectionsWithTheMostHits,
+					getDurationToMonitor(),
+					getTimeUnit(),
+					getEarliestInstantAtSystemDefaultClockZoneId()
+			);
+		}
+
+		if (uniquesPerTimeSlot != null) {
+			outputUniques(sectionsShown);
+		}
+		if (contentSizesPerTimeSlot != null) {
+			outputContentSizes(sectionsShown);
+		}
+		if (trendTracker != null) {
+			outputTrends(sectionsShown, trackedSectionsHits);
+		}
 	}
 
 	@Override
 	public void onNext(AccessLog accessLog) {
 		if (accessLog != null) {
-			updateTimeSlot();
+			advanceWatermark(accessLog.getInstant());
+
+			if (uniquesPerTimeSlot != null) {
+				UniquesAccumulator uniques = getTimeSlotAccumulator(uniquesPerTimeSlot, accessLog.getInstant());
+
+				if (uniques != null) {
+					uniques.offer(accessLog);
+				}
+			}
+			if (statusClassesHitsPerTimeSlot != null) {
+				StatusClassCounters statusClassesHits = getTimeSlotAccumulator(statusClassesHitsPerTimeSlot, accessLog.getInstant());
+
+				if (statusClassesHits != null) {
+					statusClassesHits.offer(accessLog.getResponseCode());
+				}
+			}
+			if (contentSizesPerTimeSlot != null) {
+				ContentSizesAccumulator contentSizes = getTimeSlotAccumulator(contentSizesPerTimeSlot, accessLog.getInstant());
+
+				if (contentSizes != null) {
+					contentSizes.offer(accessLog);
+				}
+			}
+
+			if (sectionsHeavyHittersPerTimeSlot != null) {
+				SpaceSaving sectionsHeavyHitters = getTimeSlotAccumulator(sectionsHeavyHittersPerTimeSlot, accessLog.getInstant());
+
+				if (sectionsHeavyHitters == null) {
+					statsOutputter.logOutsideDurationToMonitor(accessLog);
+				} else {
+					sectionsHeavyHitters.offer(accessLog.getSection());
+				}
+				return;
+			}
+
+			Map<String, LongAdder> sectionsHits = getTimeSlotAccumulator(sectionsHitsPerTimeSlot, accessLog.getInstant());
 
-			if (isTooOldForTimeSlot(accessLog.getInstant())) {
+			if (sectionsHits == null) {
 				statsOutputter.logOutsideDurationToMonitor(accessLog);
 			} else {
-				accessLogs.add(accessLog);
+				sectionsHits.computeIfAbsent(accessLog.getSection(), ignored -> new LongAdder()).increment();
 			}
 		}
 	}
 
-	// I don't like doing two things at once (removing + computing the data) but it's more efficient
 	private Map<String, Integer> computeSectionsHits() {
 		updateTimeSlot();
 		// Creating a new Map each time is slightly less efficient than having only one and calling .clear() on it, but it is more readable
 		Map<String, Integer> sectionsHits = new HashMap<>();
 
-		Iterator<AccessLog> accessLogsIterator = accessLogs.iterator();
+		forEachTimeSlotToMonitor(sectionsHitsPerTimeSlot, StatsLogListener::snapshot, timeSlotSectionsHits ->
+				timeSlotSectionsHits.forEach((section, hits) ->
+						sectionsHits.merge(section, hits, Integer::sum)
+				)
+		);
+
+		return sectionsHits;
+	}
+
+	private Collection<HeavyHitter> computeSectionsHeavyHitters() {
+		updateTimeSlot();
+		List<SpaceSaving.Snapshot> snapshots = new ArrayList<>();
+
+		forEachTimeSlotToMonitor(sectionsHeavyHittersPerTimeSlot, SpaceSaving::snapshot, snapshots::add);
+
+		return SpaceSaving.Snapshot.merge(snapshots).values();
+	}
+
+	private void outputUniques(List<String> sectionsShown) {
+		UniquesAccumulator uniques = UniquesAccumulator.empty(uniquesPrecision);
 
-		while (accessLogsIterator.hasNext()) {
-			AccessLog accessLog = accessLogsIterator.next();
+		forEachTimeSlotToMonitor(uniquesPerTimeSlot, UniquesAccumulator::snapshot, uniques::merge);
 
-			if (isTooOldForTimeSlot(accessLog.getInstant())) {
-				accessLogsIterator.remove();
-			} else if (isNotTooRecentForTimeSlot(accessLog.getInstant())) {
-				addSectionHitToMap(sectionsHits, accessLog);
+		// Same order as the sections shown, the sections without HyperLogLogs (see UniquesAccumulator.MAX_SECTIONS) are left out
+		// (same for the content sizes)
+		Map<String, UniqueCounts> sectionsUniqueCounts = new LinkedHashMap<>();
+		for (String section : sectionsShown) {
+			UniqueCounts sectionUniqueCounts = uniques.getSectionUniqueCounts(section);
+			if (sectionUniqueCounts != null) {
+				sectionsUniqueCounts.put(section, sectionUniqueCounts);
 			}
 		}
 
-		return sectionsHits;
+		statsOutputter.uniques(
+				uniques.getUniqueCounts(),
+				sectionsUniqueCounts,
+				getDurationToMonitor(),
+				getTimeUnit(),
+				getEarliestInstantAtSystemDefaultClockZoneId()
+		);
 	}
 
-	private void addSectionHitToMap(Map<String, Integer> sectionsHits, AccessLog accessLog) {
-		String section = accessLog.getSection();
+	private void outputTrends(List<String> sectionsShown, Map<String, Long> trackedSectionsHits) {
+		long[] statusClassesHits = new long[StatusClassCounters.NUMBER_OF_STATUS_CLASSES];
 
-		if (sectionsHits.containsKey(section)) {
-			sectionsHits.put(section, sectionsHits.get(section) + 1);
-		} else {
-			sectionsHits.put(section, 1);
+		forEachTimeSlotToMonitor(statusClassesHitsPerTimeSlot, StatusClassCounters::snapshot, timeSlotStatusClassesHits -> {
+			for (int i = 0; i < statusClassesHits.length; ++i) {
+				statusClassesHits[i] += timeSlotStatusClassesHits[i];
+			}
+		});
+
+		StatsPeriod currentPeriod = new StatsPeriod(trackedSectionsHits, statusClassesHits);
+
+		statsOutputter.trends(
+				trendTracker.getSectionsTrends(currentPeriod, sectionsShown),
+				trendTracker.getStatusClassesTrends(currentPeriod),
+				getDurationToMonitor(),
+				getTimeUnit(),
+				getEarliestInstantAtSystemDefaultClockZoneId()
+		);
+
+		trendTracker.add(currentPeriod);
+	}
+
+	private void outputContentSizes(List<String> sectionsShown) {
+		periodContentSizes.reset();
+
+		forEachTimeSlotToMonitor(
+				contentSizesPerTimeSlot,
+				timeSlotContentSizes -> {
+					timeSlotContentSizesCopy.copyOf(timeSlotContentSizes, sectionsShown);
+					return timeSlotContentSizesCopy;
+				},
+				periodContentSizes::merge
+		);
+
+		Map<String, SizePercentiles> sectionsSizePercentiles = new LinkedHashMap<>();
+		for (String section : sectionsShown) {
+			SizePercentiles sectionSizePercentiles = periodContentSizes.getSectionSizePercentiles(section);
+			if (sectionSizePercentiles != null) {
+				sectionsSizePercentiles.put(section, sectionSizePercentiles);
+			}
 		}
+
+		statsOutputter.contentSizes(
+				periodContentSizes.getSizePercentiles(),
+				periodContentSizes.getStatusClassesSizePercentiles(),
+				sectionsSizePercentiles,
+				getDurationToMonitor(),
+				getTimeUnit(),
+				getEarliestInstantAtSystemDefaultClockZoneId()
+		);
+	}
+
+	private static Map<String, Integer> snapshot(Map<String, LongAdder> timeSlotSectionsHits) {
+		Map<String, Integer> snapshot = new HashMap<>(timeSlotSectionsHits.size());
+		timeSlotSectionsHits.forEach((section, hits) -> snapshot.put(section, hits.intValue()));
+		return snapshot;
 	}
 
 	private List<Map.Entry<String, Integer>> computeSectionsWithTheMostHits(Map<String, Integer> sectionsHits) {
-		return sectionsHits.entrySet().stream()
-				.sorted((entry1, entry2) ->
-						Integer.compare(entry2.getValue(), entry1.getValue()) // This sort puts the biggest values first
-				)
-				.limit(numberOfSectionsToShow)
-				.collect(Collectors.toList());
+		return selectTheBiggest(sectionsHits.entrySet(), Map.Entry.comparingByValue());
+	}
+
+	private <E> List<E> selectTheBiggest(Collection<E> elements, Comparator<E> comparator) {
+		return selectTheBiggest(elements, comparator, numberOfSectionsToShow);
+	}
+
+	// Keeps the numberOfElements biggest elements in a min-heap, O(n log k) instead of sorting everything, the biggest first
+	private static <E> List<E> selectTheBiggest(Collection<E> elements, Comparator<E> comparator, int numberOfElements) {
+		PriorityQueue<E> smallestOnTop = new PriorityQueue<>(Math.min(elements.size(), numberOfElements) + 1, comparator);
+
+		for (E element : elements) {
+			smallestOnTop.add(element);
+			if (smallestOnTop.size() > numberOfElements) {
+				smallestOnTop.poll();
+			}
+		}
+
+		List<E> biggest = new ArrayList<>(smallestOnTop);
+		biggest.sort(comparator.reversed());
+
+		return biggest;
 	}
 }
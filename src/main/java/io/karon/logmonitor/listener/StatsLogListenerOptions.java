@@ -0,0 +1,78 @@
+package io.karon.logmonitor.listener;
+
+import io.karon.logmonitor.configuration.Configuration;
+
+
+/*
+The optional features of a StatsLogListener, all disabled by default, with a precision of 1
+Either read from the configuration, or set one by one: new StatsLogListenerOptions().withUniquesPrecision(12)
+ */
+public class StatsLogListenerOptions {
+	private long precision;
+	// Number of counters per time slot in the heavy hitters mode, 0 to count every section exactly
+	private int heavyHittersCapacity;
+	// Precision of the HyperLogLogs counting the distinct IP addresses and users, 0 to not count them
+	private int uniquesPrecision;
+	// Whether to report the percentiles of the content sizes
+	private boolean contentSizeHistograms;
+	// Number of periods averaged to compare the current one to, 0 to not report the trends
+	private int trendBaselinePeriods;
+	// null to use the wall clock
+	private EventTimeWindowing eventTimeWindowing;
+
+	public StatsLogListenerOptions() {
+		this.precision = 1;
+	}
+
+	public static StatsLogListenerOptions fromConfiguration(Configuration.StatsLogListenerConfiguration configuration) {
+		return new StatsLogListenerOptions()
+				.withPrecision(configuration.getPrecision())
+				.withHeavyHittersCapacity(configuration.getHeavyHittersCapacity())
+				.withUniquesPrecision(configuration.getUniquesPrecision())
+				.withContentSizeHistograms(configuration.isContentSizeHistograms())
+				.withTrendBaselinePeriods(configuration.getTrendBaselinePeriods())
+				.withEventTimeWindowing(configuration.getEventTimeWindowing());
+	}
+
+	public StatsLogListenerOptions withPrecision(long precision) {
+		this.precision = precision;
+		return this;
+	}
+
+	public StatsLogListenerOptions withHeavyHittersCapacity(int heavyHittersCapacity) {
+		this.heavyHittersCapacity = heavyHittersCapacity;
+		return this;
+	}
+
+	public StatsLogListenerOptions withUniquesPrecision(int uniquesPrecision) {
+		this.uniquesPrecision = uniquesPrecision;
+		return this;
+	}
+
+	public StatsLogListenerOptions withContentSizeHistograms(boolean contentSizeHistograms) {
+		this.contentSizeHistograms = contentSizeHistograms;
+		return this;
+	}
+
+	public StatsLogListenerOptions withTrendBaselinePeriods(int trendBaselinePeriods) {
+		this.trendBaselinePeriods = trendBaselinePeriods;
+		return this;
+	}
+
+	public StatsLogListenerOptions withEventTimeWindowing(EventTimeWindowing eventTimeWindowing) {
+		this.eventTimeWindowing = eventTimeWindowing;
+		return this;
+	}
+
+	long getPrecision() { return precision; }
+
+	int getHeavyHittersCapacity() { return heavyHittersCapacity; }
+
+	int getUniquesPrecision() { return uniquesPrecision; }
+
+	boolean isContentSizeHistograms() { return contentSizeHistograms; }
+
+	int getTrendBaselinePeriods() { return trendBaselinePeriods; }
+
+	EventTimeWindowing getEventTimeWindowing() { return eventTimeWindowing; }
+}
@@ -0,0 +1,32 @@
+package io.karon.logmonitor.listener;
+
+import java.util.Collections;
+import java.util.Map;
+
+
+/*
+What we remember of a stats period to compare the next ones to it (see TrendTracker)
+	Only the TRACKED_SECTIONS sections with the most hits are kept, so a period costs the same whatever the number of sections
+	(a section that wasn't among them counts as 0)
+Immutable, it is built by the scheduler thread at the end of the period from what was already computed for the outputs.
+ */
+class StatsPeriod {
+	static final int TRACKED_SECTIONS = 100;
+
+	private final Map<String, Long> sectionsHits;
+	private final long[] statusClassesHits;
+
+	StatsPeriod(Map<String, Long> sectionsHits, long[] statusClassesHits) {
+		this.sectionsHits = Collections.unmodifiableMap(sectionsHits);
+		this.statusClassesHits = statusClassesHits.clone();
+	}
+
+	long getSectionHits(String section) {
+		return sectionsHits.getOrDefault(section, 0L);
+	}
+
+	// statusClass between 1 and 5
+	long getStatusClassHits(int statusClass) {
+		return statusClassesHits[statusClass];
+	}
+}
@@ -0,0 +1,44 @@
+package io.karon.logmonitor.listener;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+
+/*
+Hits of a time slot per status class, for the trends of StatsLogListener
+	One counter per status class, 1xx to 5xx, and counter 0 for the response codes outside of them
+
+It is written by a single thread (lazySet is enough) and copied by the scheduler thread (see TimeSlotRingBuffer).
+ */
+class StatusClassCounters {
+	static final int NUMBER_OF_STATUS_CLASSES = 6;
+
+	private final AtomicLongArray counters;
+
+	StatusClassCounters() {
+		this.counters = new AtomicLongArray(NUMBER_OF_STATUS_CLASSES);
+	}
+
+	void offer(int responseCode) {
+		int statusClass = responseCode / 100;
+		int index = statusClass >= 1 && statusClass < NUMBER_OF_STATUS_CLASSES ? statusClass : 0;
+
+		counters.lazySet(index, counters.get(index) + 1);
+	}
+
+	void reset() {
+		for (int i = 0; i < NUMBER_OF_STATUS_CLASSES; ++i) {
+			counters.lazySet(i, 0);
+		}
+	}
+
+	// Indexed by status class
+	long[] snapshot() {
+		long[] snapshot = new long[NUMBER_OF_STATUS_CLASSES];
+
+		for (int i = 0; i < NUMBER_OF_STATUS_CLASSES; ++i) {
+			snapshot[i] = counters.get(i);
+		}
+
+		return snapshot;
+	}
+}
@@ -1,10 +1,13 @@
 package io.karon.logmonitor.listener;
 
+import java.time.Duration;
 import java.time.Instant;
-import java.util.ArrayList;
-import java.util.Iterator;
+import java.time.ZonedDateTime;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 
 import io.karon.logmonitor.configuration.Configuration;
 import io.karon.logmonitor.log.AccessLog;
@@ -12,43 +15,81 @@ import io.karon.logmonitor.outputter.ThresholdOutputter;
 
 
 /*
-Possible improvement to reduce the amount of data stored:
-	Use a RingBuffer containing "time slots" as indexes and an accumulator as value (for instance, each box in the RingBuffer represents 10 seconds)
-	The time slots are not really indexes, but we create an Instant representing the oldest time slot, and we can calculate which time slot corresponds to which index
-	The RingBuffer can have a fixed size equal to either:
-		- the durationToMonitor / period
-		- the durationToMonitor / precision (precision being a new argument for the constructor, representing the precision as the size of the time slots)
-	When we receive a new AccessLog, we calculate the time slot it should go in and increment the accumulator
-	Every time the period is reached, we can easily update the oldest time slot variable and purge the RingBuffer of the time slots that are too old
-	Then we just need to go through the RingBuffer, adding the values of the accumulators
-
-This solution would make the code harder to read, and since I hadn't been given any big performance/memory imperative, I decided not to implement it yet.
+To keep the amount of data stored fixed, the hits are counted in a TimeSlotRingBuffer:
+	Each box in the RingBuffer represents a "time slot" of the size of the precision (for instance, each box represents 1 second)
+	When we receive a new AccessLog, we calculate the time slot it should go in and increment its accumulator
+	Every time the period is reached, we skip the time slots that are too old and add up the accumulators of the others
+The memory used doesn't depend on the traffic anymore, and each period costs O(time slots) instead of O(hits).
+The accumulators are LongAdders, so onNext never waits for the scheduler (and the other way around).
+
+The AlertRules (on a section, a status class, a count or a rate...) have their own TimeSlotRingBuffer of AlertRuleCounters:
+	onNext finds the row of the section of the log once, and increments at most two counters whatever the number of rules
+	Every period each rule adds up the counters of its section and status class in the time slots of its own durationToMonitor,
+	which can't be longer than the durationToMonitor of the listener
+	Each rule alerts and recovers on its own, like the hits threshold
+
+The low traffic alert (see LowTrafficThreshold) uses the same count as the high threshold, with two thresholds and minimum durations:
+	lowTrafficConditionSince is when the count started being below the threshold (or at or above the recovery threshold once alerting),
+	the alert is raised (or cleared) once it has been true for the minimum duration, and forgotten as soon as it stops being true
+
+The anomaly detection (see AnomalyDetection) doesn't need a threshold tuned for each site and time of day:
+	At each period, the time slots completed since the previous period are learned by a TrafficBaseline (a time slot without logs counts as 0)
+	Each of them is compared to the baseline before being learned, there is an anomaly if any of them is anomalous (the most anomalous
+	one is reported), and it alerts and recovers like the hits threshold
+	The anomalous time slots, and all of them while the anomaly is active, are learned with a much smaller weight
+	The first period only starts from the last complete time slot, the ones before may be from before we started reading
  */
 
 /*
 What I wanted to add:
 	- for each alerting, the possibility to choose the log level
-	- a "low threshold reached", meaning if we go below some threshold we alert (it's weird if all of a sudden we go from 50 000 calls per second to 0)
-	- specify if the alerting is done for all access logs or only for a specific section/sections or response code/codes (if we only care about 5XX errors on /login for instance)
  */
 public class ThresholdLogListener extends ScheduledTimeSlotMonitoringLogListener {
 	private final ThresholdOutputter thresholdOutputter;
 
 	private final long thresholdForDurationToMonitor;
 
-	private final List<Instant> accessLogInstants;
+	private final TimeSlotRingBuffer<LongAdder> hitsPerTimeSlot;
 	private boolean thresholdReachedEarlier;
 
+	private final List<AlertRule> alertRules;
+	// Section -> row in the AlertRuleCounters, starting at 1 (0 is all the sections)
+	private final Map<String, Integer> alertRulesSectionIndexes;
+	// null if there are no alert rules
+	private final TimeSlotRingBuffer<AlertRuleCounters> alertRuleCountersPerTimeSlot;
+	private final boolean[] alertRulesReachedEarlier;
+
+	// null if there is no low traffic alert
+	private final LowTrafficThreshold lowTrafficThreshold;
+	private boolean lowTrafficArmed;
+	private boolean lowTrafficReachedEarlier;
+	private Instant lowTrafficConditionSince;
+
+	// null if there is no anomaly detection
+	private final AnomalyDetection anomalyDetection;
+	private final TrafficBaseline trafficBaseline;
+	private Instant lastLearnedTimeSlot;
+	private boolean anomalyDetectedEarlier;
+
 	public ThresholdLogListener(
 			ThresholdOutputter thresholdOutputter,
 			Configuration.ThresholdLogListenerConfiguration configuration) {
+		this(thresholdOutputter, configuration, ThresholdLogListenerOptions.fromConfiguration(configuration));
+	}
+
+	// options: replace the ones of the configuration (the replay mode always uses the event time)
+	public ThresholdLogListener(
+			ThresholdOutputter thresholdOutputter,
+			Configuration.ThresholdLogListenerConfiguration configuration,
+			ThresholdLogListenerOptions options) {
 		this(
 				thresholdOutputter,
 				configuration.getInitialDelay(),
 				configuration.getPeriod(),
 				configuration.getDurationToMonitor(),
 				configuration.getThreshold(),
-				configuration.getTimeUnit()
+				configuration.getTimeUnit(),
+				options
 		);
 	}
 
@@ -59,12 +100,49 @@ public class ThresholdLogListener extends ScheduledTimeSlotMonitoringLogListener
 			long durationToMonitor,
 			int threshold,
 			TimeUnit timeUnit) {
-		super(initialDelay, period, durationToMonitor, timeUnit);
+		this(thresholdOutputter, initialDelay, period, durationToMonitor, threshold, timeUnit, new ThresholdLogListenerOptions());
+	}
+
+	public ThresholdLogListener(
+			ThresholdOutputter thresholdOutputter,
+			long initialDelay,
+			long period,
+			long durationToMonitor,
+			int threshold,
+			TimeUnit timeUnit,
+			ThresholdLogListenerOptions options) {
+		super(initialDelay, period, durationToMonitor, options.getPrecision(), timeUnit, options.getEventTimeWindowing());
 		this.thresholdOutputter = thresholdOutputter;
 
 		this.thresholdForDurationToMonitor = threshold * durationToMonitor;
-		this.accessLogInstants = new ArrayList<>();
+		this.hitsPerTimeSlot = createTimeSlotRingBuffer(LongAdder::new, LongAdder::reset);
 		this.thresholdReachedEarlier = false;
+
+		List<AlertRule> alertRules = options.getAlertRules();
+		this.alertRules = alertRules;
+		this.alertRulesSectionIndexes = new HashMap<>();
+		for (AlertRule alertRule : alertRules) {
+			if (alertRule.getDurationToMonitor() > durationToMonitor) {
+				throw new IllegalArgumentException(
+						"The duration to monitor of the alert rule " + alertRule.getName() + " is longer than the one of the listener"
+				);
+			}
+			if (alertRule.getSection() != null) {
+				alertRulesSectionIndexes.putIfAbsent(alertRule.getSection(), alertRulesSectionIndexes.size() + 1);
+			}
+		}
+		this.alertRuleCountersPerTimeSlot = alertRules.isEmpty()
+				? null
+				: createTimeSlotRingBuffer(() -> new AlertRuleCounters(alertRulesSectionIndexes.size()), AlertRuleCounters::reset);
+		this.alertRulesReachedEarlier = new boolean[alertRules.size()];
+
+		this.lowTrafficThreshold = options.getLowTrafficThreshold();
+		this.lowTrafficArmed = false;
+		this.lowTrafficReachedEarlier = false;
+
+		this.anomalyDetection = options.getAnomalyDetection();
+		this.trafficBaseline = anomalyDetection == null ? null : new TrafficBaseline(anomalyDetection);
+		this.anomalyDetectedEarlier = false;
 	}
 
 	@Override
@@ -72,6 +150,14 @@ public class ThresholdLogListener extends ScheduledTimeSlotMonitoringLogListener
 		int currentCount = calculateCurrentCount();
 		boolean thresholdReached = currentCount > thresholdForDurationToMonitor;
 
+		thresholdOutputter.windowCount(
+				currentCount,
+				thresholdForDurationToMonitor,
+				getDurationToMonitor(),
+				getTimeUnit(),
+				getEarliestInstantAtSystemDefaultClockZoneId()
+		);
+
 		if (thresholdReached) {
 			if (!thresholdReachedEarlier) {
 				thresholdOutputter.thresholdReached(
@@ -104,39 +190,233 @@ public class ThresholdLogListener extends ScheduledTimeSlotMonitoringLogListener
 			}
 		}
 
+		if (lowTrafficThreshold != null) {
+			evaluateLowTraffic(currentCount);
+		}
+		if (alertRuleCountersPerTimeSlot != null) {
+			evaluateAlertRules();
+		}
+		if (anomalyDetection != null) {
+			detectAnomalies();
+		}
+
 		thresholdOutputter.previousThresholdsReached();
 	}
 
 	@Override
 	public void onNext(AccessLog accessLog) {
 		if (accessLog != null) {
-			updateTimeSlot();
+			advanceWatermark(accessLog.getInstant());
+
+			LongAdder hits = getTimeSlotAccumulator(hitsPerTimeSlot, accessLog.getInstant());
 
-			if (isTooOldForTimeSlot(accessLog.getInstant())) {
+			if (hits == null) {
 				thresholdOutputter.logOutsideDurationToMonitor(accessLog);
 			} else {
-				accessLogInstants.add(accessLog.getInstant());
+				hits.increment();
+			}
+
+			if (alertRuleCountersPerTimeSlot != null) {
+				AlertRuleCounters alertRuleCounters = getTimeSlotAccumulator(alertRuleCountersPerTimeSlot, accessLog.getInstant());
+
+				if (alertRuleCounters != null) {
+					alertRuleCounters.offer(
+							alertRulesSectionIndexes.getOrDefault(accessLog.getSection(), 0),
+							accessLog.getResponseCode()
+					);
+				}
 			}
 		}
 	}
 
-	// I don't like doing two things at once (removing + computing the data) but it's more efficient
 	private int calculateCurrentCount() {
 		updateTimeSlot();
-		int currentCount = 0;
+		LongAdder currentCount = new LongAdder();
 
-		Iterator<Instant> accessLogInstantsIterator = accessLogInstants.iterator();
+		forEachTimeSlotToMonitor(hitsPerTimeSlot, LongAdder::sum, currentCount::add);
 
-		while (accessLogInstantsIterator.hasNext()) {
-			Instant accessLogInstant = accessLogInstantsIterator.next();
+		return (int) Math.min(currentCount.sum(), Integer.MAX_VALUE);
+	}
+
+	private void evaluateLowTraffic(int currentCount) {
+		long lowThresholdForDurationToMonitor = lowTrafficThreshold.getThreshold() * getDurationToMonitor();
+		long recoveryThresholdForDurationToMonitor = lowTrafficThreshold.getRecoveryThreshold() * getDurationToMonitor();
+		boolean recovered = currentCount >= recoveryThresholdForDurationToMonitor;
+		Instant now = getEarliestInstant();
 
-			if (isTooOldForTimeSlot(accessLogInstant)) {
-				accessLogInstantsIterator.remove();
-			} else if (isNotTooRecentForTimeSlot(accessLogInstant)) {
-				++currentCount;
+		if (!lowTrafficArmed) {
+			lowTrafficArmed = recovered;
+			return;
+		}
+
+		// While alerting we wait for the recovery, otherwise for the traffic to go below the threshold
+		boolean conditionMet = lowTrafficReachedEarlier ? recovered : currentCount < lowThresholdForDurationToMonitor;
+		if (!conditionMet) {
+			lowTrafficConditionSince = null;
+		} else if (lowTrafficConditionSince == null) {
+			lowTrafficConditionSince = now;
+		}
+
+		boolean conditionMetLongEnough = conditionMet && !now.isBefore(lowTrafficConditionSince.plusMillis(getTimeUnit().toMillis(
+				lowTrafficReachedEarlier ? lowTrafficThreshold.getRecoveryMinDuration() : lowTrafficThreshold.getAlertMinDuration()
+		)));
+
+		if (!lowTrafficReachedEarlier) {
+			if (conditionMetLongEnough) {
+				thresholdOutputter.lowTrafficReached(
+						currentCount,
+						lowThresholdForDurationToMonitor,
+						getDurationToMonitor(),
+						getTimeUnit(),
+						getEarliestInstantAtSystemDefaultClockZoneId()
+				);
+				lowTrafficReachedEarlier = true;
+				lowTrafficConditionSince = null;
 			}
+		} else if (conditionMetLongEnough) {
+			thresholdOutputter.lowTrafficRecovered(
+					currentCount,
+					recoveryThresholdForDurationToMonitor,
+					getDurationToMonitor(),
+					getTimeUnit(),
+					getEarliestInstantAtSystemDefaultClockZoneId()
+			);
+			lowTrafficReachedEarlier = false;
+			lowTrafficConditionSince = null;
+		} else {
+			thresholdOutputter.lowTrafficStillActive(
+					currentCount,
+					lowThresholdForDurationToMonitor,
+					getDurationToMonitor(),
+					getTimeUnit(),
+					getEarliestInstantAtSystemDefaultClockZoneId()
+			);
+		}
+	}
+
+	// Called after updateTimeSlot (done by calculateCurrentCount)
+	private void detectAnomalies() {
+		long precisionInMillis = getPrecision().toMillis();
+		// Oldest Instant of the most recent time slot that is over
+		Instant lastCompleteTimeSlot = Instant.ofEpochMilli(
+				(Math.floorDiv(getEarliestInstant().toEpochMilli(), precisionInMillis) - 1) * precisionInMillis
+		);
+		// If the scheduler lagged more than the durationToMonitor, the time slots in between are lost
+		Instant oldestTimeSlotMonitored = Instant.ofEpochMilli(
+				Math.floorDiv(getEarliestInstant().toEpochMilli() - getTimeUnit().toMillis(getDurationToMonitor()), precisionInMillis)
+						* precisionInMillis
+		);
+		Instant firstTimeSlotToLearn = lastLearnedTimeSlot == null
+				? lastCompleteTimeSlot
+				: max(lastLearnedTimeSlot.plusMillis(precisionInMillis), oldestTimeSlotMonitored);
+
+		if (firstTimeSlotToLearn.isAfter(lastCompleteTimeSlot)) {
+			return;
 		}
 
-		return currentCount;
+		Map<Instant, Long> hitsPerTimeSlotInstant = new HashMap<>();
+		forEachTimeSlotToMonitorWithInstant(hitsPerTimeSlot, LongAdder::sum, hitsPerTimeSlotInstant::put);
+
+		// The most anomalous time slot if any is, otherwise the last one
+		long reportedHits = 0;
+		double reportedExpectedHits = 0;
+		double reportedZScore = Double.NaN;
+		boolean anomalyDetected = false;
+
+		Instant timeSlot = firstTimeSlotToLearn;
+		while (!timeSlot.isAfter(lastCompleteTimeSlot)) {
+			long timeSlotHits = hitsPerTimeSlotInstant.getOrDefault(timeSlot, 0L);
+			double expectedHits = trafficBaseline.getExpectedHits(timeSlot);
+			double zScore = trafficBaseline.getZScore(timeSlot, timeSlotHits);
+			boolean anomalous = Math.abs(zScore) > anomalyDetection.getZScoreThreshold();
+
+			boolean mostAnomalous = anomalous
+					? !anomalyDetected || Math.abs(zScore) > Math.abs(reportedZScore)
+					: !anomalyDetected;
+			if (mostAnomalous) {
+				reportedHits = timeSlotHits;
+				reportedExpectedHits = expectedHits;
+				reportedZScore = zScore;
+			}
+			anomalyDetected |= anomalous;
+
+			// An anomaly, or the time slots while it is active, shouldn't become the baseline
+			trafficBaseline.learn(timeSlot, timeSlotHits, anomalous || anomalyDetectedEarlier);
+			timeSlot = timeSlot.plusMillis(precisionInMillis);
+		}
+		lastLearnedTimeSlot = lastCompleteTimeSlot;
+
+		ZonedDateTime now = getEarliestInstantAtSystemDefaultClockZoneId();
+		if (anomalyDetected) {
+			if (!anomalyDetectedEarlier) {
+				thresholdOutputter.anomalyDetected(reportedHits, reportedExpectedHits, reportedZScore, now);
+				anomalyDetectedEarlier = true;
+			} else {
+				thresholdOutputter.anomalyStillActive(reportedHits, reportedExpectedHits, reportedZScore, now);
+			}
+		} else if (anomalyDetectedEarlier) {
+			thresholdOutputter.anomalyRecovered(reportedHits, reportedExpectedHits, reportedZScore, now);
+			anomalyDetectedEarlier = false;
+		}
+	}
+
+	// Called after updateTimeSlot (done by calculateCurrentCount)
+	private void evaluateAlertRules() {
+		long[] matchingHits = new long[alertRules.size()];
+		long[] hits = new long[alertRules.size()];
+		Duration[] durations = new Duration[alertRules.size()];
+		for (int i = 0; i < alertRules.size(); ++i) {
+			durations[i] = Duration.ofMillis(getTimeUnit().toMillis(alertRules.get(i).getDurationToMonitor()));
+		}
+
+		forEachTimeSlotToMonitorWithInstant(alertRuleCountersPerTimeSlot, AlertRuleCounters::snapshot, (timeSlotInstant, counters) -> {
+			for (int i = 0; i < alertRules.size(); ++i) {
+				if (!isTooOldForDuration(timeSlotInstant, durations[i])) {
+					AlertRule alertRule = alertRules.get(i);
+					int sectionIndex = alertRule.getSection() == null ? 0 : alertRulesSectionIndexes.get(alertRule.getSection());
+
+					matchingHits[i] += AlertRuleCounters.getHits(counters, sectionIndex, alertRule.getStatusClass());
+					hits[i] += AlertRuleCounters.getHits(counters, sectionIndex, 0);
+				}
+			}
+		});
+
+		for (int i = 0; i < alertRules.size(); ++i) {
+			AlertRule alertRule = alertRules.get(i);
+
+			if (alertRule.isThresholdReached(matchingHits[i], hits[i])) {
+				if (!alertRulesReachedEarlier[i]) {
+					thresholdOutputter.ruleThresholdReached(
+							alertRule,
+							matchingHits[i],
+							hits[i],
+							getTimeUnit(),
+							getEarliestInstantAtSystemDefaultClockZoneId()
+					);
+					alertRulesReachedEarlier[i] = true;
+				} else {
+					thresholdOutputter.ruleAlertStillActive(
+							alertRule,
+							matchingHits[i],
+							hits[i],
+							getTimeUnit(),
+							getEarliestInstantAtSystemDefaultClockZoneId()
+					);
+				}
+			} else if (alertRulesReachedEarlier[i]) {
+				thresholdOutputter.ruleRecovered(
+						alertRule,
+						matchingHits[i],
+						hits[i],
+						getTimeUnit(),
+						getEarliestInstantAtSystemDefaultClockZoneId()
+				);
+				alertRulesReachedEarlier[i] = false;
+			}
+		}
+	}
+
+	private static Instant max(Instant first, Instant second) {
+		return first.isAfter(second) ? first : second;
 	}
 }
@@ -0,0 +1,71 @@
+package io.karon.logmonitor.listener;
+
+import java.util.Collections;
+import java.util.List;
+
+import io.karon.logmonitor.configuration.Configuration;
+
+
+/*
+The optional features of a ThresholdLogListener, all disabled by default, with a precision of 1
+Either read from the configuration, or set one by one: new ThresholdLogListenerOptions().withAlertRules(alertRules)
+ */
+public class ThresholdLogListenerOptions {
+	private long precision;
+	private List<AlertRule> alertRules;
+	// null to not alert on low traffic
+	private LowTrafficThreshold lowTrafficThreshold;
+	// null to not detect anomalies
+	private AnomalyDetection anomalyDetection;
+	// null to use the wall clock
+	private EventTimeWindowing eventTimeWindowing;
+
+	public ThresholdLogListenerOptions() {
+		this.precision = 1;
+		this.alertRules = Collections.emptyList();
+	}
+
+	public static ThresholdLogListenerOptions fromConfiguration(Configuration.ThresholdLogListenerConfiguration configuration) {
+		return new ThresholdLogListenerOptions()
+				.withPrecision(configuration.getPrecision())
+				.withAlertRules(configuration.getAlertRules())
+				.withLowTrafficThreshold(configuration.getLowTrafficThreshold())
+				.withAnomalyDetection(configuration.getAnomalyDetection())
+				.withEventTimeWindowing(configuration.getEventTimeWindowing());
+	}
+
+	public ThresholdLogListenerOptions withPrecision(long precision) {
+		this.precision = precision;
+		return this;
+	}
+
+	public ThresholdLogListenerOptions withAlertRules(List<AlertRule> alertRules) {
+		this.alertRules = alertRules;
+		return this;
+	}
+
+	public ThresholdLogListenerOptions withLowTrafficThreshold(LowTrafficThreshold lowTrafficThreshold) {
+		this.lowTrafficThreshold = lowTrafficThreshold;
+		return this;
+	}
+
+	public ThresholdLogListenerOptions withAnomalyDetection(AnomalyDetection anomalyDetection) {
+		this.anomalyDetection = anomalyDetection;
+		return this;
+	}
+
+	public ThresholdLogListenerOptions withEventTimeWindowing(EventTimeWindowing eventTimeWindowing) {
+		this.eventTimeWindowing = eventTimeWindowing;
+		return this;
+	}
+
+	long getPrecision() { return precision; }
+
+	List<AlertRule> getAlertRules() { return alertRules; }
+
+	LowTrafficThreshold getLowTrafficThreshold() { return lowTrafficThreshold; }
+
+	AnomalyDetection getAnomalyDetection() { return anomalyDetection; }
+
+	EventTimeWindowing getEventTimeWindowing() { return eventTimeWindowing; }
+}
@@ -0,0 +1,119 @@
+package io.karon.logmonitor.listener;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+
+/*
+RingBuffer containing "time slots", each one holding an accumulator for everything received during that time slot.
+	The time slots are not stored as indexes: a time slot is identified by its number (epoch millis / precision),
+	and its position in the RingBuffer is that number modulo the size of the RingBuffer
+	The size of the RingBuffer is the number of time slots needed to cover the durationToMonitor, plus one for the time slot being filled
+	When a position is reused for a more recent time slot, its accumulator is reset instead of allocating a new one
+
+The memory used only depends on the durationToMonitor and the precision, never on the amount of logs received.
+The price to pay is that the oldest time slot is either fully counted or not at all, so the precision should be small compared to the durationToMonitor.
+
+It is written by a single thread (onNext is never called concurrently on an Observer) and read by the scheduler thread, without locks:
+	Only the writer recycles the time slots, the reader never modifies anything
+	The accumulators have to be thread-safe (LongAdder, ConcurrentHashMap...) since the reader goes through them while they're written
+	The reader takes a snapshot of each time slot, and drops it if the time slot was recycled while the snapshot was taken
+ */
+class TimeSlotRingBuffer<A> {
+	private static final long EMPTY_TIME_SLOT = Long.MIN_VALUE;
+
+	private final long precisionInMillis;
+	private final AtomicLongArray timeSlotNumbers;
+	private final List<A> accumulators;
+	private final Consumer<A> accumulatorReset;
+
+	TimeSlotRingBuffer(
+			Duration durationToMonitor,
+			Duration precision,
+			Supplier<A> accumulatorFactory,
+			Consumer<A> accumulatorReset) {
+		if (precision.isZero() || precision.isNegative()) {
+			throw new IllegalArgumentException("The precision should be greater than zero");
+		}
+
+		this.precisionInMillis = precision.toMillis();
+		this.accumulatorReset = accumulatorReset;
+
+		int size = (int) ((durationToMonitor.toMillis() + precisionInMillis - 1) / precisionInMillis) + 1;
+		this.timeSlotNumbers = new AtomicLongArray(size);
+		this.accumulators = new ArrayList<>(size);
+
+		for (int i = 0; i < size; ++i) {
+			timeSlotNumbers.set(i, EMPTY_TIME_SLOT);
+			accumulators.add(accumulatorFactory.get());
+		}
+	}
+
+	/*
+	Called by the writer only
+	Returns the accumulator of the time slot containing the instant, recycling the position if it belonged to an older time slot
+	Returns null if the position is already used by a more recent time slot, meaning the instant is too old for the RingBuffer
+	 */
+	A getAccumulator(Instant instant) {
+		long timeSlotNumber = Math.floorDiv(instant.toEpochMilli(), precisionInMillis);
+		int position = getPosition(timeSlotNumber);
+		long currentTimeSlotNumber = timeSlotNumbers.get(position);
+
+		if (currentTimeSlotNumber == timeSlotNumber) {
+			return accumulators.get(position);
+		} else if (currentTimeSlotNumber != EMPTY_TIME_SLOT && currentTimeSlotNumber > timeSlotNumber) {
+			return null;
+		}
+
+		// Emptied first, so a reader taking a snapshot of the old time slot during the reset knows it has to drop it
+		A accumulator = accumulators.get(position);
+		timeSlotNumbers.set(position, EMPTY_TIME_SLOT);
+		accumulatorReset.accept(accumulator);
+		timeSlotNumbers.set(position, timeSlotNumber);
+
+		return accumulator;
+	}
+
+	/*
+	Called by the reader
+	isTooOld receives the most recent Instant of each time slot, so a time slot is only skipped once all of it is too old
+	The consumer receives the oldest Instant of each time slot along with the snapshot of its accumulator
+	 */
+	<S> void forEachTimeSlot(Predicate<Instant> isTooOld, Function<A, S> snapshot, BiConsumer<Instant, S> consumer) {
+		for (int position = 0; position < timeSlotNumbers.length(); ++position) {
+			long timeSlotNumber = timeSlotNumbers.get(position);
+
+			if (timeSlotNumber == EMPTY_TIME_SLOT || isTooOld.test(getMostRecentInstant(timeSlotNumber))) {
+				continue;
+			}
+
+			S timeSlotSnapshot = snapshot.apply(accumulators.get(position));
+
+			if (timeSlotNumbers.get(position) == timeSlotNumber) {
+				consumer.accept(getOldestInstant(timeSlotNumber), timeSlotSnapshot);
+			}
+		}
+	}
+
+	int size() { return timeSlotNumbers.length(); }
+
+	private int getPosition(long timeSlotNumber) {
+		return (int) Math.floorMod(timeSlotNumber, (long) timeSlotNumbers.length());
+	}
+
+	private Instant getOldestInstant(long timeSlotNumber) {
+		return Instant.ofEpochMilli(timeSlotNumber * precisionInMillis);
+	}
+
+	private Instant getMostRecentInstant(long timeSlotNumber) {
+		return Instant.ofEpochMilli((timeSlotNumber + 1) * precisionInMillis - 1);
+	}
+}
@@ -0,0 +1,165 @@
+package io.karon.logmonitor.listener;
+
+import java.time.Duration;
+import java.time.Instant;
+
+
+/*
+Exponentially weighted mean and variance of the hits per time slot, to know how unusual the hits of a time slot are
+	Each complete time slot is compared to the baseline (z-score), then learned: O(1) per time slot
+	The state is a few doubles and counters per bucket, it never depends on the traffic or on how long we've been running
+
+Without seasonal buckets, each time slot is learned with the weight alpha.
+With seasonal buckets, each bucket of the day has its own baseline, and a time slot is only compared to the one of its bucket:
+	The time slots of the bucket are first added up for the day (weighted mean and variance of the day, see DayOfBucket),
+	and the day is learned with the weight alpha once the bucket comes back the next day
+	So with 24 buckets and an alpha of 0.05, the traffic at 3AM is compared to the one of the ~20 previous days at 3AM,
+	whatever the number of time slots in an hour
+
+A time slot which is itself anomalous (or learned while an anomaly is active) only gets ANOMALOUS_TIME_SLOT_WEIGHT of its weight,
+and without seasonal buckets it only moves the mean, not the variance:
+an outage doesn't become the new normal after a few time slots, but a lasting change of the traffic eventually does.
+
+The hits are counts, so the standard deviation used is at least the one of a Poisson distribution with the same mean (sqrt(mean)):
+a perfectly stable traffic would otherwise have a variance of 0 and make the smallest change infinitely anomalous.
+
+Only used by the scheduler thread.
+ */
+class TrafficBaseline {
+	static final double ANOMALOUS_TIME_SLOT_WEIGHT = 0.1;
+
+	private static final long DAY_IN_MILLIS = Duration.ofDays(1).toMillis();
+
+	private final double alpha;
+	private final int warmUpTimeSlots;
+	private final long bucketSizeInMillis;
+
+	private final double[] means;
+	private final double[] variances;
+	private final long[] learnedTimeSlots;
+	// null without seasonal buckets
+	private final DayOfBucket[] daysOfBuckets;
+
+	TrafficBaseline(AnomalyDetection anomalyDetection) {
+		int numberOfBuckets = Math.max(1, anomalyDetection.getSeasonalBuckets());
+
+		this.alpha = anomalyDetection.getAlpha();
+		this.warmUpTimeSlots = anomalyDetection.getWarmUpTimeSlots();
+		this.bucketSizeInMillis = anomalyDetection.getSeasonalBuckets() == 0 ? 0 : DAY_IN_MILLIS / numberOfBuckets;
+
+		this.means = new double[numberOfBuckets];
+		this.variances = new double[numberOfBuckets];
+		this.learnedTimeSlots = new long[numberOfBuckets];
+
+		if (bucketSizeInMillis == 0) {
+			this.daysOfBuckets = null;
+		} else {
+			this.daysOfBuckets = new DayOfBucket[numberOfBuckets];
+			for (int i = 0; i < numberOfBuckets; ++i) {
+				daysOfBuckets[i] = new DayOfBucket();
+			}
+		}
+	}
+
+	// z-score of the hits against the baseline, NaN while the bucket is warming up
+	double getZScore(Instant timeSlotInstant, long hits) {
+		int bucket = getBucket(timeSlotInstant);
+
+		if (learnedTimeSlots[bucket] == 0 || learnedTimeSlots[bucket] < warmUpTimeSlots) {
+			return Double.NaN;
+		}
+
+		double standardDeviation = Math.max(Math.sqrt(variances[bucket]), Math.sqrt(Math.max(means[bucket], 1)));
+		return (hits - means[bucket]) / standardDeviation;
+	}
+
+	// anomalous: the time slot is anomalous, or an anomaly is active, it's only learned with ANOMALOUS_TIME_SLOT_WEIGHT
+	void learn(Instant timeSlotInstant, long hits, boolean anomalous) {
+		int bucket = getBucket(timeSlotInstant);
+		double weight = anomalous ? ANOMALOUS_TIME_SLOT_WEIGHT : 1;
+
+		if (daysOfBuckets == null) {
+			if (anomalous && learnedTimeSlots[bucket] > 0) {
+				// The variance would grow with the square of the anomaly, and soon make it look normal
+				means[bucket] += alpha * weight * (hits - means[bucket]);
+				++learnedTimeSlots[bucket];
+			} else {
+				learn(bucket, hits, 0, weight, 1);
+			}
+			return;
+		}
+
+		DayOfBucket dayOfBucket = daysOfBuckets[bucket];
+		long day = Math.floorDiv(timeSlotInstant.toEpochMilli(), DAY_IN_MILLIS);
+
+		if (dayOfBucket.timeSlots > 0 && dayOfBucket.day != day) {
+			learn(
+					bucket,
+					dayOfBucket.mean,
+					dayOfBucket.getVariance(),
+					dayOfBucket.totalWeight / dayOfBucket.timeSlots,
+					dayOfBucket.timeSlots
+			);
+			dayOfBucket.reset();
+		}
+		dayOfBucket.day = day;
+		dayOfBucket.add(hits, weight);
+	}
+
+	double getExpectedHits(Instant timeSlotInstant) {
+		return means[getBucket(timeSlotInstant)];
+	}
+
+	// Learns a time slot (variance 0) or a day of a bucket: the variance within it is added to the one between them (law of total variance)
+	private void learn(int bucket, double mean, double variance, double weight, long timeSlots) {
+		if (learnedTimeSlots[bucket] == 0) {
+			means[bucket] = mean;
+			variances[bucket] = variance;
+		} else {
+			double weightedAlpha = alpha * weight;
+			double difference = mean - means[bucket];
+			double increment = weightedAlpha * difference;
+			means[bucket] += increment;
+			variances[bucket] = (1 - weightedAlpha) * (variances[bucket] + difference * increment) + weightedAlpha * variance;
+		}
+		learnedTimeSlots[bucket] += timeSlots;
+	}
+
+	private int getBucket(Instant timeSlotInstant) {
+		if (bucketSizeInMillis == 0) {
+			return 0;
+		}
+
+		return (int) Math.min(Math.floorMod(timeSlotInstant.toEpochMilli(), DAY_IN_MILLIS) / bucketSizeInMillis, means.length - 1);
+	}
+
+	/*
+	Weighted mean and variance of the time slots of a bucket in a day (West's incremental algorithm)
+	 */
+	private static class DayOfBucket {
+		private long day;
+		private long timeSlots;
+		private double totalWeight;
+		private double mean;
+		private double sumOfSquares;
+
+		void add(long hits, double weight) {
+			++timeSlots;
+			totalWeight += weight;
+			double difference = hits - mean;
+			mean += weight / totalWeight * difference;
+			sumOfSquares += weight * difference * (hits - mean);
+		}
+
+		double getVariance() {
+			return Math.max(sumOfSquares / totalWeight, 0);
+		}
+
+		void reset() {
+			timeSlots = 0;
+			totalWeight = 0;
+			mean = 0;
+			sumOfSquares = 0;
+		}
+	}
+}
@@ -0,0 +1,67 @@
+package io.karon.logmonitor.listener;
+
+/*
+Hits of a section (or a status class) in the current period, compared to the previous period and to the average of the last periods
+ */
+public class Trend {
+	private final String name;
+	private final long hits;
+	private final long previousHits;
+	private final double baselineHits;
+
+	public Trend(String name, long hits, long previousHits, double baselineHits) {
+		this.name = name;
+		this.hits = hits;
+		this.previousHits = previousHits;
+		this.baselineHits = baselineHits;
+	}
+
+	public String getName() { return name; }
+
+	public long getHits() { return hits; }
+
+	public long getPreviousHits() { return previousHits; }
+
+	public double getBaselineHits() { return baselineHits; }
+
+	public long getDelta() { return hits - previousHits; }
+
+	// In percent, NaN if there were no hits in the previous period
+	public double getGrowthRate() {
+		return previousHits == 0 ? Double.NaN : (hits - previousHits) * 100.0 / previousHits;
+	}
+
+	// In percent, NaN if there were no hits in the last periods
+	public double getGrowthRateFromBaseline() {
+		return baselineHits == 0 ? Double.NaN : (hits - baselineHits) * 100.0 / baselineHits;
+	}
+
+	@Override
+	public boolean equals(Object other) {
+		if (this == other) {
+			return true;
+		}
+		if (!(other instanceof Trend)) {
+			return false;
+		}
+
+		Trend trend = (Trend) other;
+		return name.equals(trend.name)
+				&& hits == trend.hits
+				&& previousHits == trend.previousHits
+				&& Double.compare(baselineHits, trend.baselineHits) == 0;
+	}
+
+	@Override
+	public int hashCode() {
+		int hashCode = name.hashCode();
+		hashCode = 31 * hashCode + Long.hashCode(hits);
+		hashCode = 31 * hashCode + Long.hashCode(previousHits);
+		return 31 * hashCode + Double.hashCode(baselineHits);
+	}
+
+	@Override
+	public String toString() {
+		return name + ": hits=" + hits + ", previousHits=" + previousHits + ", baselineHits=" + baselineHits;
+	}
+}
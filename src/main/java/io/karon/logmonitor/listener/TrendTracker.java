@@ -0,0 +1,70 @@
+package io.karon.logmonitor.listener;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.function.ToLongFunction;
+
+
+/*
+Remembers the last baselinePeriods StatsPeriods, to compare the current period to the previous one and to their average
+	Comparing costs O(baselinePeriods) per section or status class reported, nothing is done while the logs are received
+
+Only used by the scheduler thread.
+ */
+class TrendTracker {
+	private final int baselinePeriods;
+	// The most recent first
+	private final Deque<StatsPeriod> lastPeriods;
+
+	TrendTracker(int baselinePeriods) {
+		if (baselinePeriods <= 0) {
+			throw new IllegalArgumentException("The number of periods of the baseline should be greater than zero");
+		}
+
+		this.baselinePeriods = baselinePeriods;
+		this.lastPeriods = new ArrayDeque<>(baselinePeriods);
+	}
+
+	List<Trend> getSectionsTrends(StatsPeriod currentPeriod, List<String> sections) {
+		List<Trend> sectionsTrends = new ArrayList<>(sections.size());
+
+		for (String section : sections) {
+			sectionsTrends.add(getTrend(section, currentPeriod, statsPeriod -> statsPeriod.getSectionHits(section)));
+		}
+
+		return sectionsTrends;
+	}
+
+	// The status classes without hits in the current and previous periods are left out
+	List<Trend> getStatusClassesTrends(StatsPeriod currentPeriod) {
+		List<Trend> statusClassesTrends = new ArrayList<>();
+
+		for (int statusClass = 1; statusClass < StatusClassCounters.NUMBER_OF_STATUS_CLASSES; ++statusClass) {
+			int finalStatusClass = statusClass;
+			Trend trend = getTrend(statusClass + "xx", currentPeriod, statsPeriod -> statsPeriod.getStatusClassHits(finalStatusClass));
+
+			if (trend.getHits() > 0 || trend.getPreviousHits() > 0) {
+				statusClassesTrends.add(trend);
+			}
+		}
+
+		return statusClassesTrends;
+	}
+
+	// The current period becomes the previous one, and the oldest one leaves the baseline
+	void add(StatsPeriod statsPeriod) {
+		if (lastPeriods.size() == baselinePeriods) {
+			lastPeriods.removeLast();
+		}
+		lastPeriods.addFirst(statsPeriod);
+	}
+
+	private Trend getTrend(String name, StatsPeriod currentPeriod, ToLongFunction<StatsPeriod> getHits) {
+		long previousHits = lastPeriods.isEmpty() ? 0 : getHits.applyAsLong(lastPeriods.getFirst());
+		double baselineHits = lastPeriods.stream().mapToLong(getHits).average().orElse(0);
+
+		return new Trend(name, getHits.applyAsLong(currentPeriod), previousHits, baselineHits);
+	}
+}
@@ -0,0 +1,41 @@
+package io.karon.logmonitor.listener;
+
+/*
+Approximate number of distinct client IP addresses and users (see HyperLogLog)
+ */
+public class UniqueCounts {
+	private final long ipAddresses;
+	private final long users;
+
+	public UniqueCounts(long ipAddresses, long users) {
+		this.ipAddresses = ipAddresses;
+		this.users = users;
+	}
+
+	public long getIpAddresses() { return ipAddresses; }
+
+	public long getUsers() { return users; }
+
+	@Override
+	public boolean equals(Object other) {
+		if (this == other) {
+			return true;
+		}
+		if (!(other instanceof UniqueCounts)) {
+			return false;
+		}
+
+		UniqueCounts uniqueCounts = (UniqueCounts) other;
+		return ipAddresses == uniqueCounts.ipAddresses && users == uniqueCounts.users;
+	}
+
+	@Override
+	public int hashCode() {
+		return 31 * Long.hashCode(ipAddresses) + Long.hashCode(users);
+	}
+
+	@Override
+	public String toString() {
+		return "ipAddresses=" + ipAddresses + ", users=" + users;
+	}
+}
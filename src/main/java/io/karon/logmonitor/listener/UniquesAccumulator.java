@@ -0,0 +1,123 @@
+package io.karon.logmonitor.listener;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import io.karon.logmonitor.log.AccessLog;
+
+
+/*
+Distinct IP addresses and users of a time slot, overall and per section
+	The sections get smaller HyperLogLogs (at most SECTION_PRECISION), and only the first MAX_SECTIONS of a time slot get one,
+	otherwise bots hitting millions of paths would make us allocate millions of HyperLogLogs
+	The users "-" (no user) are not counted
+ */
+class UniquesAccumulator {
+	static final int SECTION_PRECISION = 8;
+	static final int MAX_SECTIONS = 1_000;
+
+	private static final String NO_USER = "-";
+
+	private final int precision;
+	private final HyperLogLog ipAddresses;
+	private final HyperLogLog users;
+	private final Map<String, HyperLogLog[]> sectionsIpAddressesAndUsers;
+
+	UniquesAccumulator(int precision) {
+		this.precision = precision;
+		this.ipAddresses = new HyperLogLog(precision);
+		this.users = new HyperLogLog(precision);
+		this.sectionsIpAddressesAndUsers = new ConcurrentHashMap<>();
+	}
+
+	private UniquesAccumulator(int precision, HyperLogLog ipAddresses, HyperLogLog users, Map<String, HyperLogLog[]> sections) {
+		this.precision = precision;
+		this.ipAddresses = ipAddresses;
+		this.users = users;
+		this.sectionsIpAddressesAndUsers = sections;
+	}
+
+	void offer(AccessLog accessLog) {
+		boolean knownUser = !NO_USER.equals(accessLog.getUserID());
+
+		ipAddresses.offer(accessLog.getIpAddress());
+		if (knownUser) {
+			users.offer(accessLog.getUserID());
+		}
+
+		HyperLogLog[] sectionIpAddressesAndUsers = sectionsIpAddressesAndUsers.get(accessLog.getSection());
+		if (sectionIpAddressesAndUsers == null) {
+			if (sectionsIpAddressesAndUsers.size() >= MAX_SECTIONS) {
+				return;
+			}
+			sectionIpAddressesAndUsers = new HyperLogLog[] {
+					new HyperLogLog(getSectionPrecision()),
+					new HyperLogLog(getSectionPrecision())
+			};
+			sectionsIpAddressesAndUsers.put(accessLog.getSection(), sectionIpAddressesAndUsers);
+		}
+
+		sectionIpAddressesAndUsers[0].offer(accessLog.getIpAddress());
+		if (knownUser) {
+			sectionIpAddressesAndUsers[1].offer(accessLog.getUserID());
+		}
+	}
+
+	void reset() {
+		ipAddresses.reset();
+		users.reset();
+		sectionsIpAddressesAndUsers.clear();
+	}
+
+	UniquesAccumulator snapshot() {
+		Map<String, HyperLogLog[]> sections = new HashMap<>(sectionsIpAddressesAndUsers.size() * 2);
+
+		sectionsIpAddressesAndUsers.forEach((section, sectionIpAddressesAndUsers) -> sections.put(
+				section,
+				new HyperLogLog[] {sectionIpAddressesAndUsers[0].copy(), sectionIpAddressesAndUsers[1].copy()}
+		));
+
+		return new UniquesAccumulator(precision, ipAddresses.copy(), users.copy(), sections);
+	}
+
+	// Only used on snapshots, which belong to the scheduler thread
+	void merge(UniquesAccumulator other) {
+		ipAddresses.merge(other.ipAddresses);
+		users.merge(other.users);
+
+		other.sectionsIpAddressesAndUsers.forEach((section, otherSectionIpAddressesAndUsers) -> {
+			HyperLogLog[] sectionIpAddressesAndUsers = sectionsIpAddressesAndUsers.get(section);
+
+			if (sectionIpAddressesAndUsers == null) {
+				sectionsIpAddressesAndUsers.put(section, otherSectionIpAddressesAndUsers);
+			} else {
+				sectionIpAddressesAndUsers[0].merge(otherSectionIpAddressesAndUsers[0]);
+				sectionIpAddressesAndUsers[1].merge(otherSectionIpAddressesAndUsers[1]);
+			}
+		});
+	}
+
+	UniqueCounts getUniqueCounts() {
+		return new UniqueCounts(ipAddresses.estimate(), users.estimate());
+	}
+
+	// Returns null if the section had no HyperLogLogs
+	UniqueCounts getSectionUniqueCounts(String section) {
+		HyperLogLog[] sectionIpAddressesAndUsers = sectionsIpAddressesAndUsers.get(section);
+
+		if (sectionIpAddressesAndUsers == null) {
+			return null;
+		}
+
+		return new UniqueCounts(sectionIpAddressesAndUsers[0].estimate(), sectionIpAddressesAndUsers[1].estimate());
+	}
+
+	static UniquesAccumulator empty(int precision) {
+		return new UniquesAccumulator(precision, new HyperLogLog(precision), new HyperLogLog(precision), new HashMap<>());
+	}
+
+	private int getSectionPrecision() {
+		return Math.min(precision, SECTION_PRECISION);
+	}
+}
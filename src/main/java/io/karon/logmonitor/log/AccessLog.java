@@ -26,6 +26,7 @@ public class AccessLog implements Log {
 	private final String protocol;
 	private final int responseCode;
 	private final long contentSize;
+	private final String source;
 
 	public AccessLog(String ipAddress,
 			String clientIdentd,
@@ -36,16 +37,53 @@ public class AccessLog implements Log {
 			String protocol,
 			String responseCode,
 			String contentSize) {
+		this(
+				ipAddress,
+				clientIdentd,
+				userID,
+				ZonedDateTime.parse(zonedDateTime, DATE_TIME_FORMATTER),
+				method,
+				endpoint,
+				protocol,
+				Integer.parseInt(responseCode),
+				Long.parseLong(contentSize)
+		);
+	}
+
+	// Used by the parsers which already decoded the values, instead of giving back Strings to parse
+	public AccessLog(String ipAddress,
+			String clientIdentd,
+			String userID,
+			ZonedDateTime zonedDateTime,
+			String method,
+			String endpoint,
+			String protocol,
+			int responseCode,
+			long contentSize) {
+		this(ipAddress, clientIdentd, userID, zonedDateTime, method, endpoint, protocol, responseCode, contentSize, null);
+	}
+
+	public AccessLog(String ipAddress,
+			String clientIdentd,
+			String userID,
+			ZonedDateTime zonedDateTime,
+			String method,
+			String endpoint,
+			String protocol,
+			int responseCode,
+			long contentSize,
+			String source) {
 		this.ipAddress = ipAddress;
 		this.clientIdentd = clientIdentd;
 		this.userID = userID;
-		this.zonedDateTime = ZonedDateTime.parse(zonedDateTime, DATE_TIME_FORMATTER);
+		this.zonedDateTime = zonedDateTime;
 		this.instant = Instant.from(this.zonedDateTime);
 		this.method = method;
 		this.endpoint = endpoint;
 		this.protocol = protocol;
-		this.responseCode = Integer.parseInt(responseCode);
-		this.contentSize = Long.parseLong(contentSize);
+		this.responseCode = responseCode;
+		this.contentSize = contentSize;
+		this.source = source;
 	}
 
 	public String getIpAddress() {
@@ -92,6 +130,11 @@ public class AccessLog implements Log {
 		return contentSize;
 	}
 
+	@Override
+	public String getSource() {
+		return source;
+	}
+
 	@Override
 	public String toString() {
 		return String.format("%s %s %s [%s] \"%s %s %s\" %s %s",
@@ -1,3 +1,6 @@
 package io.karon.logmonitor.log;
 
-public interface Log {}
+public interface Log {
+	// Where the log was read from (the path of the file), null if it's unknown
+	default String getSource() { return null; }
+}
@@ -0,0 +1,21 @@
+package io.karon.logmonitor.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+
+/*
+Counts events that aren't timed (the Timers count what they measure), from any number of threads
+ */
+public class Counter {
+	private final LongAdder count;
+
+	Counter() {
+		this.count = new LongAdder();
+	}
+
+	public void increment() {
+		count.increment();
+	}
+
+	public long getCount() { return count.sum(); }
+}
@@ -0,0 +1,49 @@
+package io.karon.logmonitor.metrics;
+
+
+/*
+Log-sized buckets of positive values, like HdrHistogram, shared by the Timers and the LogHistograms of the listeners
+	The values below 2^SUB_BUCKET_BITS have their own bucket, above that each power of two is split in 2^(SUB_BUCKET_BITS - 1) buckets
+	so a bucket is at most 1/16th of its values wide (6.25%), whatever the magnitude, with 960 buckets covering all the longs
+The methods taking subBucketBits give a coarser layout for the histograms kept by the hundred, 3 bits is 248 buckets 1/4th wide.
+ */
+public final class HistogramBuckets {
+	public static final int SUB_BUCKET_BITS = 5;
+	public static final int NUMBER_OF_BUCKETS = getNumberOfBuckets(SUB_BUCKET_BITS);
+
+	private HistogramBuckets() {}
+
+	// value: positive
+	public static int getIndex(long value) {
+		return getIndex(value, SUB_BUCKET_BITS);
+	}
+
+	public static long getHighestValue(int index) {
+		return getHighestValue(index, SUB_BUCKET_BITS);
+	}
+
+	public static int getNumberOfBuckets(int subBucketBits) {
+		return getIndex(Long.MAX_VALUE, subBucketBits) + 1;
+	}
+
+	// value: positive, subBucketBits: at least 2
+	public static int getIndex(long value, int subBucketBits) {
+		if (value < 1L << subBucketBits) {
+			return (int) value;
+		}
+
+		// The subBucketBits most significant bits of the value, the first of them being always 1
+		int shift = 64 - Long.numberOfLeadingZeros(value) - subBucketBits;
+		return (shift << (subBucketBits - 1)) + (int) (value >>> shift);
+	}
+
+	public static long getHighestValue(int index, int subBucketBits) {
+		if (index < 1 << subBucketBits) {
+			return index;
+		}
+
+		int shift = (index >> (subBucketBits - 1)) - 1;
+		long mostSignificantBits = index - ((long) shift << (subBucketBits - 1));
+		return ((mostSignificantBits + 1) << shift) - 1;
+	}
+}
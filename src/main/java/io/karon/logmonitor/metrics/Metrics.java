@@ -0,0 +1,77 @@
+package io.karon.logmonitor.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.LongSupplier;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+
+/*
+Metrics of LogMonitor itself, shared by the whole process like the loggers: a class gets its Timers and Counters once,
+with a name starting by its stage, and records into them on its hot path
+	Timers (latency histograms, which also count): read, parse, dispatch, onNext.<subscriber>, tick.<listener>
+	Counters: parse.failures, dispatch.failures
+	Gauges, read only when the metrics are: dispatch.queueDepth, dispatch.dropped, read.lagInBytes.<file>
+Two instances of a class record into the same Timers and Counters, a gauge is registered and removed by its instance.
+
+They can be read through JMX (see MetricsMBean), logged periodically (see MetricsReporter) and scraped (see HttpEndpoint).
+ */
+public final class Metrics {
+	private static final Logger logger = LogManager.getLogger(Metrics.class);
+	private static final String OBJECT_NAME = "io.karon.logmonitor:type=Metrics";
+
+	private static final ConcurrentNavigableMap<String, Timer> timers = new ConcurrentSkipListMap<>();
+	private static final ConcurrentNavigableMap<String, Counter> counters = new ConcurrentSkipListMap<>();
+	private static final ConcurrentNavigableMap<String, LongSupplier> gauges = new ConcurrentSkipListMap<>();
+
+	private Metrics() {}
+
+	public static Timer timer(String name) {
+		return timers.computeIfAbsent(name, ignored -> new Timer());
+	}
+
+	public static Counter counter(String name) {
+		return counters.computeIfAbsent(name, ignored -> new Counter());
+	}
+
+	// Replaces the gauge with the same name, if any
+	public static void gauge(String name, LongSupplier gauge) {
+		gauges.put(name, gauge);
+	}
+
+	// Only removes the gauge if it is still this one
+	public static void removeGauge(String name, LongSupplier gauge) {
+		gauges.remove(name, gauge);
+	}
+
+	// Read only views, the names are sorted so the stages of the pipeline are grouped
+	public static Map<String, Timer> getTimers() { return Collections.unmodifiableMap(timers); }
+
+	public static Map<String, Counter> getCounters() { return Collections.unmodifiableMap(counters); }
+
+	public static Map<String, LongSupplier> getGauges() { return Collections.unmodifiableMap(gauges); }
+
+	// Registered once, the MBean reads the metrics as they are when it is called
+	public static synchronized void registerMBean() {
+		MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+
+		try {
+			ObjectName objectName = new ObjectName(OBJECT_NAME);
+
+			if (!mBeanServer.isRegistered(objectName)) {
+				mBeanServer.registerMBean(new MetricsMBean(), objectName);
+			}
+		} catch (JMException e) {
+			logger.warn("Cannot register the metrics MBean {}", OBJECT_NAME, e);
+		}
+	}
+}
@@ -0,0 +1,123 @@
+package io.karon.logmonitor.metrics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.LongSupplier;
+
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.AttributeNotFoundException;
+import javax.management.DynamicMBean;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanInfo;
+import javax.management.MBeanOperationInfo;
+import javax.management.ReflectionException;
+
+
+/*
+Exposes the Metrics as read-only JMX attributes, listed again each time the MBeanInfo is asked (the gauges come and go)
+	A Counter or a gauge is an attribute with its name
+	A Timer gives <name>.count and the percentiles <name>.p50Nanos, p90Nanos, p99Nanos, p999Nanos and maxNanos
+ */
+class MetricsMBean implements DynamicMBean {
+	private static final String COUNT_SUFFIX = ".count";
+	private static final String MAX_SUFFIX = ".maxNanos";
+	private static final String[] PERCENTILES_SUFFIXES = {".p50Nanos", ".p90Nanos", ".p99Nanos", ".p999Nanos"};
+	private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
+	@Override
+	public Object getAttribute(String attribute) throws AttributeNotFoundException {
+		Counter counter = Metrics.getCounters().get(attribute);
+		if (counter != null) {
+			return counter.getCount();
+		}
+
+		LongSupplier gauge = Metrics.getGauges().get(attribute);
+		if (gauge != null) {
+			return gauge.getAsLong();
+		}
+
+		int suffixStart = attribute.lastIndexOf('.');
+		Timer timer = suffixStart < 0 ? null : Metrics.getTimers().get(attribute.substring(0, suffixStart));
+		if (timer != null) {
+			String suffix = attribute.substring(suffixStart);
+
+			if (COUNT_SUFFIX.equals(suffix)) {
+				return timer.getCount();
+			}
+			if (MAX_SUFFIX.equals(suffix)) {
+				return timer.getSnapshot().getMax();
+			}
+			for (int i = 0; i < PERCENTILES_SUFFIXES.length; ++i) {
+				if (PERCENTILES_SUFFIXES[i].equals(suffix)) {
+					return timer.getSnapshot().getValueAtPercentile(PERCENTILES[i]);
+				}
+			}
+		}
+
+		throw new AttributeNotFoundException("No metric " + attribute);
+	}
+
+	@Override
+	public void setAttribute(Attribute attribute) throws AttributeNotFoundException {
+		throw new AttributeNotFoundException("The metrics are read only");
+	}
+
+	@Override
+	public AttributeList getAttributes(String[] attributes) {
+		AttributeList attributeList = new AttributeList();
+
+		for (String attribute : attributes) {
+			try {
+				attributeList.add(new Attribute(attribute, getAttribute(attribute)));
+			} catch (AttributeNotFoundException e) {
+				// Skipped, like the JMX specification says
+			}
+		}
+
+		return attributeList;
+	}
+
+	@Override
+	public AttributeList setAttributes(AttributeList attributes) {
+		return new AttributeList();
+	}
+
+	@Override
+	public Object invoke(String actionName, Object[] params, String[] signature) throws ReflectionException {
+		// The metrics have no operations
+		throw new ReflectionException(new NoSuchMethodException(actionName));
+	}
+
+	@Override
+	public MBeanInfo getMBeanInfo() {
+		List<MBeanAttributeInfo> attributes = new ArrayList<>();
+
+		for (String name : Metrics.getTimers().keySet()) {
+			attributes.add(getAttributeInfo(name + COUNT_SUFFIX, "Number of measures"));
+			for (String suffix : PERCENTILES_SUFFIXES) {
+				attributes.add(getAttributeInfo(name + suffix, "Percentile of the latency in nanoseconds"));
+			}
+			attributes.add(getAttributeInfo(name + MAX_SUFFIX, "Maximum latency in nanoseconds"));
+		}
+		for (String name : Metrics.getCounters().keySet()) {
+			attributes.add(getAttributeInfo(name, "Counter"));
+		}
+		for (String name : Metrics.getGauges().keySet()) {
+			attributes.add(getAttributeInfo(name, "Gauge"));
+		}
+
+		return new MBeanInfo(
+				getClass().getName(),
+				"LogMonitor metrics",
+				attributes.toArray(new MBeanAttributeInfo[0]),
+				null,
+				new MBeanOperationInfo[0],
+				null
+		);
+	}
+
+	private static MBeanAttributeInfo getAttributeInfo(String name, String description) {
+		return new MBeanAttributeInfo(name, Long.class.getName(), description, true, false, false);
+	}
+}
@@ -0,0 +1,113 @@
+package io.karon.logmonitor.metrics;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import org.apache.logging.log4j.Logger;
+
+
+/*
+Logs every Metric periodically, on its own thread
+	A Timer: its count, how much it increased per second since the previous report, and its latency percentiles since the start
+	A Counter: its count and its increase since the previous report
+	A gauge: its value
+ */
+public class MetricsReporter {
+	private static final String LINE_SEPARATOR = System.lineSeparator();
+	private static final String TABULATION = "\t";
+
+	private final Logger logger;
+
+	// Only used by the reporting thread
+	private final Map<String, Long> previousCounts;
+	private long previousReportInNanos;
+
+	private ScheduledExecutorService scheduledExecutorService;
+
+	public MetricsReporter(Logger logger) {
+		this.logger = logger;
+		this.previousCounts = new HashMap<>();
+		this.previousReportInNanos = System.nanoTime();
+	}
+
+	public void start(long intervalInSeconds) {
+		scheduledExecutorService = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "metrics-reporter");
+			thread.setDaemon(true);
+			return thread;
+		});
+		scheduledExecutorService.scheduleAtFixedRate(this::report, intervalInSeconds, intervalInSeconds, TimeUnit.SECONDS);
+	}
+
+	public void stop() {
+		if (scheduledExecutorService != null) {
+			scheduledExecutorService.shutdownNow();
+		}
+	}
+
+	public synchronized void report() {
+		long nowInNanos = System.nanoTime();
+		double elapsedInSeconds = Math.max(nowInNanos - previousReportInNanos, 1) / 1e9;
+		StringBuilder stringBuilder = new StringBuilder("LogMonitor metrics:").append(LINE_SEPARATOR);
+
+		for (Map.Entry<String, Timer> timer : Metrics.getTimers().entrySet()) {
+			TimerSnapshot snapshot = timer.getValue().getSnapshot();
+			long count = snapshot.getCount();
+
+			stringBuilder.append(TABULATION)
+					.append(timer.getKey())
+					.append(": ")
+					.append(count)
+					.append(" (")
+					.append(String.format("%.1f", getIncrease(timer.getKey(), count) / elapsedInSeconds))
+					.append("/s)");
+			if (count > 0) {
+				stringBuilder.append(", p50 ")
+						.append(formatNanos(snapshot.getValueAtPercentile(50)))
+						.append(", p99 ")
+						.append(formatNanos(snapshot.getValueAtPercentile(99)))
+						.append(", p99.9 ")
+						.append(formatNanos(snapshot.getValueAtPercentile(99.9)))
+						.append(", max ")
+						.append(formatNanos(snapshot.getMax()));
+			}
+			stringBuilder.append(LINE_SEPARATOR);
+		}
+		for (Map.Entry<String, Counter> counter : Metrics.getCounters().entrySet()) {
+			long count = counter.getValue().getCount();
+
+			stringBuilder.append(TABULATION)
+					.append(counter.getKey())
+					.append(": ")
+					.append(count)
+					.append(" (+")
+					.append(getIncrease(counter.getKey(), count))
+					.append(')')
+					.append(LINE_SEPARATOR);
+		}
+		for (Map.Entry<String, LongSupplier> gauge : Metrics.getGauges().entrySet()) {
+			stringBuilder.append(TABULATION)
+					.append(gauge.getKey())
+					.append(": ")
+					.append(gauge.getValue().getAsLong())
+					.append(LINE_SEPARATOR);
+		}
+
+		previousReportInNanos = nowInNanos;
+		logger.info(stringBuilder.toString());
+	}
+
+	private long getIncrease(String name, long count) {
+		Long previousCount = previousCounts.put(name, count);
+
+		return previousCount == null ? count : count - previousCount;
+	}
+
+	private static String formatNanos(long nanos) {
+		return String.format("%.1f us", nanos / 1_000.0);
+	}
+}
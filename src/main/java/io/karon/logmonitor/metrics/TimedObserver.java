@@ -0,0 +1,51 @@
+package io.karon.logmonitor.metrics;
+
+import io.reactivex.Observer;
+import io.reactivex.disposables.Disposable;
+
+
+/*
+Times the onNext of an Observer in the Timer "onNext.<class of the Observer>", the other calls go straight through
+ */
+public class TimedObserver<T> implements Observer<T> {
+	private final Observer<T> observer;
+	private final Timer onNextTimer;
+
+	public TimedObserver(Observer<T> observer) {
+		this.observer = observer;
+		this.onNextTimer = Metrics.timer("onNext." + getName(observer.getClass()));
+	}
+
+	@Override
+	public void onSubscribe(Disposable d) {
+		observer.onSubscribe(d);
+	}
+
+	@Override
+	public void onNext(T t) {
+		long startInNanos = System.nanoTime();
+
+		try {
+			observer.onNext(t);
+		} finally {
+			onNextTimer.recordSince(startInNanos);
+		}
+	}
+
+	@Override
+	public void onError(Throwable e) {
+		observer.onError(e);
+	}
+
+	@Override
+	public void onComplete() {
+		observer.onComplete();
+	}
+
+	// Anonymous classes have no simple name
+	private static String getName(Class<?> observerClass) {
+		String simpleName = observerClass.getSimpleName();
+
+		return simpleName.isEmpty() ? observerClass.getName() : simpleName;
+	}
+}
@@ -0,0 +1,81 @@
+package io.karon.logmonitor.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+
+/*
+Latency histogram of a stage of the pipeline, in nanoseconds
+	The latencies are recorded in one of STRIPES stripes, chosen by the id of the thread, so the parser workers rarely share one
+	Nothing is kept per thread: the threads coming and going (pools, restarts of a monitor) never make a Timer grow
+	Recording is an atomic increment of a bucket (see HistogramBuckets) of the stripe, it never allocates
+	The stripes are merged when the Timer is read (JMX, MetricsReporter, HttpEndpoint), never on the recording side
+ */
+public class Timer {
+	// The power of two above the number of processors, up to 16 (about 8KB each)
+	private static final int STRIPES = Math.min(Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 2 - 1), 16);
+
+	private final Stripe[] stripes;
+
+	Timer() {
+		this.stripes = new Stripe[STRIPES];
+		for (int i = 0; i < STRIPES; ++i) {
+			stripes[i] = new Stripe();
+		}
+	}
+
+	// startInNanos: the System.nanoTime() at which the measured operation started
+	public void recordSince(long startInNanos) {
+		long latency = System.nanoTime() - startInNanos;
+		stripes[(int) Thread.currentThread().getId() & (STRIPES - 1)].record(latency);
+	}
+
+	public long getCount() {
+		long count = 0;
+
+		for (Stripe stripe : stripes) {
+			count += stripe.count.get();
+		}
+
+		return count;
+	}
+
+	public TimerSnapshot getSnapshot() {
+		long[] buckets = new long[HistogramBuckets.NUMBER_OF_BUCKETS];
+		long sum = 0;
+		long max = 0;
+
+		for (Stripe stripe : stripes) {
+			for (int i = 0; i < buckets.length; ++i) {
+				buckets[i] += stripe.buckets.get(i);
+			}
+			sum += stripe.sum.get();
+			max = Math.max(max, stripe.max.get());
+		}
+
+		return new TimerSnapshot(buckets, sum, max);
+	}
+
+	/*
+	Buckets of the latencies recorded by the threads of a stripe, which may record at the same time
+	 */
+	private static class Stripe {
+		private final AtomicLongArray buckets = new AtomicLongArray(HistogramBuckets.NUMBER_OF_BUCKETS);
+		private final AtomicLong count = new AtomicLong();
+		private final AtomicLong sum = new AtomicLong();
+		private final AtomicLong max = new AtomicLong();
+
+		void record(long value) {
+			long positiveValue = Math.max(value, 0);
+
+			buckets.incrementAndGet(HistogramBuckets.getIndex(positiveValue));
+			count.incrementAndGet();
+			sum.addAndGet(positiveValue);
+
+			long currentMax = max.get();
+			while (positiveValue > currentMax && !max.compareAndSet(currentMax, positiveValue)) {
+				currentMax = max.get();
+			}
+		}
+	}
+}
@@ -0,0 +1,65 @@
+package io.karon.logmonitor.metrics;
+
+
+/*
+Copy of the latencies recorded by a Timer, in nanoseconds, read without blocking the threads recording
+The percentiles are the highest value of their bucket (see HistogramBuckets), capped by the max, the sum is exact.
+ */
+public class TimerSnapshot {
+	private final long[] buckets;
+	private final long count;
+	private final long sum;
+	private final long max;
+
+	TimerSnapshot(long[] buckets, long sum, long max) {
+		long bucketsCount = 0;
+		for (long bucket : buckets) {
+			bucketsCount += bucket;
+		}
+
+		this.buckets = buckets;
+		// Counted from the buckets, since the count of a histogram being written may not match the buckets we read
+		this.count = bucketsCount;
+		this.sum = sum;
+		this.max = max;
+	}
+
+	public long getCount() { return count; }
+
+	public long getSum() { return sum; }
+
+	public long getMax() { return max; }
+
+	// percentile between 0 and 100, returns 0 if the snapshot is empty
+	public long getValueAtPercentile(double percentile) {
+		long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+		long seen = 0;
+
+		for (int i = 0; i < buckets.length; ++i) {
+			seen += buckets[i];
+			if (seen >= rank) {
+				return Math.min(HistogramBuckets.getHighestValue(i), max);
+			}
+		}
+
+		return max;
+	}
+
+	/*
+	The latencies recorded between a previous snapshot of the same Timer and this one
+	The max can't be known, it's the highest value of the highest bucket recorded (capped by the max of this snapshot)
+	 */
+	public TimerSnapshot since(TimerSnapshot previous) {
+		long[] difference = new long[buckets.length];
+		long differenceMax = 0;
+
+		for (int i = 0; i < buckets.length; ++i) {
+			difference[i] = Math.max(buckets[i] - previous.buckets[i], 0);
+			if (difference[i] > 0) {
+				differenceMax = Math.min(HistogramBuckets.getHighestValue(i), max);
+			}
+		}
+
+		return new TimerSnapshot(difference, Math.max(sum - previous.sum, 0), differenceMax);
+	}
+}
@@ -0,0 +1,177 @@
+package io.karon.logmonitor.outputter;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongSupplier;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import io.karon.logmonitor.log.AccessLog;
+import io.karon.logmonitor.metrics.Counter;
+import io.karon.logmonitor.metrics.Metrics;
+import io.karon.logmonitor.metrics.Timer;
+
+
+/*
+Runs the calls to an outputter on its own thread, so a slow appender never stalls the scheduler of a listener or the reader
+	The calls are queued on a bounded queue without lock (a ConcurrentLinkedQueue, bounded by the count of the calls queued),
+	the thread queuing them never waits: when the queue is full, a periodic call (stats, window count, alert still active)
+	is dropped and counted ("output.dropped"), the next period gives a newer one anyway
+	A state change (an alert raised or recovered) is never dropped, it's queued even above queueSize: missing a recovery would
+	leave the alert active forever in the outputter (the HttpEndpoint for instance), and there are only a few per period
+	The output thread runs them in order, and parks when there is nothing to run
+
+The late logs aren't queued, since there can be one per log: the thread calling onNext only counts them and keeps the last one,
+and the output thread summarizes them once every lateLogsSummaryInterval (and when stopping), if there were any.
+
+The calls are timed ("output"), the depth of the queue is a gauge ("output.queueDepth.<name>") until the dispatcher is stopped.
+ */
+class AsyncOutputDispatcher {
+	private static final Logger logger = LogManager.getLogger(AsyncOutputDispatcher.class);
+	private static final String QUEUE_DEPTH_GAUGE = "output.queueDepth.";
+	private static final Timer outputTimer = Metrics.timer("output");
+	private static final Counter droppedOutputs = Metrics.counter("output.dropped");
+	private static final Counter outputFailures = Metrics.counter("output.failures");
+
+	private final String name;
+	private final int queueSize;
+	private final long lateLogsSummaryIntervalInNanos;
+	private final LateLogsSummary lateLogsSummary;
+
+	private final Queue<Runnable> queue;
+	private final AtomicInteger queueDepth;
+	private final AtomicLong lateLogs;
+	private final AtomicReference<AccessLog> lastLateLog;
+	private final LongSupplier queueDepthGauge;
+
+	private volatile boolean running;
+	private final Thread outputThread;
+
+	// lateLogsSummary: called by the output thread with the late logs counted since the previous summary
+	AsyncOutputDispatcher(String name, int queueSize, long lateLogsSummaryIntervalInSeconds, LateLogsSummary lateLogsSummary) {
+		if (queueSize <= 0) {
+			throw new IllegalArgumentException("The queue size should be greater than zero");
+		}
+		if (lateLogsSummaryIntervalInSeconds <= 0) {
+			throw new IllegalArgumentException("The interval between two summaries of the late logs should be greater than zero");
+		}
+
+		this.name = name;
+		this.queueSize = queueSize;
+		this.lateLogsSummaryIntervalInNanos = TimeUnit.SECONDS.toNanos(lateLogsSummaryIntervalInSeconds);
+		this.lateLogsSummary = lateLogsSummary;
+
+		this.queue = new ConcurrentLinkedQueue<>();
+		this.queueDepth = new AtomicInteger();
+		this.lateLogs = new AtomicLong();
+		this.lastLateLog = new AtomicReference<>();
+		this.queueDepthGauge = queueDepth::get;
+		Metrics.gauge(QUEUE_DEPTH_GAUGE + name, queueDepthGauge);
+
+		this.running = true;
+		this.outputThread = new Thread(this::output, "async-outputter-" + name);
+		outputThread.setDaemon(true);
+		outputThread.start();
+	}
+
+	// A periodic output, dropped if the queue is full
+	void submit(Runnable output) {
+		// Reserve a place first, so the periodic outputs never make the queue hold more than queueSize calls
+		if (queueDepth.incrementAndGet() > queueSize) {
+			queueDepth.decrementAndGet();
+			droppedOutputs.increment();
+			return;
+		}
+
+		enqueue(output);
+	}
+
+	// An alert raised or recovered, never dropped: it counts in the depth, so the periodic outputs make way for it
+	void submitStateChange(Runnable output) {
+		queueDepth.incrementAndGet();
+		enqueue(output);
+	}
+
+	// Called by the thread calling onNext, so it only counts
+	void lateLog(AccessLog accessLog) {
+		lateLogs.incrementAndGet();
+		lastLateLog.lazySet(accessLog);
+	}
+
+	int getQueueDepth() { return queueDepth.get(); }
+
+	private void enqueue(Runnable output) {
+		queue.offer(output);
+		LockSupport.unpark(outputThread);
+	}
+
+	// Waits for the calls already queued and the last summary
+	void stop() throws InterruptedException {
+		running = false;
+		LockSupport.unpark(outputThread);
+		outputThread.join();
+		Metrics.removeGauge(QUEUE_DEPTH_GAUGE + name, queueDepthGauge);
+	}
+
+	private void output() {
+		long nextSummaryInNanos = System.nanoTime() + lateLogsSummaryIntervalInNanos;
+
+		while (true) {
+			// Read before polling: if the queue is empty after stop(), nothing else will be run
+			boolean stopping = !running;
+			Runnable output = queue.poll();
+
+			if (output != null) {
+				queueDepth.decrementAndGet();
+				run(output);
+			}
+
+			long nowInNanos = System.nanoTime();
+			if (nowInNanos - nextSummaryInNanos >= 0 || (stopping && output == null)) {
+				summarizeLateLogs();
+				nextSummaryInNanos = nowInNanos + lateLogsSummaryIntervalInNanos;
+			}
+
+			if (output == null) {
+				if (stopping) {
+					return;
+				}
+
+				// Woken up by submit() or stop()
+				LockSupport.parkNanos(this, nextSummaryInNanos - nowInNanos);
+			}
+		}
+	}
+
+	private void run(Runnable output) {
+		long startInNanos = System.nanoTime();
+
+		try {
+			output.run();
+		} catch (RuntimeException e) {
+			// An outputter failing shouldn't stop the next outputs
+			outputFailures.increment();
+			logger.error("Exception thrown by the outputter {}", name, e);
+		} finally {
+			outputTimer.recordSince(startInNanos);
+		}
+	}
+
+	private void summarizeLateLogs() {
+		long count = lateLogs.getAndSet(0);
+
+		if (count > 0) {
+			run(() -> lateLogsSummary.summarize(count, lastLateLog.get()));
+		}
+	}
+
+	interface LateLogsSummary {
+		void summarize(long count, AccessLog lastAccessLog);
+	}
+}
@@ -0,0 +1,136 @@
+package io.karon.logmonitor.outputter;
+
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import io.karon.logmonitor.configuration.Configuration;
+import io.karon.logmonitor.listener.HeavyHitter;
+import io.karon.logmonitor.listener.SizePercentiles;
+import io.karon.logmonitor.listener.Trend;
+import io.karon.logmonitor.listener.UniqueCounts;
+import io.karon.logmonitor.log.AccessLog;
+
+
+/*
+Calls another StatsOutputter on its own thread (see AsyncOutputDispatcher), the scheduler of the StatsLogListener only queues the calls
+The late logs are given to the other StatsOutputter as a summary every lateLogsSummaryIntervalInSeconds.
+The StatsLogListener gives new collections every period, so they can be read by the output thread without copying them.
+ */
+public class AsyncStatsOutputter implements StatsOutputter {
+	private final StatsOutputter statsOutputter;
+	private final AsyncOutputDispatcher asyncOutputDispatcher;
+
+	public AsyncStatsOutputter(StatsOutputter statsOutputter, Configuration.AsyncOutputterConfiguration configuration) {
+		this(statsOutputter, configuration.getQueueSize(), configuration.getLateLogsSummaryIntervalInSeconds());
+	}
+
+	public AsyncStatsOutputter(StatsOutputter statsOutputter, int queueSize, long lateLogsSummaryIntervalInSeconds) {
+		this.statsOutputter = statsOutputter;
+		this.asyncOutputDispatcher = new AsyncOutputDispatcher(
+				"stats",
+				queueSize,
+				lateLogsSummaryIntervalInSeconds,
+				(count, lastAccessLog) -> statsOutputter.logsOutsideDurationToMonitor(
+						count,
+						lastAccessLog,
+						lateLogsSummaryIntervalInSeconds,
+						TimeUnit.SECONDS
+				)
+		);
+	}
+
+	// Waits for the outputs already queued
+	public void stop() throws InterruptedException {
+		asyncOutputDispatcher.stop();
+	}
+
+	@Override
+	public void logOutsideDurationToMonitor(AccessLog accessLog) {
+		asyncOutputDispatcher.lateLog(accessLog);
+	}
+
+	@Override
+	public void logsOutsideDurationToMonitor(long count, AccessLog lastAccessLog, long period, TimeUnit timeUnit) {
+		asyncOutputDispatcher.submit(() -> statsOutputter.logsOutsideDurationToMonitor(count, lastAccessLog, period, timeUnit));
+	}
+
+	@Override
+	public void sectionHits(
+			List<Map.Entry<String, Integer>> sectionsWithTheMostHits,
+			long durationToMonitor,
+			TimeUnit timeUnit,
+			ZonedDateTime now
+	) {
+		asyncOutputDispatcher.submit(() -> statsOutputter.sectionHits(sectionsWithTheMostHits, durationToMonitor, timeUnit, now));
+	}
+
+	@Override
+	public void sectionHeavyHitters(
+			List<HeavyHitter> sectionsWithTheMostHits,
+			long durationToMonitor,
+			TimeUnit timeUnit,
+			ZonedDateTime now
+	) {
+		asyncOutputDispatcher.submit(() -> statsOutputter.sectionHeavyHitters(
+				sectionsWithTheMostHits,
+				durationToMonitor,
+				timeUnit,
+				now
+		));
+	}
+
+	@Override
+	public void uniques(
+			UniqueCounts uniqueCounts,
+			Map<String, UniqueCounts> sectionsUniqueCounts,
+			long durationToMonitor,
+			TimeUnit timeUnit,
+			ZonedDateTime now
+	) {
+		asyncOutputDispatcher.submit(() -> statsOutputter.uniques(
+				uniqueCounts,
+				sectionsUniqueCounts,
+				durationToMonitor,
+				timeUnit,
+				now
+		));
+	}
+
+	@Override
+	public void contentSizes(
+			SizePercentiles sizePercentiles,
+			Map<String, SizePercentiles> statusClassesSizePercentiles,
+			Map<String, SizePercentiles> sectionsSizePercentiles,
+			long durationToMonitor,
+			TimeUnit timeUnit,
+			ZonedDateTime now
+	) {
+		asyncOutputDispatcher.submit(() -> statsOutputter.contentSizes(
+				sizePercentiles,
+				statusClassesSizePercentiles,
+				sectionsSizePercentiles,
+				durationToMonitor,
+				timeUnit,
+				now
+		));
+	}
+
+	@Override
+	public void trends(
+			List<Trend> sectionsTrends,
+			List<Trend> statusClassesTrends,
+			long durationToMonitor,
+			TimeUnit timeUnit,
+			ZonedDateTime now
+	) {
+		asyncOutputDispatcher.submit(() -> statsOutputter.trends(
+				sectionsTrends,
+				statusClassesTrends,
+				durationToMonitor,
+				timeUnit,
+				now
+		));
+	}
+}
@@ -0,0 +1,231 @@
+package io.karon.logmonitor.outputter;
+
+import java.time.ZonedDateTime;
+import java.util.concurrent.TimeUnit;
+
+import io.karon.logmonitor.configuration.Configuration;
+import io.karon.logmonitor.listener.AlertRule;
+import io.karon.logmonitor.log.AccessLog;
+
+
+/*
+Calls another ThresholdOutputter on its own thread (see AsyncOutputDispatcher), the scheduler of the ThresholdLogListener only queues the calls
+The late logs are given to the other ThresholdOutputter as a summary every lateLogsSummaryIntervalInSeconds.
+The alerts are output in the order they were raised, the other ThresholdOutputter is only called by the output thread.
+When the queue is full, only the periodic calls (window count, alerts still active) are dropped, never an alert raised or recovered.
+ */
+public class AsyncThresholdOutputter implements ThresholdOutputter {
+	private final ThresholdOutputter thresholdOutputter;
+	private final AsyncOutputDispatcher asyncOutputDispatcher;
+
+	public AsyncThresholdOutputter(ThresholdOutputter thresholdOutputter, Configuration.AsyncOutputterConfiguration configuration) {
+		this(thresholdOutputter, configuration.getQueueSize(), configuration.getLateLogsSummaryIntervalInSeconds());
+	}
+
+	public AsyncThresholdOutputter(ThresholdOutputter thresholdOutputter, int queueSize, long lateLogsSummaryIntervalInSeconds) {
+		this.thresholdOutputter = thresholdOutputter;
+		this.asyncOutputDispatcher = new AsyncOutputDispatcher(
+				"threshold",
+				queueSize,
+				lateLogsSummaryIntervalInSeconds,
+				(count, lastAccessLog) -> thresholdOutputter.logsOutsideDurationToMonitor(
+						count,
+						lastAccessLog,
+						lateLogsSummaryIntervalInSeconds,
+						TimeUnit.SECONDS
+				)
+		);
+	}
+
+	// Waits for the outputs already queued
+	public void stop() throws InterruptedException {
+		asyncOutputDispatcher.stop();
+	}
+
+	@Override
+	public void logOutsideDurationToMonitor(AccessLog accessLog) {
+		asyncOutputDispatcher.lateLog(accessLog);
+	}
+
+	@Override
+	public void logsOutsideDurationToMonitor(long count, AccessLog lastAccessLog, long period, TimeUnit timeUnit) {
+		asyncOutputDispatcher.submit(() -> thresholdOutputter.logsOutsideDurationToMonitor(
+				count,
+				lastAccessLog,
+				period,
+				timeUnit
+		));
+	}
+
+	@Override
+	public void previousThresholdsReached() {
+		asyncOutputDispatcher.submitStateChange(thresholdOutputter::previousThresholdsReached);
+	}
+
+	@Override
+	public void windowCount(
+			int currentCount,
+			long thresholdForDurationToMonitor,
+			long durationToMonitor,
+			TimeUnit timeUnit,
+			ZonedDateTime now
+	) {
+		asyncOutputDispatcher.submit(() -> thresholdOutputter.windowCount(
+				currentCount,
+				thresholdForDurationToMonitor,
+				durationToMonitor,
+				timeUnit,
+				now
+		));
+	}
+
+	@Override
+	public void thresholdReached(
+			int currentCount,
+			long thresholdForDurationToMonitor,
+			long durationToMonitor,
+			TimeUnit timeUnit,
+			ZonedDateTime now
+	) {
+		asyncOutputDispatcher.submitStateChange(() -> thresholdOutputter.thresholdReached(
+				currentCount,
+				thresholdForDurationToMonitor,
+				durationToMonitor,
+				timeUnit,
+				now
+		));
+	}
+
+	@Override
+	public void alertStillActive(
+			int currentCount,
+			long thresholdForDurationToMonitor,
+			long durationToMonitor,
+			TimeUnit timeUnit,
+			ZonedDateTime now
+	) {
+		asyncOutputDispatcher.submit(() -> thresholdOutputter.alertStillActive(
+				currentCount,
+				thresholdForDurationToMonitor,
+				durationToMonitor,
+				timeUnit,
+				now
+		));
+	}
+
+	@Override
+	public void trafficRecovered(
+			int currentCount,
+			long thresholdForDurationToMonitor,
+			long durationToMonitor,
+			TimeUnit timeUnit,
+			ZonedDateTime now
+	) {
+		asyncOutputDispatcher.submitStateChange(() -> thresholdOutputter.trafficRecovered(
+				currentCount,
+				thresholdForDurationToMonitor,
+				durationToMonitor,
+				timeUnit,
+				now
+		));
+	}
+
+	@Override
+	public void lowTrafficReached(
+			int currentCount,
+			long lowThresholdForDurationToMonitor,
+			long durationToMonitor,
+			TimeUnit timeUnit,
+			ZonedDateTime now
+	) {
+		asyncOutputDispatcher.submitStateChange(() -> thresholdOutputter.lowTrafficReached(
+				currentCount,
+				lowThresholdForDurationToMonitor,
+				durationToMonitor,
+				timeUnit,
+				now
+		));
+	}
+
+	@Override
+	public void lowTrafficStillActive(
+			int currentCount,
+			long lowThresholdForDurationToMonitor,
+			long durationToMonitor,
+			TimeUnit timeUnit,
+			ZonedDateTime now
+	) {
+		asyncOutputDispatcher.submit(() -> thresholdOutputter.lowTrafficStillActive(
+				currentCount,
+				lowThresholdForDurationToMonitor,
+				durationToMonitor,
+				timeUnit,
+				now
+		));
+	}
+
+	@Override
+	public void lowTrafficRecovered(
+			int currentCount,
+			long recoveryThresholdForDurationToMonitor,
+			long durationToMonitor,
+			TimeUnit timeUnit,
+			ZonedDateTime now
+	) {
+		asyncOutputDispatcher.submitStateChange(() -> thresholdOutputter.lowTrafficRecovered(
+				currentCount,
+				recoveryThresholdForDurationToMonitor,
+				durationToMonitor,
+				timeUnit,
+				now
+		));
+	}
+
+	@Override
+	public void anomalyDetected(long timeSlotHits, double expectedHits, double zScore, ZonedDateTime now) {
+		asyncOutputDispatcher.submitStateChange(() -> thresholdOutputter.anomalyDetected(timeSlotHits, expectedHits, zScore, now));
+	}
+
+	@Override
+	public void anomalyStillActive(long timeSlotHits, double expectedHits, double zScore, ZonedDateTime now) {
+		asyncOutputDispatcher.submit(() -> thresholdOutputter.anomalyStillActive(timeSlotHits, expectedHits, zScore, now));
+	}
+
+	@Override
+	public void anomalyRecovered(long timeSlotHits, double expectedHits, double zScore, ZonedDateTime now) {
+		asyncOutputDispatcher.submitStateChange(() -> thresholdOutputter.anomalyRecovered(timeSlotHits, expectedHits, zScore, now));
+	}
+
+	@Override
+	public void ruleThresholdReached(
+			AlertRule alertRule,
+			long matchingHits,
+			long hits,
+			TimeUnit timeUnit,
+			ZonedDateTime now
+	) {
+		asyncOutputDispatcher.submitStateChange(() -> thresholdOutputter.ruleThresholdReached(alertRule, matchingHits, hits, timeUnit, now));
+	}
+
+	@Override
+	public void ruleAlertStillActive(
+			AlertRule alertRule,
+			long matchingHits,
+			long hits,
+			TimeUnit timeUnit,
+			ZonedDateTime now
+	) {
+		asyncOutputDispatcher.submit(() -> thresholdOutputter.ruleAlertStillActive(alertRule, matchingHits, hits, timeUnit, now));
+	}
+
+	@Override
+	public void ruleRecovered(
+			AlertRule alertRule,
+			long matchingHits,
+			long hits,
+			TimeUnit timeUnit,
+			ZonedDateTime now
+	) {
+		asyncOutputDispatcher.submitStateChange(() -> thresholdOutputter.ruleRecovered(alertRule, matchingHits, hits, timeUnit, now));
+	}
+}
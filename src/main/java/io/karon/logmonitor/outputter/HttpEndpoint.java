@@ -0,0 +1,401 @@
+package io.karon.logmonitor.outputter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import io.karon.logmonitor.listener.UniqueCounts;
+import io.karon.logmonitor.metrics.Counter;
+import io.karon.logmonitor.metrics.Metrics;
+import io.karon.logmonitor.metrics.Timer;
+import io.karon.logmonitor.metrics.TimerSnapshot;
+
+
+/*
+Small embedded HTTP server (the JDK's com.sun.net.httpserver) serving what the listeners reported last, so it can be scraped
+	GET /stats: the top sections and uniques of the StatsLogListener, the window count of the ThresholdLogListener
+	and the active alerts, in JSON
+	GET /metrics: the same values, and the metrics of LogMonitor itself (see Metrics), in the Prometheus text format
+The HttpStatsOutputter and HttpThresholdOutputter update the state from the scheduler threads of the listeners,
+and what they reported is rendered right away: a scrape only copies the last text rendered, it never waits for a listener or a log.
+The late logs (counted by the thread calling onNext) and the metrics of LogMonitor change between two periods,
+so they are rendered by the scrape itself, they are only counters to read.
+
+The alerts stay in /metrics once they are recovered (with 0), so the series don't disappear, /stats only lists the active ones.
+ */
+public class HttpEndpoint {
+	static final String HIGH_TRAFFIC_ALERT = "highTraffic";
+	static final String LOW_TRAFFIC_ALERT = "lowTraffic";
+	static final String ANOMALY_ALERT = "anomaly";
+	static final String RULE_ALERT_PREFIX = "rule.";
+
+	private static final String JSON_CONTENT_TYPE = "application/json; charset=utf-8";
+	private static final String PROMETHEUS_CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+	private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+
+	private final HttpServer httpServer;
+	private final ExecutorService executorService;
+
+	// Only used under the lock of the HttpEndpoint, by the scheduler threads of the listeners
+	private final List<SectionHits> topSections;
+	private final Map<String, Alert> alerts;
+	private Period statsPeriod;
+	private UniqueCounts uniqueCounts;
+	private Period thresholdPeriod;
+	private long windowCount;
+	private long thresholdForDurationToMonitor;
+
+	private final LongAdder lateLogs;
+
+	// Without the late logs and the metrics of LogMonitor, added by the scrape
+	private volatile String statsJson;
+	private volatile String prometheusText;
+
+	// port: 0 for any free port (see getPort)
+	public HttpEndpoint(String host, int port) throws IOException {
+		this.httpServer = HttpServer.create(new InetSocketAddress(host, port), 0);
+		this.executorService = Executors.newSingleThreadExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "http-endpoint");
+			thread.setDaemon(true);
+			return thread;
+		});
+
+		this.topSections = new ArrayList<>();
+		this.alerts = new LinkedHashMap<>();
+		this.lateLogs = new LongAdder();
+
+		render();
+
+		httpServer.createContext("/stats", exchange -> respond(exchange, JSON_CONTENT_TYPE, this::scrapeJson));
+		httpServer.createContext("/metrics", exchange -> respond(exchange, PROMETHEUS_CONTENT_TYPE, this::scrapePrometheus));
+		httpServer.setExecutor(executorService);
+	}
+
+	public void start() {
+		httpServer.start();
+	}
+
+	public void stop() {
+		httpServer.stop(0);
+		executorService.shutdownNow();
+	}
+
+	public int getPort() { return httpServer.getAddress().getPort(); }
+
+	// Called by the thread calling onNext, so it only counts
+	void logOutsideDurationToMonitor() {
+		lateLogs.increment();
+	}
+
+	void logsOutsideDurationToMonitor(long count) {
+		lateLogs.add(count);
+	}
+
+	// error: 0 when the hits are exact
+	synchronized void topSections(List<SectionHits> sectionsWithTheMostHits, long durationToMonitor, TimeUnit timeUnit, ZonedDateTime now) {
+		topSections.clear();
+		topSections.addAll(sectionsWithTheMostHits);
+		statsPeriod = new Period(durationToMonitor, timeUnit, now);
+		render();
+	}
+
+	synchronized void uniques(UniqueCounts uniqueCounts) {
+		this.uniqueCounts = uniqueCounts;
+		render();
+	}
+
+	synchronized void windowCount(long currentCount, long thresholdForDurationToMonitor, long durationToMonitor, TimeUnit timeUnit, ZonedDateTime now) {
+		this.windowCount = currentCount;
+		this.thresholdForDurationToMonitor = thresholdForDurationToMonitor;
+		this.thresholdPeriod = new Period(durationToMonitor, timeUnit, now);
+		render();
+	}
+
+	// Keeps the start of the alert if it was already active
+	synchronized void alertActive(String name, double value, double threshold, ZonedDateTime now) {
+		Alert alert = alerts.get(name);
+		ZonedDateTime since = alert != null && alert.active ? alert.since : now;
+
+		alerts.put(name, new Alert(true, since, value, threshold));
+		render();
+	}
+
+	synchronized void alertRecovered(String name, double value, double threshold) {
+		alerts.put(name, new Alert(false, null, value, threshold));
+		render();
+	}
+
+	private void render() {
+		statsJson = renderJson();
+		prometheusText = renderPrometheus();
+	}
+
+	private byte[] scrapeJson() {
+		return (statsJson + lateLogs.sum() + '}').getBytes(StandardCharsets.UTF_8);
+	}
+
+	private byte[] scrapePrometheus() {
+		StringBuilder stringBuilder = new StringBuilder(prometheusText);
+
+		appendType(stringBuilder, "logmonitor_late_logs_total", "counter", "Logs received after the window they belong to");
+		appendSample(stringBuilder, "logmonitor_late_logs_total", null, null, lateLogs.sum());
+		appendSelfMetrics(stringBuilder);
+
+		return stringBuilder.toString().getBytes(StandardCharsets.UTF_8);
+	}
+
+	private String renderJson() {
+		StringBuilder stringBuilder = new StringBuilder("{\"stats\":{");
+
+		appendPeriod(stringBuilder, statsPeriod);
+		stringBuilder.append(",\"topSections\":[");
+		for (int i = 0; i < topSections.size(); ++i) {
+			SectionHits sectionHits = topSections.get(i);
+
+			stringBuilder.append(i == 0 ? "{" : ",{")
+					.append("\"section\":");
+			appendJsonString(stringBuilder, sectionHits.section);
+			stringBuilder.append(",\"hits\":")
+					.append(sectionHits.hits)
+					.append(",\"error\":")
+					.append(sectionHits.error)
+					.append('}');
+		}
+		stringBuilder.append(']');
+		if (uniqueCounts != null) {
+			stringBuilder.append(",\"uniqueIpAddresses\":")
+					.append(uniqueCounts.getIpAddresses())
+					.append(",\"uniqueUsers\":")
+					.append(uniqueCounts.getUsers());
+		}
+
+		stringBuilder.append("},\"window\":{");
+		appendPeriod(stringBuilder, thresholdPeriod);
+		stringBuilder.append(",\"hits\":")
+				.append(windowCount)
+				.append(",\"threshold\":")
+				.append(thresholdForDurationToMonitor);
+
+		stringBuilder.append("},\"activeAlerts\":[");
+		boolean first = true;
+		for (Map.Entry<String, Alert> alert : alerts.entrySet()) {
+			if (!alert.getValue().active) {
+				continue;
+			}
+
+			stringBuilder.append(first ? "{" : ",{")
+					.append("\"name\":");
+			appendJsonString(stringBuilder, alert.getKey());
+			stringBuilder.append(",\"since\":");
+			appendJsonString(stringBuilder, DateTimeFormatter.ISO_OFFSET_DATE_TIME.format(alert.getValue().since));
+			stringBuilder.append(",\"value\":")
+					.append(alert.getValue().value)
+					.append(",\"threshold\":")
+					.append(alert.getValue().threshold)
+					.append('}');
+			first = false;
+		}
+
+		return stringBuilder.append("],\"lateLogs\":").toString();
+	}
+
+	private static void appendPeriod(StringBuilder stringBuilder, Period period) {
+		if (period == null) {
+			stringBuilder.append("\"at\":null");
+			return;
+		}
+
+		stringBuilder.append("\"at\":");
+		appendJsonString(stringBuilder, DateTimeFormatter.ISO_OFFSET_DATE_TIME.format(period.now));
+		stringBuilder.append(",\"durationToMonitor\":")
+				.append(period.durationToMonitor)
+				.append(",\"timeUnit\":\"")
+				.append(period.timeUnit)
+				.append('"');
+	}
+
+	private static void appendJsonString(StringBuilder stringBuilder, String value) {
+		stringBuilder.append('"');
+
+		for (int i = 0; i < value.length(); ++i) {
+			char character = value.charAt(i);
+
+			if (character == '"' || character == '\\') {
+				stringBuilder.append('\\').append(character);
+			} else if (character < 0x20) {
+				stringBuilder.append(String.format("\\u%04x", (int) character));
+			} else {
+				stringBuilder.append(character);
+			}
+		}
+
+		stringBuilder.append('"');
+	}
+
+	private String renderPrometheus() {
+		StringBuilder stringBuilder = new StringBuilder();
+
+		appendType(stringBuilder, "logmonitor_section_hits", "gauge", "Hits of the sections with the most hits, in the last period");
+		for (SectionHits sectionHits : topSections) {
+			appendSample(stringBuilder, "logmonitor_section_hits", "section", sectionHits.section, sectionHits.hits);
+		}
+		if (uniqueCounts != null) {
+			appendType(stringBuilder, "logmonitor_unique_ip_addresses", "gauge", "Distinct IP addresses in the last period");
+			appendSample(stringBuilder, "logmonitor_unique_ip_addresses", null, null, uniqueCounts.getIpAddresses());
+			appendType(stringBuilder, "logmonitor_unique_users", "gauge", "Distinct users in the last period");
+			appendSample(stringBuilder, "logmonitor_unique_users", null, null, uniqueCounts.getUsers());
+		}
+
+		appendType(stringBuilder, "logmonitor_window_hits", "gauge", "Hits in the window monitored for the high traffic alert");
+		appendSample(stringBuilder, "logmonitor_window_hits", null, null, windowCount);
+		appendType(stringBuilder, "logmonitor_window_threshold", "gauge", "Hits above which the high traffic alert is raised");
+		appendSample(stringBuilder, "logmonitor_window_threshold", null, null, thresholdForDurationToMonitor);
+
+		appendType(stringBuilder, "logmonitor_alert_active", "gauge", "1 while the alert is active");
+		for (Map.Entry<String, Alert> alert : alerts.entrySet()) {
+			appendSample(stringBuilder, "logmonitor_alert_active", "alert", alert.getKey(), alert.getValue().active ? 1 : 0);
+		}
+
+		return stringBuilder.toString();
+	}
+
+	private static void appendSelfMetrics(StringBuilder stringBuilder) {
+		appendType(stringBuilder, "logmonitor_stage_latency_seconds", "summary", "Latency of each stage of the pipeline since the start");
+		for (Map.Entry<String, Timer> timer : Metrics.getTimers().entrySet()) {
+			TimerSnapshot snapshot = timer.getValue().getSnapshot();
+
+			for (double quantile : QUANTILES) {
+				stringBuilder.append("logmonitor_stage_latency_seconds{stage=");
+				appendLabelValue(stringBuilder, timer.getKey());
+				stringBuilder.append(",quantile=\"")
+						.append(quantile)
+						.append("\"} ")
+						.append(snapshot.getValueAtPercentile(quantile * 100) / 1e9)
+						.append('\n');
+			}
+			stringBuilder.append("logmonitor_stage_latency_seconds_sum{stage=");
+			appendLabelValue(stringBuilder, timer.getKey());
+			stringBuilder.append("} ")
+					.append(snapshot.getSum() / 1e9)
+					.append('\n');
+			appendSample(stringBuilder, "logmonitor_stage_latency_seconds_count", "stage", timer.getKey(), snapshot.getCount());
+		}
+
+		appendType(stringBuilder, "logmonitor_events_total", "counter", "Counters of LogMonitor");
+		for (Map.Entry<String, Counter> counter : Metrics.getCounters().entrySet()) {
+			appendSample(stringBuilder, "logmonitor_events_total", "name", counter.getKey(), counter.getValue().getCount());
+		}
+
+		appendType(stringBuilder, "logmonitor_gauge", "gauge", "Gauges of LogMonitor");
+		for (Map.Entry<String, LongSupplier> gauge : Metrics.getGauges().entrySet()) {
+			appendSample(stringBuilder, "logmonitor_gauge", "name", gauge.getKey(), gauge.getValue().getAsLong());
+		}
+	}
+
+	private static void appendType(StringBuilder stringBuilder, String name, String type, String help) {
+		stringBuilder.append("# HELP ").append(name).append(' ').append(help).append('\n')
+				.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+	}
+
+	// label: null for a sample without label
+	private static void appendSample(StringBuilder stringBuilder, String name, String label, String labelValue, long value) {
+		stringBuilder.append(name);
+		if (label != null) {
+			stringBuilder.append('{').append(label).append('=');
+			appendLabelValue(stringBuilder, labelValue);
+			stringBuilder.append('}');
+		}
+		stringBuilder.append(' ').append(value).append('\n');
+	}
+
+	private static void appendLabelValue(StringBuilder stringBuilder, String value) {
+		stringBuilder.append('"');
+
+		for (int i = 0; i < value.length(); ++i) {
+			char character = value.charAt(i);
+
+			if (character == '"' || character == '\\') {
+				stringBuilder.append('\\').append(character);
+			} else if (character == '\n') {
+				stringBuilder.append("\\n");
+			} else {
+				stringBuilder.append(character);
+			}
+		}
+
+		stringBuilder.append('"');
+	}
+
+	private static void respond(HttpExchange exchange, String contentType, Supplier<byte[]> scrape) throws IOException {
+		try {
+			if (!"GET".equals(exchange.getRequestMethod())) {
+				exchange.sendResponseHeaders(405, -1);
+				return;
+			}
+
+			byte[] body = scrape.get();
+			exchange.getResponseHeaders().set("Content-Type", contentType);
+			exchange.sendResponseHeaders(200, body.length);
+			try (OutputStream outputStream = exchange.getResponseBody()) {
+				outputStream.write(body);
+			}
+		} finally {
+			exchange.close();
+		}
+	}
+
+	static class SectionHits {
+		private final String section;
+		private final long hits;
+		private final long error;
+
+		SectionHits(String section, long hits, long error) {
+			this.section = section;
+			this.hits = hits;
+			this.error = error;
+		}
+	}
+
+	private static class Period {
+		private final long durationToMonitor;
+		private final TimeUnit timeUnit;
+		private final ZonedDateTime now;
+
+		private Period(long durationToMonitor, TimeUnit timeUnit, ZonedDateTime now) {
+			this.durationToMonitor = durationToMonitor;
+			this.timeUnit = timeUnit;
+			this.now = now;
+		}
+	}
+
+	private static class Alert {
+		private final boolean active;
+		// null once recovered
+		private final ZonedDateTime since;
+		private final double value;
+		private final double threshold;
+
+		private Alert(boolean active, ZonedDateTime since, double value, double threshold) {
+			this.active = active;
+			this.since = since;
+			this.value = value;
+			this.threshold = threshold;
+		}
+	}
+}
@@ -0,0 +1,113 @@
+package io.karon.logmonitor.outputter;
+
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import io.karon.logmonitor.listener.HeavyHitter;
+import io.karon.logmonitor.listener.SizePercentiles;
+import io.karon.logmonitor.listener.Trend;
+import io.karon.logmonitor.listener.UniqueCounts;
+import io.karon.logmonitor.log.AccessLog;
+
+
+/*
+Forwards everything to another StatsOutputter, and keeps the top sections and uniques in an HttpEndpoint
+ */
+public class HttpStatsOutputter implements StatsOutputter {
+	private final StatsOutputter statsOutputter;
+	private final HttpEndpoint httpEndpoint;
+
+	public HttpStatsOutputter(StatsOutputter statsOutputter, HttpEndpoint httpEndpoint) {
+		this.statsOutputter = statsOutputter;
+		this.httpEndpoint = httpEndpoint;
+	}
+
+	@Override
+	public void logOutsideDurationToMonitor(AccessLog accessLog) {
+		statsOutputter.logOutsideDurationToMonitor(accessLog);
+		httpEndpoint.logOutsideDurationToMonitor();
+	}
+
+	@Override
+	public void logsOutsideDurationToMonitor(long count, AccessLog lastAccessLog, long period, TimeUnit timeUnit) {
+		statsOutputter.logsOutsideDurationToMonitor(count, lastAccessLog, period, timeUnit);
+		httpEndpoint.logsOutsideDurationToMonitor(count);
+	}
+
+	@Override
+	public void sectionHits(
+			List<Map.Entry<String, Integer>> sectionsWithTheMostHits,
+			long durationToMonitor,
+			TimeUnit timeUnit,
+			ZonedDateTime now
+	) {
+		statsOutputter.sectionHits(sectionsWithTheMostHits, durationToMonitor, timeUnit, now);
+
+		List<HttpEndpoint.SectionHits> topSections = new ArrayList<>(sectionsWithTheMostHits.size());
+		for (Map.Entry<String, Integer> sectionHits : sectionsWithTheMostHits) {
+			topSections.add(new HttpEndpoint.SectionHits(sectionHits.getKey(), sectionHits.getValue(), 0));
+		}
+		httpEndpoint.topSections(topSections, durationToMonitor, timeUnit, now);
+	}
+
+	@Override
+	public void sectionHeavyHitters(
+			List<HeavyHitter> sectionsWithTheMostHits,
+			long durationToMonitor,
+			TimeUnit timeUnit,
+			ZonedDateTime now
+	) {
+		statsOutputter.sectionHeavyHitters(sectionsWithTheMostHits, durationToMonitor, timeUnit, now);
+
+		List<HttpEndpoint.SectionHits> topSections = new ArrayList<>(sectionsWithTheMostHits.size());
+		for (HeavyHitter heavyHitter : sectionsWithTheMostHits) {
+			topSections.add(new HttpEndpoint.SectionHits(heavyHitter.getItem(), heavyHitter.getCount(), heavyHitter.getError()));
+		}
+		httpEndpoint.topSections(topSections, durationToMonitor, timeUnit, now);
+	}
+
+	@Override
+	public void uniques(
+			UniqueCounts uniqueCounts,
+			Map<String, UniqueCounts> sectionsUniqueCounts,
+			long durationToMonitor,
+			TimeUnit timeUnit,
+			ZonedDateTime now
+	) {
+		statsOutputter.uniques(uniqueCounts, sectionsUniqueCounts, durationToMonitor, timeUnit, now);
+		httpEndpoint.uniques(uniqueCounts);
+	}
+
+	@Override
+	public void contentSizes(
+			SizePercentiles sizePercentiles,
+			Map<String, SizePercentiles> statusClassesSizePercentiles,
+			Map<String, SizePercentiles> sectionsSizePercentiles,
+			long durationToMonitor,
+			TimeUnit timeUnit,
+			ZonedDateTime now
+	) {
+		statsOutputter.contentSizes(
+				sizePercentiles,
+				statusClassesSizePercentiles,
+				sectionsSizePercentiles,
+				durationToMonitor,
+				timeUnit,
+				now
+		);
+	}
+
+	@Override
+	public void trends(
+			List<Trend> sectionsTrends,
+			List<Trend> statusClassesTrends,
+			long durationToMonitor,
+			TimeUnit timeUnit,
+			ZonedDateTime now
+	) {
+		statsOutputter.trends(sectionsTrends, statusClassesTrends, durationToMonitor, timeUnit, now);
+	}
+}
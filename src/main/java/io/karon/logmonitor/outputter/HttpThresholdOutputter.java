@@ -0,0 +1,181 @@
+package io.karon.logmonitor.outputter;
+
+import java.time.ZonedDateTime;
+import java.util.concurrent.TimeUnit;
+
+import io.karon.logmonitor.listener.AlertRule;
+import io.karon.logmonitor.log.AccessLog;
+
+
+/*
+Forwards everything to another ThresholdOutputter, and keeps the window count and the state of every alert in an HttpEndpoint
+	highTraffic, lowTraffic and anomaly, and rule.<name of the rule> for the alert rules
+ */
+public class HttpThresholdOutputter implements ThresholdOutputter {
+	private final ThresholdOutputter thresholdOutputter;
+	private final HttpEndpoint httpEndpoint;
+
+	public HttpThresholdOutputter(ThresholdOutputter thresholdOutputter, HttpEndpoint httpEndpoint) {
+		this.thresholdOutputter = thresholdOutputter;
+		this.httpEndpoint = httpEndpoint;
+	}
+
+	@Override
+	public void logOutsideDurationToMonitor(AccessLog accessLog) {
+		thresholdOutputter.logOutsideDurationToMonitor(accessLog);
+		httpEndpoint.logOutsideDurationToMonitor();
+	}
+
+	@Override
+	public void logsOutsideDurationToMonitor(long count, AccessLog lastAccessLog, long period, TimeUnit timeUnit) {
+		thresholdOutputter.logsOutsideDurationToMonitor(count, lastAccessLog, period, timeUnit);
+		httpEndpoint.logsOutsideDurationToMonitor(count);
+	}
+
+	@Override
+	public void previousThresholdsReached() {
+		thresholdOutputter.previousThresholdsReached();
+	}
+
+	@Override
+	public void windowCount(
+			int currentCount,
+			long thresholdForDurationToMonitor,
+			long durationToMonitor,
+			TimeUnit timeUnit,
+			ZonedDateTime now
+	) {
+		thresholdOutputter.windowCount(currentCount, thresholdForDurationToMonitor, durationToMonitor, timeUnit, now);
+		httpEndpoint.windowCount(currentCount, thresholdForDurationToMonitor, durationToMonitor, timeUnit, now);
+	}
+
+	@Override
+	public void thresholdReached(
+			int currentCount,
+			long thresholdForDurationToMonitor,
+			long durationToMonitor,
+			TimeUnit timeUnit,
+			ZonedDateTime now
+	) {
+		thresholdOutputter.thresholdReached(currentCount, thresholdForDurationToMonitor, durationToMonitor, timeUnit, now);
+		httpEndpoint.alertActive(HttpEndpoint.HIGH_TRAFFIC_ALERT, currentCount, thresholdForDurationToMonitor, now);
+	}
+
+	@Override
+	public void alertStillActive(
+			int currentCount,
+			long thresholdForDurationToMonitor,
+			long durationToMonitor,
+			TimeUnit timeUnit,
+			ZonedDateTime now
+	) {
+		thresholdOutputter.alertStillActive(currentCount, thresholdForDurationToMonitor, durationToMonitor, timeUnit, now);
+		httpEndpoint.alertActive(HttpEndpoint.HIGH_TRAFFIC_ALERT, currentCount, thresholdForDurationToMonitor, now);
+	}
+
+	@Override
+	public void trafficRecovered(
+			int currentCount,
+			long thresholdForDurationToMonitor,
+			long durationToMonitor,
+			TimeUnit timeUnit,
+			ZonedDateTime now
+	) {
+		thresholdOutputter.trafficRecovered(currentCount, thresholdForDurationToMonitor, durationToMonitor, timeUnit, now);
+		httpEndpoint.alertRecovered(HttpEndpoint.HIGH_TRAFFIC_ALERT, currentCount, thresholdForDurationToMonitor);
+	}
+
+	@Override
+	public void lowTrafficReached(
+			int currentCount,
+			long lowThresholdForDurationToMonitor,
+			long durationToMonitor,
+			TimeUnit timeUnit,
+			ZonedDateTime now
+	) {
+		thresholdOutputter.lowTrafficReached(currentCount, lowThresholdForDurationToMonitor, durationToMonitor, timeUnit, now);
+		httpEndpoint.alertActive(HttpEndpoint.LOW_TRAFFIC_ALERT, currentCount, lowThresholdForDurationToMonitor, now);
+	}
+
+	@Override
+	public void lowTrafficStillActive(
+			int currentCount,
+			long lowThresholdForDurationToMonitor,
+			long durationToMonitor,
+			TimeUnit timeUnit,
+			ZonedDateTime now
+	) {
+		thresholdOutputter.lowTrafficStillActive(currentCount, lowThresholdForDurationToMonitor, durationToMonitor, timeUnit, now);
+		httpEndpoint.alertActive(HttpEndpoint.LOW_TRAFFIC_ALERT, currentCount, lowThresholdForDurationToMonitor, now);
+	}
+
+	@Override
+	public void lowTrafficRecovered(
+			int currentCount,
+			long recoveryThresholdForDurationToMonitor,
+			long durationToMonitor,
+			TimeUnit timeUnit,
+			ZonedDateTime now
+	) {
+		thresholdOutputter.lowTrafficRecovered(currentCount, recoveryThresholdForDurationToMonitor, durationToMonitor, timeUnit, now);
+		httpEndpoint.alertRecovered(HttpEndpoint.LOW_TRAFFIC_ALERT, currentCount, recoveryThresholdForDurationToMonitor);
+	}
+
+	@Override
+	public void anomalyDetected(long timeSlotHits, double expectedHits, double zScore, ZonedDateTime now) {
+		thresholdOutputter.anomalyDetected(timeSlotHits, expectedHits, zScore, now);
+		httpEndpoint.alertActive(HttpEndpoint.ANOMALY_ALERT, timeSlotHits, expectedHits, now);
+	}
+
+	@Override
+	public void anomalyStillActive(long timeSlotHits, double expectedHits, double zScore, ZonedDateTime now) {
+		thresholdOutputter.anomalyStillActive(timeSlotHits, expectedHits, zScore, now);
+		httpEndpoint.alertActive(HttpEndpoint.ANOMALY_ALERT, timeSlotHits, expectedHits, now);
+	}
+
+	@Override
+	public void anomalyRecovered(long timeSlotHits, double expectedHits, double zScore, ZonedDateTime now) {
+		thresholdOutputter.anomalyRecovered(timeSlotHits, expectedHits, zScore, now);
+		httpEndpoint.alertRecovered(HttpEndpoint.ANOMALY_ALERT, timeSlotHits, expectedHits);
+	}
+
+	@Override
+	public void ruleThresholdReached(
+			AlertRule alertRule,
+			long matchingHits,
+			long hits,
+			TimeUnit timeUnit,
+			ZonedDateTime now
+	) {
+		thresholdOutputter.ruleThresholdReached(alertRule, matchingHits, hits, timeUnit, now);
+		httpEndpoint.alertActive(getName(alertRule), alertRule.getValue(matchingHits, hits), alertRule.getThreshold(), now);
+	}
+
+	@Override
+	public void ruleAlertStillActive(
+			AlertRule alertRule,
+			long matchingHits,
+			long hits,
+			TimeUnit timeUnit,
+			ZonedDateTime now
+	) {
+		thresholdOutputter.ruleAlertStillActive(alertRule, matchingHits, hits, timeUnit, now);
+		httpEndpoint.alertActive(getName(alertRule), alertRule.getValue(matchingHits, hits), alertRule.getThreshold(), now);
+	}
+
+	@Override
+	public void ruleRecovered(
+			AlertRule alertRule,
+			long matchingHits,
+			long hits,
+			TimeUnit timeUnit,
+			ZonedDateTime now
+	) {
+		thresholdOutputter.ruleRecovered(alertRule, matchingHits, hits, timeUnit, now);
+		httpEndpoint.alertRecovered(getName(alertRule), alertRule.getValue(matchingHits, hits), alertRule.getThreshold());
+	}
+
+	private static String getName(AlertRule alertRule) {
+		return HttpEndpoint.RULE_ALERT_PREFIX + alertRule.getName();
+	}
+}
@@ -5,15 +5,52 @@ import java.util.List;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
+import io.karon.logmonitor.listener.HeavyHitter;
+import io.karon.logmonitor.listener.SizePercentiles;
+import io.karon.logmonitor.listener.Trend;
+import io.karon.logmonitor.listener.UniqueCounts;
 import io.karon.logmonitor.log.AccessLog;
 
 
+/*
+The callbacks added after the first two do nothing by default, so an existing implementation doesn't have to implement them
+ */
 public interface StatsOutputter {
 	void logOutsideDurationToMonitor(AccessLog accessLog);
+	// Summary of the late logs received in the last period, instead of one call each (see AsyncStatsOutputter)
+	default void logsOutsideDurationToMonitor(long count, AccessLog lastAccessLog, long period, TimeUnit timeUnit) {}
 	void sectionHits(
 			List<Map.Entry<String, Integer>> sectionsWithTheMostHits,
 			long durationToMonitor,
 			TimeUnit timeUnit,
 			ZonedDateTime now
 	);
+	default void sectionHeavyHitters(
+			List<HeavyHitter> sectionsWithTheMostHits,
+			long durationToMonitor,
+			TimeUnit timeUnit,
+			ZonedDateTime now
+	) {}
+	default void uniques(
+			UniqueCounts uniqueCounts,
+			Map<String, UniqueCounts> sectionsUniqueCounts,
+			long durationToMonitor,
+			TimeUnit timeUnit,
+			ZonedDateTime now
+	) {}
+	default void contentSizes(
+			SizePercentiles sizePercentiles,
+			Map<String, SizePercentiles> statusClassesSizePercentiles,
+			Map<String, SizePercentiles> sectionsSizePercentiles,
+			long durationToMonitor,
+			TimeUnit timeUnit,
+			ZonedDateTime now
+	) {}
+	default void trends(
+			List<Trend> sectionsTrends,
+			List<Trend> statusClassesTrends,
+			long durationToMonitor,
+			TimeUnit timeUnit,
+			ZonedDateTime now
+	) {}
 }
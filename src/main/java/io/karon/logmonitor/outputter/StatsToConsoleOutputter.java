@@ -7,13 +7,17 @@ import java.util.concurrent.TimeUnit;
 
 import org.apache.logging.log4j.Logger;
 
+import io.karon.logmonitor.listener.HeavyHitter;
+import io.karon.logmonitor.listener.SizePercentiles;
+import io.karon.logmonitor.listener.Trend;
+import io.karon.logmonitor.listener.UniqueCounts;
 import io.karon.logmonitor.log.AccessLog;
 
 
 /*
 Possible improvement:
 	- add, in the configuration file, the messages we actually care about
-		(it would also us to disable logOutsideDurationToMonitor messages, for example)
+		(it would also us to disable logOutsideDurationToMonitor messages, for example, which AsyncStatsOutputter only summarizes)
  */
 public class StatsToConsoleOutputter implements StatsOutputter, ConsoleOutputter {
 	private final Logger logger;
@@ -29,27 +33,24 @@ public class StatsToConsoleOutputter implements StatsOutputter, ConsoleOutputter
 		logger.warn("Received accessLog |> {} <| which has an Instant outside of the monitored duration", accessLog);
 	}
 
+	public void logsOutsideDurationToMonitor(long count, AccessLog lastAccessLog, long period, TimeUnit timeUnit) {
+		logger.warn(
+				"Received {} accessLogs which have an Instant outside of the monitored duration in the last {} {}, the last one |> {} <|",
+				count,
+				period,
+				timeUnit,
+				lastAccessLog
+		);
+	}
+
 	public void sectionHits(
 			List<Map.Entry<String, Integer>> sectionsWithTheMostHits,
 			long durationToMonitor,
 			TimeUnit timeUnit,
 			ZonedDateTime now) {
-		stringBuilder.append("Log Stats generated in the last ")
-				.append(durationToMonitor)
-				.append(" ")
-				.append(timeUnit)
-				.append(" at ")
-				.append(now)
-				.append(":")
-				.append(LINE_SEPARATOR);
+		appendHeader(sectionsWithTheMostHits.isEmpty(), durationToMonitor, timeUnit, now);
 
-		if (sectionsWithTheMostHits.isEmpty()) {
-			stringBuilder.append("No logs received in the last ")
-					.append(durationToMonitor)
-					.append(" ")
-					.append(timeUnit)
-					.append(LINE_SEPARATOR);
-		} else {
+		if (!sectionsWithTheMostHits.isEmpty()) {
 			stringBuilder.append("Sections with the most hits: ")
 					.append(LINE_SEPARATOR);
 			for (Map.Entry<String, Integer> sectionsWithTheMostHit : sectionsWithTheMostHits) {
@@ -72,6 +73,221 @@ public class StatsToConsoleOutputter implements StatsOutputter, ConsoleOutputter
 		clearStringBuilder();
 	}
 
+	public void sectionHeavyHitters(
+			List<HeavyHitter> sectionsWithTheMostHits,
+			long durationToMonitor,
+			TimeUnit timeUnit,
+			ZonedDateTime now) {
+		appendHeader(sectionsWithTheMostHits.isEmpty(), durationToMonitor, timeUnit, now);
+
+		if (!sectionsWithTheMostHits.isEmpty()) {
+			stringBuilder.append("Sections with the most hits (approximate): ")
+					.append(LINE_SEPARATOR);
+			for (HeavyHitter sectionWithTheMostHits : sectionsWithTheMostHits) {
+				stringBuilder.append(TABULATION)
+						.append("* Section: ")
+						.append(sectionWithTheMostHits.getItem())
+						.append(LINE_SEPARATOR)
+						.append(TABULATION)
+						.append(TABULATION)
+						.append("- Hits: ")
+						.append(sectionWithTheMostHits.getCount() - sectionWithTheMostHits.getError())
+						.append(" to ")
+						.append(sectionWithTheMostHits.getCount())
+						.append(LINE_SEPARATOR);
+			}
+		}
+
+		stringBuilder.append(LOG_SEPARATOR);
+
+		logger.info(stringBuilder.toString());
+
+		clearStringBuilder();
+	}
+
+	public void uniques(
+			UniqueCounts uniqueCounts,
+			Map<String, UniqueCounts> sectionsUniqueCounts,
+			long durationToMonitor,
+			TimeUnit timeUnit,
+			ZonedDateTime now) {
+		stringBuilder.append("Unique visitors in the last ")
+				.append(durationToMonitor)
+				.append(" ")
+				.append(timeUnit)
+				.append(" at ")
+				.append(now)
+				.append(" (approximate):")
+				.append(LINE_SEPARATOR);
+		appendUniqueCounts(uniqueCounts, 1);
+
+		for (Map.Entry<String, UniqueCounts> sectionUniqueCounts : sectionsUniqueCounts.entrySet()) {
+			stringBuilder.append(TABULATION)
+					.append("* Section: ")
+					.append(sectionUniqueCounts.getKey())
+					.append(LINE_SEPARATOR);
+			appendUniqueCounts(sectionUniqueCounts.getValue(), 2);
+		}
+
+		stringBuilder.append(LOG_SEPARATOR);
+
+		logger.info(stringBuilder.toString());
+
+		clearStringBuilder();
+	}
+
+	public void contentSizes(
+			SizePercentiles sizePercentiles,
+			Map<String, SizePercentiles> statusClassesSizePercentiles,
+			Map<String, SizePercentiles> sectionsSizePercentiles,
+			long durationToMonitor,
+			TimeUnit timeUnit,
+			ZonedDateTime now) {
+		stringBuilder.append("Content sizes in the last ")
+				.append(durationToMonitor)
+				.append(" ")
+				.append(timeUnit)
+				.append(" at ")
+				.append(now)
+				.append(" (bytes):")
+				.append(LINE_SEPARATOR)
+				.append(TABULATION);
+		appendSizePercentiles(sizePercentiles);
+
+		for (Map.Entry<String, SizePercentiles> statusClassSizePercentiles : statusClassesSizePercentiles.entrySet()) {
+			stringBuilder.append(TABULATION)
+					.append("* Status: ")
+					.append(statusClassSizePercentiles.getKey())
+					.append(LINE_SEPARATOR)
+					.append(TABULATION)
+					.append(TABULATION);
+			appendSizePercentiles(statusClassSizePercentiles.getValue());
+		}
+		for (Map.Entry<String, SizePercentiles> sectionSizePercentiles : sectionsSizePercentiles.entrySet()) {
+			stringBuilder.append(TABULATION)
+					.append("* Section: ")
+					.append(sectionSizePercentiles.getKey())
+					.append(LINE_SEPARATOR)
+					.append(TABULATION)
+					.append(TABULATION);
+			appendSizePercentiles(sectionSizePercentiles.getValue());
+		}
+
+		stringBuilder.append(LOG_SEPARATOR);
+
+		logger.info(stringBuilder.toString());
+
+		clearStringBuilder();
+	}
+
+	public void trends(
+			List<Trend> sectionsTrends,
+			List<Trend> statusClassesTrends,
+			long durationToMonitor,
+			TimeUnit timeUnit,
+			ZonedDateTime now) {
+		stringBuilder.append("Trends of the last ")
+				.append(durationToMonitor)
+				.append(" ")
+				.append(timeUnit)
+				.append(" at ")
+				.append(now)
+				.append(" (compared to the previous period, and to the average of the last periods):")
+				.append(LINE_SEPARATOR);
+
+		for (Trend statusClassTrend : statusClassesTrends) {
+			stringBuilder.append(TABULATION)
+					.append("* Status: ");
+			appendTrend(statusClassTrend);
+		}
+		for (Trend sectionTrend : sectionsTrends) {
+			stringBuilder.append(TABULATION)
+					.append("* Section: ");
+			appendTrend(sectionTrend);
+		}
+
+		stringBuilder.append(LOG_SEPARATOR);
+
+		logger.info(stringBuilder.toString());
+
+		clearStringBuilder();
+	}
+
+	private void appendTrend(Trend trend) {
+		stringBuilder.append(trend.getName())
+				.append(LINE_SEPARATOR)
+				.append(TABULATION)
+				.append(TABULATION)
+				.append("- Hits: ")
+				.append(trend.getHits())
+				.append(", previous: ")
+				.append(trend.getPreviousHits());
+		appendGrowthRate(trend.getGrowthRate());
+		stringBuilder.append(", average: ")
+				.append(Math.round(trend.getBaselineHits()));
+		appendGrowthRate(trend.getGrowthRateFromBaseline());
+		stringBuilder.append(LINE_SEPARATOR);
+	}
+
+	// Nothing if there's nothing to compare to
+	private void appendGrowthRate(double growthRate) {
+		if (!Double.isNaN(growthRate)) {
+			stringBuilder.append(" (")
+					.append(growthRate >= 0 ? "+" : "")
+					.append(Math.round(growthRate))
+					.append("%)");
+		}
+	}
+
+	private void appendSizePercentiles(SizePercentiles sizePercentiles) {
+		stringBuilder.append("- p50: ")
+				.append(sizePercentiles.getP50())
+				.append(", p90: ")
+				.append(sizePercentiles.getP90())
+				.append(", p99: ")
+				.append(sizePercentiles.getP99())
+				.append(", max: ")
+				.append(sizePercentiles.getMax())
+				.append(" (")
+				.append(sizePercentiles.getCount())
+				.append(" logs)")
+				.append(LINE_SEPARATOR);
+	}
+
+	private void appendUniqueCounts(UniqueCounts uniqueCounts, int indentation) {
+		for (int i = 0; i < indentation; ++i) {
+			stringBuilder.append(TABULATION);
+		}
+		stringBuilder.append("- IP addresses: ")
+				.append(uniqueCounts.getIpAddresses())
+				.append(LINE_SEPARATOR);
+		for (int i = 0; i < indentation; ++i) {
+			stringBuilder.append(TABULATION);
+		}
+		stringBuilder.append("- Users: ")
+				.append(uniqueCounts.getUsers())
+				.append(LINE_SEPARATOR);
+	}
+
+	private void appendHeader(boolean noLogsReceived, long durationToMonitor, TimeUnit timeUnit, ZonedDateTime now) {
+		stringBuilder.append("Log Stats generated in the last ")
+				.append(durationToMonitor)
+				.append(" ")
+				.append(timeUnit)
+				.append(" at ")
+				.append(now)
+				.append(":")
+				.append(LINE_SEPARATOR);
+
+		if (noLogsReceived) {
+			stringBuilder.append("No logs received in the last ")
+					.append(durationToMonitor)
+					.append(" ")
+					.append(timeUnit)
+					.append(LINE_SEPARATOR);
+		}
+	}
+
 	// Reusing the stringBuilder is apparently more efficient than allocating a new one
 	private void clearStringBuilder() {
 		stringBuilder.setLength(0);
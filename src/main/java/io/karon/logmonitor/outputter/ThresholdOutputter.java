@@ -3,12 +3,26 @@ package io.karon.logmonitor.outputter;
 import java.time.ZonedDateTime;
 import java.util.concurrent.TimeUnit;
 
+import io.karon.logmonitor.listener.AlertRule;
 import io.karon.logmonitor.log.AccessLog;
 
 
+/*
+The callbacks added after the high traffic alert do nothing by default, so an existing implementation doesn't have to implement them
+ */
 public interface ThresholdOutputter {
 	void logOutsideDurationToMonitor(AccessLog accessLog);
+	// Summary of the late logs received in the last period, instead of one call each (see AsyncThresholdOutputter)
+	default void logsOutsideDurationToMonitor(long count, AccessLog lastAccessLog, long period, TimeUnit timeUnit) {}
 	void previousThresholdsReached();
+	// Called every period, whether an alert is raised or not
+	default void windowCount(
+			int currentCount,
+			long thresholdForDurationToMonitor,
+			long durationToMonitor,
+			TimeUnit timeUnit,
+			ZonedDateTime now
+	) {}
 	void thresholdReached(
 			int currentCount,
 			long thresholdForDurationToMonitor,
@@ -30,4 +44,49 @@ public interface ThresholdOutputter {
 			TimeUnit timeUnit,
 			ZonedDateTime now
 	);
+	default void lowTrafficReached(
+			int currentCount,
+			long lowThresholdForDurationToMonitor,
+			long durationToMonitor,
+			TimeUnit timeUnit,
+			ZonedDateTime now
+	) {}
+	default void lowTrafficStillActive(
+			int currentCount,
+			long lowThresholdForDurationToMonitor,
+			long durationToMonitor,
+			TimeUnit timeUnit,
+			ZonedDateTime now
+	) {}
+	default void lowTrafficRecovered(
+			int currentCount,
+			long recoveryThresholdForDurationToMonitor,
+			long durationToMonitor,
+			TimeUnit timeUnit,
+			ZonedDateTime now
+	) {}
+	default void anomalyDetected(long timeSlotHits, double expectedHits, double zScore, ZonedDateTime now) {}
+	default void anomalyStillActive(long timeSlotHits, double expectedHits, double zScore, ZonedDateTime now) {}
+	default void anomalyRecovered(long timeSlotHits, double expectedHits, double zScore, ZonedDateTime now) {}
+	default void ruleThresholdReached(
+			AlertRule alertRule,
+			long matchingHits,
+			long hits,
+			TimeUnit timeUnit,
+			ZonedDateTime now
+	) {}
+	default void ruleAlertStillActive(
+			AlertRule alertRule,
+			long matchingHits,
+			long hits,
+			TimeUnit timeUnit,
+			ZonedDateTime now
+	) {}
+	default void ruleRecovered(
+			AlertRule alertRule,
+			long matchingHits,
+			long hits,
+			TimeUnit timeUnit,
+			ZonedDateTime now
+	) {}
 }
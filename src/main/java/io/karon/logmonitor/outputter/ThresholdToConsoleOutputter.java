@@ -7,13 +7,14 @@ import java.util.concurrent.TimeUnit;
 
 import org.apache.logging.log4j.Logger;
 
+import io.karon.logmonitor.listener.AlertRule;
 import io.karon.logmonitor.log.AccessLog;
 
 
 /*
 Possible improvement:
 	- add, in the configuration file, the messages we actually care about
-		(it would also us to disable logOutsideDurationToMonitor messages, for example)
+		(it would also us to disable logOutsideDurationToMonitor messages, for example, which AsyncThresholdOutputter only summarizes)
  */
 public class ThresholdToConsoleOutputter implements ThresholdOutputter, ConsoleOutputter {
 	private final Logger logger;
@@ -34,6 +35,17 @@ public class ThresholdToConsoleOutputter implements ThresholdOutputter, ConsoleO
 		logger.warn("Received accessLog |> {} <| which has an Instant outside of the monitored duration", accessLog);
 	}
 
+	@Override
+	public void logsOutsideDurationToMonitor(long count, AccessLog lastAccessLog, long period, TimeUnit timeUnit) {
+		logger.warn(
+				"Received {} accessLogs which have an Instant outside of the monitored duration in the last {} {}, the last one |> {} <|",
+				count,
+				period,
+				timeUnit,
+				lastAccessLog
+		);
+	}
+
 	@Override
 	public void previousThresholdsReached() {
 		if (!generatedAlerts.isEmpty()) {
@@ -56,6 +68,24 @@ public class ThresholdToConsoleOutputter implements ThresholdOutputter, ConsoleO
 		}
 	}
 
+	// Every period, so only in debug
+	@Override
+	public void windowCount(
+			int currentCount,
+			long thresholdForDurationToMonitor,
+			long durationToMonitor,
+			TimeUnit timeUnit,
+			ZonedDateTime now) {
+		logger.debug(
+				"hits/threshold = {}/{} in the last {} {}, at {}",
+				currentCount,
+				thresholdForDurationToMonitor,
+				durationToMonitor,
+				timeUnit,
+				now
+		);
+	}
+
 	@Override
 	public void thresholdReached(
 			int currentCount,
@@ -136,6 +166,137 @@ public class ThresholdToConsoleOutputter implements ThresholdOutputter, ConsoleO
 		);
 	}
 
+	@Override
+	public void lowTrafficReached(
+			int currentCount,
+			long lowThresholdForDurationToMonitor,
+			long durationToMonitor,
+			TimeUnit timeUnit,
+			ZonedDateTime now) {
+		thresholdMessage(
+				"Low traffic generated an alert",
+				currentCount,
+				lowThresholdForDurationToMonitor,
+				durationToMonitor,
+				timeUnit,
+				now
+		);
+	}
+
+	@Override
+	public void lowTrafficStillActive(
+			int currentCount,
+			long lowThresholdForDurationToMonitor,
+			long durationToMonitor,
+			TimeUnit timeUnit,
+			ZonedDateTime now) {
+		thresholdMessage(
+				"Low traffic still active",
+				currentCount,
+				lowThresholdForDurationToMonitor,
+				durationToMonitor,
+				timeUnit,
+				now
+		);
+	}
+
+	@Override
+	public void lowTrafficRecovered(
+			int currentCount,
+			long recoveryThresholdForDurationToMonitor,
+			long durationToMonitor,
+			TimeUnit timeUnit,
+			ZonedDateTime now) {
+		thresholdMessage(
+				"Low traffic recovered",
+				currentCount,
+				recoveryThresholdForDurationToMonitor,
+				durationToMonitor,
+				timeUnit,
+				now
+		);
+	}
+
+	@Override
+	public void anomalyDetected(long timeSlotHits, double expectedHits, double zScore, ZonedDateTime now) {
+		anomalyMessage("Unusual traffic generated an alert", timeSlotHits, expectedHits, zScore, now);
+	}
+
+	@Override
+	public void anomalyStillActive(long timeSlotHits, double expectedHits, double zScore, ZonedDateTime now) {
+		anomalyMessage("Unusual traffic still active", timeSlotHits, expectedHits, zScore, now);
+	}
+
+	@Override
+	public void anomalyRecovered(long timeSlotHits, double expectedHits, double zScore, ZonedDateTime now) {
+		anomalyMessage("Unusual traffic recovered", timeSlotHits, expectedHits, zScore, now);
+	}
+
+	private void anomalyMessage(String message, long timeSlotHits, double expectedHits, double zScore, ZonedDateTime now) {
+		logger.info(
+				"{} - hits/expected = {}/{} in the last time slot (z-score {}), triggered at {}"
+						+ LINE_SEPARATOR + LOG_SEPARATOR,
+				message,
+				timeSlotHits,
+				Math.round(expectedHits),
+				Math.round(zScore * 10) / 10.0,
+				now
+		);
+	}
+
+	@Override
+	public void ruleThresholdReached(
+			AlertRule alertRule,
+			long matchingHits,
+			long hits,
+			TimeUnit timeUnit,
+			ZonedDateTime now) {
+		ruleMessage("Alert rule generated an alert", alertRule, matchingHits, hits, timeUnit, now);
+	}
+
+	@Override
+	public void ruleAlertStillActive(
+			AlertRule alertRule,
+			long matchingHits,
+			long hits,
+			TimeUnit timeUnit,
+			ZonedDateTime now) {
+		ruleMessage("Alert rule still active", alertRule, matchingHits, hits, timeUnit, now);
+	}
+
+	@Override
+	public void ruleRecovered(
+			AlertRule alertRule,
+			long matchingHits,
+			long hits,
+			TimeUnit timeUnit,
+			ZonedDateTime now) {
+		ruleMessage("Alert rule recovered", alertRule, matchingHits, hits, timeUnit, now);
+	}
+
+	private void ruleMessage(
+			String message,
+			AlertRule alertRule,
+			long matchingHits,
+			long hits,
+			TimeUnit timeUnit,
+			ZonedDateTime now) {
+		logger.info(
+				"{} |> {} <| - {}/threshold = {}/{} ({}/{} hits) in the last {} {}, triggered at {}"
+						+ LINE_SEPARATOR + LOG_SEPARATOR,
+				message,
+				alertRule,
+				alertRule.getMetric(),
+				alertRule.getValue(matchingHits, hits),
+				alertRule.getThreshold(),
+				matchingHits,
+				hits,
+				alertRule.getDurationToMonitor(),
+				timeUnit,
+				now
+		);
+	}
+
 	// Reusing the stringBuilder is apparently more efficient than allocating a new one
 	private void clearStringBuilder() {
 		stringBuilder.setLength(0);
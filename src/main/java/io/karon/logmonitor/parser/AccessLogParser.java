@@ -41,8 +41,20 @@ public class AccessLogParser implements LogParser<AccessLog> {
 
 	private static final Pattern PATTERN = Pattern.compile(NCSA_COMMON_LOG_FORMAT);
 
+	private final TimestampDecoder timestampDecoder = new TimestampDecoder();
+
 	@Override
 	public AccessLog parseFromLogLine(String logLine) throws ParseException {
+		return parseFromLogLine((CharSequence) logLine);
+	}
+
+	@Override
+	public AccessLog parseFromLogLine(CharSequence logLine) throws ParseException {
+		return parseFromLogLine(logLine, null);
+	}
+
+	@Override
+	public AccessLog parseFromLogLine(CharSequence logLine, String source) throws ParseException {
 		if (logLine == null) {
 			throw new ParseException("The log line must not be null");
 		}
@@ -58,12 +70,13 @@ public class AccessLogParser implements LogParser<AccessLog> {
 				matcher.group(1),
 				matcher.group(2),
 				matcher.group(3),
-				matcher.group(4),
+				timestampDecoder.decode(logLine, matcher.start(4), matcher.end(4)),
 				matcher.group(5),
 				matcher.group(6),
 				matcher.group(7),
-				matcher.group(8),
-				matcher.group(9)
+				Integer.parseInt(matcher.group(8)),
+				Long.parseLong(matcher.group(9)),
+				source
 		);
 	}
 }
@@ -0,0 +1,60 @@
+package io.karon.logmonitor.parser;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+
+/*
+CharSequence view over a slice of a ByteBuffer, each byte being one character (ISO-8859-1, which covers ASCII)
+The parsers can go through the log line without decoding it into a String first, only the fields they keep are copied into Strings
+The ByteBuffer is only read with absolute gets, so several slices of the same ByteBuffer can be read by different threads
+ */
+public class AsciiByteSlice implements CharSequence {
+	private final ByteBuffer byteBuffer;
+	private final int offset;
+	private final int length;
+
+	public AsciiByteSlice(ByteBuffer byteBuffer, int offset, int length) {
+		if (offset < 0 || length < 0 || offset + length > byteBuffer.limit()) {
+			throw new IndexOutOfBoundsException("The slice [" + offset + ", " + (offset + length) + "[ is outside of the ByteBuffer");
+		}
+
+		this.byteBuffer = byteBuffer;
+		this.offset = offset;
+		this.length = length;
+	}
+
+	@Override
+	public int length() {
+		return length;
+	}
+
+	@Override
+	public char charAt(int index) {
+		if (index < 0 || index >= length) {
+			throw new IndexOutOfBoundsException("Index " + index + " is outside of a slice of length " + length);
+		}
+
+		return (char) (byteBuffer.get(offset + index) & 0xFF);
+	}
+
+	@Override
+	public CharSequence subSequence(int start, int end) {
+		if (start < 0 || end > length || start > end) {
+			throw new IndexOutOfBoundsException("The sub sequence [" + start + ", " + end + "[ is outside of a slice of length " + length);
+		}
+
+		return new AsciiByteSlice(byteBuffer, offset + start, end - start);
+	}
+
+	@Override
+	public String toString() {
+		byte[] bytes = new byte[length];
+
+		for (int i = 0; i < length; ++i) {
+			bytes[i] = byteBuffer.get(offset + i);
+		}
+
+		return new String(bytes, StandardCharsets.ISO_8859_1);
+	}
+}
@@ -0,0 +1,197 @@
+package io.karon.logmonitor.parser;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import io.karon.logmonitor.log.AccessLog;
+
+
+/*
+Same format as the AccessLogParser, but without the regex:
+	We go through the log line only once, character by character, looking for the end of each field
+	Each "find" method receives the position where its field starts and returns the position where it ends,
+	or NO_MATCH if the field doesn't match (NO_MATCH is then passed along, so we only check it once at the end)
+	The response code and content size are decoded while scanning them, instead of allocating a String for them
+
+It accepts and rejects the same log lines as the AccessLogParser regex: each field must match what its group would match
+(\S+ is a run of non whitespace characters, [\w:/]+\s[+\-]\d{4} for the date, etc.), and nothing is checked after the content size.
+The only difference is that content sizes too big for a long throw a ParseException instead of a NumberFormatException.
+
+It works on a CharSequence so the log line doesn't have to be a String.
+ */
+public class FastAccessLogParser implements LogParser<AccessLog> {
+	private static final Logger logger = LogManager.getLogger(FastAccessLogParser.class);
+
+	private static final int NO_MATCH = -1;
+	private static final int RESPONSE_CODE_LENGTH = 3;
+	private static final int OFFSET_DIGITS = 4;
+
+	private final TimestampDecoder timestampDecoder = new TimestampDecoder();
+
+	@Override
+	public AccessLog parseFromLogLine(String logLine) throws ParseException {
+		return parseFromLogLine((CharSequence) logLine);
+	}
+
+	@Override
+	public AccessLog parseFromLogLine(CharSequence logLine) throws ParseException {
+		return parseFromLogLine(logLine, null);
+	}
+
+	// Example NCSA log line:
+	// |> 127.0.0.1 - james [09/May/2018:16:00:39 +0000] "GET /report HTTP/1.0" 200 123 <|
+	@Override
+	public AccessLog parseFromLogLine(CharSequence logLine, String source) throws ParseException {
+		if (logLine == null) {
+			throw new ParseException("The log line must not be null");
+		}
+
+		int ipAddressEnd = findFieldEnd(logLine, 0);
+		int clientIdentdStart = skip(logLine, ipAddressEnd, ' ');
+		int clientIdentdEnd = findFieldEnd(logLine, clientIdentdStart);
+		int userIDStart = skip(logLine, clientIdentdEnd, ' ');
+		int userIDEnd = findFieldEnd(logLine, userIDStart);
+		int zonedDateTimeStart = skip(logLine, skip(logLine, userIDEnd, ' '), '[');
+		int zonedDateTimeEnd = findZonedDateTimeEnd(logLine, zonedDateTimeStart);
+		int methodStart = skip(logLine, skip(logLine, skip(logLine, zonedDateTimeEnd, ']'), ' '), '"');
+		int methodEnd = findFieldEnd(logLine, methodStart);
+		int endpointStart = skip(logLine, methodEnd, ' ');
+		int endpointEnd = findFieldEnd(logLine, endpointStart);
+		int protocolStart = skip(logLine, endpointEnd, ' ');
+		int protocolEnd = findProtocolEnd(logLine, protocolStart);
+		int responseCodeStart = skip(logLine, skip(logLine, protocolEnd, '"'), ' ');
+		int responseCodeEnd = findDigitsEnd(logLine, responseCodeStart);
+		int contentSizeStart = skip(logLine, responseCodeEnd, ' ');
+		int contentSizeEnd = findDigitsEnd(logLine, contentSizeStart);
+
+		if (contentSizeEnd == NO_MATCH || responseCodeEnd - responseCodeStart != RESPONSE_CODE_LENGTH) {
+			logger.error("Cannot parse log line: |> {} <|", logLine);
+			throw new ParseException("The log line |> " + logLine + " <| does not match the NCSA common log format");
+		}
+
+		return new AccessLog(
+				logLine.subSequence(0, ipAddressEnd).toString(),
+				logLine.subSequence(clientIdentdStart, clientIdentdEnd).toString(),
+				logLine.subSequence(userIDStart, userIDEnd).toString(),
+				timestampDecoder.decode(logLine, zonedDateTimeStart, zonedDateTimeEnd),
+				logLine.subSequence(methodStart, methodEnd).toString(),
+				logLine.subSequence(endpointStart, endpointEnd).toString(),
+				logLine.subSequence(protocolStart, protocolEnd).toString(),
+				(int) parseDigits(logLine, responseCodeStart, responseCodeEnd),
+				parseDigits(logLine, contentSizeStart, contentSizeEnd),
+				source
+		);
+	}
+
+	// \S+
+	private static int findFieldEnd(CharSequence logLine, int start) {
+		if (start == NO_MATCH) {
+			return NO_MATCH;
+		}
+
+		int position = start;
+		while (position < logLine.length() && !isWhitespace(logLine.charAt(position))) {
+			++position;
+		}
+
+		return position == start ? NO_MATCH : position;
+	}
+
+	// [\w:/]+\s[+\-]\d{4}
+	private static int findZonedDateTimeEnd(CharSequence logLine, int start) {
+		if (start == NO_MATCH) {
+			return NO_MATCH;
+		}
+
+		int position = start;
+		while (position < logLine.length() && isWordColonOrSlash(logLine.charAt(position))) {
+			++position;
+		}
+
+		if (position == start || position >= logLine.length() || !isWhitespace(logLine.charAt(position))) {
+			return NO_MATCH;
+		}
+		++position;
+
+		if (position >= logLine.length() || (logLine.charAt(position) != '+' && logLine.charAt(position) != '-')) {
+			return NO_MATCH;
+		}
+		++position;
+
+		int offsetEnd = findDigitsEnd(logLine, position);
+		return offsetEnd - position < OFFSET_DIGITS ? NO_MATCH : position + OFFSET_DIGITS;
+	}
+
+	// (\S+)" : the protocol is the run of non whitespace characters, without the quote ending it
+	private static int findProtocolEnd(CharSequence logLine, int start) {
+		int fieldEnd = findFieldEnd(logLine, start);
+
+		if (fieldEnd == NO_MATCH || fieldEnd - start < 2 || logLine.charAt(fieldEnd - 1) != '"') {
+			return NO_MATCH;
+		}
+
+		return fieldEnd - 1;
+	}
+
+	// \d+
+	private static int findDigitsEnd(CharSequence logLine, int start) {
+		if (start == NO_MATCH) {
+			return NO_MATCH;
+		}
+
+		int position = start;
+		while (position < logLine.length() && isDigit(logLine.charAt(position))) {
+			++position;
+		}
+
+		return position == start ? NO_MATCH : position;
+	}
+
+	private static int skip(CharSequence logLine, int position, char expected) {
+		if (position == NO_MATCH || position >= logLine.length() || logLine.charAt(position) != expected) {
+			return NO_MATCH;
+		}
+
+		return position + 1;
+	}
+
+	private static long parseDigits(CharSequence logLine, int start, int end) throws ParseException {
+		long value = 0;
+
+		for (int position = start; position < end; ++position) {
+			int digit = logLine.charAt(position) - '0';
+
+			if (value > (Long.MAX_VALUE - digit) / 10) {
+				throw new ParseException("The log line |> " + logLine + " <| contains a number too big to be parsed");
+			}
+
+			value = value * 10 + digit;
+		}
+
+		return value;
+	}
+
+	// Same characters as \s in java.util.regex
+	private static boolean isWhitespace(char character) {
+		return character == ' '
+				|| character == '\t'
+				|| character == '\n'
+				|| character == '\u000B'
+				|| character == '\f'
+				|| character == '\r';
+	}
+
+	// Same characters as [\w:/] in java.util.regex
+	private static boolean isWordColonOrSlash(char character) {
+		return (character >= 'a' && character <= 'z')
+				|| (character >= 'A' && character <= 'Z')
+				|| isDigit(character)
+				|| character == '_'
+				|| character == ':'
+				|| character == '/';
+	}
+
+	private static boolean isDigit(char character) {
+		return character >= '0' && character <= '9';
+	}
+}
@@ -5,4 +5,14 @@ import io.karon.logmonitor.log.Log;
 
 public interface LogParser<T extends Log> {
 	T parseFromLogLine(String logLine) throws ParseException;
+
+	// The log line may not be a String (an AsciiByteSlice for instance), by default it is converted to one
+	default T parseFromLogLine(CharSequence logLine) throws ParseException {
+		return parseFromLogLine(logLine == null ? null : logLine.toString());
+	}
+
+	// The source is where the log line was read from (the path of the file), parsers which can't keep it ignore it
+	default T parseFromLogLine(CharSequence logLine, String source) throws ParseException {
+		return parseFromLogLine(logLine);
+	}
 }
@@ -0,0 +1,230 @@
+package io.karon.logmonitor.parser;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeParseException;
+
+import io.karon.logmonitor.log.AccessLog;
+
+
+/*
+Decodes the "dd/MMM/yyyy:HH:mm:ss Z" date of the access logs without going through the DateTimeFormatter
+	Thousands of consecutive log lines share the same second, so we keep the last date decoded and give it back if the text is the same
+	When only the seconds changed, we reuse the epoch seconds of the "dd/MMM/yyyy:HH:mm" prefix (and offset) and add the seconds to it
+	Otherwise, the day, month, year, time and offset are decoded arithmetically
+
+Anything unusual (a day that doesn't exist in the month, 24:00:00, a year that isn't 4 digits...) goes through the DateTimeFormatter,
+so we always get the same result as AccessLog.DATE_TIME_FORMATTER, including its lenient cases.
+
+The cache is an immutable object replaced on each miss, so a TimestampDecoder can be shared between threads.
+ */
+class TimestampDecoder {
+	// |> 09/May/2018:16:00:39 +0000 <|
+	private static final int LENGTH = 26;
+	private static final int SECONDS_POSITION = 18;
+	private static final int SPACE_POSITION = 20;
+	private static final int OFFSET_POSITION = 21;
+
+	private static final String[] MONTHS = {"Jan", "Feb", "Mar", "Apr", "May", "Jun", "Jul", "Aug", "Sep", "Oct", "Nov", "Dec"};
+	private static final int[] DAYS_IN_MONTHS = {31, 29, 31, 30, 31, 30, 31, 31, 30, 31, 30, 31};
+	private static final long DAYS_0000_TO_1970 = 719_528;
+	private static final int MAX_OFFSET_IN_SECONDS = 18 * 3600;
+
+	private Cache cache;
+
+	ZonedDateTime decode(CharSequence text, int start, int end) throws ParseException {
+		Cache currentCache = cache;
+
+		if (currentCache != null && currentCache.hasSamePrefix(text, start, end)) {
+			int seconds = decodeNumber(text, start + SECONDS_POSITION, 2);
+
+			if (seconds == currentCache.seconds) {
+				return currentCache.zonedDateTime;
+			} else if (seconds >= 0 && seconds < 60) {
+				return cacheAndGet(text, start, currentCache.prefixEpochSecond, seconds, currentCache.zoneOffset);
+			}
+		}
+
+		return decodeWithoutCache(text, start, end);
+	}
+
+	private ZonedDateTime decodeWithoutCache(CharSequence text, int start, int end) throws ParseException {
+		if (end - start != LENGTH
+				|| text.charAt(start + 2) != '/'
+				|| text.charAt(start + 6) != '/'
+				|| text.charAt(start + 11) != ':'
+				|| text.charAt(start + 14) != ':'
+				|| text.charAt(start + 17) != ':'
+				|| text.charAt(start + SPACE_POSITION) != ' ') {
+			return decodeWithFormatter(text, start, end);
+		}
+
+		int day = decodeNumber(text, start, 2);
+		int month = decodeMonth(text, start + 3);
+		int year = decodeNumber(text, start + 7, 4);
+		int hours = decodeNumber(text, start + 12, 2);
+		int minutes = decodeNumber(text, start + 15, 2);
+		int seconds = decodeNumber(text, start + SECONDS_POSITION, 2);
+		int offsetInSeconds = decodeOffset(text, start + OFFSET_POSITION);
+
+		if (month == 0
+				|| year <= 0
+				|| day <= 0 || day > getDaysInMonth(year, month)
+				|| hours < 0 || hours > 23
+				|| minutes < 0 || minutes > 59
+				|| seconds < 0 || seconds > 59
+				|| offsetInSeconds == Integer.MIN_VALUE) {
+			return decodeWithFormatter(text, start, end);
+		}
+
+		long prefixEpochSecond = toEpochDay(year, month, day) * 86_400
+				+ hours * 3_600
+				+ minutes * 60
+				- offsetInSeconds;
+
+		return cacheAndGet(text, start, prefixEpochSecond, seconds, ZoneOffset.ofTotalSeconds(offsetInSeconds));
+	}
+
+	private ZonedDateTime cacheAndGet(
+			CharSequence text,
+			int start,
+			long prefixEpochSecond,
+			int seconds,
+			ZoneOffset zoneOffset) {
+		ZonedDateTime zonedDateTime = ZonedDateTime.ofInstant(
+				Instant.ofEpochSecond(prefixEpochSecond + seconds),
+				zoneOffset
+		);
+
+		cache = new Cache(text, start, prefixEpochSecond, seconds, zoneOffset, zonedDateTime);
+
+		return zonedDateTime;
+	}
+
+	private ZonedDateTime decodeWithFormatter(CharSequence text, int start, int end) throws ParseException {
+		try {
+			return ZonedDateTime.parse(text.subSequence(start, end), AccessLog.DATE_TIME_FORMATTER);
+		} catch (DateTimeParseException e) {
+			throw new ParseException("The date |> " + text.subSequence(start, end) + " <| is not valid: " + e.getMessage());
+		}
+	}
+
+	// Returns -1 if one of the characters is not a digit
+	private static int decodeNumber(CharSequence text, int start, int length) {
+		int value = 0;
+
+		for (int position = start; position < start + length; ++position) {
+			char character = text.charAt(position);
+
+			if (character < '0' || character > '9') {
+				return -1;
+			}
+
+			value = value * 10 + (character - '0');
+		}
+
+		return value;
+	}
+
+	// Returns 0 if it's not one of the months of DateTimeFormatter in Locale.US
+	private static int decodeMonth(CharSequence text, int start) {
+		for (int month = 0; month < MONTHS.length; ++month) {
+			if (MONTHS[month].charAt(0) == text.charAt(start)
+					&& MONTHS[month].charAt(1) == text.charAt(start + 1)
+					&& MONTHS[month].charAt(2) == text.charAt(start + 2)) {
+				return month + 1;
+			}
+		}
+
+		return 0;
+	}
+
+	// +HHMM, returns Integer.MIN_VALUE if it's not a valid offset
+	private static int decodeOffset(CharSequence text, int start) {
+		char sign = text.charAt(start);
+		int hours = decodeNumber(text, start + 1, 2);
+		int minutes = decodeNumber(text, start + 3, 2);
+
+		if ((sign != '+' && sign != '-') || hours < 0 || minutes < 0 || minutes > 59) {
+			return Integer.MIN_VALUE;
+		}
+
+		int offsetInSeconds = hours * 3_600 + minutes * 60;
+
+		if (offsetInSeconds > MAX_OFFSET_IN_SECONDS) {
+			return Integer.MIN_VALUE;
+		}
+
+		return sign == '-' ? -offsetInSeconds : offsetInSeconds;
+	}
+
+	private static int getDaysInMonth(int year, int month) {
+		if (month == 2 && !isLeapYear(year)) {
+			return 28;
+		}
+
+		return DAYS_IN_MONTHS[month - 1];
+	}
+
+	private static boolean isLeapYear(long year) {
+		return (year & 3) == 0 && (year % 100 != 0 || year % 400 == 0);
+	}
+
+	// Same computation as LocalDate.toEpochDay(), without creating the LocalDate (the year is always positive here)
+	private static long toEpochDay(int year, int month, int day) {
+		long total = 365L * year
+				+ (year + 3) / 4 - (year + 99) / 100 + (year + 399) / 400
+				+ (367 * month - 362) / 12
+				+ day - 1;
+
+		if (month > 2) {
+			--total;
+			if (!isLeapYear(year)) {
+				--total;
+			}
+		}
+
+		return total - DAYS_0000_TO_1970;
+	}
+
+	private static class Cache {
+		private final char[] text;
+		private final long prefixEpochSecond;
+		private final int seconds;
+		private final ZoneOffset zoneOffset;
+		private final ZonedDateTime zonedDateTime;
+
+		private Cache(
+				CharSequence text,
+				int start,
+				long prefixEpochSecond,
+				int seconds,
+				ZoneOffset zoneOffset,
+				ZonedDateTime zonedDateTime) {
+			this.text = new char[LENGTH];
+			for (int i = 0; i < LENGTH; ++i) {
+				this.text[i] = text.charAt(start + i);
+			}
+			this.prefixEpochSecond = prefixEpochSecond;
+			this.seconds = seconds;
+			this.zoneOffset = zoneOffset;
+			this.zonedDateTime = zonedDateTime;
+		}
+
+		// Everything but the seconds
+		private boolean hasSamePrefix(CharSequence otherText, int start, int end) {
+			if (end - start != LENGTH) {
+				return false;
+			}
+
+			for (int i = 0; i < LENGTH; ++i) {
+				if ((i < SECONDS_POSITION || i >= SPACE_POSITION) && text[i] != otherText.charAt(start + i)) {
+					return false;
+				}
+			}
+
+			return true;
+		}
+	}
+}
@@ -80,7 +80,21 @@ public class LogGenerator {
 		);
 	}
 
-	private static String generateLog(boolean generateBadLogLines) {
+	public static AccessLog generateLog(String endpoint, ZonedDateTime zonedDateTime) {
+		return new AccessLog(
+				generateIpAddress(),
+				generateClientIdentd(),
+				generateUserID(),
+				AccessLog.DATE_TIME_FORMATTER.format(zonedDateTime),
+				generateMethod(),
+				endpoint,
+				generateProtocol(),
+				String.valueOf(generateResponseCode()),
+				String.valueOf(generateContentSize())
+		);
+	}
+
+	public static String generateLogLine(boolean generateBadLogLines) {
 		if (generateBadLogLines && random.nextInt(10) == 0) {
 			return "BAD LOG LINE";
 		} else {
@@ -99,11 +113,11 @@ public class LogGenerator {
 			if (fileToWriteTo.length() > 0) {
 				writer.newLine();
 			}
-			writer.append(generateLog(generateBadLogLines));
+			writer.append(generateLogLine(generateBadLogLines));
 		}
 	}
 
-	private static String generateIpAddress() {
+	public static String generateIpAddress() {
 		return random.nextInt(256) + "."
 				+ random.nextInt(256) + "."
 				+ random.nextInt(256) + "."
@@ -210,6 +224,9 @@ public class LogGenerator {
 		public static String randomValue()  {
 			return VALUES.get(random.nextInt(SIZE)).value;
 		}
+		public String getValue() {
+			return value;
+		}
 	}
 
 	public enum ResponseCode {
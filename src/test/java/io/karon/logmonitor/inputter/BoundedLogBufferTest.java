@@ -0,0 +1,211 @@
+package io.karon.logmonitor.inputter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+
+import io.karon.logmonitor.log.AccessLog;
+import io.karon.logmonitor.LogGenerator;
+import io.reactivex.Observer;
+import io.reactivex.observers.DefaultObserver;
+
+
+class BoundedLogBufferTest {
+	private BoundedLogBuffer<AccessLog> boundedLogBuffer;
+
+	@AfterEach
+	void afterEach() {
+		boundedLogBuffer.stop();
+	}
+
+	@Test
+	void dropLatestWhenFullTest() throws InterruptedException {
+		boundedLogBuffer = new BoundedLogBuffer<>(2, OverflowStrategy.DROP_LATEST, 0);
+		boundedLogBuffer.start();
+		CountDownLatch blockDispatcher = blockDispatcher();
+
+		// The dispatcher is blocked on a previous log, so the first two fill the queue and the other three are dropped
+		for (int i = 0; i < 5; ++i) {
+			boundedLogBuffer.offer(LogGenerator.generateLog());
+		}
+
+		assertEquals(3, boundedLogBuffer.getDroppedLogs());
+		blockDispatcher.countDown();
+	}
+
+	@Test
+	void dropOldestWhenFullTest() throws InterruptedException {
+		boundedLogBuffer = new BoundedLogBuffer<>(2, OverflowStrategy.DROP_OLDEST, 0);
+		boundedLogBuffer.start();
+		CountDownLatch blockDispatcher = blockDispatcher();
+
+		for (int i = 0; i < 5; ++i) {
+			boundedLogBuffer.offer(LogGenerator.generateLog());
+		}
+
+		assertEquals(3, boundedLogBuffer.getDroppedLogs());
+		assertEquals(2, boundedLogBuffer.getQueueDepth());
+		blockDispatcher.countDown();
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void lateSubscriberOnlyGetsReplaySizeLogsTest() throws InterruptedException {
+		boundedLogBuffer = new BoundedLogBuffer<>(10, OverflowStrategy.BLOCK, 1);
+		boundedLogBuffer.start();
+		AccessLog olderAccessLog = LogGenerator.generateLog();
+		AccessLog accessLog = LogGenerator.generateLog();
+		Observer<AccessLog> earlyObserver = mock(Observer.class);
+		Observer<AccessLog> lateObserver = mock(Observer.class);
+
+		boundedLogBuffer.subscribe(earlyObserver);
+		boundedLogBuffer.offer(olderAccessLog);
+		boundedLogBuffer.offer(accessLog);
+		verify(earlyObserver, timeout(100)).onNext(accessLog);
+
+		boundedLogBuffer.subscribe(lateObserver);
+
+		verify(lateObserver, timeout(100)).onNext(accessLog);
+		verify(lateObserver, timeout(100).times(0)).onNext(olderAccessLog);
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void completeAfterTheLastLogTest() throws InterruptedException {
+		boundedLogBuffer = new BoundedLogBuffer<>(10, OverflowStrategy.BLOCK, 0);
+		boundedLogBuffer.start();
+		AccessLog accessLog = LogGenerator.generateLog();
+		Observer<AccessLog> observer = mock(Observer.class);
+
+		boundedLogBuffer.subscribe(observer);
+		boundedLogBuffer.offer(accessLog);
+		boundedLogBuffer.complete();
+
+		verify(observer, timeout(500)).onComplete();
+		InOrder inOrder = inOrder(observer);
+		inOrder.verify(observer).onNext(accessLog);
+		inOrder.verify(observer).onComplete();
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void stopDispatchesTheLogsQueuedTest() throws InterruptedException {
+		boundedLogBuffer = new BoundedLogBuffer<>(10, OverflowStrategy.BLOCK, 0);
+		boundedLogBuffer.start();
+		CountDownLatch blockDispatcher = blockDispatcher();
+		AccessLog accessLog = LogGenerator.generateLog();
+		Observer<AccessLog> observer = mock(Observer.class);
+
+		boundedLogBuffer.subscribe(observer);
+		boundedLogBuffer.offer(accessLog);
+		blockDispatcher.countDown();
+		boundedLogBuffer.stop();
+
+		verify(observer).onNext(accessLog);
+		verify(observer, never()).onComplete();
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void completeGivesUpOnceStoppedAndSubscribersStillCompleteTest() throws InterruptedException {
+		boundedLogBuffer = new BoundedLogBuffer<>(1, OverflowStrategy.BLOCK, 0);
+		boundedLogBuffer.start();
+		CountDownLatch blockDispatcher = blockDispatcher();
+		Observer<AccessLog> observer = mock(Observer.class);
+		boundedLogBuffer.subscribe(observer);
+		// The queue is full and the subscriber is stalled
+		boundedLogBuffer.offer(LogGenerator.generateLog());
+
+		Thread reader = new Thread(() -> {
+			try {
+				boundedLogBuffer.complete();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		});
+		reader.start();
+		Thread stopper = new Thread(boundedLogBuffer::stop);
+		stopper.start();
+
+		reader.join(1_000);
+		assertFalse(reader.isAlive());
+
+		blockDispatcher.countDown();
+		verify(observer, timeout(1_000)).onComplete();
+		stopper.join();
+	}
+
+	@Test
+	void offerAfterStopDoesNotWaitTest() throws InterruptedException {
+		boundedLogBuffer = new BoundedLogBuffer<>(1, OverflowStrategy.BLOCK, 0);
+		boundedLogBuffer.start();
+		boundedLogBuffer.stop();
+
+		boundedLogBuffer.offer(LogGenerator.generateLog());
+		boundedLogBuffer.offer(LogGenerator.generateLog());
+
+		assertEquals(2, boundedLogBuffer.getDroppedLogs());
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void afterDispatchRunsOnceTheLogsOfferedBeforeAreSentTest() throws InterruptedException {
+		boundedLogBuffer = new BoundedLogBuffer<>(10, OverflowStrategy.BLOCK, 0);
+		boundedLogBuffer.start();
+		CountDownLatch blockDispatcher = blockDispatcher();
+		AccessLog accessLog = LogGenerator.generateLog();
+		Observer<AccessLog> observer = mock(Observer.class);
+		Runnable action = mock(Runnable.class);
+
+		boundedLogBuffer.subscribe(observer);
+		boundedLogBuffer.offer(accessLog);
+		boundedLogBuffer.afterDispatch(action);
+
+		verify(action, timeout(100).times(0)).run();
+		blockDispatcher.countDown();
+
+		verify(action, timeout(500)).run();
+		InOrder inOrder = inOrder(observer, action);
+		inOrder.verify(observer).onNext(accessLog);
+		inOrder.verify(action).run();
+	}
+
+	// Subscribes an Observer which blocks the dispatcher thread on the first log it receives
+	private CountDownLatch blockDispatcher() throws InterruptedException {
+		CountDownLatch dispatcherBlocked = new CountDownLatch(1);
+		CountDownLatch blockDispatcher = new CountDownLatch(1);
+
+		boundedLogBuffer.subscribe(new DefaultObserver<AccessLog>() {
+			@Override
+			public void onNext(AccessLog accessLog) {
+				dispatcherBlocked.countDown();
+				try {
+					blockDispatcher.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+
+			@Override
+			public void onError(Throwable e) {}
+
+			@Override
+			public void onComplete() {}
+		});
+
+		boundedLogBuffer.offer(LogGenerator.generateLog());
+		dispatcherBlocked.await();
+
+		return blockDispatcher;
+	}
+}
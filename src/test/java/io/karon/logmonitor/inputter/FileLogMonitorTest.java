@@ -1,34 +1,44 @@
 package io.karon.logmonitor.inputter;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
 import static org.mockito.Mockito.verify;
 
-import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
 
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
 import io.karon.logmonitor.log.AccessLog;
+import io.karon.logmonitor.metrics.Metrics;
 import io.karon.logmonitor.parser.AccessLogParser;
+import io.karon.logmonitor.parser.FastAccessLogParser;
 import io.karon.logmonitor.parser.ParseException;
 import io.karon.logmonitor.LogGenerator;
 import io.reactivex.Observer;
+import io.reactivex.observers.TestObserver;
 
 
 /*
-There are no tests for actually monitoring a file.
-I could make one, but I would need to modify drastically FileLogMonitor to have a better access to the different Readers, in order to Mock them.
+Apart from the stop, there are no tests for actually monitoring a file.
+I could make them, but I would need to modify drastically FileLogMonitor to have a better access to the different Readers, in order to Mock them.
 I decided against it.
  */
 @TestInstance(TestInstance.Lifecycle.PER_CLASS)
 class FileLogMonitorTest {
-	private BufferedReader bufferedReader;
+	private RotatingLogFileReader rotatingLogFileReader;
 	private File fileToMonitor;
 	private AccessLogParser accessLogParser;
 	private FileLogMonitor<AccessLog> fileLogMonitor;
@@ -40,31 +50,71 @@ class FileLogMonitorTest {
 	void beforeAll() {
 		MockitoAnnotations.initMocks(this);
 		fileToMonitor = mock(File.class);
-		bufferedReader = mock(BufferedReader.class);
+		rotatingLogFileReader = mock(RotatingLogFileReader.class);
 		accessLogParser = mock(AccessLogParser.class);
 		fileLogMonitor = new FileLogMonitor<>(fileToMonitor, accessLogParser, true, true);
 		fileLogMonitor.subscribe(observer);
+		// Started by startMonitoring, which we don't call
+		fileLogMonitor.getBoundedLogBuffer().start();
 	}
 
 	@Test
-	void ignoreBeginningOfFileTest() throws IOException, InterruptedException {
-		doReturn(100L).when(fileToMonitor).length();
+	void ignoreBeginningOfFileTest(@TempDir Path directory) throws IOException {
+		Path path = directory.resolve("access.log");
+		Files.write(path, new byte[100]);
+		FileLogMonitor<AccessLog> endOfFileLogMonitor = new FileLogMonitor<>(path.toFile(), accessLogParser, true, true);
 
-		fileLogMonitor.readFile(bufferedReader);
-
-		verify(bufferedReader).skip(100L);
+		try (RotatingLogFileReader logFileReader = endOfFileLogMonitor.openLogFile()) {
+			assertEquals(100L, logFileReader.getPosition());
+		}
 	}
 
 	@Test
 	void readLineIsSentToSubjectSubscriberTest() throws IOException, InterruptedException, ParseException {
 		String logLine = "logLine";
-		doReturn(logLine).when(bufferedReader).readLine();
+		doReturn(logLine).when(rotatingLogFileReader).readLine();
 
 		AccessLog accessLog = LogGenerator.generateLog();
 		doReturn(accessLog).when(accessLogParser).parseFromLogLine(logLine);
 
-		fileLogMonitor.readLine(bufferedReader);
+		fileLogMonitor.readLine(rotatingLogFileReader);
+
+		// The log is sent to the subscribers by the dispatcher thread of the BoundedLogBuffer
+		verify(observer, timeout(100)).onNext(accessLog);
+	}
+
+	@Test
+	void stopMonitoringDeliversEveryLineReadTest(@TempDir Path directory) throws IOException, InterruptedException {
+		Path path = directory.resolve("access.log");
+		StringBuilder logLines = new StringBuilder();
+		for (int i = 0; i < 1_005; ++i) {
+			logLines.append(LogGenerator.generateLogLine(false)).append('\n');
+		}
+		Files.write(path, logLines.toString().getBytes(StandardCharsets.US_ASCII));
+
+		FileLogMonitor<AccessLog> parallelFileLogMonitor = new FileLogMonitor<>(
+				path.toFile(),
+				new FastAccessLogParser(),
+				true,
+				false,
+				new FileLogMonitorOptions()
+						.withBufferSize(100)
+						.withTailingMode(TailingMode.POLLING)
+						.withMaxWaitInMillis(10)
+						.withParserThreads(2)
+						.withParserBatchSize(100)
+		);
+		TestObserver<AccessLog> testObserver = new TestObserver<>();
+		parallelFileLogMonitor.subscribe(testObserver);
+		parallelFileLogMonitor.startMonitoring();
+
+		// Every line is read, some of them are still in a batch or in the buffer when we stop
+		LongSupplier lag = Metrics.getGauges().get("read.lagInBytes." + path);
+		while (lag.getAsLong() > 0) {
+			TimeUnit.MILLISECONDS.sleep(1);
+		}
+		parallelFileLogMonitor.stopMonitoring();
 
-		verify(observer).onNext(accessLog);
+		assertEquals(1_005, testObserver.valueCount());
 	}
 }
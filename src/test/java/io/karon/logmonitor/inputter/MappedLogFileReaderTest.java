@@ -0,0 +1,112 @@
+package io.karon.logmonitor.inputter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+
+class MappedLogFileReaderTest {
+	@Test
+	void linesAndByteOffsetsTest(@TempDir Path directory) throws IOException {
+		Path file = write(directory.resolve("access.log"), "first\nsecond\r\n\nthird\n");
+
+		try (MappedLogFileReader mappedLogFileReader = new MappedLogFileReader(file, false)) {
+			assertEquals("first", readLine(mappedLogFileReader));
+			assertEquals(6, mappedLogFileReader.getPosition());
+			assertEquals("second", readLine(mappedLogFileReader));
+			assertEquals("", readLine(mappedLogFileReader));
+			assertEquals("third", readLine(mappedLogFileReader));
+			assertEquals(21, mappedLogFileReader.getPosition());
+			assertNull(mappedLogFileReader.readLine());
+		}
+	}
+
+	@Test
+	void readFromEndOfFileStartsAtFileSizeTest(@TempDir Path directory) throws IOException {
+		Path file = write(directory.resolve("access.log"), "old line\n");
+
+		try (MappedLogFileReader mappedLogFileReader = new MappedLogFileReader(file, true)) {
+			assertEquals(9, mappedLogFileReader.getPosition());
+			assertNull(mappedLogFileReader.readLine());
+
+			write(file, "new line\n");
+
+			assertEquals("new line", readLine(mappedLogFileReader));
+		}
+	}
+
+	@Test
+	void incompleteLineWaitsForNewLineTest(@TempDir Path directory) throws IOException {
+		Path file = write(directory.resolve("access.log"), "complete\nincompl");
+
+		try (MappedLogFileReader mappedLogFileReader = new MappedLogFileReader(file, false)) {
+			assertEquals("complete", readLine(mappedLogFileReader));
+			assertNull(mappedLogFileReader.readLine());
+			assertEquals(9, mappedLogFileReader.getPosition());
+
+			write(file, "ete\n");
+
+			assertEquals("incomplete", readLine(mappedLogFileReader));
+		}
+	}
+
+	@Test
+	void linesLongerThanWindowTest(@TempDir Path directory) throws IOException {
+		Path file = write(directory.resolve("access.log"), "a line longer than the window\nshort\nanother long line\n");
+
+		try (MappedLogFileReader mappedLogFileReader = new MappedLogFileReader(file, false, 4)) {
+			assertEquals("a line longer than the window", readLine(mappedLogFileReader));
+			assertEquals("short", readLine(mappedLogFileReader));
+			assertEquals("another long line", readLine(mappedLogFileReader));
+			assertNull(mappedLogFileReader.readLine());
+		}
+	}
+
+	@Test
+	void onlyCatchingUpMapsTheFileTest(@TempDir Path directory) throws IOException {
+		StringBuilder lines = new StringBuilder();
+		for (int i = 0; i < 100; ++i) {
+			lines.append("line ").append(i).append('\n');
+		}
+		Path file = write(directory.resolve("access.log"), lines.toString());
+
+		try (MappedLogFileReader mappedLogFileReader = new MappedLogFileReader(file, false, 256, 128)) {
+			for (int i = 0; i < 100; ++i) {
+				assertEquals("line " + i, readLine(mappedLogFileReader));
+			}
+			assertNull(mappedLogFileReader.readLine());
+			int mappedWindows = mappedLogFileReader.getMappedWindows();
+			assertTrue(mappedWindows > 0);
+
+			// Tailing: a few bytes at each wakeup are read without mapping
+			for (int i = 0; i < 100; ++i) {
+				write(file, "new line " + i + "\n");
+				assertEquals("new line " + i, readLine(mappedLogFileReader));
+				assertNull(mappedLogFileReader.readLine());
+			}
+			assertEquals(mappedWindows, mappedLogFileReader.getMappedWindows());
+		}
+	}
+
+	private static String readLine(MappedLogFileReader mappedLogFileReader) throws IOException {
+		return mappedLogFileReader.readLine().toString();
+	}
+
+	private static Path write(Path file, String content) throws IOException {
+		return Files.write(
+				file,
+				content.getBytes(StandardCharsets.US_ASCII),
+				StandardOpenOption.CREATE,
+				StandardOpenOption.APPEND
+		);
+	}
+}
@@ -0,0 +1,173 @@
+package io.karon.logmonitor.inputter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import io.karon.logmonitor.LogGenerator;
+import io.karon.logmonitor.log.AccessLog;
+import io.karon.logmonitor.log.Log;
+import io.karon.logmonitor.parser.FastAccessLogParser;
+import io.reactivex.observers.TestObserver;
+
+
+class MultiFileLogMonitorTest {
+	@Test
+	void logFilePatternOnlyMatchesFilesOfTheDirectoryTest(@TempDir Path directory) throws IOException {
+		Path matching = append(directory.resolve("first.access.log"), "");
+		append(directory.resolve("first.error.log"), "");
+		Files.createDirectory(directory.resolve("sub"));
+		append(directory.resolve("sub").resolve("second.access.log"), "");
+
+		LogFilePattern logFilePattern = new LogFilePattern(directory + "/*.access.log");
+
+		assertEquals(Collections.singletonList(matching), logFilePattern.findMatchingFiles());
+		assertEquals(2, new LogFilePattern(directory + "/**.access.log").findMatchingFiles().size());
+	}
+
+	@Test
+	void logsOfAllFilesAreMergedAndTaggedWithTheirSourceTest(@TempDir Path directory) throws IOException, InterruptedException {
+		Path first = append(directory.resolve("first.access.log"), LogGenerator.generateLogLine(false) + "\n");
+		Path second = append(directory.resolve("second.access.log"), LogGenerator.generateLogLine(false) + "\n");
+
+		MultiFileLogMonitor<AccessLog> multiFileLogMonitor = createMultiFileLogMonitor(directory);
+		TestObserver<AccessLog> testObserver = new TestObserver<>();
+		multiFileLogMonitor.subscribe(testObserver);
+		multiFileLogMonitor.startMonitoring();
+
+		try {
+			assertTrue(testObserver.awaitCount(2).values().size() >= 2);
+			assertEquals(
+					sources(first, second),
+					testObserver.values().stream().map(Log::getSource).collect(Collectors.toSet())
+			);
+		} finally {
+			multiFileLogMonitor.stopMonitoring();
+		}
+	}
+
+	@Test
+	void newMatchingFileIsPickedUpTest(@TempDir Path directory) throws IOException, InterruptedException {
+		MultiFileLogMonitor<AccessLog> multiFileLogMonitor = createMultiFileLogMonitor(directory);
+		TestObserver<AccessLog> testObserver = new TestObserver<>();
+		multiFileLogMonitor.subscribe(testObserver);
+		multiFileLogMonitor.startMonitoring();
+
+		try {
+			TimeUnit.MILLISECONDS.sleep(50);
+			Path created = append(directory.resolve("created.access.log"), LogGenerator.generateLogLine(false) + "\n");
+
+			testObserver.awaitCount(1);
+			assertEquals(1, testObserver.valueCount());
+			assertEquals(created.toString(), testObserver.values().get(0).getSource());
+		} finally {
+			multiFileLogMonitor.stopMonitoring();
+		}
+	}
+
+	@Test
+	void rotatedFileMatchingThePatternIsNotReadAgainTest(@TempDir Path directory) throws IOException, InterruptedException {
+		Path file = append(directory.resolve("access.log"), LogGenerator.generateLogLine(false) + "\n");
+
+		MultiFileLogMonitor<AccessLog> multiFileLogMonitor = createMultiFileLogMonitor(directory + "/*.log*");
+		TestObserver<AccessLog> testObserver = new TestObserver<>();
+		multiFileLogMonitor.subscribe(testObserver);
+		multiFileLogMonitor.startMonitoring();
+
+		try {
+			testObserver.awaitCount(1);
+			append(file, LogGenerator.generateLogLine(false) + "\n");
+			Files.move(file, directory.resolve("access.log.1"));
+			append(file, LogGenerator.generateLogLine(false) + "\n");
+
+			testObserver.awaitCount(3);
+			// Several rescans, the rotated file matches the pattern but it's the file we already read
+			TimeUnit.MILLISECONDS.sleep(100);
+			assertEquals(3, testObserver.valueCount());
+			assertEquals(Collections.singleton(file), multiFileLogMonitor.getTailedFiles());
+		} finally {
+			multiFileLogMonitor.stopMonitoring();
+		}
+	}
+
+	@Test
+	void linesWrittenAroundARenameThenCreateAreReadTest(@TempDir Path directory) throws IOException, InterruptedException {
+		Path file = append(directory.resolve("first.access.log"), LogGenerator.generateLogLine(false) + "\n");
+
+		// The reader of a quiet file sleeps up to two seconds, much longer than a rescan
+		MultiFileLogMonitor<AccessLog> multiFileLogMonitor = createMultiFileLogMonitor(directory + "/*.access.log", 2_000);
+		TestObserver<AccessLog> testObserver = new TestObserver<>();
+		multiFileLogMonitor.subscribe(testObserver);
+		multiFileLogMonitor.startMonitoring();
+
+		try {
+			testObserver.awaitCount(1);
+			// Quiet long enough for the reader to sleep for a second
+			TimeUnit.MILLISECONDS.sleep(1_100);
+			// logrotate renames the file (out of the pattern), it's still written a bit, then the new file is created
+			Path rotated = directory.resolve("first.access.log.1");
+			Files.move(file, rotated);
+			append(rotated, LogGenerator.generateLogLine(false) + "\n");
+			TimeUnit.MILLISECONDS.sleep(100);
+			append(file, LogGenerator.generateLogLine(false) + "\n");
+
+			testObserver.awaitCount(3);
+			// Nothing read twice
+			TimeUnit.MILLISECONDS.sleep(100);
+			assertEquals(3, testObserver.valueCount());
+			assertEquals(sources(file), testObserver.values().stream().map(Log::getSource).collect(Collectors.toSet()));
+		} finally {
+			multiFileLogMonitor.stopMonitoring();
+		}
+	}
+
+	private static MultiFileLogMonitor<AccessLog> createMultiFileLogMonitor(Path directory) {
+		return createMultiFileLogMonitor(directory + "/*.access.log");
+	}
+
+	private static MultiFileLogMonitor<AccessLog> createMultiFileLogMonitor(String pathPattern) {
+		return createMultiFileLogMonitor(pathPattern, 10);
+	}
+
+	private static MultiFileLogMonitor<AccessLog> createMultiFileLogMonitor(String pathPattern, long maxWaitInMillis) {
+		return new MultiFileLogMonitor<>(
+				Collections.singletonList(pathPattern),
+				new FastAccessLogParser(),
+				true,
+				false,
+				100,
+				OverflowStrategy.BLOCK,
+				0,
+				maxWaitInMillis,
+				2,
+				100,
+				10
+		);
+	}
+
+	private static Set<String> sources(Path... paths) {
+		return Arrays.stream(paths).map(Path::toString).collect(Collectors.toSet());
+	}
+
+	private static Path append(Path file, String content) throws IOException {
+		return Files.write(
+				file,
+				content.getBytes(StandardCharsets.US_ASCII),
+				StandardOpenOption.CREATE,
+				StandardOpenOption.APPEND
+		);
+	}
+}
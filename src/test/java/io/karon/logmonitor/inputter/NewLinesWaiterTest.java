@@ -0,0 +1,94 @@
+package io.karon.logmonitor.inputter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+
+class NewLinesWaiterTest {
+	@Test
+	void backoffDoublesUntilMaxWaitTest() {
+		BackoffWaiter backoffWaiter = new BackoffWaiter(1, 5);
+
+		assertEquals(1, backoffWaiter.nextWaitInMillis());
+		assertEquals(2, backoffWaiter.nextWaitInMillis());
+		assertEquals(4, backoffWaiter.nextWaitInMillis());
+		assertEquals(5, backoffWaiter.nextWaitInMillis());
+		assertEquals(5, backoffWaiter.nextWaitInMillis());
+	}
+
+	@Test
+	void backoffResetWhenNewLinesReadTest() {
+		BackoffWaiter backoffWaiter = new BackoffWaiter(1, 5);
+		backoffWaiter.nextWaitInMillis();
+		backoffWaiter.nextWaitInMillis();
+
+		backoffWaiter.newLinesRead();
+
+		assertEquals(1, backoffWaiter.nextWaitInMillis());
+	}
+
+	@Test
+	void watchServiceWakesUpWhenFileModifiedTest(@TempDir Path folder) throws IOException, InterruptedException {
+		File fileToMonitor = Files.createFile(folder.resolve("access.log")).toFile();
+		long maxWaitInMillis = 10_000;
+		ScheduledExecutorService writer = Executors.newSingleThreadScheduledExecutor();
+
+		try (WatchServiceWaiter watchServiceWaiter = new WatchServiceWaiter(
+				fileToMonitor,
+				new BackoffWaiter(maxWaitInMillis, maxWaitInMillis))) {
+			writer.schedule(() -> {
+				Files.write(fileToMonitor.toPath(), "line".getBytes(StandardCharsets.US_ASCII), StandardOpenOption.APPEND);
+				return null;
+			}, 200, TimeUnit.MILLISECONDS);
+
+			long start = System.nanoTime();
+			watchServiceWaiter.awaitNewLines();
+
+			// Some JDKs poll instead of using the file system events, we only check we didn't wait for the whole fallback
+			assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < maxWaitInMillis);
+		} finally {
+			writer.shutdownNow();
+		}
+	}
+
+	@Test
+	void watchServiceBlocksUntilClosedOnceEventsReceivedTest(@TempDir Path folder) throws IOException, InterruptedException {
+		File fileToMonitor = Files.createFile(folder.resolve("access.log")).toFile();
+		ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+		WatchServiceWaiter watchServiceWaiter = new WatchServiceWaiter(fileToMonitor, new BackoffWaiter(50, 50));
+
+		try {
+			executor.schedule(() -> {
+				Files.write(fileToMonitor.toPath(), "line".getBytes(StandardCharsets.US_ASCII), StandardOpenOption.APPEND);
+				return null;
+			}, 10, TimeUnit.MILLISECONDS);
+			// Once we got an event, we know the file system sends them
+			watchServiceWaiter.awaitNewLines();
+			executor.schedule(watchServiceWaiter::close, 300, TimeUnit.MILLISECONDS);
+
+			long start = System.nanoTime();
+			watchServiceWaiter.awaitNewLines();
+			long waitInMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+			// Either we blocked until closed, or the JDK polls and we only waited for the fallback
+			assertTrue(waitInMillis >= 250 || watchServiceWaiter.isPollingImplementation(), "Waited " + waitInMillis + "ms");
+			assertTrue(waitInMillis < 10_000);
+		} finally {
+			watchServiceWaiter.close();
+			executor.shutdownNow();
+		}
+	}
+}
@@ -0,0 +1,98 @@
+package io.karon.logmonitor.inputter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.karon.logmonitor.log.AccessLog;
+import io.karon.logmonitor.metrics.Metrics;
+import io.karon.logmonitor.parser.FastAccessLogParser;
+import io.karon.logmonitor.LogGenerator;
+import io.reactivex.observers.TestObserver;
+
+
+class ParallelParsingStageTest {
+	private static final int NUMBER_OF_LOG_LINES = 10_000;
+
+	private BoundedLogBuffer<AccessLog> boundedLogBuffer;
+	private ParallelParsingStage<AccessLog> parallelParsingStage;
+	private List<String> logLines;
+
+	@BeforeEach
+	void beforeEach() {
+		boundedLogBuffer = new BoundedLogBuffer<>(100, OverflowStrategy.BLOCK, 0);
+		boundedLogBuffer.start();
+		logLines = new ArrayList<>();
+
+		for (int i = 0; i < NUMBER_OF_LOG_LINES; ++i) {
+			logLines.add(LogGenerator.generateLogLine(false));
+		}
+	}
+
+	@AfterEach
+	void afterEach() {
+		parallelParsingStage.stop();
+		boundedLogBuffer.stop();
+	}
+
+	@Test
+	void orderedParsingKeepsFileOrderTest() throws InterruptedException {
+		TestObserver<AccessLog> testObserver = parseAll(true);
+
+		testObserver.awaitCount(NUMBER_OF_LOG_LINES);
+
+		List<AccessLog> accessLogs = testObserver.values();
+		for (int i = 0; i < NUMBER_OF_LOG_LINES; ++i) {
+			assertEquals(logLines.get(i), accessLogs.get(i).toString());
+		}
+	}
+
+	@Test
+	void unorderedParsingReceivesEveryLogTest() throws InterruptedException {
+		TestObserver<AccessLog> testObserver = parseAll(false);
+
+		testObserver.awaitCount(NUMBER_OF_LOG_LINES);
+
+		assertEquals(NUMBER_OF_LOG_LINES, testObserver.valueCount());
+	}
+
+	@Test
+	void badLogLinesAreSkippedTest() throws InterruptedException {
+		long parseFailures = Metrics.counter("parse.failures").getCount();
+		logLines.add(NUMBER_OF_LOG_LINES / 2, "BAD LOG LINE");
+		TestObserver<AccessLog> testObserver = parseAll(true);
+
+		testObserver.awaitCount(NUMBER_OF_LOG_LINES);
+		TimeUnit.MILLISECONDS.sleep(50);
+
+		assertEquals(NUMBER_OF_LOG_LINES, testObserver.valueCount());
+		assertEquals(parseFailures + 1, Metrics.counter("parse.failures").getCount());
+	}
+
+	private TestObserver<AccessLog> parseAll(boolean ordered) throws InterruptedException {
+		TestObserver<AccessLog> testObserver = new TestObserver<>();
+		boundedLogBuffer.subscribe(testObserver);
+		parallelParsingStage = new ParallelParsingStage<>(
+				new FastAccessLogParser(),
+				true,
+				null,
+				boundedLogBuffer,
+				4,
+				64,
+				ordered
+		);
+
+		for (String logLine : logLines) {
+			parallelParsingStage.parse(logLine);
+		}
+		parallelParsingStage.flush();
+
+		return testObserver;
+	}
+}
@@ -0,0 +1,114 @@
+package io.karon.logmonitor.inputter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import io.karon.logmonitor.log.AccessLog;
+import io.karon.logmonitor.parser.AccessLogParser;
+import io.karon.logmonitor.LogGenerator;
+import io.reactivex.observers.TestObserver;
+
+
+class ReplayLogMonitorTest {
+	private static final int NUMBER_OF_LOG_LINES = 5_000;
+
+	@Test
+	void wholeFileIsReplayedInOrderThenCompletedTest(@TempDir Path directory) throws IOException {
+		File file = directory.resolve("access.log").toFile();
+		List<String> logLines = writeLogLines(Files.newOutputStream(file.toPath()));
+
+		assertReplayed(file, logLines);
+	}
+
+	@Test
+	void gzipArchiveIsReplayedTest(@TempDir Path directory) throws IOException {
+		File file = directory.resolve("access.log.gz").toFile();
+		List<String> logLines = writeLogLines(new GZIPOutputStream(Files.newOutputStream(file.toPath())));
+
+		assertReplayed(file, logLines);
+	}
+
+	// The logs parsed before the failure are dispatched, then the subscribers get the error instead of waiting forever
+	@Test
+	void readerFailureIsSentToTheSubscribersTest(@TempDir Path directory) throws IOException {
+		File file = directory.resolve("access.log").toFile();
+		List<String> logLines = writeLogLines(Files.newOutputStream(file.toPath()));
+		String failingLogLine = logLines.get(10);
+		AccessLogParser accessLogParser = new AccessLogParser();
+		ReplayLogMonitor<AccessLog> replayLogMonitor = new ReplayLogMonitor<>(
+				file,
+				logLine -> {
+					if (logLine.equals(failingLogLine)) {
+						throw new IllegalStateException("Parser failure");
+					}
+					return accessLogParser.parseFromLogLine(logLine);
+				},
+				false,
+				100,
+				0,
+				64
+		);
+		TestObserver<AccessLog> testObserver = new TestObserver<>();
+
+		replayLogMonitor.subscribe(testObserver);
+		replayLogMonitor.startMonitoring();
+
+		try {
+			testObserver.awaitTerminalEvent(10, TimeUnit.SECONDS);
+
+			testObserver.assertError(IllegalStateException.class);
+			assertEquals(10, testObserver.valueCount());
+		} finally {
+			replayLogMonitor.stopMonitoring();
+		}
+	}
+
+	private static void assertReplayed(File file, List<String> logLines) {
+		ReplayLogMonitor<AccessLog> replayLogMonitor = new ReplayLogMonitor<>(file, new AccessLogParser(), false, 100, 4, 64);
+		TestObserver<AccessLog> testObserver = new TestObserver<>();
+
+		replayLogMonitor.subscribe(testObserver);
+		replayLogMonitor.startMonitoring();
+
+		try {
+			testObserver.awaitTerminalEvent(10, TimeUnit.SECONDS);
+
+			testObserver.assertComplete();
+			assertEquals(logLines.size(), testObserver.valueCount());
+			for (int i = 0; i < logLines.size(); ++i) {
+				assertEquals(logLines.get(i), testObserver.values().get(i).toString());
+			}
+		} finally {
+			replayLogMonitor.stopMonitoring();
+		}
+	}
+
+	private static List<String> writeLogLines(OutputStream outputStream) throws IOException {
+		List<String> logLines = new ArrayList<>();
+
+		try (Writer writer = new OutputStreamWriter(outputStream)) {
+			for (int i = 0; i < NUMBER_OF_LOG_LINES; ++i) {
+				String logLine = LogGenerator.generateLogLine(false);
+				logLines.add(logLine);
+				writer.write(logLine);
+				writer.write('\n');
+			}
+		}
+
+		return logLines;
+	}
+}
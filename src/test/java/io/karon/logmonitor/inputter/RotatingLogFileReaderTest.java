@@ -0,0 +1,127 @@
+package io.karon.logmonitor.inputter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+
+class RotatingLogFileReaderTest {
+	@Test
+	void rotatedFileIsDrainedThenNewFileIsReadTest(@TempDir Path directory) throws IOException {
+		Path file = append(directory.resolve("access.log"), "before rotation\n");
+
+		try (RotatingLogFileReader rotatingLogFileReader = new RotatingLogFileReader(file, false, null)) {
+			assertEquals("before rotation", readLine(rotatingLogFileReader));
+
+			append(file, "end of old file\n");
+			Files.move(file, directory.resolve("access.log.1"));
+			append(file, "new file\n");
+
+			assertEquals("end of old file", readLine(rotatingLogFileReader));
+			assertEquals("new file", readLine(rotatingLogFileReader));
+			assertNull(rotatingLogFileReader.readLine());
+		}
+	}
+
+	@Test
+	void truncatedFileIsReadFromBeginningTest(@TempDir Path directory) throws IOException {
+		Path file = append(directory.resolve("access.log"), "a long line before truncation\n");
+
+		try (RotatingLogFileReader rotatingLogFileReader = new RotatingLogFileReader(file, false, null)) {
+			assertEquals("a long line before truncation", readLine(rotatingLogFileReader));
+
+			Files.write(file, "truncated\n".getBytes(StandardCharsets.US_ASCII), StandardOpenOption.TRUNCATE_EXISTING);
+
+			assertEquals("truncated", readLine(rotatingLogFileReader));
+		}
+	}
+
+	@Test
+	void resumeFromSavedCheckpointTest(@TempDir Path directory) throws IOException {
+		Path file = append(directory.resolve("access.log"), "read before stopping\n");
+		Path checkpointPath = directory.resolve("checkpoint");
+
+		try (RotatingLogFileReader rotatingLogFileReader = new RotatingLogFileReader(file, false, null)) {
+			readLine(rotatingLogFileReader);
+			rotatingLogFileReader.getCheckpoint().save(checkpointPath);
+		}
+
+		append(file, "written while stopped\n");
+
+		try (RotatingLogFileReader rotatingLogFileReader =
+					 new RotatingLogFileReader(file, true, FileCheckpoint.load(checkpointPath))) {
+			assertEquals("written while stopped", readLine(rotatingLogFileReader));
+		}
+	}
+
+	@Test
+	void checkpointOfAnotherFileIsIgnoredTest(@TempDir Path directory) throws IOException {
+		Path file = append(directory.resolve("access.log"), "first line of a new file\n");
+		FileCheckpoint fileCheckpoint = new FileCheckpoint("another file", 10);
+
+		try (RotatingLogFileReader rotatingLogFileReader = new RotatingLogFileReader(file, true, fileCheckpoint)) {
+			assertEquals("first line of a new file", readLine(rotatingLogFileReader));
+		}
+	}
+
+	@Test
+	void bufferedModeFollowsRotationAndTruncationTest(@TempDir Path directory) throws IOException {
+		Path file = append(directory.resolve("access.log"), "before rotation\r\n");
+
+		try (RotatingLogFileReader rotatingLogFileReader = new RotatingLogFileReader(file, false, null, ReaderMode.BUFFERED)) {
+			assertEquals("before rotation", readLine(rotatingLogFileReader));
+
+			append(file, "end of old file\n");
+			Files.move(file, directory.resolve("access.log.1"));
+			append(file, "a long line of the new file\n");
+
+			assertEquals("end of old file", readLine(rotatingLogFileReader));
+			assertEquals("a long line of the new file", readLine(rotatingLogFileReader));
+
+			Files.write(file, "truncated\n".getBytes(StandardCharsets.US_ASCII), StandardOpenOption.TRUNCATE_EXISTING);
+
+			assertEquals("truncated", readLine(rotatingLogFileReader));
+		}
+	}
+
+	@Test
+	void bufferedModeResumesFromSavedCheckpointTest(@TempDir Path directory) throws IOException {
+		Path file = append(directory.resolve("access.log"), "read before stopping\nhalf a li");
+		Path checkpointPath = directory.resolve("checkpoint");
+
+		try (RotatingLogFileReader rotatingLogFileReader = new RotatingLogFileReader(file, false, null, ReaderMode.BUFFERED)) {
+			assertEquals("read before stopping", readLine(rotatingLogFileReader));
+			// The incomplete line isn't read, and isn't in the checkpoint
+			assertNull(rotatingLogFileReader.readLine());
+			rotatingLogFileReader.getCheckpoint().save(checkpointPath);
+		}
+
+		append(file, "ne written while stopped\n");
+
+		try (RotatingLogFileReader rotatingLogFileReader =
+					 new RotatingLogFileReader(file, true, FileCheckpoint.load(checkpointPath), ReaderMode.BUFFERED)) {
+			assertEquals("half a line written while stopped", readLine(rotatingLogFileReader));
+		}
+	}
+
+	private static String readLine(RotatingLogFileReader rotatingLogFileReader) throws IOException {
+		return rotatingLogFileReader.readLine().toString();
+	}
+
+	private static Path append(Path file, String content) throws IOException {
+		return Files.write(
+				file,
+				content.getBytes(StandardCharsets.US_ASCII),
+				StandardOpenOption.CREATE,
+				StandardOpenOption.APPEND
+		);
+	}
+}
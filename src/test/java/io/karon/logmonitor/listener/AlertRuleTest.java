@@ -0,0 +1,45 @@
+package io.karon.logmonitor.listener;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+
+class AlertRuleTest {
+	@Test
+	void parseAllTest() {
+		List<AlertRule> alertRules = AlertRule.parseAll("login-errors:/login:5xx:rate:2:60; client-errors:*:4xx:COUNT:1000:120");
+
+		assertEquals(2, alertRules.size());
+		assertEquals("login-errors:/login:5xx:rate:2.0:60", alertRules.get(0).toString());
+		assertNull(alertRules.get(1).getSection());
+		assertEquals(4, alertRules.get(1).getStatusClass());
+		assertEquals(AlertRule.Metric.COUNT, alertRules.get(1).getMetric());
+	}
+
+	@Test
+	void emptyRulesTest() {
+		assertTrue(AlertRule.parseAll("").isEmpty());
+	}
+
+	@Test
+	void invalidRuleTest() {
+		assertThrows(IllegalArgumentException.class, () -> AlertRule.parse("login-errors:/login:5xx:rate:2"));
+		assertThrows(IllegalArgumentException.class, () -> AlertRule.parse("login-errors:/login:9xx:rate:2:60"));
+		assertThrows(IllegalArgumentException.class, () -> AlertRule.parse("login-errors:/login:5xx:median:2:60"));
+	}
+
+	@Test
+	void rateWithoutHitsTest() {
+		AlertRule alertRule = AlertRule.parse("errors:*:5xx:rate:0:60");
+
+		assertFalse(alertRule.isThresholdReached(0, 0));
+		assertTrue(alertRule.isThresholdReached(1, 1_000));
+	}
+}
@@ -0,0 +1,132 @@
+package io.karon.logmonitor.listener;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.karon.logmonitor.LogGenerator;
+import io.karon.logmonitor.log.AccessLog;
+import io.karon.logmonitor.outputter.StatsOutputter;
+import io.karon.logmonitor.outputter.ThresholdOutputter;
+
+
+/*
+onNext is called by one thread while runScheduledProcess is called in a loop by another one
+No exception should be thrown, and once the writer is done, the scheduled process should see every log
+ */
+class ConcurrentIngestionStressTest {
+	private static final int NUMBER_OF_LOGS = 200_000;
+
+	private List<AccessLog> accessLogs;
+	private ExecutorService executorService;
+
+	@BeforeEach
+	void beforeEach() {
+		accessLogs = new ArrayList<>(NUMBER_OF_LOGS);
+		ZonedDateTime now = ZonedDateTime.now();
+		for (int i = 0; i < NUMBER_OF_LOGS; ++i) {
+			accessLogs.add(LogGenerator.generateLog(now));
+		}
+
+		executorService = Executors.newFixedThreadPool(2);
+	}
+
+	@AfterEach
+	void afterEach() {
+		executorService.shutdownNow();
+	}
+
+	@Test
+	void statsLogListenerCountsEveryLogTest() throws Exception {
+		AtomicReference<List<Map.Entry<String, Integer>>> lastSectionsHits = new AtomicReference<>();
+		StatsLogListener statsLogListener = new StatsLogListener(
+				new StatsOutputter() {
+					@Override
+					public void logOutsideDurationToMonitor(AccessLog accessLog) {}
+
+					@Override
+					public void sectionHits(
+							List<Map.Entry<String, Integer>> sectionsWithTheMostHits,
+							long durationToMonitor,
+							TimeUnit timeUnit,
+							ZonedDateTime now) {
+						lastSectionsHits.set(sectionsWithTheMostHits);
+					}
+				},
+				0,
+				5,
+				TimeUnit.MINUTES,
+				Integer.MAX_VALUE
+		);
+
+		runConcurrently(statsLogListener);
+
+		int totalHits = lastSectionsHits.get().stream().mapToInt(Map.Entry::getValue).sum();
+		assertEquals(NUMBER_OF_LOGS, totalHits);
+	}
+
+	@Test
+	void thresholdLogListenerCountsEveryLogTest() throws Exception {
+		AtomicInteger lastCount = new AtomicInteger();
+		ThresholdLogListener thresholdLogListener = new ThresholdLogListener(
+				new ThresholdOutputter() {
+					@Override
+					public void logOutsideDurationToMonitor(AccessLog accessLog) {}
+
+					@Override
+					public void previousThresholdsReached() {}
+
+					@Override
+					public void thresholdReached(int currentCount, long threshold, long duration, TimeUnit timeUnit, ZonedDateTime now) {
+						lastCount.set(currentCount);
+					}
+
+					@Override
+					public void alertStillActive(int currentCount, long threshold, long duration, TimeUnit timeUnit, ZonedDateTime now) {
+						lastCount.set(currentCount);
+					}
+
+					@Override
+					public void trafficRecovered(int currentCount, long threshold, long duration, TimeUnit timeUnit, ZonedDateTime now) {
+						lastCount.set(currentCount);
+					}
+				},
+				0,
+				1,
+				5,
+				0,
+				TimeUnit.MINUTES
+		);
+
+		runConcurrently(thresholdLogListener);
+
+		assertEquals(NUMBER_OF_LOGS, lastCount.get());
+	}
+
+	private void runConcurrently(ScheduledLogListener scheduledLogListener) throws Exception {
+		Future<?> writer = executorService.submit(() -> accessLogs.forEach(scheduledLogListener::onNext));
+		Future<?> reader = executorService.submit(() -> {
+			while (!writer.isDone()) {
+				scheduledLogListener.runScheduledProcess();
+			}
+		});
+
+		writer.get(30, TimeUnit.SECONDS);
+		reader.get(30, TimeUnit.SECONDS);
+
+		scheduledLogListener.runScheduledProcess();
+	}
+}
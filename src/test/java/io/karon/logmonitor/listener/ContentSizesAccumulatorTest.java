@@ -0,0 +1,53 @@
+package io.karon.logmonitor.listener;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.time.ZonedDateTime;
+import java.util.Collections;
+
+import org.junit.jupiter.api.Test;
+
+import io.karon.logmonitor.log.AccessLog;
+
+
+class ContentSizesAccumulatorTest {
+	@Test
+	void sectionHistogramsReusedAfterResetStartEmptyTest() {
+		ContentSizesAccumulator contentSizesAccumulator = new ContentSizesAccumulator();
+		contentSizesAccumulator.offer(accessLog("/first/page", 1_000));
+
+		contentSizesAccumulator.reset();
+		contentSizesAccumulator.offer(accessLog("/second/page", 5));
+
+		assertNull(contentSizesAccumulator.getSectionSizePercentiles("/first"));
+		assertEquals(new SizePercentiles(1, 5, 5, 5, 5), contentSizesAccumulator.getSectionSizePercentiles("/second"));
+		assertEquals(new SizePercentiles(1, 5, 5, 5, 5), contentSizesAccumulator.getSizePercentiles());
+	}
+
+	@Test
+	void copiesOnlyKeepTheSectionsGivenAndAreMergedIntoTheSameAccumulatorTest() {
+		ContentSizesAccumulator firstTimeSlot = new ContentSizesAccumulator();
+		firstTimeSlot.offer(accessLog("/shown/page", 100));
+		firstTimeSlot.offer(accessLog("/hidden/page", 7));
+		ContentSizesAccumulator secondTimeSlot = new ContentSizesAccumulator();
+		secondTimeSlot.offer(accessLog("/shown/page", 300));
+
+		ContentSizesAccumulator timeSlotCopy = ContentSizesAccumulator.empty();
+		ContentSizesAccumulator merged = ContentSizesAccumulator.empty();
+		for (ContentSizesAccumulator timeSlot : new ContentSizesAccumulator[] {firstTimeSlot, secondTimeSlot}) {
+			timeSlotCopy.copyOf(timeSlot, Collections.singletonList("/shown"));
+			merged.merge(timeSlotCopy);
+		}
+
+		assertNull(merged.getSectionSizePercentiles("/hidden"));
+		assertEquals(2, merged.getSectionSizePercentiles("/shown").getCount());
+		assertEquals(300, merged.getSectionSizePercentiles("/shown").getMax());
+		assertEquals(3, merged.getSizePercentiles().getCount());
+		assertEquals(3, merged.getStatusClassesSizePercentiles().get("2xx").getCount());
+	}
+
+	private static AccessLog accessLog(String endpoint, long contentSize) {
+		return new AccessLog("127.0.0.1", "-", "-", ZonedDateTime.now(), "GET", endpoint, "HTTP/1.0", 200, contentSize);
+	}
+}
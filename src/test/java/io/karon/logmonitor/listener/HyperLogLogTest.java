@@ -0,0 +1,61 @@
+package io.karon.logmonitor.listener;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+
+class HyperLogLogTest {
+	@Test
+	void smallCardinalitiesAreExactTest() {
+		HyperLogLog hyperLogLog = new HyperLogLog(12);
+
+		for (int i = 0; i < 3; ++i) {
+			hyperLogLog.offer("10.0.0.1");
+			hyperLogLog.offer("10.0.0.2");
+			hyperLogLog.offer("10.0.0.3");
+		}
+
+		assertEquals(3, hyperLogLog.estimate());
+	}
+
+	@Test
+	void resetTest() {
+		HyperLogLog hyperLogLog = new HyperLogLog(12);
+		hyperLogLog.offer("10.0.0.1");
+
+		hyperLogLog.reset();
+
+		assertEquals(0, hyperLogLog.estimate());
+	}
+
+	// Half the values are in both time slots, the merge must count them once
+	@Test
+	void mergedEstimateWithinErrorTest() {
+		HyperLogLog firstTimeSlot = new HyperLogLog(12);
+		HyperLogLog secondTimeSlot = new HyperLogLog(12);
+
+		for (int i = 0; i < 100_000; ++i) {
+			String ipAddress = "10." + (i >> 16) + "." + ((i >> 8) & 0xff) + "." + (i & 0xff);
+			if (i < 75_000) {
+				firstTimeSlot.offer(ipAddress);
+			}
+			if (i >= 25_000) {
+				secondTimeSlot.offer(ipAddress);
+			}
+		}
+
+		HyperLogLog merged = firstTimeSlot.copy();
+		merged.merge(secondTimeSlot);
+
+		long estimate = merged.estimate();
+		assertTrue(Math.abs(estimate - 100_000) < 100_000 * 0.05, "estimate " + estimate);
+	}
+
+	@Test
+	void differentPrecisionsCannotBeMergedTest() {
+		assertThrows(IllegalArgumentException.class, () -> new HyperLogLog(12).merge(new HyperLogLog(8)));
+	}
+}
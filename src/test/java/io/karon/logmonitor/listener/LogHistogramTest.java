@@ -0,0 +1,70 @@
+package io.karon.logmonitor.listener;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+
+class LogHistogramTest {
+	@Test
+	void smallValuesAreExactTest() {
+		LogHistogram logHistogram = new LogHistogram();
+		for (int value = 1; value <= 10; ++value) {
+			logHistogram.record(value);
+		}
+
+		assertEquals(new SizePercentiles(10, 5, 9, 10, 10), logHistogram.getSizePercentiles());
+	}
+
+	@Test
+	void emptyTest() {
+		assertEquals(new SizePercentiles(0, 0, 0, 0, 0), new LogHistogram().getSizePercentiles());
+	}
+
+	@Test
+	void resetTest() {
+		LogHistogram logHistogram = new LogHistogram();
+		logHistogram.record(1_000);
+
+		logHistogram.reset();
+		logHistogram.record(3);
+
+		assertEquals(new SizePercentiles(1, 3, 3, 3, 3), logHistogram.getSizePercentiles());
+	}
+
+	// Each time slot gets half the values, the merged percentiles must be within the width of a bucket
+	@Test
+	void mergedPercentilesWithinBucketWidthTest() {
+		LogHistogram firstTimeSlot = new LogHistogram();
+		LogHistogram secondTimeSlot = new LogHistogram();
+		for (long value = 1; value <= 1_000_000; ++value) {
+			(value % 2 == 0 ? firstTimeSlot : secondTimeSlot).record(value);
+		}
+
+		LogHistogram merged = firstTimeSlot.copy();
+		merged.merge(secondTimeSlot);
+
+		assertEquals(1_000_000, merged.getCount());
+		assertEquals(1_000_000, merged.getMax());
+		assertWithinBucketWidth(500_000, merged.getValueAtPercentile(50));
+		assertWithinBucketWidth(900_000, merged.getValueAtPercentile(90));
+		assertWithinBucketWidth(990_000, merged.getValueAtPercentile(99));
+	}
+
+	@Test
+	void coarsePercentilesWithinCoarseBucketWidthTest() {
+		LogHistogram logHistogram = LogHistogram.coarse();
+		for (long value = 1; value <= 1_000_000; ++value) {
+			logHistogram.record(value);
+		}
+
+		long median = logHistogram.getValueAtPercentile(50);
+		assertTrue(median >= 500_000 && median <= 500_000 + 500_000 / 4, "got " + median);
+		assertEquals(1_000_000, logHistogram.getValueAtPercentile(100));
+	}
+
+	private static void assertWithinBucketWidth(long expected, long actual) {
+		assertTrue(actual >= expected && actual <= expected + expected / 16, "expected " + expected + " got " + actual);
+	}
+}
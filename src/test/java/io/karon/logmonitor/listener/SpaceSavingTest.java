@@ -0,0 +1,69 @@
+package io.karon.logmonitor.listener;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+
+class SpaceSavingTest {
+	@Test
+	void exactWhileCountersAreAvailableTest() {
+		SpaceSaving spaceSaving = new SpaceSaving(3);
+		offerXTimes(spaceSaving, "/a", 3);
+		offerXTimes(spaceSaving, "/b", 1);
+
+		Map<String, HeavyHitter> heavyHitters = SpaceSaving.Snapshot.merge(Arrays.asList(spaceSaving.snapshot()));
+
+		assertEquals(new HeavyHitter("/a", 3, 0), heavyHitters.get("/a"));
+		assertEquals(new HeavyHitter("/b", 1, 0), heavyHitters.get("/b"));
+	}
+
+	@Test
+	void resetTest() {
+		SpaceSaving spaceSaving = new SpaceSaving(1);
+		offerXTimes(spaceSaving, "/a", 3);
+
+		spaceSaving.reset();
+		offerXTimes(spaceSaving, "/b", 1);
+
+		assertEquals(new HeavyHitter("/b", 1, 0), SpaceSaving.Snapshot.merge(Arrays.asList(spaceSaving.snapshot())).get("/b"));
+	}
+
+	// Zipf-like traffic over many more sections than counters, the real counts must be within the error bounds
+	@Test
+	void realCountsWithinErrorBoundsAfterMergeTest() {
+		Random random = new Random(42);
+		SpaceSaving firstTimeSlot = new SpaceSaving(20);
+		SpaceSaving secondTimeSlot = new SpaceSaving(20);
+		Map<String, Long> realCounts = new HashMap<>();
+
+		for (int i = 0; i < 100_000; ++i) {
+			String section = "/section" + (int) Math.floor(Math.pow(1_000, random.nextDouble()));
+			(i % 2 == 0 ? firstTimeSlot : secondTimeSlot).offer(section);
+			realCounts.merge(section, 1L, Long::sum);
+		}
+
+		Map<String, HeavyHitter> heavyHitters = SpaceSaving.Snapshot.merge(
+				Arrays.asList(firstTimeSlot.snapshot(), secondTimeSlot.snapshot())
+		);
+
+		for (HeavyHitter heavyHitter : heavyHitters.values()) {
+			long realCount = realCounts.get(heavyHitter.getItem());
+			assertTrue(realCount <= heavyHitter.getCount(), heavyHitter + " real count " + realCount);
+			assertTrue(realCount >= heavyHitter.getCount() - heavyHitter.getError(), heavyHitter + " real count " + realCount);
+		}
+		assertTrue(heavyHitters.containsKey("/section1"));
+	}
+
+	private static void offerXTimes(SpaceSaving spaceSaving, String item, int times) {
+		for (int i = 0; i < times; ++i) {
+			spaceSaving.offer(item);
+		}
+	}
+}
@@ -1,15 +1,23 @@
 package io.karon.logmonitor.listener;
 
+import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
+import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.util.AbstractMap;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
 
 import org.junit.jupiter.api.BeforeAll;
@@ -113,6 +121,282 @@ class StatsLogListenerTest {
 		);
 	}
 
+	@Test
+	void sectionHitsMergedAcrossTimeSlotsTest() {
+		AccessLog olderAccessLog = LogGenerator.generateLog("/home", ZonedDateTime.now().minusSeconds(5));
+		AccessLog accessLog = LogGenerator.generateLog("/home", ZonedDateTime.now());
+
+		Map.Entry<String,Integer> entry = new AbstractMap.SimpleEntry<>("/home", 2);
+
+		List<Map.Entry<String, Integer>> sectionsWithTheMostHits = new ArrayList<>();
+		sectionsWithTheMostHits.add(entry);
+
+		statsLogListener.onNext(olderAccessLog);
+		statsLogListener.onNext(accessLog);
+		statsLogListener.runScheduledProcess();
+
+		verify(statsOutputter).sectionHits(
+				sectionsWithTheMostHits,
+				period,
+				timeUnit,
+				statsLogListener.getEarliestInstantAtSystemDefaultClockZoneId()
+		);
+	}
+
+	@Test
+	void sectionHeavyHittersTest() {
+		statsLogListener = new StatsLogListener(
+				statsOutputter,
+				initialDelay,
+				period,
+				timeUnit,
+				numberOfSectionsToShow,
+				new StatsLogListenerOptions().withHeavyHittersCapacity(3)
+		);
+
+		addXTimes(LogGenerator.generateLog("/home"), 10);
+		addXTimes(LogGenerator.generateLog("/home2"), 5);
+		addXTimes(LogGenerator.generateLog("/home3"), 4);
+		// Takes over the counter of /home3, which had the smallest count
+		addXTimes(LogGenerator.generateLog("/home4"), 1);
+
+		statsLogListener.runScheduledProcess();
+
+		verify(statsOutputter).sectionHeavyHitters(
+				Arrays.asList(new HeavyHitter("/home", 10, 0), new HeavyHitter("/home2", 5, 0), new HeavyHitter("/home4", 5, 4)),
+				period,
+				timeUnit,
+				statsLogListener.getEarliestInstantAtSystemDefaultClockZoneId()
+		);
+	}
+
+	@Test
+	void uniquesTest() {
+		statsLogListener = new StatsLogListener(
+				statsOutputter,
+				initialDelay,
+				period,
+				timeUnit,
+				numberOfSectionsToShow,
+				new StatsLogListenerOptions().withUniquesPrecision(12)
+		);
+		AccessLog homeAccessLog = LogGenerator.generateLog("/home");
+		AccessLog otherHomeAccessLog = LogGenerator.generateLog("/home");
+		AccessLog home2AccessLog = LogGenerator.generateLog("/home2");
+
+		addXTimes(homeAccessLog, 10);
+		addXTimes(otherHomeAccessLog, 5);
+		addXTimes(home2AccessLog, 1);
+
+		statsLogListener.runScheduledProcess();
+
+		Map<String, UniqueCounts> sectionsUniqueCounts = new HashMap<>();
+		sectionsUniqueCounts.put("/home", countUniques(homeAccessLog, otherHomeAccessLog));
+		sectionsUniqueCounts.put("/home2", countUniques(home2AccessLog));
+
+		verify(statsOutputter).uniques(
+				countUniques(homeAccessLog, otherHomeAccessLog, home2AccessLog),
+				sectionsUniqueCounts,
+				period,
+				timeUnit,
+				statsLogListener.getEarliestInstantAtSystemDefaultClockZoneId()
+		);
+	}
+
+	@Test
+	void contentSizesTest() {
+		statsLogListener = new StatsLogListener(
+				statsOutputter,
+				initialDelay,
+				period,
+				timeUnit,
+				numberOfSectionsToShow,
+				new StatsLogListenerOptions().withContentSizeHistograms(true)
+		);
+		ZonedDateTime now = ZonedDateTime.now();
+
+		addXTimes(new AccessLog("127.0.0.1", "-", "james", now, "GET", "/home", "HTTP/1.0", 200, 10), 3);
+		addXTimes(new AccessLog("127.0.0.1", "-", "james", now, "GET", "/home2", "HTTP/1.0", 500, 20), 1);
+
+		statsLogListener.runScheduledProcess();
+
+		Map<String, SizePercentiles> statusClassesSizePercentiles = new HashMap<>();
+		statusClassesSizePercentiles.put("2xx", new SizePercentiles(3, 10, 10, 10, 10));
+		statusClassesSizePercentiles.put("5xx", new SizePercentiles(1, 20, 20, 20, 20));
+
+		Map<String, SizePercentiles> sectionsSizePercentiles = new HashMap<>();
+		sectionsSizePercentiles.put("/home", new SizePercentiles(3, 10, 10, 10, 10));
+		sectionsSizePercentiles.put("/home2", new SizePercentiles(1, 20, 20, 20, 20));
+
+		verify(statsOutputter).contentSizes(
+				new SizePercentiles(4, 10, 20, 20, 20),
+				statusClassesSizePercentiles,
+				sectionsSizePercentiles,
+				period,
+				timeUnit,
+				statsLogListener.getEarliestInstantAtSystemDefaultClockZoneId()
+		);
+	}
+
+	@Test
+	void trendsTest() {
+		statsLogListener = new StatsLogListener(
+				statsOutputter,
+				initialDelay,
+				period,
+				timeUnit,
+				numberOfSectionsToShow,
+				new StatsLogListenerOptions().withTrendBaselinePeriods(6)
+		);
+		ZonedDateTime now = ZonedDateTime.now();
+
+		addXTimes(new AccessLog("127.0.0.1", "-", "james", now, "GET", "/home", "HTTP/1.0", 200, 10), 3);
+		statsLogListener.runScheduledProcess();
+		addXTimes(new AccessLog("127.0.0.1", "-", "james", now, "GET", "/home", "HTTP/1.0", 404, 10), 2);
+		statsLogListener.runScheduledProcess();
+
+		verify(statsOutputter).trends(
+				Collections.singletonList(new Trend("/home", 5, 3, 3)),
+				Arrays.asList(new Trend("2xx", 3, 3, 3), new Trend("4xx", 2, 0, 0)),
+				period,
+				timeUnit,
+				statsLogListener.getEarliestInstantAtSystemDefaultClockZoneId()
+		);
+	}
+
+	// Logs from yesterday are counted in a window ending at the most recent of them, not dropped
+	@Test
+	void eventTimeReplayTest() {
+		statsLogListener = createEventTimeListener();
+		ZonedDateTime yesterday = ZonedDateTime.now().minusDays(1);
+		AccessLog oldAccessLog = LogGenerator.generateLog("/home", yesterday);
+
+		AccessLog mostRecentAccessLog = LogGenerator.generateLog("/home", yesterday.plusSeconds(30));
+
+		statsLogListener.onNext(oldAccessLog);
+		addXTimes(mostRecentAccessLog, 2);
+		statsLogListener.runScheduledProcess();
+
+		verify(statsOutputter, never()).logOutsideDurationToMonitor(oldAccessLog);
+		verify(statsOutputter).sectionHits(
+				Collections.singletonList(new AbstractMap.SimpleEntry<>("/home", 3)),
+				period,
+				timeUnit,
+				mostRecentAccessLog.getInstant().atZone(ZoneId.systemDefault())
+		);
+	}
+
+	@Test
+	void eventTimeTooLateTest() {
+		statsLogListener = createEventTimeListener();
+		ZonedDateTime yesterday = ZonedDateTime.now().minusDays(1);
+		AccessLog lateAccessLog = LogGenerator.generateLog("/home", yesterday.minusMinutes(2));
+
+		statsLogListener.onNext(LogGenerator.generateLog("/home", yesterday));
+		statsLogListener.onNext(lateAccessLog);
+
+		verify(statsOutputter).logOutsideDurationToMonitor(lateAccessLog);
+	}
+
+	// A log from the future doesn't move the watermark, so the logs after it are still counted
+	@Test
+	void eventTimeLogFromTheFutureTest() {
+		statsLogListener = createEventTimeListener();
+		ZonedDateTime now = ZonedDateTime.now();
+		AccessLog futureAccessLog = LogGenerator.generateLog("/future", now.plusDays(1));
+		AccessLog accessLog = LogGenerator.generateLog("/home", now.minusSeconds(1));
+
+		statsLogListener.onNext(futureAccessLog);
+		statsLogListener.onNext(accessLog);
+
+		verify(statsOutputter).logOutsideDurationToMonitor(futureAccessLog);
+		verify(statsOutputter, never()).logOutsideDurationToMonitor(accessLog);
+	}
+
+	// Replayed, a single log far ahead of the others is dropped, a gap in the traffic is confirmed by the second log after it
+	@Test
+	void replayLogFromTheFutureTest() {
+		statsLogListener = createEventTimeListener();
+		statsLogListener.startReplay();
+		ZonedDateTime start = ZonedDateTime.now().minusDays(7);
+		AccessLog futureAccessLog = LogGenerator.generateLog("/future", start.plusDays(1));
+		AccessLog firstAfterGapAccessLog = LogGenerator.generateLog("/home", start.plusHours(2));
+		AccessLog secondAfterGapAccessLog = LogGenerator.generateLog("/home", start.plusHours(2).plusSeconds(1));
+
+		statsLogListener.onNext(LogGenerator.generateLog("/home", start));
+		statsLogListener.onNext(futureAccessLog);
+		statsLogListener.onNext(LogGenerator.generateLog("/home", start.plusSeconds(1)));
+		statsLogListener.onNext(firstAfterGapAccessLog);
+		statsLogListener.onNext(secondAfterGapAccessLog);
+		statsLogListener.onNext(LogGenerator.generateLog("/home", start.plusHours(2).plusSeconds(2)));
+
+		verify(statsOutputter).logOutsideDurationToMonitor(futureAccessLog);
+		verify(statsOutputter).logOutsideDurationToMonitor(firstAfterGapAccessLog);
+		verify(statsOutputter, times(2)).logOutsideDurationToMonitor(any(AccessLog.class));
+	}
+
+	@Test
+	void replayTest() {
+		// Time slots of one second, so the periods don't depend on the second the test starts at
+		statsLogListener = new StatsLogListener(
+				statsOutputter,
+				0,
+				60,
+				TimeUnit.SECONDS,
+				numberOfSectionsToShow,
+				new StatsLogListenerOptions().withEventTimeWindowing(new EventTimeWindowing(0))
+		);
+		statsLogListener.startReplay();
+		ZonedDateTime start = ZonedDateTime.now().minusDays(1).withNano(0);
+
+		// The first log starts the first period, each period is reported before counting the log that ended it
+		addXTimes(LogGenerator.generateLog("/home", start), 2);
+		statsLogListener.onNext(LogGenerator.generateLog("/home", start.plusSeconds(30)));
+		statsLogListener.onNext(LogGenerator.generateLog("/api", start.plusSeconds(60)));
+		statsLogListener.onNext(LogGenerator.generateLog("/api", start.plusSeconds(90)));
+		statsLogListener.onComplete();
+
+		verify(statsOutputter).sectionHits(
+				Collections.singletonList(new AbstractMap.SimpleEntry<>("/home", 3)),
+				60,
+				TimeUnit.SECONDS,
+				start.plusSeconds(60).withZoneSameInstant(ZoneId.systemDefault())
+		);
+		// onComplete reports the period in progress
+		verify(statsOutputter).sectionHits(
+				Arrays.asList(new AbstractMap.SimpleEntry<>("/api", 2), new AbstractMap.SimpleEntry<>("/home", 1)),
+				60,
+				TimeUnit.SECONDS,
+				start.plusSeconds(90).withZoneSameInstant(ZoneId.systemDefault())
+		);
+	}
+
+	private StatsLogListener createEventTimeListener() {
+		return new StatsLogListener(
+				statsOutputter,
+				initialDelay,
+				period,
+				timeUnit,
+				numberOfSectionsToShow,
+				new StatsLogListenerOptions().withEventTimeWindowing(new EventTimeWindowing(0))
+		);
+	}
+
+	// "-" is not a user
+	private static UniqueCounts countUniques(AccessLog... accessLogs) {
+		Set<String> ipAddresses = new HashSet<>();
+		Set<String> users = new HashSet<>();
+
+		for (AccessLog accessLog : accessLogs) {
+			ipAddresses.add(accessLog.getIpAddress());
+			if (!"-".equals(accessLog.getUserID())) {
+				users.add(accessLog.getUserID());
+			}
+		}
+
+		return new UniqueCounts(ipAddresses.size(), users.size());
+	}
+
 	private void addXTimes(AccessLog accessLog, int times) {
 		for (int i = 0; i < times; ++i) {
 			statsLogListener.onNext(accessLog);
@@ -1,8 +1,13 @@
 package io.karon.logmonitor.listener;
 
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyDouble;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -10,6 +15,7 @@ import static org.mockito.Mockito.verify;
 import java.time.Instant;
 import java.time.ZonedDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
 
@@ -136,4 +142,231 @@ class ThresholdLogListenerTest {
 				thresholdLogListener.getEarliestInstantAtSystemDefaultClockZoneId()
 		);
 	}
+
+	@Test
+	void alertRulesTest() {
+		AlertRule loginErrors = AlertRule.parse("login-errors:/login:5xx:rate:20:5");
+		AlertRule clientErrors = AlertRule.parse("client-errors:*:4xx:count:2:5");
+		thresholdLogListener = new ThresholdLogListener(
+				thresholdOutputter,
+				initialDelay,
+				period,
+				durationToMonitor,
+				threshold,
+				timeUnit,
+				new ThresholdLogListenerOptions().withAlertRules(Arrays.asList(loginErrors, clientErrors))
+		);
+		ZonedDateTime now = ZonedDateTime.now();
+
+		for (int i = 0; i < 3; ++i) {
+			thresholdLogListener.onNext(new AccessLog("127.0.0.1", "-", "james", now, "POST", "/login", "HTTP/1.0", 200, 10));
+		}
+		thresholdLogListener.onNext(new AccessLog("127.0.0.1", "-", "james", now, "POST", "/login", "HTTP/1.0", 503, 10));
+		thresholdLogListener.onNext(new AccessLog("127.0.0.1", "-", "james", now, "GET", "/home", "HTTP/1.0", 404, 10));
+		thresholdLogListener.runScheduledProcess();
+
+		// 1 of the 4 hits on /login is a 5xx (25% > 20%), but there is only one 4xx
+		verify(thresholdOutputter).ruleThresholdReached(
+				loginErrors,
+				1,
+				4,
+				timeUnit,
+				thresholdLogListener.getEarliestInstantAtSystemDefaultClockZoneId()
+		);
+		verify(thresholdOutputter, never()).ruleThresholdReached(
+				eq(clientErrors),
+				anyLong(),
+				anyLong(),
+				any(TimeUnit.class),
+				any(ZonedDateTime.class)
+		);
+	}
+
+	@Test
+	void lowTrafficReachedCalledTest() {
+		thresholdLogListener = spy(createListenerWithLowTraffic(new LowTrafficThreshold(threshold, threshold, 0, 0)));
+
+		accessLogs.forEach(thresholdLogListener::onNext);
+		thresholdLogListener.runScheduledProcess();
+
+		doReturn(true).when(thresholdLogListener).isTooOldForTimeSlot(any(Instant.class));
+		thresholdLogListener.runScheduledProcess();
+
+		verify(thresholdOutputter).lowTrafficReached(
+				0,
+				thresholdForDurationToMonitor,
+				durationToMonitor,
+				timeUnit,
+				thresholdLogListener.getEarliestInstantAtSystemDefaultClockZoneId()
+		);
+	}
+
+	@Test
+	void lowTrafficNotArmedTest() {
+		thresholdLogListener = createListenerWithLowTraffic(new LowTrafficThreshold(threshold, threshold, 0, 0));
+
+		thresholdLogListener.runScheduledProcess();
+		thresholdLogListener.runScheduledProcess();
+
+		verify(thresholdOutputter, never()).lowTrafficReached(
+				anyInt(),
+				anyLong(),
+				anyLong(),
+				any(TimeUnit.class),
+				any(ZonedDateTime.class)
+		);
+	}
+
+	// The traffic has to stay low for a minute before alerting, then high for a minute before recovering
+	@Test
+	void lowTrafficMinDurationsTest() {
+		thresholdLogListener = spy(createListenerWithLowTraffic(new LowTrafficThreshold(threshold, threshold, 1, 1)));
+		Instant now = Instant.now();
+
+		accessLogs.forEach(thresholdLogListener::onNext);
+		thresholdLogListener.runScheduledProcess();
+
+		doReturn(true).when(thresholdLogListener).isTooOldForTimeSlot(any(Instant.class));
+		doReturn(now).when(thresholdLogListener).getEarliestInstant();
+		thresholdLogListener.runScheduledProcess();
+		verify(thresholdOutputter, never()).lowTrafficReached(
+				anyInt(),
+				anyLong(),
+				anyLong(),
+				any(TimeUnit.class),
+				any(ZonedDateTime.class)
+		);
+
+		doReturn(now.plusSeconds(60)).when(thresholdLogListener).getEarliestInstant();
+		thresholdLogListener.runScheduledProcess();
+		verify(thresholdOutputter).lowTrafficReached(
+				anyInt(),
+				anyLong(),
+				anyLong(),
+				any(TimeUnit.class),
+				any(ZonedDateTime.class)
+		);
+
+		doReturn(false).when(thresholdLogListener).isTooOldForTimeSlot(any(Instant.class));
+		doReturn(now.plusSeconds(90)).when(thresholdLogListener).getEarliestInstant();
+		thresholdLogListener.runScheduledProcess();
+		doReturn(now.plusSeconds(120)).when(thresholdLogListener).getEarliestInstant();
+		thresholdLogListener.runScheduledProcess();
+		doReturn(now.plusSeconds(150)).when(thresholdLogListener).getEarliestInstant();
+		thresholdLogListener.runScheduledProcess();
+
+		verify(thresholdOutputter, times(2)).lowTrafficStillActive(
+				anyInt(),
+				anyLong(),
+				anyLong(),
+				any(TimeUnit.class),
+				any(ZonedDateTime.class)
+		);
+		verify(thresholdOutputter).lowTrafficRecovered(
+				anyInt(),
+				anyLong(),
+				anyLong(),
+				any(TimeUnit.class),
+				any(ZonedDateTime.class)
+		);
+	}
+
+	// The time slot of the logs is learned one minute later, with 6 hits when the baseline only saw 0
+	@Test
+	void anomalyDetectedCalledTest() {
+		thresholdLogListener = spy(new ThresholdLogListener(
+				thresholdOutputter,
+				initialDelay,
+				period,
+				durationToMonitor,
+				threshold,
+				timeUnit,
+				new ThresholdLogListenerOptions().withAnomalyDetection(new AnomalyDetection(0.5, 3, 0, 0))
+		));
+		ZonedDateTime now = ZonedDateTime.now();
+
+		// Generated now rather than in beforeAll, which may have been in the previous time slot
+		for (int i = 0; i < currentCount; ++i) {
+			thresholdLogListener.onNext(LogGenerator.generateLog(now));
+		}
+		doReturn(now.toInstant()).when(thresholdLogListener).getEarliestInstant();
+		thresholdLogListener.runScheduledProcess();
+		doReturn(now.toInstant().plusSeconds(60)).when(thresholdLogListener).getEarliestInstant();
+		thresholdLogListener.runScheduledProcess();
+
+		verify(thresholdOutputter).anomalyDetected(
+				eq((long) currentCount),
+				eq(0.0),
+				eq((double) currentCount),
+				any(ZonedDateTime.class)
+		);
+	}
+
+	// The traffic stops for good: the time slots without logs are anomalous, they shouldn't become the baseline and end the alert
+	@Test
+	void anomalyStaysActiveDuringAnOutageTest() {
+		thresholdLogListener = spy(new ThresholdLogListener(
+				thresholdOutputter,
+				initialDelay,
+				period,
+				durationToMonitor,
+				threshold,
+				timeUnit,
+				new ThresholdLogListenerOptions().withAnomalyDetection(new AnomalyDetection(0.5, 3, 0, 0))
+		));
+		ZonedDateTime now = ZonedDateTime.now();
+
+		for (int minutesAgo = 4; minutesAgo >= 2; --minutesAgo) {
+			for (int i = 0; i < 100; ++i) {
+				thresholdLogListener.onNext(LogGenerator.generateLog(now.minusMinutes(minutesAgo)));
+			}
+		}
+		// Each period learns the time slot of the previous minute
+		for (int minutes = -3; minutes <= 2; ++minutes) {
+			doReturn(now.toInstant().plusSeconds(minutes * 60L)).when(thresholdLogListener).getEarliestInstant();
+			thresholdLogListener.runScheduledProcess();
+		}
+
+		verify(thresholdOutputter).anomalyDetected(eq(0L), eq(100.0), anyDouble(), any(ZonedDateTime.class));
+		verify(thresholdOutputter, times(2)).anomalyStillActive(anyLong(), anyDouble(), anyDouble(), any(ZonedDateTime.class));
+		verify(thresholdOutputter, never()).anomalyRecovered(anyLong(), anyDouble(), anyDouble(), any(ZonedDateTime.class));
+	}
+
+	// Several time slots are learned in the same period, the anomalous one isn't hidden by the ones after it
+	@Test
+	void anomalyInAnyTimeSlotOfThePeriodIsDetectedTest() {
+		thresholdLogListener = spy(new ThresholdLogListener(
+				thresholdOutputter,
+				initialDelay,
+				period,
+				durationToMonitor,
+				threshold,
+				timeUnit,
+				new ThresholdLogListenerOptions().withAnomalyDetection(new AnomalyDetection(0.5, 3, 0, 0))
+		));
+		ZonedDateTime now = ZonedDateTime.now();
+
+		for (int i = 0; i < 100; ++i) {
+			thresholdLogListener.onNext(LogGenerator.generateLog(now.minusMinutes(3)));
+		}
+		doReturn(now.toInstant().minusSeconds(4 * 60)).when(thresholdLogListener).getEarliestInstant();
+		thresholdLogListener.runScheduledProcess();
+		// Learns the time slots of 4, 3, 2 and 1 minutes ago: only the one of 3 minutes ago has logs
+		doReturn(now.toInstant()).when(thresholdLogListener).getEarliestInstant();
+		thresholdLogListener.runScheduledProcess();
+
+		verify(thresholdOutputter).anomalyDetected(eq(100L), eq(0.0), eq(100.0), any(ZonedDateTime.class));
+	}
+
+	private ThresholdLogListener createListenerWithLowTraffic(LowTrafficThreshold lowTrafficThreshold) {
+		return new ThresholdLogListener(
+				thresholdOutputter,
+				initialDelay,
+				period,
+				durationToMonitor,
+				threshold,
+				timeUnit,
+				new ThresholdLogListenerOptions().withLowTrafficThreshold(lowTrafficThreshold)
+		);
+	}
 }
@@ -0,0 +1,72 @@
+package io.karon.logmonitor.listener;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+
+class TimeSlotRingBufferTest {
+	private Instant now;
+	private TimeSlotRingBuffer<LongAdder> timeSlotRingBuffer;
+
+	@BeforeEach
+	void beforeEach() {
+		now = Instant.ofEpochSecond(1_000_000);
+		timeSlotRingBuffer = new TimeSlotRingBuffer<>(
+				Duration.ofSeconds(10),
+				Duration.ofSeconds(1),
+				LongAdder::new,
+				LongAdder::reset
+		);
+	}
+
+	@Test
+	void sizeCoversDurationToMonitorTest() {
+		assertEquals(11, timeSlotRingBuffer.size());
+	}
+
+	@Test
+	void sameTimeSlotSharesAccumulatorTest() {
+		LongAdder accumulator = timeSlotRingBuffer.getAccumulator(now);
+
+		assertSame(accumulator, timeSlotRingBuffer.getAccumulator(now.plusMillis(999)));
+	}
+
+	@Test
+	void recycledTimeSlotIsResetTest() {
+		timeSlotRingBuffer.getAccumulator(now).add(5);
+
+		LongAdder recycledAccumulator = timeSlotRingBuffer.getAccumulator(now.plusSeconds(timeSlotRingBuffer.size()));
+
+		assertEquals(0, recycledAccumulator.sum());
+	}
+
+	@Test
+	void tooOldForRecycledTimeSlotTest() {
+		timeSlotRingBuffer.getAccumulator(now.plusSeconds(timeSlotRingBuffer.size()));
+
+		assertNull(timeSlotRingBuffer.getAccumulator(now));
+	}
+
+	@Test
+	void tooOldTimeSlotsAreSkippedTest() {
+		timeSlotRingBuffer.getAccumulator(now.minusSeconds(5)).add(2);
+		timeSlotRingBuffer.getAccumulator(now).add(3);
+
+		LongAdder total = new LongAdder();
+		timeSlotRingBuffer.forEachTimeSlot(
+				mostRecentInstant -> mostRecentInstant.isBefore(now.minusSeconds(2)),
+				LongAdder::sum,
+				(oldestInstant, hits) -> total.add(hits)
+		);
+
+		assertEquals(3, total.sum());
+	}
+}
@@ -0,0 +1,99 @@
+package io.karon.logmonitor.listener;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Instant;
+
+import org.junit.jupiter.api.Test;
+
+
+class TrafficBaselineTest {
+	private static final Instant MIDNIGHT = Instant.parse("2019-07-14T00:00:00Z");
+	private static final double Z_SCORE_THRESHOLD = 4;
+
+	@Test
+	void warmUpTest() {
+		TrafficBaseline trafficBaseline = new TrafficBaseline(new AnomalyDetection(0.1, 3, 5, 0));
+
+		for (int i = 0; i < 5; ++i) {
+			assertTrue(Double.isNaN(learn(trafficBaseline, MIDNIGHT.plusSeconds(i), 100)));
+		}
+		assertEquals(0, learn(trafficBaseline, MIDNIGHT.plusSeconds(5), 100), 0.001);
+	}
+
+	// A drop to zero after a stable traffic is far below the baseline, the usual noise isn't
+	@Test
+	void dropToZeroTest() {
+		TrafficBaseline trafficBaseline = new TrafficBaseline(new AnomalyDetection(0.05, Z_SCORE_THRESHOLD, 10, 0));
+
+		for (int i = 0; i < 100; ++i) {
+			learn(trafficBaseline, MIDNIGHT.plusSeconds(i), i % 2 == 0 ? 990 : 1_010);
+		}
+
+		assertTrue(Math.abs(learn(trafficBaseline, MIDNIGHT.plusSeconds(100), 1_020)) < Z_SCORE_THRESHOLD);
+		assertTrue(learn(trafficBaseline, MIDNIGHT.plusSeconds(101), 0) < -Z_SCORE_THRESHOLD);
+	}
+
+	// The anomalous time slots are barely learned, so an outage stays anomalous instead of becoming the baseline
+	@Test
+	void outageStaysAnomalousTest() {
+		TrafficBaseline trafficBaseline = new TrafficBaseline(new AnomalyDetection(0.05, Z_SCORE_THRESHOLD, 10, 0));
+
+		for (int i = 0; i < 100; ++i) {
+			learn(trafficBaseline, MIDNIGHT.plusSeconds(i), i % 2 == 0 ? 990 : 1_010);
+		}
+
+		for (int i = 100; i < 160; ++i) {
+			assertTrue(learn(trafficBaseline, MIDNIGHT.plusSeconds(i), 0) < -Z_SCORE_THRESHOLD);
+		}
+	}
+
+	// The night traffic is compared to the previous nights, not to the day traffic
+	@Test
+	void seasonalBucketsTest() {
+		TrafficBaseline trafficBaseline = new TrafficBaseline(new AnomalyDetection(0.1, Z_SCORE_THRESHOLD, 3, 24));
+
+		for (int day = 0; day < 10; ++day) {
+			Instant dayMidnight = MIDNIGHT.plusSeconds(day * 86_400L);
+			learn(trafficBaseline, dayMidnight.plusSeconds(3 * 3_600), 10);
+			learn(trafficBaseline, dayMidnight.plusSeconds(15 * 3_600), 10_000);
+		}
+
+		Instant nextNight = MIDNIGHT.plusSeconds(10 * 86_400L + 3 * 3_600);
+		assertEquals(10, trafficBaseline.getExpectedHits(nextNight), 0.001);
+		assertTrue(Math.abs(learn(trafficBaseline, nextNight, 10)) < Z_SCORE_THRESHOLD);
+	}
+
+	// A bucket learns each day as a whole: the hour of the previous days, not its last time slots
+	@Test
+	void seasonalBucketLearnsOnceADayTest() {
+		TrafficBaseline trafficBaseline = new TrafficBaseline(new AnomalyDetection(0.05, Z_SCORE_THRESHOLD, 3, 24));
+
+		for (int day = 0; day < 10; ++day) {
+			Instant threeAM = MIDNIGHT.plusSeconds(day * 86_400L + 3 * 3_600);
+			for (int second = 0; second < 3_600; ++second) {
+				learn(trafficBaseline, threeAM.plusSeconds(second), second % 2 == 0 ? 90 : 110);
+			}
+		}
+
+		// The rest of the hour has twice the traffic, it's only learned with tomorrow's first time slot
+		Instant threeAM = MIDNIGHT.plusSeconds(10 * 86_400L + 3 * 3_600);
+		for (int second = 0; second < 3_600; ++second) {
+			learn(trafficBaseline, threeAM.plusSeconds(second), 200);
+		}
+		assertEquals(100, trafficBaseline.getExpectedHits(threeAM), 0.001);
+
+		learn(trafficBaseline, threeAM.plusSeconds(86_400), 200);
+		assertTrue(trafficBaseline.getExpectedHits(threeAM) > 100);
+		assertTrue(trafficBaseline.getExpectedHits(threeAM) < 200);
+	}
+
+	// Returns the z-score of the hits before learning them, like the ThresholdLogListener
+	private static double learn(TrafficBaseline trafficBaseline, Instant timeSlotInstant, long hits) {
+		double zScore = trafficBaseline.getZScore(timeSlotInstant, hits);
+		trafficBaseline.learn(timeSlotInstant, hits, Math.abs(zScore) > Z_SCORE_THRESHOLD);
+
+		return zScore;
+	}
+}
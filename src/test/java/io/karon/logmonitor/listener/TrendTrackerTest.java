@@ -0,0 +1,51 @@
+package io.karon.logmonitor.listener;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+
+class TrendTrackerTest {
+	@Test
+	void firstPeriodTest() {
+		TrendTracker trendTracker = new TrendTracker(3);
+
+		List<Trend> sectionsTrends = trendTracker.getSectionsTrends(period(10, 0), Collections.singletonList("/home"));
+
+		assertEquals(Collections.singletonList(new Trend("/home", 10, 0, 0)), sectionsTrends);
+	}
+
+	// Only the last 3 periods are in the baseline
+	@Test
+	void previousAndBaselineTest() {
+		TrendTracker trendTracker = new TrendTracker(3);
+		trendTracker.add(period(1_000, 1));
+		trendTracker.add(period(10, 2));
+		trendTracker.add(period(20, 4));
+		trendTracker.add(period(30, 6));
+
+		StatsPeriod currentPeriod = period(40, 0);
+		Trend sectionTrend = trendTracker.getSectionsTrends(currentPeriod, Collections.singletonList("/home")).get(0);
+
+		assertEquals(new Trend("/home", 40, 30, 20), sectionTrend);
+		assertEquals(10, sectionTrend.getDelta());
+		assertEquals(100.0 / 3, sectionTrend.getGrowthRate(), 0.001);
+		assertEquals(100, sectionTrend.getGrowthRateFromBaseline(), 0.001);
+		assertEquals(
+				Arrays.asList(new Trend("2xx", 40, 30, 20), new Trend("5xx", 0, 6, 4)),
+				trendTracker.getStatusClassesTrends(currentPeriod)
+		);
+	}
+
+	private static StatsPeriod period(long homeHits, long serverErrors) {
+		long[] statusClassesHits = new long[AlertRuleCounters.NUMBER_OF_STATUS_CLASSES];
+		statusClassesHits[2] = homeHits;
+		statusClassesHits[5] = serverErrors;
+
+		return new StatsPeriod(Collections.singletonMap("/home", homeHits), statusClassesHits);
+	}
+}
@@ -0,0 +1,140 @@
+package io.karon.logmonitor.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Matchers.argThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.ReflectionException;
+
+import org.apache.logging.log4j.Logger;
+import org.hamcrest.CustomMatcher;
+import org.junit.jupiter.api.Test;
+
+import io.reactivex.observers.TestObserver;
+
+
+class MetricsTest {
+	@Test
+	void timerMergesTheHistogramsOfEveryThreadTest() throws InterruptedException {
+		Timer timer = Metrics.timer("test.threads");
+		List<Thread> threads = new ArrayList<>();
+
+		for (int i = 0; i < 4; ++i) {
+			Thread thread = new Thread(() -> {
+				for (int j = 0; j < 1_000; ++j) {
+					timer.recordSince(System.nanoTime() - TimeUnit.MICROSECONDS.toNanos(10));
+				}
+			});
+			threads.add(thread);
+			thread.start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+
+		TimerSnapshot snapshot = timer.getSnapshot();
+		assertEquals(4_000, timer.getCount());
+		assertEquals(4_000, snapshot.getCount());
+		assertTrue(snapshot.getValueAtPercentile(50) >= TimeUnit.MICROSECONDS.toNanos(10));
+	}
+
+	@Test
+	void snapshotSinceAPreviousOneOnlyHasTheLatenciesRecordedInBetweenTest() {
+		Timer timer = Metrics.timer("test.since");
+		timer.recordSince(System.nanoTime() - TimeUnit.SECONDS.toNanos(1));
+		TimerSnapshot previous = timer.getSnapshot();
+
+		for (int i = 0; i < 10; ++i) {
+			timer.recordSince(System.nanoTime() - TimeUnit.MICROSECONDS.toNanos(10));
+		}
+		TimerSnapshot since = timer.getSnapshot().since(previous);
+
+		assertEquals(10, since.getCount());
+		assertTrue(since.getMax() < TimeUnit.MILLISECONDS.toNanos(100));
+		assertTrue(since.getValueAtPercentile(50) >= TimeUnit.MICROSECONDS.toNanos(10));
+	}
+
+	@Test
+	void sameNameGivesTheSameMetricTest() {
+		assertTrue(Metrics.timer("test.same") == Metrics.timer("test.same"));
+		assertTrue(Metrics.counter("test.same") == Metrics.counter("test.same"));
+	}
+
+	@Test
+	void gaugeIsOnlyRemovedByItsOwnerTest() {
+		LongSupplier firstGauge = () -> 1;
+		LongSupplier secondGauge = () -> 2;
+
+		Metrics.gauge("test.gauge", firstGauge);
+		Metrics.gauge("test.gauge", secondGauge);
+		Metrics.removeGauge("test.gauge", firstGauge);
+		assertEquals(2, Metrics.getGauges().get("test.gauge").getAsLong());
+
+		Metrics.removeGauge("test.gauge", secondGauge);
+		assertNull(Metrics.getGauges().get("test.gauge"));
+	}
+
+	@Test
+	void timedObserverTimesOnNextTest() {
+		TestObserver<String> testObserver = new TestObserver<>();
+		TimedObserver<String> timedObserver = new TimedObserver<>(testObserver);
+		long count = Metrics.timer("onNext.TestObserver").getCount();
+
+		timedObserver.onNext("log");
+		timedObserver.onComplete();
+
+		testObserver.assertValue("log");
+		testObserver.assertComplete();
+		assertEquals(count + 1, Metrics.timer("onNext.TestObserver").getCount());
+	}
+
+	@Test
+	void mBeanExposesTheMetricsTest() throws Exception {
+		Metrics.counter("test.mbean").increment();
+		Metrics.timer("test.mbean.timer").recordSince(System.nanoTime());
+		Metrics.gauge("test.mbean.gauge", () -> 42);
+
+		Metrics.registerMBean();
+		Metrics.registerMBean();
+		MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+		ObjectName objectName = new ObjectName("io.karon.logmonitor:type=Metrics");
+
+		assertEquals(1L, mBeanServer.getAttribute(objectName, "test.mbean"));
+		assertEquals(1L, mBeanServer.getAttribute(objectName, "test.mbean.timer.count"));
+		assertEquals(42L, mBeanServer.getAttribute(objectName, "test.mbean.gauge"));
+		assertFalse(mBeanServer.getAttributes(objectName, new String[]{"test.mbean", "test.unknown"}).isEmpty());
+		assertThrows(ReflectionException.class, () -> mBeanServer.invoke(objectName, "reset", null, null));
+	}
+
+	@Test
+	void reporterLogsEveryMetricTest() {
+		Logger logger = mock(Logger.class);
+		Metrics.counter("test.reporter").increment();
+		Metrics.timer("test.reporter.timer").recordSince(System.nanoTime());
+
+		new MetricsReporter(logger).report();
+
+		verify(logger).info(argThat(new CustomMatcher<String>("a report with the metrics") {
+			@Override
+			public boolean matches(Object item) {
+				String report = (String) item;
+				return report.contains("\ttest.reporter: 1 (+1)")
+						&& report.contains("\ttest.reporter.timer: 1 (")
+						&& report.contains(", p99 ");
+			}
+		}));
+	}
+}
@@ -0,0 +1,148 @@
+package io.karon.logmonitor.outputter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Matchers.same;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+import java.time.ZonedDateTime;
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+
+import io.karon.logmonitor.log.AccessLog;
+import io.karon.logmonitor.metrics.Metrics;
+
+
+class AsyncOutputterTest {
+	@Test
+	void outputsAreCalledInOrderOnAnotherThreadTest() throws InterruptedException {
+		ThresholdOutputter thresholdOutputter = mock(ThresholdOutputter.class);
+		AsyncThresholdOutputter asyncThresholdOutputter = new AsyncThresholdOutputter(thresholdOutputter, 16, 60);
+		ZonedDateTime now = ZonedDateTime.now();
+		Thread[] outputThread = new Thread[1];
+
+		doAnswer(invocation -> {
+			outputThread[0] = Thread.currentThread();
+			return null;
+		}).when(thresholdOutputter).thresholdReached(30, 20, 120, TimeUnit.SECONDS, now);
+
+		asyncThresholdOutputter.windowCount(30, 20, 120, TimeUnit.SECONDS, now);
+		asyncThresholdOutputter.thresholdReached(30, 20, 120, TimeUnit.SECONDS, now);
+		asyncThresholdOutputter.trafficRecovered(10, 20, 120, TimeUnit.SECONDS, now);
+		asyncThresholdOutputter.stop();
+
+		InOrder inOrder = inOrder(thresholdOutputter);
+		inOrder.verify(thresholdOutputter).windowCount(30, 20, 120, TimeUnit.SECONDS, now);
+		inOrder.verify(thresholdOutputter).thresholdReached(30, 20, 120, TimeUnit.SECONDS, now);
+		inOrder.verify(thresholdOutputter).trafficRecovered(10, 20, 120, TimeUnit.SECONDS, now);
+		assertTrue(outputThread[0] != Thread.currentThread());
+	}
+
+	@Test
+	void lateLogsAreSummarizedTest() throws InterruptedException {
+		StatsOutputter statsOutputter = mock(StatsOutputter.class);
+		AsyncStatsOutputter asyncStatsOutputter = new AsyncStatsOutputter(statsOutputter, 16, 1);
+		AccessLog accessLog = mock(AccessLog.class);
+		AccessLog lastAccessLog = mock(AccessLog.class);
+
+		for (int i = 0; i < 999; ++i) {
+			asyncStatsOutputter.logOutsideDurationToMonitor(accessLog);
+		}
+		asyncStatsOutputter.logOutsideDurationToMonitor(lastAccessLog);
+
+		verify(statsOutputter, timeout(5_000)).logsOutsideDurationToMonitor(1_000, lastAccessLog, 1, TimeUnit.SECONDS);
+		verify(statsOutputter, never()).logOutsideDurationToMonitor(any(AccessLog.class));
+
+		asyncStatsOutputter.stop();
+		// Nothing late since the summary
+		verify(statsOutputter).logsOutsideDurationToMonitor(anyLong(), any(AccessLog.class), anyLong(), any(TimeUnit.class));
+	}
+
+	@Test
+	void lateLogsAreSummarizedWhenStoppingTest() throws InterruptedException {
+		ThresholdOutputter thresholdOutputter = mock(ThresholdOutputter.class);
+		AsyncThresholdOutputter asyncThresholdOutputter = new AsyncThresholdOutputter(thresholdOutputter, 16, 60);
+		AccessLog accessLog = mock(AccessLog.class);
+
+		asyncThresholdOutputter.logOutsideDurationToMonitor(accessLog);
+		asyncThresholdOutputter.logOutsideDurationToMonitor(accessLog);
+		asyncThresholdOutputter.stop();
+
+		verify(thresholdOutputter).logsOutsideDurationToMonitor(eq(2L), same(accessLog), eq(60L), eq(TimeUnit.SECONDS));
+	}
+
+	@Test
+	void outputsAreDroppedWhenTheQueueIsFullTest() throws InterruptedException {
+		StatsOutputter statsOutputter = mock(StatsOutputter.class);
+		AsyncStatsOutputter asyncStatsOutputter = new AsyncStatsOutputter(statsOutputter, 2, 60);
+		CountDownLatch outputStarted = new CountDownLatch(1);
+		CountDownLatch slowAppender = new CountDownLatch(1);
+		ZonedDateTime now = ZonedDateTime.now();
+		long dropped = Metrics.counter("output.dropped").getCount();
+
+		doAnswer(invocation -> {
+			outputStarted.countDown();
+			slowAppender.await();
+			return null;
+		}).when(statsOutputter).sectionHits(Collections.emptyList(), 1, TimeUnit.SECONDS, now);
+
+		// The first one blocks the output thread, the next two fill the queue, the last one is dropped without waiting
+		asyncStatsOutputter.sectionHits(Collections.emptyList(), 1, TimeUnit.SECONDS, now);
+		assertTrue(outputStarted.await(5, TimeUnit.SECONDS));
+		asyncStatsOutputter.sectionHits(Collections.emptyList(), 2, TimeUnit.SECONDS, now);
+		asyncStatsOutputter.sectionHits(Collections.emptyList(), 3, TimeUnit.SECONDS, now);
+		asyncStatsOutputter.sectionHits(Collections.emptyList(), 4, TimeUnit.SECONDS, now);
+		assertEquals(dropped + 1, Metrics.counter("output.dropped").getCount());
+
+		slowAppender.countDown();
+		asyncStatsOutputter.stop();
+
+		verify(statsOutputter).sectionHits(Collections.emptyList(), 3, TimeUnit.SECONDS, now);
+		verify(statsOutputter, never()).sectionHits(Collections.emptyList(), 4, TimeUnit.SECONDS, now);
+	}
+
+	@Test
+	void alertsAreNeverDroppedTest() throws InterruptedException {
+		ThresholdOutputter thresholdOutputter = mock(ThresholdOutputter.class);
+		AsyncThresholdOutputter asyncThresholdOutputter = new AsyncThresholdOutputter(thresholdOutputter, 1, 60);
+		CountDownLatch outputStarted = new CountDownLatch(1);
+		CountDownLatch slowAppender = new CountDownLatch(1);
+		ZonedDateTime now = ZonedDateTime.now();
+
+		doAnswer(invocation -> {
+			outputStarted.countDown();
+			slowAppender.await();
+			return null;
+		}).when(thresholdOutputter).windowCount(1, 20, 120, TimeUnit.SECONDS, now);
+
+		// The first one blocks the output thread, the next one fills the queue
+		asyncThresholdOutputter.windowCount(1, 20, 120, TimeUnit.SECONDS, now);
+		assertTrue(outputStarted.await(5, TimeUnit.SECONDS));
+		asyncThresholdOutputter.windowCount(2, 20, 120, TimeUnit.SECONDS, now);
+		asyncThresholdOutputter.thresholdReached(30, 20, 120, TimeUnit.SECONDS, now);
+		asyncThresholdOutputter.trafficRecovered(10, 20, 120, TimeUnit.SECONDS, now);
+		// The alerts took the place of the periodic outputs
+		asyncThresholdOutputter.windowCount(3, 20, 120, TimeUnit.SECONDS, now);
+
+		slowAppender.countDown();
+		asyncThresholdOutputter.stop();
+
+		InOrder inOrder = inOrder(thresholdOutputter);
+		inOrder.verify(thresholdOutputter).windowCount(2, 20, 120, TimeUnit.SECONDS, now);
+		inOrder.verify(thresholdOutputter).thresholdReached(30, 20, 120, TimeUnit.SECONDS, now);
+		inOrder.verify(thresholdOutputter).trafficRecovered(10, 20, 120, TimeUnit.SECONDS, now);
+		verify(thresholdOutputter, never()).windowCount(3, 20, 120, TimeUnit.SECONDS, now);
+	}
+}
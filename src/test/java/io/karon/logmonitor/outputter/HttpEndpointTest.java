@@ -0,0 +1,149 @@
+package io.karon.logmonitor.outputter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.time.ZonedDateTime;
+import java.util.AbstractMap;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.karon.logmonitor.listener.AlertRule;
+import io.karon.logmonitor.listener.HeavyHitter;
+import io.karon.logmonitor.listener.UniqueCounts;
+import io.karon.logmonitor.log.AccessLog;
+import io.karon.logmonitor.metrics.Metrics;
+
+
+class HttpEndpointTest {
+	private HttpEndpoint httpEndpoint;
+	private StatsOutputter statsOutputter;
+	private ThresholdOutputter thresholdOutputter;
+	private HttpStatsOutputter httpStatsOutputter;
+	private HttpThresholdOutputter httpThresholdOutputter;
+
+	@BeforeEach
+	void beforeEach() throws IOException {
+		httpEndpoint = new HttpEndpoint("localhost", 0);
+		httpEndpoint.start();
+
+		statsOutputter = mock(StatsOutputter.class);
+		thresholdOutputter = mock(ThresholdOutputter.class);
+		httpStatsOutputter = new HttpStatsOutputter(statsOutputter, httpEndpoint);
+		httpThresholdOutputter = new HttpThresholdOutputter(thresholdOutputter, httpEndpoint);
+	}
+
+	@AfterEach
+	void afterEach() {
+		httpEndpoint.stop();
+	}
+
+	@Test
+	void statsAreServedInJsonTest() throws IOException {
+		ZonedDateTime now = ZonedDateTime.now();
+		List<Map.Entry<String, Integer>> sectionsWithTheMostHits = Arrays.asList(
+				new AbstractMap.SimpleEntry<>("/api", 12),
+				new AbstractMap.SimpleEntry<>("/say\"hi\"", 3)
+		);
+		UniqueCounts uniqueCounts = new UniqueCounts(4, 2);
+
+		httpStatsOutputter.sectionHits(sectionsWithTheMostHits, 10, TimeUnit.SECONDS, now);
+		httpStatsOutputter.uniques(uniqueCounts, Collections.emptyMap(), 10, TimeUnit.SECONDS, now);
+		httpThresholdOutputter.windowCount(30, 20, 120, TimeUnit.SECONDS, now);
+		httpThresholdOutputter.thresholdReached(30, 20, 120, TimeUnit.SECONDS, now);
+
+		verify(statsOutputter).sectionHits(sectionsWithTheMostHits, 10, TimeUnit.SECONDS, now);
+		verify(statsOutputter).uniques(uniqueCounts, Collections.emptyMap(), 10, TimeUnit.SECONDS, now);
+		verify(thresholdOutputter).windowCount(30, 20, 120, TimeUnit.SECONDS, now);
+		verify(thresholdOutputter).thresholdReached(30, 20, 120, TimeUnit.SECONDS, now);
+
+		String json = get("/stats");
+		assertTrue(json.contains("{\"section\":\"/api\",\"hits\":12,\"error\":0}"), json);
+		assertTrue(json.contains("{\"section\":\"/say\\\"hi\\\"\",\"hits\":3,\"error\":0}"), json);
+		assertTrue(json.contains("\"uniqueIpAddresses\":4,\"uniqueUsers\":2"), json);
+		assertTrue(json.contains("\"hits\":30,\"threshold\":20"), json);
+		assertTrue(json.contains("\"activeAlerts\":[{\"name\":\"highTraffic\""), json);
+	}
+
+	@Test
+	void alertsAndMetricsAreServedToPrometheusTest() throws IOException {
+		ZonedDateTime now = ZonedDateTime.now();
+		AlertRule alertRule = new AlertRule("login-errors", "/login", 5, AlertRule.Metric.COUNT, 2, 20);
+
+		httpStatsOutputter.sectionHeavyHitters(
+				Collections.singletonList(new HeavyHitter("/api", 12, 1)),
+				10,
+				TimeUnit.SECONDS,
+				now
+		);
+		httpThresholdOutputter.thresholdReached(30, 20, 120, TimeUnit.SECONDS, now);
+		httpThresholdOutputter.trafficRecovered(10, 20, 120, TimeUnit.SECONDS, now);
+		httpThresholdOutputter.ruleThresholdReached(alertRule, 5, 50, TimeUnit.SECONDS, now);
+		httpThresholdOutputter.windowCount(10, 20, 120, TimeUnit.SECONDS, now);
+		// After the last period, the late logs are still served
+		httpThresholdOutputter.logOutsideDurationToMonitor(mock(AccessLog.class));
+
+		// Recorded after the last period too
+		Metrics.timer("test.http").recordSince(System.nanoTime());
+
+		String metrics = get("/metrics");
+		assertTrue(metrics.contains("logmonitor_section_hits{section=\"/api\"} 12\n"), metrics);
+		assertTrue(metrics.contains("logmonitor_window_hits 10\n"), metrics);
+		assertTrue(metrics.contains("logmonitor_alert_active{alert=\"highTraffic\"} 0\n"), metrics);
+		assertTrue(metrics.contains("logmonitor_alert_active{alert=\"rule.login-errors\"} 1\n"), metrics);
+		assertTrue(metrics.contains("logmonitor_late_logs_total 1\n"), metrics);
+		assertTrue(metrics.contains("# TYPE logmonitor_stage_latency_seconds summary\n"), metrics);
+		assertTrue(metrics.contains("logmonitor_stage_latency_seconds_count{stage=\"test.http\"} 1\n"), metrics);
+		assertTrue(metrics.contains("logmonitor_stage_latency_seconds_sum{stage=\"test.http\"} "), metrics);
+
+		String json = get("/stats");
+		assertTrue(json.endsWith(",\"lateLogs\":1}"), json);
+		assertFalse(json.contains("\"highTraffic\""), json);
+		assertTrue(json.contains("{\"name\":\"rule.login-errors\""), json);
+	}
+
+	@Test
+	void onlyGetIsAllowedTest() throws IOException {
+		HttpURLConnection connection = (HttpURLConnection) getUrl("/metrics").openConnection();
+		connection.setRequestMethod("POST");
+
+		assertEquals(405, connection.getResponseCode());
+	}
+
+	private URL getUrl(String path) throws IOException {
+		return new URL("http", "localhost", httpEndpoint.getPort(), path);
+	}
+
+	private String get(String path) throws IOException {
+		HttpURLConnection connection = (HttpURLConnection) getUrl(path).openConnection();
+		assertEquals(200, connection.getResponseCode());
+
+		try (InputStream inputStream = connection.getInputStream()) {
+			ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+			byte[] buffer = new byte[4096];
+			int read;
+
+			while ((read = inputStream.read(buffer)) != -1) {
+				outputStream.write(buffer, 0, read);
+			}
+
+			return new String(outputStream.toByteArray(), StandardCharsets.UTF_8);
+		}
+	}
+}
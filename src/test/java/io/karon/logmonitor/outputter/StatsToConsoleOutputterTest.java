@@ -8,6 +8,8 @@ import static org.mockito.Mockito.verify;
 import java.time.ZonedDateTime;
 import java.util.AbstractMap;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
@@ -21,6 +23,10 @@ import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
 import io.karon.logmonitor.LogGenerator;
+import io.karon.logmonitor.listener.HeavyHitter;
+import io.karon.logmonitor.listener.SizePercentiles;
+import io.karon.logmonitor.listener.Trend;
+import io.karon.logmonitor.listener.UniqueCounts;
 
 
 @TestInstance(TestInstance.Lifecycle.PER_CLASS)
@@ -77,6 +83,94 @@ class StatsToConsoleOutputterTest {
 		verify(logger).info(sectionHitsLog);
 	}
 
+	@Test
+	void uniquesTest() {
+		Map<String, UniqueCounts> sectionsUniqueCounts = new LinkedHashMap<>();
+		sectionsUniqueCounts.put("/home", new UniqueCounts(12, 3));
+		ZonedDateTime now = ZonedDateTime.now();
+
+		statsOutputter.uniques(new UniqueCounts(40, 7), sectionsUniqueCounts, durationToMonitor, timeUnit, now);
+
+		String uniquesLog = "Unique visitors in the last " + durationToMonitor + " " + timeUnit
+				+ " at " + now + " (approximate):" + LINE_SEPARATOR
+				+ TABULATION + "- IP addresses: 40" + LINE_SEPARATOR
+				+ TABULATION + "- Users: 7" + LINE_SEPARATOR
+				+ TABULATION + "* Section: /home" + LINE_SEPARATOR
+				+ TABULATION + TABULATION + "- IP addresses: 12" + LINE_SEPARATOR
+				+ TABULATION + TABULATION + "- Users: 3" + LINE_SEPARATOR
+				+ LOG_SEPARATOR;
+
+		verify(logger).info(uniquesLog);
+	}
+
+	@Test
+	void contentSizesTest() {
+		Map<String, SizePercentiles> statusClassesSizePercentiles = Collections.singletonMap("2xx", new SizePercentiles(3, 10, 20, 30, 40));
+		Map<String, SizePercentiles> sectionsSizePercentiles = Collections.singletonMap("/home", new SizePercentiles(2, 1, 2, 3, 4));
+		ZonedDateTime now = ZonedDateTime.now();
+
+		statsOutputter.contentSizes(
+				new SizePercentiles(5, 10, 20, 30, 40),
+				statusClassesSizePercentiles,
+				sectionsSizePercentiles,
+				durationToMonitor,
+				timeUnit,
+				now
+		);
+
+		String contentSizesLog = "Content sizes in the last " + durationToMonitor + " " + timeUnit
+				+ " at " + now + " (bytes):" + LINE_SEPARATOR
+				+ TABULATION + "- p50: 10, p90: 20, p99: 30, max: 40 (5 logs)" + LINE_SEPARATOR
+				+ TABULATION + "* Status: 2xx" + LINE_SEPARATOR
+				+ TABULATION + TABULATION + "- p50: 10, p90: 20, p99: 30, max: 40 (3 logs)" + LINE_SEPARATOR
+				+ TABULATION + "* Section: /home" + LINE_SEPARATOR
+				+ TABULATION + TABULATION + "- p50: 1, p90: 2, p99: 3, max: 4 (2 logs)" + LINE_SEPARATOR
+				+ LOG_SEPARATOR;
+
+		verify(logger).info(contentSizesLog);
+	}
+
+	@Test
+	void trendsTest() {
+		ZonedDateTime now = ZonedDateTime.now();
+
+		statsOutputter.trends(
+				Collections.singletonList(new Trend("/home", 150, 100, 0)),
+				Collections.singletonList(new Trend("5xx", 5, 10, 20)),
+				durationToMonitor,
+				timeUnit,
+				now
+		);
+
+		String trendsLog = "Trends of the last " + durationToMonitor + " " + timeUnit + " at " + now
+				+ " (compared to the previous period, and to the average of the last periods):" + LINE_SEPARATOR
+				+ TABULATION + "* Status: 5xx" + LINE_SEPARATOR
+				+ TABULATION + TABULATION + "- Hits: 5, previous: 10 (-50%), average: 20 (-75%)" + LINE_SEPARATOR
+				+ TABULATION + "* Section: /home" + LINE_SEPARATOR
+				+ TABULATION + TABULATION + "- Hits: 150, previous: 100 (+50%), average: 0" + LINE_SEPARATOR
+				+ LOG_SEPARATOR;
+
+		verify(logger).info(trendsLog);
+	}
+
+	@Test
+	void sectionHeavyHittersTest() {
+		HeavyHitter heavyHitter = new HeavyHitter("/home", 15, 3);
+		ZonedDateTime now = ZonedDateTime.now();
+
+		statsOutputter.sectionHeavyHitters(Collections.singletonList(heavyHitter), durationToMonitor, timeUnit, now);
+
+		String sectionHeavyHittersLog = "Log Stats generated "
+				+ "in the last " + durationToMonitor + " " + timeUnit
+				+ " at " + now + ":" + LINE_SEPARATOR
+				+ "Sections with the most hits (approximate): " + LINE_SEPARATOR
+				+ TABULATION + "* Section: /home" + LINE_SEPARATOR
+				+ TABULATION + TABULATION + "- Hits: 12 to 15" + LINE_SEPARATOR
+				+ LOG_SEPARATOR;
+
+		verify(logger).info(sectionHeavyHittersLog);
+	}
+
 	@Test
 	void emptySectionHitsTest() {
 		ZonedDateTime now = ZonedDateTime.now();
@@ -17,6 +17,7 @@ import org.junit.jupiter.api.TestInstance;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
+import io.karon.logmonitor.listener.AlertRule;
 import io.karon.logmonitor.log.AccessLog;
 
 
@@ -54,6 +55,37 @@ class ThresholdToConsoleOutputterTest {
 		verify(logger).warn("Received accessLog |> {} <| which has an Instant outside of the monitored duration", accessLog);
 	}
 
+	@Test
+	final void testLogsOutsideDurationToMonitor(){
+		AccessLog accessLog = mock(AccessLog.class);
+
+		thresholdOutputter.logsOutsideDurationToMonitor(42, accessLog, 10, TimeUnit.SECONDS);
+
+		verify(logger).warn(
+				"Received {} accessLogs which have an Instant outside of the monitored duration in the last {} {}, the last one |> {} <|",
+				42L,
+				10L,
+				TimeUnit.SECONDS,
+				accessLog
+		);
+	}
+
+	@Test
+	final void testWindowCount(){
+		ZonedDateTime zonedDateTime = ZonedDateTime.now();
+
+		thresholdOutputter.windowCount(42, 50, durationToMonitor, timeUnit, zonedDateTime);
+
+		verify(logger).debug(
+				"hits/threshold = {}/{} in the last {} {}, at {}",
+				42,
+				50L,
+				durationToMonitor,
+				timeUnit,
+				zonedDateTime
+		);
+	}
+
 	// This test is probably the only one we care about, since the other methods only log the information we pass on to them
 	@Test
 	final void testPreviousThresholdsReached(){
@@ -144,4 +176,63 @@ class ThresholdToConsoleOutputterTest {
 				now
 		);
 	}
+
+	@Test
+	final void testLowTrafficReached(){
+		int currentCount = 0;
+		long lowThresholdForDurationToMonitor = 50;
+		ZonedDateTime now = ZonedDateTime.now();
+
+		thresholdOutputter.lowTrafficReached(currentCount, lowThresholdForDurationToMonitor, durationToMonitor, timeUnit, now);
+
+		verify(logger).info(
+				"{} - hits/threshold = {}/{} in the last {} {}, triggered at {}" + LINE_SEPARATOR + LOG_SEPARATOR,
+				"Low traffic generated an alert",
+				currentCount,
+				lowThresholdForDurationToMonitor,
+				durationToMonitor,
+				timeUnit,
+				now
+		);
+	}
+
+	@Test
+	final void testAnomalyDetected(){
+		ZonedDateTime now = ZonedDateTime.now();
+
+		thresholdOutputter.anomalyDetected(3, 1_000.4, -31.52, now);
+
+		verify(logger).info(
+				"{} - hits/expected = {}/{} in the last time slot (z-score {}), triggered at {}"
+						+ LINE_SEPARATOR + LOG_SEPARATOR,
+				"Unusual traffic generated an alert",
+				3L,
+				1_000L,
+				-31.5,
+				now
+		);
+	}
+
+	@Test
+	final void testRuleThresholdReached(){
+		AlertRule alertRule = AlertRule.parse("login-errors:/login:5xx:rate:2:60");
+		ZonedDateTime now = ZonedDateTime.now();
+
+		thresholdOutputter.ruleThresholdReached(alertRule, 5, 100, timeUnit, now);
+
+		verify(logger).info(
+				"{} |> {} <| - {}/threshold = {}/{} ({}/{} hits) in the last {} {}, triggered at {}"
+						+ LINE_SEPARATOR + LOG_SEPARATOR,
+				"Alert rule generated an alert",
+				alertRule,
+				AlertRule.Metric.RATE,
+				5.0,
+				2.0,
+				5L,
+				100L,
+				60L,
+				timeUnit,
+				now
+		);
+	}
 }
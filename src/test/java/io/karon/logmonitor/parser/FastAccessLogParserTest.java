@@ -0,0 +1,154 @@
+package io.karon.logmonitor.parser;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.fail;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+
+import io.karon.logmonitor.log.AccessLog;
+import io.karon.logmonitor.LogGenerator;
+
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class FastAccessLogParserTest {
+	private static final String VALID_LOG_LINE = "127.0.0.1 - james [09/May/2018:16:00:39 +0000] \"GET /report HTTP/1.0\" 200 123";
+	private static final String MUTATION_CHARACTERS = " \t\"[]/:+-_0123456789aZ";
+
+	private AccessLogParser accessLogParser;
+	private FastAccessLogParser fastAccessLogParser;
+
+	@BeforeAll
+	void beforeAll() {
+		accessLogParser = new AccessLogParser();
+		fastAccessLogParser = new FastAccessLogParser();
+	}
+
+	@Test
+	final void testParseFromLogLine() throws ParseException {
+		AccessLog accessLog = LogGenerator.generateLog();
+		AccessLog parsedResult = fastAccessLogParser.parseFromLogLine(accessLog.toString());
+
+		assertNotNull(parsedResult);
+		assertEquals(accessLog.toString(), parsedResult.toString());
+	}
+
+	@Test
+	final void testParseFromAsciiByteSlice() throws ParseException {
+		AccessLog accessLog = LogGenerator.generateLog();
+		byte[] bytes = ("\n" + accessLog + "\n").getBytes(StandardCharsets.US_ASCII);
+
+		AccessLog parsedResult = fastAccessLogParser.parseFromLogLine(
+				new AsciiByteSlice(ByteBuffer.wrap(bytes), 1, bytes.length - 2)
+		);
+
+		assertEquals(accessLog.toString(), parsedResult.toString());
+	}
+
+	@Test
+	final void testParseFromNullLogLine() {
+		assertThrows(ParseException.class, () -> fastAccessLogParser.parseFromLogLine(null));
+	}
+
+	@Test
+	final void testParseFromBadLogLine() {
+		assertThrows(ParseException.class, () -> fastAccessLogParser.parseFromLogLine("BAD LOG LINE"));
+	}
+
+	@Test
+	final void testSameResultAsRegexParserOnEdgeCases() {
+		List<String> logLines = Arrays.asList(
+				VALID_LOG_LINE + " trailing characters",
+				VALID_LOG_LINE.replace("HTTP/1.0\"", "HTTP/\"1.0\""),
+				VALID_LOG_LINE.replace("\"GET", "\"\"GET"),
+				VALID_LOG_LINE.replace(" +0000", "\t+0000"),
+				VALID_LOG_LINE.replace("+0000", "+00000"),
+				VALID_LOG_LINE.replace("+0000", "+000"),
+				VALID_LOG_LINE.replace("+0000", "+1899"),
+				VALID_LOG_LINE.replace(" 200 ", " 2000 "),
+				VALID_LOG_LINE.replace(" 200 ", " 20 "),
+				VALID_LOG_LINE.replace(" 123", " 123456789012345678901234"),
+				VALID_LOG_LINE.replace(" 123", " 12a"),
+				VALID_LOG_LINE.replace(" 123", " a12"),
+				VALID_LOG_LINE.replace("May", "Foo"),
+				VALID_LOG_LINE.replace("May", "MAY"),
+				VALID_LOG_LINE.replace("09/May", "31/Feb"),
+				VALID_LOG_LINE.replace("16:00:39", "24:00:00"),
+				VALID_LOG_LINE.replace("2018", "12018"),
+				VALID_LOG_LINE.replace("127.0.0.1", "127.0.0.1\t"),
+				VALID_LOG_LINE.replace(" - ", "  "),
+				VALID_LOG_LINE.replace("\" 200", "\"200"),
+				VALID_LOG_LINE.substring(0, VALID_LOG_LINE.length() - 3),
+				" " + VALID_LOG_LINE,
+				""
+		);
+
+		for (String logLine : logLines) {
+			assertSameResult(logLine);
+		}
+	}
+
+	@Test
+	final void testSameResultAsRegexParserOnGeneratedCorpus() {
+		Random random = new Random(42);
+
+		for (int i = 0; i < 2_000; ++i) {
+			String logLine = LogGenerator.generateLogLine(false);
+			assertSameResult(logLine);
+			assertSameResult(mutate(logLine, random));
+		}
+	}
+
+	private String mutate(String logLine, Random random) {
+		StringBuilder stringBuilder = new StringBuilder(logLine);
+		int position = random.nextInt(stringBuilder.length());
+		char character = MUTATION_CHARACTERS.charAt(random.nextInt(MUTATION_CHARACTERS.length()));
+
+		switch (random.nextInt(3)) {
+			case 0:
+				stringBuilder.deleteCharAt(position);
+				break;
+			case 1:
+				stringBuilder.insert(position, character);
+				break;
+			default:
+				stringBuilder.setCharAt(position, character);
+				break;
+		}
+
+		return stringBuilder.toString();
+	}
+
+	// The regex parser lets some RuntimeExceptions go through (invalid dates for instance), they count as a rejected log line
+	private void assertSameResult(String logLine) {
+		AccessLog expected = parseOrNull(accessLogParser, logLine);
+		AccessLog actual = parseOrNull(fastAccessLogParser, logLine);
+
+		if (expected == null && actual == null) {
+			return;
+		} else if (expected == null || actual == null) {
+			fail("Only one of the parsers accepted the log line |> " + logLine + " <|");
+		}
+
+		assertEquals(expected.toString(), actual.toString(), logLine);
+		assertEquals(expected.getInstant(), actual.getInstant(), logLine);
+		assertEquals(expected.getZonedDateTime(), actual.getZonedDateTime(), logLine);
+	}
+
+	private AccessLog parseOrNull(LogParser<AccessLog> logParser, String logLine) {
+		try {
+			return logParser.parseFromLogLine(logLine);
+		} catch (ParseException | RuntimeException e) {
+			return null;
+		}
+	}
+}
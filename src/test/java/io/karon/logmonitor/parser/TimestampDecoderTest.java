@@ -0,0 +1,96 @@
+package io.karon.logmonitor.parser;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.karon.logmonitor.log.AccessLog;
+
+
+class TimestampDecoderTest {
+	private TimestampDecoder timestampDecoder;
+
+	@BeforeEach
+	void beforeEach() {
+		timestampDecoder = new TimestampDecoder();
+	}
+
+	@Test
+	void sameResultAsDateTimeFormatterTest() throws ParseException {
+		Random random = new Random(42);
+
+		for (int i = 0; i < 10_000; ++i) {
+			ZonedDateTime zonedDateTime = ZonedDateTime.ofInstant(
+					Instant.ofEpochSecond(random.nextInt(Integer.MAX_VALUE) * 2L),
+					ZoneOffset.ofTotalSeconds((random.nextInt(18 * 4 * 2 + 1) - 18 * 4) * 15 * 60)
+			);
+
+			assertSameResult(AccessLog.DATE_TIME_FORMATTER.format(zonedDateTime));
+		}
+	}
+
+	@Test
+	void sameResultAsDateTimeFormatterOnEdgeCasesTest() throws ParseException {
+		List<String> zonedDateTimes = Arrays.asList(
+				"29/Feb/2016:23:59:59 +0000",
+				"31/Feb/2019:10:00:00 +0000",
+				"24/Jul/2019:24:00:00 +0200",
+				"01/Jan/1970:00:00:00 -0000",
+				"31/Dec/1969:23:59:59 -1800"
+		);
+
+		for (String zonedDateTime : zonedDateTimes) {
+			assertSameResult(zonedDateTime);
+		}
+	}
+
+	@Test
+	void consecutiveSecondsTest() throws ParseException {
+		assertSameResult("14/Jul/2019:14:42:22 +0200");
+		assertSameResult("14/Jul/2019:14:42:23 +0200");
+		assertSameResult("14/Jul/2019:14:42:23 +0100");
+		assertSameResult("14/Jul/2019:14:43:23 +0100");
+	}
+
+	@Test
+	void sameZonedDateTimeReturnedForSameTextTest() throws ParseException {
+		String text = "[14/Jul/2019:14:42:22 +0200]";
+
+		ZonedDateTime zonedDateTime = timestampDecoder.decode(text, 1, text.length() - 1);
+
+		assertSame(zonedDateTime, timestampDecoder.decode(text, 1, text.length() - 1));
+	}
+
+	@Test
+	void invalidDatesTest() {
+		List<String> zonedDateTimes = Arrays.asList(
+				"14/Foo/2019:14:42:22 +0200",
+				"14/Jul/2019:14:42:60 +0200",
+				"14/Jul/2019:14:42:22 +1900",
+				"14/Jul/2019:14:42:22\t+0200",
+				"14/Jul/2019:14:42 +0200"
+		);
+
+		for (String zonedDateTime : zonedDateTimes) {
+			assertThrows(ParseException.class, () -> timestampDecoder.decode(zonedDateTime, 0, zonedDateTime.length()));
+		}
+	}
+
+	private void assertSameResult(String zonedDateTime) throws ParseException {
+		assertEquals(
+				ZonedDateTime.parse(zonedDateTime, AccessLog.DATE_TIME_FORMATTER),
+				timestampDecoder.decode(zonedDateTime, 0, zonedDateTime.length()),
+				zonedDateTime
+		);
+	}
+}